@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:io';
+import 'dart:math' as math;
+
+/// A single benchmarked operation.
+/// <p>
+/// {@link #setup} builds the inputs, outside the measured time.
+/// {@link #run} performs one operation and returns its result,
+/// which the harness keeps so the work cannot be optimized away.
+abstract class Benchmark {
+  final String name;
+
+  Benchmark(this.name);
+
+  /// Prepares the inputs for the benchmark.
+  void setup() {}
+
+  /// Performs one operation.
+  ///
+  /// @return the result of the operation
+  Object? run();
+
+  /// Releases the inputs of the benchmark.
+  void teardown() {}
+}
+
+/// A {@link Benchmark} defined by a pair of functions.
+class FunctionBenchmark extends Benchmark {
+ /**private */final void Function()? setupFn;
+ /**private */final Object? Function() runFn;
+
+  FunctionBenchmark(String name, this.runFn, [this.setupFn]) : super(name);
+
+  @override
+  void setup() => setupFn?.call();
+
+  @override
+  Object? run() => runFn();
+}
+
+/// The measurements of one benchmark.
+class BenchmarkResult {
+  final String name;
+
+  /// The throughput of each measured iteration, in operations per second.
+  final List<double> throughput;
+
+  /// The growth of the resident set size over the measured iterations, in bytes.
+  final int rssGrowth;
+
+  /// The peak resident set size of the process after the benchmark, in bytes.
+  final int maxRss;
+
+  BenchmarkResult(this.name, this.throughput, this.rssGrowth, this.maxRss);
+
+  double getMean() {
+    double sum = 0;
+    for (double t in throughput) {
+      sum += t;
+    }
+    return sum / throughput.length;
+  }
+
+  /// Gets the sample standard deviation of the iteration throughputs.
+  double getStdDev() {
+    if (throughput.length < 2) return 0;
+    double mean = getMean();
+    double sumSq = 0;
+    for (double t in throughput) {
+      sumSq += (t - mean) * (t - mean);
+    }
+    return math.sqrt(sumSq / (throughput.length - 1));
+  }
+
+  @override
+  String toString() {
+    double mean = getMean();
+    return name.padRight(40) +
+        mean.toStringAsFixed(1).padLeft(14) + " ops/s" +
+        (" ± " + getStdDev().toStringAsFixed(1)).padLeft(14) +
+        (1e6 / mean).toStringAsFixed(2).padLeft(12) + " us/op" +
+        formatBytes(rssGrowth).padLeft(12) + " rss" +
+        formatBytes(maxRss).padLeft(12) + " peak";
+  }
+
+ /**private */static String formatBytes(int bytes) {
+    String sign = bytes < 0 ? "-" : "+";
+    return sign + (bytes.abs() / (1024 * 1024)).toStringAsFixed(1) + " MB";
+  }
+}
+
+/// Runs {@link Benchmark}s in the style of JMH:
+/// a number of warmup iterations, whose timings are discarded,
+/// followed by a number of measured iterations.
+/// Each iteration calls the operation repeatedly for a fixed time
+/// and records the throughput achieved.
+/// <p>
+/// The VM does not expose per-operation allocation counts without
+/// the VM service, so memory is reported as the growth of the
+/// resident set size over the measured iterations,
+/// together with the peak resident set size.
+/// Run each benchmark file in its own process for comparable memory figures.
+class BenchmarkRunner {
+  static const int DEFAULT_WARMUP_ITERATIONS = 5;
+  static const int DEFAULT_ITERATIONS = 10;
+  static const Duration DEFAULT_ITERATION_TIME = Duration(milliseconds: 500);
+
+  final int warmupIterations;
+  final int iterations;
+  final Duration iterationTime;
+
+  /// Holds the last result of each operation, so it is not dead code.
+  static Object? sink;
+
+  BenchmarkRunner([this.warmupIterations = DEFAULT_WARMUP_ITERATIONS,
+      this.iterations = DEFAULT_ITERATIONS,
+      this.iterationTime = DEFAULT_ITERATION_TIME]);
+
+  /// Creates a runner from command-line arguments of the form
+  /// <code>--warmup=N</code>, <code>--iterations=N</code> and <code>--time=MILLIS</code>.
+  /// Other arguments are ignored.
+  factory BenchmarkRunner.fromArgs(List<String> args) {
+    int warmup = DEFAULT_WARMUP_ITERATIONS;
+    int iterations = DEFAULT_ITERATIONS;
+    Duration time = DEFAULT_ITERATION_TIME;
+    for (String arg in args) {
+      if (arg.startsWith("--warmup=")) {
+        warmup = int.parse(arg.substring("--warmup=".length));
+      }
+      else if (arg.startsWith("--iterations=")) {
+        iterations = int.parse(arg.substring("--iterations=".length));
+      }
+      else if (arg.startsWith("--time=")) {
+        time = Duration(milliseconds: int.parse(arg.substring("--time=".length)));
+      }
+    }
+    return BenchmarkRunner(warmup, iterations, time);
+  }
+
+  /// Runs a benchmark and reports its measurements.
+  ///
+  /// @param benchmark the benchmark to run
+  /// @return the measurements
+  BenchmarkResult measure(Benchmark benchmark) {
+    benchmark.setup();
+    try {
+      for (int i = 0; i < warmupIterations; i++) {
+        runIteration(benchmark);
+      }
+      int startRss = ProcessInfo.currentRss;
+      List<double> throughput = [];
+      for (int i = 0; i < iterations; i++) {
+        throughput.add(runIteration(benchmark));
+      }
+      int rssGrowth = ProcessInfo.currentRss - startRss;
+      return BenchmarkResult(benchmark.name, throughput, rssGrowth, ProcessInfo.maxRss);
+    }
+    finally {
+      benchmark.teardown();
+    }
+  }
+
+  /// Runs a list of benchmarks, printing each result as it completes.
+  /// If filters are given, only benchmarks whose name contains
+  /// one of them are run.
+  ///
+  /// @param benchmarks the benchmarks to run
+  /// @param args the command-line arguments
+  /// @return the measurements
+  List<BenchmarkResult> runAll(List<Benchmark> benchmarks, [List<String> args = const []]) {
+    List<String> filters = args.where((arg) => !arg.startsWith("--")).toList();
+    List<BenchmarkResult> results = [];
+    for (Benchmark benchmark in benchmarks) {
+      if (filters.isNotEmpty && !filters.any((f) => benchmark.name.contains(f))) {
+        continue;
+      }
+      BenchmarkResult result = measure(benchmark);
+      print(result);
+      results.add(result);
+    }
+    return results;
+  }
+
+  /// Runs the operation for one iteration.
+  ///
+  /// @return the throughput in operations per second
+ /**private */double runIteration(Benchmark benchmark) {
+    int limit = iterationTime.inMicroseconds;
+    Stopwatch sw = Stopwatch()..start();
+    int ops = 0;
+    do {
+      sink = benchmark.run();
+      ops++;
+    } while (sw.elapsedMicroseconds < limit);
+    return ops * 1e6 / sw.elapsedMicroseconds;
+  }
+}
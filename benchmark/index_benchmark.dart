@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/src/index/hprtree/HPRtree.dart';
+import 'package:jtscore4dart/src/index/strtree/STRtree.dart';
+
+import 'harness.dart';
+import 'inputs.dart';
+
+/// Benchmarks for building and querying {@link STRtree} and {@link HPRtree}.
+List<Benchmark> indexBenchmarks() {
+  const int numItems = 100000;
+  const int numQueries = 1000;
+  const double extentSize = 10000;
+
+  late List<Envelope> items;
+  late List<Envelope> queries;
+  late STRtree strTree;
+  late HPRtree hprTree;
+  void setup() {
+    items = BenchmarkInputs.randomEnvelopes(numItems, extentSize, 20);
+    queries = BenchmarkInputs.randomEnvelopes(numQueries, extentSize, 200, 99);
+    strTree = buildSTRtree(items);
+    hprTree = buildHPRtree(items);
+  }
+
+  return [
+    FunctionBenchmark("STRtree.build", () => buildSTRtree(items), setup),
+    FunctionBenchmark("HPRtree.build", () => buildHPRtree(items), setup),
+    FunctionBenchmark("STRtree.query", () {
+      int count = 0;
+      for (Envelope q in queries) {
+        count += strTree.query(q).length;
+      }
+      return count;
+    }, setup),
+    FunctionBenchmark("HPRtree.query", () {
+      int count = 0;
+      for (Envelope q in queries) {
+        count += hprTree.query(q).length;
+      }
+      return count;
+    }, setup),
+  ];
+}
+
+STRtree buildSTRtree(List<Envelope> items) {
+  STRtree tree = STRtree();
+  for (int i = 0; i < items.length; i++) {
+    tree.insert(items[i], i);
+  }
+  tree.build();
+  return tree;
+}
+
+HPRtree buildHPRtree(List<Envelope> items) {
+  HPRtree tree = HPRtree();
+  for (int i = 0; i < items.length; i++) {
+    tree.insert(items[i], i);
+  }
+  tree.build();
+  return tree;
+}
+
+void main(List<String> args) {
+  BenchmarkRunner.fromArgs(args).runAll(indexBenchmarks(), args);
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:math' as math;
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/src/shape/random/RandomPointsBuilder.dart';
+import 'package:jtscore4dart/src/shape/random/RandomPointsInGridBuilder.dart';
+
+/// Reproducible benchmark inputs.
+/// Every generator takes a seed, so repeated runs see identical geometries.
+class BenchmarkInputs {
+  static const int DEFAULT_SEED = 1234;
+
+  static final GeometryFactory factory = GeometryFactory();
+
+  /// Creates a circular polygon.
+  ///
+  /// @param x the x ordinate of the centre
+  /// @param y the y ordinate of the centre
+  /// @param size the diameter
+  /// @param numPts the number of vertices
+  static Polygon circle(double x, double y, double size, int numPts) {
+    return supercircle(x, y, size, numPts, 2);
+  }
+
+  /// Creates a squircle polygon.
+  static Polygon squircle(double x, double y, double size, int numPts) {
+    return supercircle(x, y, size, numPts, 4);
+  }
+
+  /// Creates a polygon whose vertices lie on the supercircle
+  /// |x|^power + |y|^power = r^power, in counter-clockwise order.
+  static Polygon supercircle(double x, double y, double size, int numPts, double power) {
+    double radius = size / 2;
+    double exponent = 2 / power;
+    List<Coordinate> pts = [];
+    for (int i = 0; i < numPts; i++) {
+      double angle = 2 * math.pi * i / numPts;
+      double cos = math.cos(angle);
+      double sin = math.sin(angle);
+      pts.add(Coordinate(x + radius * cos.sign * math.pow(cos.abs(), exponent),
+          y + radius * sin.sign * math.pow(sin.abs(), exponent)));
+    }
+    pts.add(pts[0].copy());
+    return factory.createPolygonFromCoords(pts);
+  }
+
+  /// Creates random points in a square extent.
+  ///
+  /// @param numPts the number of points
+  /// @param extentSize the side length of the extent
+  static List<Coordinate> randomPoints(int numPts, double extentSize, [int seed = DEFAULT_SEED]) {
+    RandomPointsBuilder builder = RandomPointsBuilder(factory, math.Random(seed));
+    builder.setExtent(Envelope(0, extentSize, 0, extentSize));
+    builder.setNumPoints(numPts);
+    return builder.getGeometry().getCoordinates();
+  }
+
+  /// Creates random points spread evenly over a square extent,
+  /// one in each cell of a grid.
+  static List<Coordinate> randomGridPoints(int numPts, double extentSize, [int seed = DEFAULT_SEED]) {
+    RandomPointsInGridBuilder builder = RandomPointsInGridBuilder(factory, math.Random(seed));
+    builder.setExtent(Envelope(0, extentSize, 0, extentSize));
+    builder.setNumPoints(numPts);
+    return builder.getGeometry().getCoordinates();
+  }
+
+  /// Creates overlapping circles and squircles of varying size
+  /// centred on random points.
+  ///
+  /// @param numPolys the number of polygons
+  /// @param extentSize the side length of the extent holding the centres
+  /// @param polySize the mean diameter of the polygons
+  /// @param numPts the number of vertices of each polygon
+  static List<Polygon> randomPolygons(int numPolys, double extentSize, double polySize,
+      int numPts, [int seed = DEFAULT_SEED]) {
+    math.Random random = math.Random(seed);
+    List<Coordinate> centres = randomPoints(numPolys, extentSize, seed);
+    List<Polygon> polys = [];
+    for (int i = 0; i < centres.length; i++) {
+      double size = polySize * (0.5 + random.nextDouble());
+      Coordinate c = centres[i];
+      polys.add(i.isEven
+          ? circle(c.x, c.y, size, numPts)
+          : squircle(c.x, c.y, size, numPts));
+    }
+    return polys;
+  }
+
+  /// Creates random small envelopes, as index items.
+  ///
+  /// @param numItems the number of envelopes
+  /// @param extentSize the side length of the extent
+  /// @param maxSize the maximum side length of each envelope
+  static List<Envelope> randomEnvelopes(int numItems, double extentSize, double maxSize,
+      [int seed = DEFAULT_SEED]) {
+    math.Random random = math.Random(seed);
+    List<Coordinate> pts = randomGridPoints(numItems, extentSize, seed);
+    return List.generate(numItems, (i) {
+      Coordinate p = pts[i];
+      return Envelope(p.x, p.x + maxSize * random.nextDouble(),
+          p.y, p.y + maxSize * random.nextDouble());
+    });
+  }
+}
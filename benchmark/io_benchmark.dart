@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequenceFactory.dart';
+
+import 'harness.dart';
+import 'inputs.dart';
+
+/// Benchmarks for reading and writing Well-Known Text,
+/// and reading Well-Known Binary.
+List<Benchmark> ioBenchmarks() {
+  late Geometry polygon;
+  late Geometry multiPolygon;
+  late String polygonWKT;
+  late String multiPolygonWKT;
+  late Uint8List polygonWKB;
+  late Uint8List multiPolygonWKB;
+  void setup() {
+    polygon = BenchmarkInputs.circle(0, 0, 100, 1000);
+    multiPolygon = BenchmarkInputs.factory.createMultiPolygon(
+        BenchmarkInputs.randomPolygons(200, 1000, 80, 64));
+    WKTWriter writer = WKTWriter();
+    polygonWKT = writer.write(polygon);
+    multiPolygonWKT = writer.write(multiPolygon);
+    polygonWKB = toWKB(polygon);
+    multiPolygonWKB = toWKB(multiPolygon);
+  }
+
+  return [
+    FunctionBenchmark("WKTReader.polygon", () => WKTReader().read(polygonWKT), setup),
+    FunctionBenchmark("WKTReader.multiPolygon", () => WKTReader().read(multiPolygonWKT), setup),
+    FunctionBenchmark("WKTReader.multiPolygon.packed", () => WKTReader.withFactory(
+        GeometryFactory.withCoordinateSequenceFactory(PackedCoordinateSequenceFactory.DOUBLE_FACTORY))
+        .read(multiPolygonWKT), setup),
+    FunctionBenchmark("WKTReader.multiPolygon.tokenizer",
+        () => WKTReader().readGeometryTaggedText(WKTTokenizer(multiPolygonWKT)), setup),
+    FunctionBenchmark("WKBReader.polygon", () => WKBReader().read(polygonWKB), setup),
+    FunctionBenchmark("WKBReader.multiPolygon", () => WKBReader().read(multiPolygonWKB), setup),
+    FunctionBenchmark("WKTWriter.polygon", () => WKTWriter().write(polygon), setup),
+    FunctionBenchmark("WKTWriter.multiPolygon", () => WKTWriter().write(multiPolygon), setup),
+  ];
+}
+
+/// Encodes a polygonal geometry as little-endian 2D WKB.
+Uint8List toWKB(Geometry geom) {
+  BytesBuilder bytes = BytesBuilder();
+  ByteData word = ByteData(8);
+  void writeInt(int v) {
+    word.setInt32(0, v, Endian.little);
+    bytes.add(word.buffer.asUint8List(0, 4));
+  }
+  void writeRing(LineString ring) {
+    writeInt(ring.getNumPoints());
+    for (Coordinate c in ring.getCoordinates()) {
+      word.setFloat64(0, c.x, Endian.little);
+      bytes.add(word.buffer.asUint8List(0, 8));
+      word.setFloat64(0, c.y, Endian.little);
+      bytes.add(word.buffer.asUint8List(0, 8));
+    }
+  }
+  void writePolygon(Polygon poly) {
+    bytes.addByte(1);
+    writeInt(3);
+    writeInt(1 + poly.getNumInteriorRing());
+    writeRing(poly.getExteriorRing());
+    for (int i = 0; i < poly.getNumInteriorRing(); i++) {
+      writeRing(poly.getInteriorRingN(i));
+    }
+  }
+
+  if (geom is Polygon) {
+    writePolygon(geom);
+  }
+  else {
+    bytes.addByte(1);
+    writeInt(6);
+    writeInt(geom.getNumGeometries());
+    for (int i = 0; i < geom.getNumGeometries(); i++) {
+      writePolygon(geom.getGeometryN(i) as Polygon);
+    }
+  }
+  return bytes.toBytes();
+}
+
+void main(List<String> args) {
+  BenchmarkRunner.fromArgs(args).runAll(ioBenchmarks(), args);
+}
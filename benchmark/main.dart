@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+import 'harness.dart';
+import 'index_benchmark.dart';
+import 'io_benchmark.dart';
+import 'overlay_benchmark.dart';
+import 'predicate_benchmark.dart';
+
+/// Runs the whole benchmark suite.
+/// <p>
+/// Usage: <code>dart run benchmark/main.dart [--warmup=N] [--iterations=N] [--time=MILLIS] [name filter...]</code>
+/// <p>
+/// Each benchmark file can also be run on its own, with the same arguments.
+void main(List<String> args) {
+  BenchmarkRunner.fromArgs(args).runAll([
+    ...overlayBenchmarks(),
+    ...predicateBenchmarks(),
+    ...indexBenchmarks(),
+    ...ioBenchmarks(),
+  ], args);
+}
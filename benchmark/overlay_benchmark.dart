@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/src/operation/buffer/BufferOp.dart';
+import 'package:jtscore4dart/src/operation/overlayng/OverlayNG.dart';
+import 'package:jtscore4dart/src/operation/union/CascadedPolygonUnion.dart';
+
+import 'harness.dart';
+import 'inputs.dart';
+
+/// Benchmarks for the constructive operations:
+/// {@link OverlayNG}, {@link BufferOp} and {@link CascadedPolygonUnion}.
+List<Benchmark> overlayBenchmarks() {
+  late Polygon a;
+  late Polygon b;
+  void setupPair() {
+    a = BenchmarkInputs.circle(0, 0, 100, 1000);
+    b = BenchmarkInputs.squircle(30, 20, 100, 1000);
+  }
+
+  late List<Polygon> polys;
+  late Geometry collection;
+  void setupPolys() {
+    polys = BenchmarkInputs.randomPolygons(200, 1000, 80, 64);
+    collection = BenchmarkInputs.factory.createMultiPolygon(polys);
+  }
+
+  return [
+    FunctionBenchmark("OverlayNG.intersection", () => OverlayNG.overlay(a, b, OverlayNG.INTERSECTION), setupPair),
+    FunctionBenchmark("OverlayNG.union", () => OverlayNG.overlay(a, b, OverlayNG.UNION), setupPair),
+    FunctionBenchmark("OverlayNG.difference", () => OverlayNG.overlay(a, b, OverlayNG.DIFFERENCE), setupPair),
+    FunctionBenchmark("OverlayNG.symDifference", () => OverlayNG.overlay(a, b, OverlayNG.SYMDIFFERENCE), setupPair),
+    FunctionBenchmark("BufferOp.polygon", () => BufferOp.bufferOp(a, 10), setupPair),
+    FunctionBenchmark("BufferOp.polygonNegative", () => BufferOp.bufferOp(b, -10), setupPair),
+    FunctionBenchmark("BufferOp.multiPolygon", () => BufferOp.bufferOp(collection, 5), setupPolys),
+    FunctionBenchmark("CascadedPolygonUnion", () => CascadedPolygonUnion.of(polys), setupPolys),
+  ];
+}
+
+void main(List<String> args) {
+  BenchmarkRunner.fromArgs(args).runAll(overlayBenchmarks(), args);
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/src/operation/relate/RelateOp.dart';
+import 'package:jtscore4dart/src/operation/valid/IsValidOp.dart';
+
+import 'harness.dart';
+import 'inputs.dart';
+
+/// Benchmarks for {@link IsValidOp} and {@link RelateOp}.
+List<Benchmark> predicateBenchmarks() {
+  late Polygon a;
+  late Polygon b;
+  late Polygon disjoint;
+  late Geometry collection;
+  void setup() {
+    a = BenchmarkInputs.circle(0, 0, 100, 1000);
+    b = BenchmarkInputs.squircle(30, 20, 100, 1000);
+    disjoint = BenchmarkInputs.circle(500, 500, 100, 1000);
+    // disjoint polygons, so the collection is a valid MultiPolygon
+    List<Polygon> polys = [];
+    for (int i = 0; i < 20; i++) {
+      for (int j = 0; j < 20; j++) {
+        polys.add(BenchmarkInputs.circle(i * 10.0, j * 10.0, 8, 64));
+      }
+    }
+    collection = BenchmarkInputs.factory.createMultiPolygon(polys);
+  }
+
+  return [
+    FunctionBenchmark("IsValidOp.polygon", () => IsValidOp.of(a), setup),
+    FunctionBenchmark("IsValidOp.multiPolygon", () => IsValidOp.of(collection), setup),
+    FunctionBenchmark("RelateOp.overlapping", () => RelateOp.relate(a, b), setup),
+    FunctionBenchmark("RelateOp.disjoint", () => RelateOp.relate(a, disjoint), setup),
+  ];
+}
+
+void main(List<String> args) {
+  BenchmarkRunner.fromArgs(args).runAll(predicateBenchmarks(), args);
+}
@@ -5,6 +5,7 @@ export 'src/geom/CoordinateArrays.dart';
 export 'src/geom/CoordinateList.dart';
 export 'src/geom/CoordinateSequence.dart';
 export 'src/geom/Envelope.dart';
+export 'src/geom/ImmutableEnvelope.dart';
 export 'src/geom/Geometry.dart';
 export 'src/geom/GeometryCollection.dart';
 export "src/geom/GeometryFactory.dart";
@@ -19,3 +20,6 @@ export 'src/geom/Point.dart';
 export 'src/geom/Polygon.dart';
 export 'src/geom/Position.dart';
 export 'src/geom/PrecisionModel.dart';
+export 'src/geom/prep/PreparedGeometry.dart';
+export 'src/geom/prep/PreparedGeometryCache.dart';
+export 'src/geom/prep/PreparedGeometryFactory.dart';
@@ -1,3 +1,6 @@
 library index;
 
 export 'src/index/strtree/STRtree.dart';
+export 'src/index/hprtree/PackedHPRtree.dart';
+export 'src/index/PackedIndex.dart';
+export 'src/index/rstartree/RStarTree.dart';
@@ -1,11 +1,26 @@
-import 'package:intl/intl.dart';
-
 import 'geometry.dart';
 import 'src/geom/CoordinateSequenceFilter.dart';
 import 'src/geom/CoordinateSequenceFactory.dart';
 import 'src/geom/impl/CoordinateArraySequenceFactory.dart';
+import 'src/io/OrdinateFormat.dart';
+import 'src/io/WKTParser.dart';
 import 'src/utils.dart';
 
+export 'src/io/ByteOrderValues.dart';
+export 'src/io/OrdinateFormat.dart';
+export 'src/io/ParseException.dart';
+export 'src/io/WKBCoordinateSequence.dart';
+export 'src/io/WKBReader.dart';
+export 'src/io/WKBStreamReader.dart';
+export 'src/io/WKTParser.dart';
+export 'src/io/geojson/GeoJsonConstants.dart';
+export 'src/io/geojson/GeoJsonFeature.dart';
+export 'src/io/geojson/GeoJsonReader.dart';
+export 'src/io/geojson/GeoJsonStreamReader.dart';
+export 'src/io/geojson/GeoJsonWriter.dart';
+export 'src/io/mvt/MVTEncoder.dart';
+export 'src/io/mvt/MVTLayer.dart';
+
 /// An enumeration of possible Well-Known-Text or Well-Known-Binary ordinates.
 /// <p>
 /// Intended to be used as an {@code List<Ordinate>}, optimized create methods have been provided for {@link #createXY()}, {@link #createXYM()}, {@link #createXYZ()} and {@link #createXYZM()}.
@@ -103,7 +118,7 @@ class WKTWriter {
   ///
   /// @return the WKT
   static String toPoint(Coordinate p0) {
-    return "POINT ( ${p0.x}  ${p0.y} )";
+    return "POINT ( " + format(p0) + " )";
   }
 
   /// Generates the WKT for a <tt>LINESTRING</tt>
@@ -123,9 +138,9 @@ class WKTWriter {
         if (i > 0) {
           buf.write(", ");
         }
-        buf.write(seq.getX(i));
+        OrdinateFormat.DEFAULT.write(seq.getX(i), buf);
         buf.write(" ");
-        buf.write(seq.getY(i));
+        OrdinateFormat.DEFAULT.write(seq.getY(i), buf);
       }
       buf.write(")");
     }
@@ -147,9 +162,9 @@ class WKTWriter {
       buf.write("(");
       for (int i = 0; i < coord.length; i++) {
         if (i > 0) buf.write(", ");
-        buf.write(coord[i].x);
+        OrdinateFormat.DEFAULT.write(coord[i].x, buf);
         buf.write(" ");
-        buf.write(coord[i].y);
+        OrdinateFormat.DEFAULT.write(coord[i].y, buf);
       }
       buf.write(")");
     }
@@ -164,29 +179,25 @@ class WKTWriter {
   ///
   /// @return the WKT
   static String toLineStringFromCoords(Coordinate p0, Coordinate p1) {
-    return "LINESTRING ( ${p0.x} ${p0.y}, ${p1.x} ${p1.y} )";
+    return "LINESTRING ( " + format(p0) + ", " + format(p1) + " )";
+  }
+
+  /**private */static String format(Coordinate p) {
+    return OrdinateFormat.DEFAULT.format(p.x) + " " + OrdinateFormat.DEFAULT.format(p.y);
   }
 
   static const int INDENT = 2;
   static const int OUTPUT_DIMENSION = 2;
 
-  ///  Creates the <code>NumberFormat</code> used to write <code>double</code>s
+  ///  Creates the <code>OrdinateFormat</code> used to write <code>double</code>s
   ///  with a sufficient number of decimal places.
   ///
   ///@param  [precisionModel]  the <code>PrecisionModel</code> used to determine
   ///      the number of decimal places to write.
-  ///@return                 a <code>NumberFormat</code> that write <code>double</code>
+  ///@return                 an <code>OrdinateFormat</code> that write <code>double</code>
   ///      s without scientific notation.
-  static NumberFormat createFormatter(PrecisionModel precisionModel) {
-    // the default number of decimal places is 16, which is sufficient
-    // to accommodate the maximum precision of a double.
-    int decimalPlaces = precisionModel.getMaximumSignificantDigits();
-    // specify decimal separator explicitly to avoid problems in other locales
-//    NumberFormatSymbols symbols = NumberFormatSymbols();
-//    symbols.setDecimalSeparator('.');
-    String fmtString =
-        "0" + (decimalPlaces > 0 ? "." : "") + stringOfChar('#', decimalPlaces);
-    return NumberFormat(fmtString);
+  static OrdinateFormat createFormatter(PrecisionModel precisionModel) {
+    return OrdinateFormat.forPrecisionModel(precisionModel);
   }
 
   ///  Returns a <code>String</code> of repeated characters.
@@ -385,7 +396,7 @@ class WKTWriter {
     precisionModel ??= geometry.getPrecisionModel();
 
     // create the formatter
-    NumberFormat formatter = createFormatter(precisionModel);
+    OrdinateFormat formatter = createFormatter(precisionModel);
 
     // append the WKT
     appendGeometryTaggedText(geometry, useFormatting, writer, formatter);
@@ -397,10 +408,10 @@ class WKTWriter {
   /// @param  geometry           the <code>Geometry</code> to process
   /// @param  useFormatting      flag indicating that the output should be formatted
   /// @param  writer             the output writer to append to
-  /// @param  formatter       the <code>NumberFormatter</code> to use to convert
+  /// @param  formatter       the <code>OrdinateFormat</code> to use to convert
   ///      from a precise coordinate to an external coordinate
   void appendGeometryTaggedText(Geometry geometry, bool useFormatting,
-      StringBuffer writer, NumberFormat formatter) {
+      StringBuffer writer, OrdinateFormat formatter) {
     // evaluate the ordinates actually present in the geometry
     CheckOrdinatesFilter cof = CheckOrdinatesFilter(this.outputOrdinates);
     geometry.applyCoordSeq(cof);
@@ -417,7 +428,7 @@ class WKTWriter {
   /// @param  useFormatting      flag indicating that the output should be formatted
   /// @param  level              the indentation level
   /// @param  writer             the output writer to append to
-  /// @param  formatter       the <code>NumberFormatter</code> to use to convert
+  /// @param  formatter       the <code>OrdinateFormat</code> to use to convert
   ///      from a precise coordinate to an external coordinate
   void appendGeometryTaggedText6Args(
       Geometry geometry,
@@ -425,7 +436,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     indent(useFormatting, level, writer);
 
     if (geometry is Point) {
@@ -472,7 +483,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     writer.write("POINT ");
     appendOrdinateText(outputOrdinates, writer);
     appendSequenceText(point.getCoordinateSequence(), outputOrdinates,
@@ -486,7 +497,7 @@ class WKTWriter {
   /// @param  useFormatting      flag indicating that the output should be formatted
   /// @param  level              the indentation level
   /// @param  writer             the output writer to append to
-  /// @param  formatter       the <code>NumberFormatter</code> to use to convert
+  /// @param  formatter       the <code>OrdinateFormat</code> to use to convert
   ///      from a precise coordinate to an external coordinate
   void appendLineStringTaggedText(
       LineString lineString,
@@ -494,7 +505,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     writer.write("LINESTRING ");
     appendOrdinateText(outputOrdinates, writer);
     appendSequenceText(lineString.getCoordinateSequence(), outputOrdinates,
@@ -508,7 +519,7 @@ class WKTWriter {
   /// @param  useFormatting      flag indicating that the output should be formatted
   /// @param  level              the indentation level
   /// @param  writer             the output writer to append to
-  /// @param  formatter       the <code>NumberFormatter</code> to use to convert
+  /// @param  formatter       the <code>OrdinateFormat</code> to use to convert
   ///      from a precise coordinate to an external coordinate
   void appendLinearRingTaggedText(
       LinearRing linearRing,
@@ -516,7 +527,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     writer.write("LINEARRING ");
     appendOrdinateText(outputOrdinates, writer);
     appendSequenceText(linearRing.getCoordinateSequence(), outputOrdinates,
@@ -530,7 +541,7 @@ class WKTWriter {
   /// @param  useFormatting      flag indicating that the output should be formatted
   /// @param  level              the indentation level
   /// @param  writer             the output writer to append to
-  /// @param  formatter       the <code>NumberFormatter</code> to use to convert
+  /// @param  formatter       the <code>OrdinateFormat</code> to use to convert
   ///      from a precise coordinate to an external coordinate
   void appendPolygonTaggedText(
       Polygon polygon,
@@ -538,7 +549,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     writer.write("POLYGON ");
     appendOrdinateText(outputOrdinates, writer);
     appendPolygonText(polygon, outputOrdinates, useFormatting, level, false,
@@ -552,7 +563,7 @@ class WKTWriter {
   /// @param  useFormatting      flag indicating that the output should be formatted
   /// @param  level              the indentation level
   /// @param  writer             the output writer to append to
-  /// @param  formatter       the <code>NumberFormatter</code> to use to convert
+  /// @param  formatter       the <code>OrdinateFormat</code> to use to convert
   ///      from a precise coordinate to an external coordinate
   void appendMultiPointTaggedText(
       MultiPoint multipoint,
@@ -560,7 +571,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     writer.write("MULTIPOINT ");
     appendOrdinateText(outputOrdinates, writer);
     appendMultiPointText(
@@ -574,7 +585,7 @@ class WKTWriter {
   /// @param  useFormatting      flag indicating that the output should be formatted
   /// @param  level              the indentation level
   /// @param  writer             the output writer to append to
-  /// @param  formatter       the <code>NumberFormatter</code> to use to convert
+  /// @param  formatter       the <code>OrdinateFormat</code> to use to convert
   ///      from a precise coordinate to an external coordinate
   void appendMultiLineStringTaggedText(
       MultiLineString multiLineString,
@@ -582,7 +593,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     writer.write("MULTILINESTRING ");
     appendOrdinateText(outputOrdinates, writer);
     appendMultiLineStringText(multiLineString, outputOrdinates, useFormatting,
@@ -596,7 +607,7 @@ class WKTWriter {
   /// @param  useFormatting      flag indicating that the output should be formatted
   /// @param  level              the indentation level
   /// @param  writer             the output writer to append to
-  /// @param  formatter       the <code>NumberFormatter</code> to use to convert
+  /// @param  formatter       the <code>OrdinateFormat</code> to use to convert
   ///      from a precise coordinate to an external coordinate
   void appendMultiPolygonTaggedText(
       MultiPolygon multiPolygon,
@@ -604,7 +615,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     writer.write("MULTIPOLYGON ");
     appendOrdinateText(outputOrdinates, writer);
     appendMultiPolygonText(
@@ -618,7 +629,7 @@ class WKTWriter {
   /// @param  useFormatting      flag indicating that the output should be formatted
   /// @param  level              the indentation level
   /// @param  writer             the output writer to append to
-  /// @param  formatter       the <code>NumberFormatter</code> to use to convert
+  /// @param  formatter       the <code>OrdinateFormat</code> to use to convert
   ///      from a precise coordinate to an external coordinate
   void appendGeometryCollectionTaggedText(
       GeometryCollection geometryCollection,
@@ -626,7 +637,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     writer.write("GEOMETRYCOLLECTION ");
     appendOrdinateText(outputOrdinates, writer);
     appendGeometryCollectionText(geometryCollection, outputOrdinates,
@@ -646,24 +657,19 @@ class WKTWriter {
       List<Ordinate> outputOrdinates,
       int i,
       StringBuffer writer,
-      NumberFormat formatter) {
-    writer.write(writeNumber(seq.getX(i), formatter) +
-        " " +
-        writeNumber(seq.getY(i), formatter));
+      OrdinateFormat formatter) {
+    formatter.write(seq.getX(i), writer);
+    writer.write(" ");
+    formatter.write(seq.getY(i), writer);
 
     if (outputOrdinates.contains(Ordinate.Z)) {
-      double z = seq.getZ(i);
-      if (!z.isNaN) {
-        writer.write(" ");
-        writer.write(writeNumber(seq.getZ(i), formatter));
-      } else {
-        writer.write(" NaN");
-      }
+      writer.write(" ");
+      formatter.write(seq.getZ(i), writer);
     }
 
     if (outputOrdinates.contains(Ordinate.M)) {
       writer.write(" ");
-      writer.write(writeNumber(seq.getM(i), formatter));
+      formatter.write(seq.getM(i), writer);
     }
   }
 
@@ -673,10 +679,10 @@ class WKTWriter {
   ///@param  d  the <code>double</code> to convert
   ///@return    the <code>double</code> as a <code>String</code>, not in
   ///      scientific notation
-  static String writeNumber(double d, NumberFormat formatter) {
+  static String writeNumber(double d, OrdinateFormat formatter) {
     return formatter.format(d);
   }
-  // static String writeNumber(double d, NumberFormat formatter) {
+  // static String writeNumber(double d, OrdinateFormat formatter) {
   //   return formatter.format(d);
   // }
 
@@ -722,7 +728,7 @@ class WKTWriter {
       int level,
       bool indentFirst,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     if (seq.size() == 0) {
       writer.write("EMPTY");
     } else {
@@ -758,7 +764,7 @@ class WKTWriter {
       int level,
       bool indentFirst,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     if (polygon.isEmpty()) {
       writer.write("EMPTY");
     } else {
@@ -789,7 +795,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     if (multiPoint.isEmpty()) {
       writer.write("EMPTY");
     } else {
@@ -828,7 +834,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       /*bool indentFirst, */ StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     if (multiLineString.isEmpty()) {
       writer.write("EMPTY");
     } else {
@@ -869,7 +875,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     if (multiPolygon.isEmpty()) {
       writer.write("EMPTY");
     } else {
@@ -909,7 +915,7 @@ class WKTWriter {
       bool useFormatting,
       int level,
       StringBuffer writer,
-      NumberFormat formatter) {
+      OrdinateFormat formatter) {
     if (geometryCollection.isEmpty()) {
       writer.write("EMPTY");
     } else {
@@ -1449,20 +1455,17 @@ class WKTReader {
   /// Reads a Well-Known Text representation of a {@link Geometry}
   /// from a {@link String}.
   ///
+  /// The text is read in a single pass by a {@link WKTParser}.
+  ///
   /// @param wellKnownText
   ///            one or more &lt;Geometry Tagged Text&gt; strings (see the OpenGIS
   ///            Simple Features Specification) separated by whitespace
-  /// @return a <code>Geometry</code> specified by <code>wellKnownText</code>
-  /// @
+  /// @return a <code>Geometry</code> specified by <code>wellKnownText</code>,
+  ///            or null if the text is blank
+  /// @throws ParseException if a parsing problem occurs
   Geometry? read(String wellKnownText) {
-    return readGeometryTaggedText(WKTTokenizer(wellKnownText));
-//  StringReader reader = StringReader(wellKnownText);
-//  try {
-//  return read(reader);
-//  }
-//  finally {
-//  reader.close();
-//  }
+    return WKTParser(geometryFactory, isAllowOldJtsCoordinateSyntax,
+        isAllowOldJtsMultipointSyntax).parse(wellKnownText);
   }
 
   ///**
@@ -1,3 +1,4 @@
 library operation;
 
 export 'src/operation/overlayng/OverlayNGRobust.dart';
+export 'src/operation/join/SpatialJoin.dart';
@@ -10,7 +10,7 @@
  * http://www.eclipse.org/org/documents/edl-v10.php.
  */
 import 'package:jtscore4dart/src/algorithm/Area.dart';
-import 'package:jtscore4dart/src/algorithm/CGAlgorithmsDD.dart';
+import 'package:jtscore4dart/src/algorithm/RobustPredicates.dart';
 import 'package:jtscore4dart/src/geom/Coordinate.dart';
 import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
 import 'package:jtscore4dart/src/geom/impl/CoordinateArraySequence.dart';
@@ -85,8 +85,10 @@ class Orientation {
      * clear this is an appropriate patch.
      * 
      */
-    return CGAlgorithmsDD.orientationIndex(p1, p2, q);
+    return RobustPredicates.orientationIndex(p1.x, p1.y, p2.x, p2.y, q.x, q.y);
 
+    // previous implementation - allocates DD values when the filter fails
+    //return CGAlgorithmsDD.orientationIndex(p1, p2, q);
     // testing only
     //return ShewchuksDeterminant.orientationIndex(p1, p2, q);
     // previous implementation - not quite fully robust
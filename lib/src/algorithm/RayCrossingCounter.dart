@@ -112,7 +112,19 @@ class RayCrossingCounter
 	/**private */ bool isPointOnSegment = false;
 	
 	RayCrossingCounter(this.p);
-	
+
+  /**
+   * Resets the counter to count segments for a new test point,
+   * so that one counter can be reused for many points.
+   *
+   * @param [p] the new test point
+   */
+  void reset(Coordinate p) {
+    this.p = p;
+    crossingCount = 0;
+    isPointOnSegment = false;
+  }
+
 	/**
 	 * Counts a segment
 	 * 
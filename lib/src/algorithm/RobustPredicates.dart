@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:typed_data';
+
+/// Exact orientation and in-circle predicates,
+/// using the adaptive-precision floating-point expansion arithmetic
+/// of Jonathan Shewchuk
+/// ("Adaptive Precision Floating-Point Arithmetic and Fast Robust Geometric Predicates", 1997).
+/// <p>
+/// Each predicate first evaluates its determinant in double precision
+/// and returns it if an error bound shows the sign is correct.
+/// Otherwise the determinant is recomputed exactly
+/// as an <i>expansion</i> (a sum of non-overlapping doubles),
+/// so the sign of the result is always exact.
+/// The orientation predicate refines the result in stages,
+/// stopping as soon as the sign is certain.
+/// <p>
+/// Unlike the {@link DD} computations in {@link CGAlgorithmsDD},
+/// no objects are allocated: the expansions are held in
+/// preallocated buffers.
+/// The buffers are static, which is safe since each isolate
+/// has its own copy and the predicates do not call back into user code.
+/// <p>
+/// The predicates assume that no overflow or underflow occurs.
+class RobustPredicates {
+ /**private */RobustPredicates();
+
+  /// Half the machine epsilon (2<sup>-53</sup>)
+ /**private */static const double EPSILON = 1.1102230246251565e-16;
+
+  /// 2<sup>27</sup> + 1, used to split a double into two halves
+ /**private */static const double SPLITTER = 134217729.0;
+
+ /**private */static const double RESULT_ERR_BOUND = (3.0 + 8.0 * EPSILON) * EPSILON;
+ /**private */static const double CCW_ERR_BOUND_A = (3.0 + 16.0 * EPSILON) * EPSILON;
+ /**private */static const double CCW_ERR_BOUND_B = (2.0 + 12.0 * EPSILON) * EPSILON;
+ /**private */static const double CCW_ERR_BOUND_C = (9.0 + 64.0 * EPSILON) * EPSILON * EPSILON;
+ /**private */static const double ICC_ERR_BOUND_A = (10.0 + 96.0 * EPSILON) * EPSILON;
+
+  // buffers for orient2d
+ /**private */static final Float64List _b = new Float64List(4);
+ /**private */static final Float64List _u = new Float64List(4);
+ /**private */static final Float64List _c1 = new Float64List(8);
+ /**private */static final Float64List _c2 = new Float64List(12);
+ /**private */static final Float64List _d = new Float64List(16);
+
+  // buffers for inCircle
+ /**private */static final Float64List _adx = new Float64List(2);
+ /**private */static final Float64List _ady = new Float64List(2);
+ /**private */static final Float64List _bdx = new Float64List(2);
+ /**private */static final Float64List _bdy = new Float64List(2);
+ /**private */static final Float64List _cdx = new Float64List(2);
+ /**private */static final Float64List _cdy = new Float64List(2);
+ /**private */static final Float64List _m1 = new Float64List(8);
+ /**private */static final Float64List _m2 = new Float64List(8);
+ /**private */static final Float64List _det2 = new Float64List(16);
+ /**private */static final Float64List _lift = new Float64List(16);
+ /**private */static final Float64List _adet = new Float64List(512);
+ /**private */static final Float64List _bdet = new Float64List(512);
+ /**private */static final Float64List _cdet = new Float64List(512);
+ /**private */static final Float64List _abdet = new Float64List(1024);
+ /**private */static final Float64List _fin = new Float64List(1536);
+
+  // buffers for expansion products
+ /**private */static final Float64List _scaled = new Float64List(32);
+ /**private */static final Float64List _accA = new Float64List(512);
+ /**private */static final Float64List _accB = new Float64List(512);
+
+  /// Computes the orientation index of a point q relative to
+  /// the vector p1-p2.
+  ///
+  /// @return 1 if q is counter-clockwise (left) from p1-p2,
+  ///        -1 if q is clockwise (right) from p1-p2,
+  ///         0 if q is collinear with p1-p2
+  static int orientationIndex(double p1x, double p1y,
+      double p2x, double p2y, double qx, double qy) {
+    return _signum(orient2d(p1x, p1y, p2x, p2y, qx, qy));
+  }
+
+  /// Tests whether a point d lies inside the circle through the points a, b, c,
+  /// which are oriented counter-clockwise.
+  ///
+  /// @return true if d is strictly inside the circle
+  static bool isInCircle(double ax, double ay, double bx, double by,
+      double cx, double cy, double dx, double dy) {
+    return inCircle(ax, ay, bx, by, cx, cy, dx, dy) > 0.0;
+  }
+
+  /// Computes a value whose sign is the orientation of the points a, b, c:
+  /// positive if they are oriented counter-clockwise,
+  /// negative if clockwise, and zero if they are collinear.
+  /// The value approximates twice the signed area of the triangle.
+  static double orient2d(double ax, double ay, double bx, double by,
+      double cx, double cy) {
+    double detleft = (ax - cx) * (by - cy);
+    double detright = (ay - cy) * (bx - cx);
+    double det = detleft - detright;
+    double detsum;
+
+    if (detleft > 0.0) {
+      if (detright <= 0.0) return det;
+      detsum = detleft + detright;
+    }
+    else if (detleft < 0.0) {
+      if (detright >= 0.0) return det;
+      detsum = -detleft - detright;
+    }
+    else {
+      return det;
+    }
+
+    double errbound = CCW_ERR_BOUND_A * detsum;
+    if (det >= errbound || -det >= errbound) return det;
+    return _orient2dAdapt(ax, ay, bx, by, cx, cy, detsum);
+  }
+
+ /**private */static double _orient2dAdapt(double ax, double ay, double bx, double by,
+      double cx, double cy, double detsum) {
+    double acx = ax - cx;
+    double bcx = bx - cx;
+    double acy = ay - cy;
+    double bcy = by - cy;
+
+    double detleft = acx * bcy;
+    double detlefttail = _twoProductTail(acx, bcy, detleft);
+    double detright = acy * bcx;
+    double detrighttail = _twoProductTail(acy, bcx, detright);
+    _twoTwoDiff(detleft, detlefttail, detright, detrighttail, _b);
+
+    double det = _b[0] + _b[1] + _b[2] + _b[3];
+    double errbound = CCW_ERR_BOUND_B * detsum;
+    if (det >= errbound || -det >= errbound) return det;
+
+    double acxtail = _twoDiffTail(ax, cx, acx);
+    double bcxtail = _twoDiffTail(bx, cx, bcx);
+    double acytail = _twoDiffTail(ay, cy, acy);
+    double bcytail = _twoDiffTail(by, cy, bcy);
+    if (acxtail == 0.0 && acytail == 0.0 && bcxtail == 0.0 && bcytail == 0.0) {
+      return det;
+    }
+
+    errbound = CCW_ERR_BOUND_C * detsum + RESULT_ERR_BOUND * det.abs();
+    det += (acx * bcytail + bcy * acxtail) - (acy * bcxtail + bcx * acytail);
+    if (det >= errbound || -det >= errbound) return det;
+
+    _twoTwoProductDiff(acxtail, bcy, acytail, bcx, _u);
+    int c1len = _sum(4, _b, 4, _u, _c1);
+    _twoTwoProductDiff(acx, bcytail, acy, bcxtail, _u);
+    int c2len = _sum(c1len, _c1, 4, _u, _c2);
+    _twoTwoProductDiff(acxtail, bcytail, acytail, bcxtail, _u);
+    int dlen = _sum(c2len, _c2, 4, _u, _d);
+    return _d[dlen - 1];
+  }
+
+  /// Computes a value whose sign shows whether a point d lies
+  /// inside the circle through the points a, b, c
+  /// (which are oriented counter-clockwise):
+  /// positive if d is inside, negative if it is outside,
+  /// and zero if the four points are cocircular.
+  static double inCircle(double ax, double ay, double bx, double by,
+      double cx, double cy, double dx, double dy) {
+    double adx = ax - dx;
+    double bdx = bx - dx;
+    double cdx = cx - dx;
+    double ady = ay - dy;
+    double bdy = by - dy;
+    double cdy = cy - dy;
+
+    double bdxcdy = bdx * cdy;
+    double cdxbdy = cdx * bdy;
+    double alift = adx * adx + ady * ady;
+
+    double cdxady = cdx * ady;
+    double adxcdy = adx * cdy;
+    double blift = bdx * bdx + bdy * bdy;
+
+    double adxbdy = adx * bdy;
+    double bdxady = bdx * ady;
+    double clift = cdx * cdx + cdy * cdy;
+
+    double det = alift * (bdxcdy - cdxbdy)
+        + blift * (cdxady - adxcdy)
+        + clift * (adxbdy - bdxady);
+
+    double permanent = (bdxcdy.abs() + cdxbdy.abs()) * alift
+        + (cdxady.abs() + adxcdy.abs()) * blift
+        + (adxbdy.abs() + bdxady.abs()) * clift;
+    double errbound = ICC_ERR_BOUND_A * permanent;
+    if (det > errbound || -det > errbound) return det;
+    return _inCircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+  }
+
+  /// Computes the in-circle determinant exactly,
+  /// using the differences of the coordinates as two-component expansions.
+ /**private */static double _inCircleExact(double ax, double ay, double bx, double by,
+      double cx, double cy, double dx, double dy) {
+    int adxlen = _diff(ax, dx, _adx);
+    int adylen = _diff(ay, dy, _ady);
+    int bdxlen = _diff(bx, dx, _bdx);
+    int bdylen = _diff(by, dy, _bdy);
+    int cdxlen = _diff(cx, dx, _cdx);
+    int cdylen = _diff(cy, dy, _cdy);
+
+    // alift * (bdx * cdy - cdx * bdy)
+    int detlen = _det2x2(_bdx, bdxlen, _cdy, cdylen, _cdx, cdxlen, _bdy, bdylen);
+    int liftlen = _lift2(_adx, adxlen, _ady, adylen);
+    int alen = _multiply(_lift, liftlen, _det2, detlen, _adet);
+
+    // blift * (cdx * ady - adx * cdy)
+    detlen = _det2x2(_cdx, cdxlen, _ady, adylen, _adx, adxlen, _cdy, cdylen);
+    liftlen = _lift2(_bdx, bdxlen, _bdy, bdylen);
+    int blen = _multiply(_lift, liftlen, _det2, detlen, _bdet);
+
+    // clift * (adx * bdy - bdx * ady)
+    detlen = _det2x2(_adx, adxlen, _bdy, bdylen, _bdx, bdxlen, _ady, adylen);
+    liftlen = _lift2(_cdx, cdxlen, _cdy, cdylen);
+    int clen = _multiply(_lift, liftlen, _det2, detlen, _cdet);
+
+    int ablen = _sum(alen, _adet, blen, _bdet, _abdet);
+    int finlen = _sum(ablen, _abdet, clen, _cdet, _fin);
+    return _fin[finlen - 1];
+  }
+
+  /// Computes <code>a * b - c * d</code> for two-component expansions into _det2.
+ /**private */static int _det2x2(Float64List a, int alen, Float64List b, int blen,
+      Float64List c, int clen, Float64List d, int dlen) {
+    int len1 = _multiply(a, alen, b, blen, _m1);
+    int len2 = _multiply(c, clen, d, dlen, _m2);
+    for (int i = 0; i < len2; i++) {
+      _m2[i] = -_m2[i];
+    }
+    return _sum(len1, _m1, len2, _m2, _det2);
+  }
+
+  /// Computes <code>x * x + y * y</code> for two-component expansions into _lift.
+ /**private */static int _lift2(Float64List x, int xlen, Float64List y, int ylen) {
+    int len1 = _multiply(x, xlen, x, xlen, _m1);
+    int len2 = _multiply(y, ylen, y, ylen, _m2);
+    return _sum(len1, _m1, len2, _m2, _lift);
+  }
+
+  /// Computes a - b exactly as an expansion of one or two components.
+ /**private */static int _diff(double a, double b, Float64List h) {
+    double x = a - b;
+    double y = _twoDiffTail(a, b, x);
+    if (y == 0.0) {
+      h[0] = x;
+      return 1;
+    }
+    h[0] = y;
+    h[1] = x;
+    return 2;
+  }
+
+  /// Multiplies two expansions, by summing the scalings of e by the components of f.
+ /**private */static int _multiply(Float64List e, int elen, Float64List f, int flen, Float64List h) {
+    Float64List acc = _accA;
+    Float64List next = _accB;
+    int acclen = _scale(elen, e, f[0], acc);
+    for (int i = 1; i < flen; i++) {
+      int slen = _scale(elen, e, f[i], _scaled);
+      acclen = _sum(acclen, acc, slen, _scaled, next);
+      Float64List tmp = acc;
+      acc = next;
+      next = tmp;
+    }
+    h.setRange(0, acclen, acc);
+    return acclen;
+  }
+
+  /// Sums two expansions, eliminating zero components
+  /// (Shewchuk's <code>fast_expansion_sum_zeroelim</code>).
+ /**private */static int _sum(int elen, Float64List e, int flen, Float64List f, Float64List h) {
+    double enow = e[0];
+    double fnow = f[0];
+    int eindex = 0;
+    int findex = 0;
+    double q;
+    if ((fnow > enow) == (fnow > -enow)) {
+      q = enow;
+      eindex++;
+      enow = eindex < elen ? e[eindex] : 0.0;
+    }
+    else {
+      q = fnow;
+      findex++;
+      fnow = findex < flen ? f[findex] : 0.0;
+    }
+    int hindex = 0;
+    double qnew;
+    double hh;
+    if (eindex < elen && findex < flen) {
+      if ((fnow > enow) == (fnow > -enow)) {
+        qnew = enow + q;
+        hh = q - (qnew - enow);
+        eindex++;
+        enow = eindex < elen ? e[eindex] : 0.0;
+      }
+      else {
+        qnew = fnow + q;
+        hh = q - (qnew - fnow);
+        findex++;
+        fnow = findex < flen ? f[findex] : 0.0;
+      }
+      q = qnew;
+      if (hh != 0.0) h[hindex++] = hh;
+      while (eindex < elen && findex < flen) {
+        if ((fnow > enow) == (fnow > -enow)) {
+          qnew = q + enow;
+          hh = _twoSumTail(q, enow, qnew);
+          eindex++;
+          enow = eindex < elen ? e[eindex] : 0.0;
+        }
+        else {
+          qnew = q + fnow;
+          hh = _twoSumTail(q, fnow, qnew);
+          findex++;
+          fnow = findex < flen ? f[findex] : 0.0;
+        }
+        q = qnew;
+        if (hh != 0.0) h[hindex++] = hh;
+      }
+    }
+    while (eindex < elen) {
+      qnew = q + enow;
+      hh = _twoSumTail(q, enow, qnew);
+      eindex++;
+      enow = eindex < elen ? e[eindex] : 0.0;
+      q = qnew;
+      if (hh != 0.0) h[hindex++] = hh;
+    }
+    while (findex < flen) {
+      qnew = q + fnow;
+      hh = _twoSumTail(q, fnow, qnew);
+      findex++;
+      fnow = findex < flen ? f[findex] : 0.0;
+      q = qnew;
+      if (hh != 0.0) h[hindex++] = hh;
+    }
+    if (q != 0.0 || hindex == 0) h[hindex++] = q;
+    return hindex;
+  }
+
+  /// Multiplies an expansion by a double, eliminating zero components
+  /// (Shewchuk's <code>scale_expansion_zeroelim</code>).
+ /**private */static int _scale(int elen, Float64List e, double b, Float64List h) {
+    double q = e[0] * b;
+    double hh = _twoProductTail(e[0], b, q);
+    int hindex = 0;
+    if (hh != 0.0) h[hindex++] = hh;
+    for (int i = 1; i < elen; i++) {
+      double enow = e[i];
+      double product1 = enow * b;
+      double product0 = _twoProductTail(enow, b, product1);
+      double sum = q + product0;
+      hh = _twoSumTail(q, product0, sum);
+      if (hh != 0.0) h[hindex++] = hh;
+      q = product1 + sum;
+      hh = sum - (q - product1);
+      if (hh != 0.0) h[hindex++] = hh;
+    }
+    if (q != 0.0 || hindex == 0) h[hindex++] = q;
+    return hindex;
+  }
+
+  /// Computes <code>a * b - c * d</code> exactly as a four-component expansion.
+ /**private */static void _twoTwoProductDiff(double a, double b, double c, double d, Float64List h) {
+    double s1 = a * b;
+    double s0 = _twoProductTail(a, b, s1);
+    double t1 = c * d;
+    double t0 = _twoProductTail(c, d, t1);
+    _twoTwoDiff(s1, s0, t1, t0, h);
+  }
+
+  /// Computes <code>(a1 + a0) - (b1 + b0)</code> exactly as a four-component expansion
+  /// (Shewchuk's <code>Two_Two_Diff</code>).
+ /**private */static void _twoTwoDiff(double a1, double a0, double b1, double b0, Float64List h) {
+    // Two_One_Diff(a1, a0, b0)
+    double i = a0 - b0;
+    h[0] = _twoDiffTail(a0, b0, i);
+    double j = a1 + i;
+    double k = _twoSumTail(a1, i, j);
+    // Two_One_Diff(j, k, b1)
+    i = k - b1;
+    h[1] = _twoDiffTail(k, b1, i);
+    double x3 = j + i;
+    h[2] = _twoSumTail(j, i, x3);
+    h[3] = x3;
+  }
+
+  /// Computes the round-off error of <code>x = a * b</code>.
+ /**private */static double _twoProductTail(double a, double b, double x) {
+    double c = SPLITTER * a;
+    double abig = c - a;
+    double ahi = c - abig;
+    double alo = a - ahi;
+    c = SPLITTER * b;
+    double bbig = c - b;
+    double bhi = c - bbig;
+    double blo = b - bhi;
+    double err1 = x - (ahi * bhi);
+    double err2 = err1 - (alo * bhi);
+    double err3 = err2 - (ahi * blo);
+    return (alo * blo) - err3;
+  }
+
+  /// Computes the round-off error of <code>x = a + b</code>.
+ /**private */static double _twoSumTail(double a, double b, double x) {
+    double bvirt = x - a;
+    double avirt = x - bvirt;
+    double bround = b - bvirt;
+    double around = a - avirt;
+    return around + bround;
+  }
+
+  /// Computes the round-off error of <code>x = a - b</code>.
+ /**private */static double _twoDiffTail(double a, double b, double x) {
+    double bvirt = a - x;
+    double avirt = x + bvirt;
+    double bround = bvirt - b;
+    double around = a - avirt;
+    return around + bround;
+  }
+
+ /**private */static int _signum(double x) {
+    if (x > 0) return 1;
+    if (x < 0) return -1;
+    return 0;
+  }
+}
@@ -49,7 +49,7 @@ class IndexedPointInPolygonsLocator implements PointOnGeometryLocator {
     index = new STRtree();
     for (int i = 0; i < polys.size(); i++) {
       Geometry poly = polys.get(i);
-      index.insert(poly.getEnvelopeInternal(), new IndexedPointInAreaLocator(poly));
+      index.insert(poly.getEnvelopeView(), new IndexedPointInAreaLocator(poly));
     }
   }
   
@@ -18,6 +18,15 @@
 // import org.locationtech.jts.geom.CoordinateSequenceFilter;
 // import org.locationtech.jts.geom.Geometry;
 
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/CoordinateFilter.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequenceFilter.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+
+import 'DistanceToPoint.dart';
+import 'PointPairDistance.dart';
+
 /**
  * An algorithm for computing a distance metric
  * which is an approximation to the Hausdorff Distance
@@ -53,20 +62,19 @@
  *   DHD(A, B) = 22.360679774997898
  *   HD(A, B) ~= 47.8
  * </pre>
+ *
+ * For large inputs {@link IndexedDiscreteHausdorffDistance} computes
+ * the same distance much faster.
  */
 class DiscreteHausdorffDistance
 {
-  static double distance(Geometry g0, Geometry g1)
-  {
-    DiscreteHausdorffDistance dist = new DiscreteHausdorffDistance(g0, g1);
-    return dist.distance();
-  }
-
-  static double distance(Geometry g0, Geometry g1, double densifyFrac)
+  static double distance(Geometry g0, Geometry g1, [double densifyFrac = 0.0])
   {
     DiscreteHausdorffDistance dist = new DiscreteHausdorffDistance(g0, g1);
-    dist.setDensifyFraction(densifyFrac);
-    return dist.distance();
+    if (densifyFrac > 0.0) {
+      dist.setDensifyFraction(densifyFrac);
+    }
+    return dist.distance_();
   }
 
  /**private */Geometry g0;
@@ -78,11 +86,7 @@ class DiscreteHausdorffDistance
    */
  /**private */double densifyFrac = 0.0;
 
-  DiscreteHausdorffDistance(Geometry g0, Geometry g1)
-  {
-    this.g0 = g0;
-    this.g1 = g1;
-  }
+  DiscreteHausdorffDistance(this.g0, this.g1);
 
   /**
    * Sets the fraction by which to densify each segment.
@@ -90,18 +94,19 @@ class DiscreteHausdorffDistance
    * subsegments, whose fraction of the total length is closest
    * to the given fraction.
    * 
-   * @param densifyFrac
+   * @param [densifyFrac]
    */
   void setDensifyFraction(double densifyFrac)
   {
     if (densifyFrac > 1.0 
-        || densifyFrac <= 0.0)
+        || densifyFrac <= 0.0) {
       throw new ArgumentError("Fraction is not in range (0.0 - 1.0]");
+    }
         
     this.densifyFrac = densifyFrac;
   }
   
-  double distance() 
+  double distance_() 
   { 
     compute(g0, g1);
     return ptDist.getDistance(); 
@@ -124,59 +129,59 @@ class DiscreteHausdorffDistance
  /**private */void computeOrientedDistance(Geometry discreteGeom, Geometry geom, PointPairDistance ptDist)
   {
     MaxPointDistanceFilter distFilter = new MaxPointDistanceFilter(geom);
-    discreteGeom.apply(distFilter);
+    discreteGeom.applyCoord(distFilter);
     ptDist.setMaximum(distFilter.getMaxPointDistance());
     
     if (densifyFrac > 0) {
       MaxDensifiedByFractionDistanceFilter fracFilter = new MaxDensifiedByFractionDistanceFilter(geom, densifyFrac);
-      discreteGeom.apply(fracFilter);
+      discreteGeom.applyCoordSeq(fracFilter);
       ptDist.setMaximum(fracFilter.getMaxPointDistance());
       
     }
   }
+}
 
-  static class MaxPointDistanceFilter
-      implements CoordinateFilter
-  {
-   /**private */PointPairDistance maxPtDist = new PointPairDistance();
-   /**private */PointPairDistance minPtDist = new PointPairDistance();
-   /**private */Geometry geom;
-
-    MaxPointDistanceFilter(Geometry geom)
-    {
-      this.geom = geom;
-    }
+/**static */
+class MaxPointDistanceFilter
+    implements CoordinateFilter
+{
+ /**private */PointPairDistance maxPtDist = new PointPairDistance();
+ /**private */Geometry geom;
 
-    void filter(Coordinate pt)
-    {
-      minPtDist.initialize();
-      DistanceToPoint.computeDistance(geom, pt, minPtDist);
-      maxPtDist.setMaximum(minPtDist);
-    }
+  MaxPointDistanceFilter(this.geom);
 
-    PointPairDistance getMaxPointDistance() { return maxPtDist; }
-  }
-  
-  static class MaxDensifiedByFractionDistanceFilter 
-  implements CoordinateSequenceFilter 
+  @override
+  void filter(Coordinate pt)
   {
+    PointPairDistance minPtDist = new PointPairDistance();
+    DistanceToPoint.computeDistance(geom, pt, minPtDist);
+    maxPtDist.setMaximum(minPtDist);
+  }
+
+  PointPairDistance getMaxPointDistance() { return maxPtDist; }
+}
+
+/**static */
+class MaxDensifiedByFractionDistanceFilter 
+    implements CoordinateSequenceFilter 
+{
  /**private */PointPairDistance maxPtDist = new PointPairDistance();
- /**private */PointPairDistance minPtDist = new PointPairDistance();
  /**private */Geometry geom;
  /**private */int numSubSegs = 0;
 
-  MaxDensifiedByFractionDistanceFilter(Geometry geom, double fraction) {
-    this.geom = geom;
-    numSubSegs = (int) math.rint(1.0/fraction);
+  MaxDensifiedByFractionDistanceFilter(this.geom, double fraction) {
+    numSubSegs = (1.0/fraction).round();
   }
 
+  @override
   void filter(CoordinateSequence seq, int index) 
   {
     /**
      * This logic also handles skipping Point geometries
      */
-    if (index == 0)
+    if (index == 0) {
       return;
+    }
     
     Coordinate p0 = seq.getCoordinate(index - 1);
     Coordinate p1 = seq.getCoordinate(index);
@@ -188,21 +193,19 @@ class DiscreteHausdorffDistance
       double x = p0.x + i*delx;
       double y = p0.y + i*dely;
       Coordinate pt = new Coordinate(x, y);
-      minPtDist.initialize();
+      PointPairDistance minPtDist = new PointPairDistance();
       DistanceToPoint.computeDistance(geom, pt, minPtDist);
       maxPtDist.setMaximum(minPtDist);  
     }
-    
-    
   }
 
+  @override
   bool isGeometryChanged() { return false; }
   
+  @override
   bool isDone() { return false; }
   
   PointPairDistance getMaxPointDistance() {
     return maxPtDist;
   }
 }
-
-}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequenceFilter.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/operation/distance/IndexedFacetDistance.dart';
+
+import 'DistanceToPoint.dart';
+import 'PointPairDistance.dart';
+
+/// Computes the same distance as {@link DiscreteHausdorffDistance},
+/// using indexes on the facets of the geometries
+/// rather than testing every discrete point against every segment.
+/// <p>
+/// Each geometry is indexed with an {@link IndexedFacetDistance}.
+/// The discrete points of one geometry are then tested against the index
+/// of the other, keeping the running maximum of their distances.
+/// The search for each point stops as soon as a facet is found
+/// no further away than the running maximum,
+/// since then the point cannot change the result.
+/// The points are visited in a spread-out order so that
+/// a large running maximum is found early, and the second direction
+/// starts from the maximum of the first, so most points are rejected
+/// after visiting only a few index nodes.
+/// <p>
+/// The discrete points are the vertices of the geometry,
+/// optionally with the segments densified by a fraction
+/// (see {@link #setDensifyFraction}).
+class IndexedDiscreteHausdorffDistance {
+  /// Computes the discrete Hausdorff distance between two geometries.
+  ///
+  /// @param g0 a geometry
+  /// @param g1 a geometry
+  /// @param densifyFrac the densify fraction, or 0.0 for no densification
+  /// @return the discrete Hausdorff distance
+  static double distance(Geometry g0, Geometry g1, [double densifyFrac = 0.0]) {
+    IndexedDiscreteHausdorffDistance dist = new IndexedDiscreteHausdorffDistance(g0, g1);
+    if (densifyFrac > 0.0) {
+      dist.setDensifyFraction(densifyFrac);
+    }
+    return dist.distance_();
+  }
+
+ /**private */final Geometry g0;
+ /**private */final Geometry g1;
+ /**private */IndexedFacetDistance? index0;
+ /**private */IndexedFacetDistance? index1;
+ /**private */PointPairDistance ptDist = new PointPairDistance();
+ /**private */double densifyFrac = 0.0;
+
+  /// Creates a new distance computation for two geometries.
+  ///
+  /// @param g0 a geometry
+  /// @param g1 a geometry
+  IndexedDiscreteHausdorffDistance(this.g0, this.g1);
+
+  /// Sets the fraction by which to densify each segment.
+  /// Each segment will be (virtually) split into a number of equal-length
+  /// subsegments, whose fraction of the total length is closest
+  /// to the given fraction.
+  ///
+  /// @param densifyFrac the densify fraction, in (0.0, 1.0]
+  void setDensifyFraction(double densifyFrac) {
+    if (densifyFrac > 1.0 || densifyFrac <= 0.0) {
+      throw new ArgumentError("Fraction is not in range (0.0 - 1.0]");
+    }
+    this.densifyFrac = densifyFrac;
+  }
+
+  /// Computes the discrete Hausdorff distance between the geometries.
+  ///
+  /// @return the distance, or 0.0 if either geometry is empty
+  double distance_() {
+    if (g0.isEmpty() || g1.isEmpty()) return 0.0;
+    index1 ??= new IndexedFacetDistance(g1);
+    index0 ??= new IndexedFacetDistance(g0);
+    double maxDist = computeOrientedDistance(g0, g1, index1!, 0.0);
+    computeOrientedDistance(g1, g0, index0!, maxDist);
+    return ptDist.getDistance();
+  }
+
+  /// Computes the distance from the discrete points of the first geometry
+  /// to the second.
+  ///
+  /// @return the distance, or 0.0 if either geometry is empty
+  double orientedDistance() {
+    if (g0.isEmpty() || g1.isEmpty()) return 0.0;
+    index1 ??= new IndexedFacetDistance(g1);
+    computeOrientedDistance(g0, g1, index1!, 0.0);
+    return ptDist.getDistance();
+  }
+
+  /// Gets the points which are separated by the computed distance.
+  /// The first point lies on the facets of one geometry,
+  /// and the second is the discrete point of the other.
+  List<Coordinate> getCoordinates() { return ptDist.getCoordinates(); }
+
+  /// Finds the discrete point of one geometry furthest from another,
+  /// and records it in ptDist if it is further than the current maximum.
+  ///
+  /// @return the maximum of the distance found and the current maximum
+ /**private */double computeOrientedDistance(Geometry discreteGeom, Geometry geom,
+      IndexedFacetDistance index, double currentMax) {
+    Float64List pts = DiscretePointsFilter.extract(discreteGeom, densifyFrac);
+    int n = pts.length ~/ 2;
+    double maxDist = currentMax;
+    int maxIndex = -1;
+    Coordinate p = new Coordinate.empty2D();
+    int stride = spreadStride(n);
+    int i = 0;
+    for (int k = 0; k < n; k++) {
+      p.x = pts[2 * i];
+      p.y = pts[2 * i + 1];
+      // stops as soon as a facet no further than the maximum is found
+      double dist = index.distanceToPoint(p, maxDist);
+      if (dist > maxDist) {
+        maxDist = dist;
+        maxIndex = i;
+      }
+      i += stride;
+      if (i >= n) i -= n;
+    }
+    // if no distance exceeds zero, record the first point
+    // (as DiscreteHausdorffDistance does), so that the distance is 0.0
+    if (maxIndex < 0 && ptDist.isNull && n > 0) {
+      maxIndex = 0;
+    }
+    if (maxIndex >= 0) {
+      Coordinate maxPt = new Coordinate(pts[2 * maxIndex], pts[2 * maxIndex + 1]);
+      PointPairDistance maxPtDist = new PointPairDistance();
+      DistanceToPoint.computeDistance(geom, maxPt, maxPtDist);
+      ptDist.setMaximum(maxPtDist);
+    }
+    return maxDist;
+  }
+
+  /// Computes a step which is coprime to n and about 0.618 n,
+  /// so that stepping through the points visits each once
+  /// while jumping between distant parts of the geometry.
+ /**private */static int spreadStride(int n) {
+    if (n <= 2) return 1;
+    int stride = (n * 0.618).toInt();
+    while (gcd(stride, n) != 1) {
+      stride++;
+    }
+    return stride;
+  }
+
+ /**private */static int gcd(int a, int b) {
+    while (b != 0) {
+      int t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
+}
+
+/// Extracts the discrete points of a geometry:
+/// its vertices, and the points densifying its segments.
+/**private */
+class DiscretePointsFilter implements CoordinateSequenceFilter {
+  static Float64List extract(Geometry geom, double densifyFrac) {
+    DiscretePointsFilter filter = new DiscretePointsFilter(
+        densifyFrac > 0 ? (1.0 / densifyFrac).round() : 1);
+    geom.applyCoordSeq(filter);
+    return Float64List.fromList(filter.pts);
+  }
+
+  final int numSubSegs;
+  final List<double> pts = [];
+
+  DiscretePointsFilter(this.numSubSegs);
+
+  @override
+  void filter(CoordinateSequence seq, int index) {
+    double x1 = seq.getX(index);
+    double y1 = seq.getY(index);
+    if (index > 0 && numSubSegs > 1) {
+      // the same points as DiscreteHausdorffDistance densifies
+      double x0 = seq.getX(index - 1);
+      double y0 = seq.getY(index - 1);
+      double delx = (x1 - x0) / numSubSegs;
+      double dely = (y1 - y0) / numSubSegs;
+      for (int i = 1; i < numSubSegs; i++) {
+        pts.add(x0 + i * delx);
+        pts.add(y0 + i * dely);
+      }
+    }
+    pts.add(x1);
+    pts.add(y1);
+  }
+
+  @override
+  bool isGeometryChanged() { return false; }
+
+  @override
+  bool isDone() { return false; }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/LineString.dart';
+import 'package:jtscore4dart/src/geom/Location.dart';
+import 'package:jtscore4dart/src/geom/util/LinearComponentExtracter.dart';
+
+import 'IndexedPointInAreaLocator.dart';
+import 'PointOnGeometryLocator.dart';
+
+/// Determines the {@link Location} of {@link Coordinate}s relative to
+/// an areal geometry, using a grid of cells over the geometry envelope
+/// to answer most queries in constant time.
+/// <p>
+/// Each cell is classified as lying wholly in the interior,
+/// wholly in the exterior, or touching the boundary of the geometry.
+/// Points in interior and exterior cells are located by a single lookup;
+/// only points in boundary cells are located by an {@link IndexedPointInAreaLocator}.
+/// This suits large geometries with long boundaries (such as coastlines)
+/// where most query points lie far from the boundary.
+/// <p>
+/// The Location is computed precisely, in that points
+/// located on the geometry boundary will return {@link Location#BOUNDARY}.
+/// {@link Polygonal} and {@link LinearRing} geometries are supported.
+/// <p>
+/// The grid is built when the first point is located.
+/// By default it has about {@link #CELLS_PER_VERTEX} cells per vertex
+/// of the geometry, with square cells.
+class GridPointInAreaLocator implements PointOnGeometryLocator {
+  /// The default number of grid cells per vertex of the geometry
+  static const int CELLS_PER_VERTEX = 4;
+
+  /// The maximum number of grid cells along each side of the grid
+  static const int MAX_GRID_SIZE = 4096;
+
+ /**private */static const int MAX_CELLS = 1 << 22;
+
+  // the relative tolerance used to mark cells touched by the boundary,
+  // so that a cell is never classified as interior or exterior
+  // because of rounding
+ /**private */static const double CELL_TOLERANCE = 1e-9;
+
+ /**private */final Geometry geom;
+ /**private */final int numCells;
+ /**private */final IndexedPointInAreaLocator boundaryLocator;
+
+ /**private */bool isBuilt = false;
+ /**private */double minX = 0;
+ /**private */double minY = 0;
+ /**private */double cellWidth = 0;
+ /**private */double cellHeight = 0;
+ /**private */int numX = 0;
+ /**private */int numY = 0;
+  // the Location of each cell, in row order;
+  // cells touching the boundary hold Location.BOUNDARY
+ /**private */Uint8List cells = new Uint8List(0);
+
+  /// Creates a new locator for a given {@link Geometry}.
+  ///
+  /// @param geom the Geometry to locate in
+  /// @param numCells the approximate number of grid cells to use,
+  ///        or 0 to choose it from the number of vertices
+  GridPointInAreaLocator(this.geom, [this.numCells = 0])
+      : boundaryLocator = new IndexedPointInAreaLocator(geom);
+
+  /// Determines the {@link Location} of a point in an areal {@link Geometry}.
+  ///
+  /// @param p the point to test
+  /// @return the location of the point in the geometry
+  @override
+  int locate(Coordinate p) {
+    return locateXY(p.x, p.y);
+  }
+
+  /// Determines the {@link Location} of a point given by its ordinates.
+  ///
+  /// @param x the x ordinate of the point
+  /// @param y the y ordinate of the point
+  /// @return the location of the point in the geometry
+  int locateXY(double x, double y) {
+    if (!isBuilt) build();
+    if (numX == 0) return Location.EXTERIOR;
+    double fx = (x - minX) / cellWidth;
+    double fy = (y - minY) / cellHeight;
+    // also rejects NaN
+    if (!(fx >= 0 && fx <= numX && fy >= 0 && fy <= numY)) {
+      return Location.EXTERIOR;
+    }
+    int ix = fx.toInt();
+    int iy = fy.toInt();
+    if (ix == numX) ix--;
+    if (iy == numY) iy--;
+    int loc = cells[iy * numX + ix];
+    if (loc != Location.BOUNDARY) return loc;
+    return boundaryLocator.locate(new Coordinate(x, y));
+  }
+
+  /// Gets the fraction of grid cells which touch the geometry boundary,
+  /// in which points must be located exactly.
+  ///
+  /// @return the fraction of boundary cells
+  double getBoundaryCellFraction() {
+    if (!isBuilt) build();
+    if (cells.isEmpty) return 0;
+    int count = 0;
+    for (int i = 0; i < cells.length; i++) {
+      if (cells[i] == Location.BOUNDARY) count++;
+    }
+    return count / cells.length;
+  }
+
+ /**private */void build() {
+    isBuilt = true;
+    Envelope env = geom.getEnvelopeInternal();
+    if (env.isNull()) return;
+    minX = env.getMinX();
+    minY = env.getMinY();
+    double width = env.getWidth();
+    double height = env.getHeight();
+
+    int target = numCells > 0 ? numCells : geom.getNumPoints() * CELLS_PER_VERTEX;
+    if (target > MAX_CELLS) target = MAX_CELLS;
+    if (width > 0 && height > 0 && target > 1) {
+      double cellSize = math.sqrt(width * height / target);
+      numX = gridSize(width / cellSize);
+      numY = gridSize(height / cellSize);
+    }
+    else {
+      numX = 1;
+      numY = 1;
+    }
+    // degenerate extents use one cell which covers them
+    cellWidth = width > 0 ? width / numX : 1;
+    cellHeight = height > 0 ? height / numY : 1;
+    cells = new Uint8List(numX * numY);
+
+    markBoundary();
+    classifyCells();
+  }
+
+ /**private */static int gridSize(double n) {
+    int size = n.ceil();
+    if (size < 1) return 1;
+    if (size > MAX_GRID_SIZE) return MAX_GRID_SIZE;
+    return size;
+  }
+
+  /// Marks every cell which a ring segment touches.
+ /**private */void markBoundary() {
+    for (LineString line in LinearComponentExtracter.getLines(geom)) {
+      //-- only include rings of Polygons or LinearRings
+      if (!line.isClosed()) continue;
+      List<Coordinate> pts = line.getCoordinates();
+      for (int i = 1; i < pts.length; i++) {
+        markSegment(pts[i - 1], pts[i]);
+      }
+    }
+  }
+
+  /// Marks the cells touched by a segment, row by row.
+  /// The range of cells in each row is widened slightly,
+  /// so that cells which the segment just touches are included.
+ /**private */void markSegment(Coordinate p0, Coordinate p1) {
+    double x0 = (p0.x - minX) / cellWidth;
+    double y0 = (p0.y - minY) / cellHeight;
+    double x1 = (p1.x - minX) / cellWidth;
+    double y1 = (p1.y - minY) / cellHeight;
+    double segMinY = math.min(y0, y1);
+    double segMaxY = math.max(y0, y1);
+    int row0 = clampIndex((segMinY - CELL_TOLERANCE).floor(), numY);
+    int row1 = clampIndex((segMaxY + CELL_TOLERANCE).floor(), numY);
+    for (int row = row0; row <= row1; row++) {
+      double xa;
+      double xb;
+      if (y0 == y1) {
+        xa = x0;
+        xb = x1;
+      }
+      else {
+        // the part of the segment within the row
+        double yLo = math.max(segMinY, row.toDouble());
+        double yHi = math.min(segMaxY, row + 1.0);
+        xa = xAt(x0, y0, x1, y1, yLo);
+        xb = xAt(x0, y0, x1, y1, yHi);
+      }
+      int col0 = clampIndex((math.min(xa, xb) - CELL_TOLERANCE).floor(), numX);
+      int col1 = clampIndex((math.max(xa, xb) + CELL_TOLERANCE).floor(), numX);
+      int offset = row * numX;
+      for (int col = col0; col <= col1; col++) {
+        cells[offset + col] = Location.BOUNDARY;
+      }
+    }
+  }
+
+ /**private */static double xAt(double x0, double y0, double x1, double y1, double y) {
+    double t = (y - y0) / (y1 - y0);
+    if (t < 0) t = 0;
+    if (t > 1) t = 1;
+    return x0 + t * (x1 - x0);
+  }
+
+ /**private */static int clampIndex(int i, int n) {
+    if (i < 0) return 0;
+    if (i >= n) return n - 1;
+    return i;
+  }
+
+  /// Classifies the cells which do not touch the boundary.
+  /// A run of such cells in a row is not crossed by the boundary,
+  /// so the whole run has the location of the centre of its first cell.
+ /**private */void classifyCells() {
+    // the zero value of the cells is Location.INTERIOR, so mark unclassified cells first
+    const int UNCLASSIFIED = 255;
+    for (int i = 0; i < cells.length; i++) {
+      if (cells[i] != Location.BOUNDARY) cells[i] = UNCLASSIFIED;
+    }
+    for (int row = 0; row < numY; row++) {
+      int offset = row * numX;
+      double y = minY + (row + 0.5) * cellHeight;
+      int col = 0;
+      while (col < numX) {
+        if (cells[offset + col] != UNCLASSIFIED) {
+          col++;
+          continue;
+        }
+        double x = minX + (col + 0.5) * cellWidth;
+        int loc = boundaryLocator.locate(new Coordinate(x, y));
+        while (col < numX && cells[offset + col] == UNCLASSIFIED) {
+          cells[offset + col] = loc;
+          col++;
+        }
+      }
+    }
+  }
+}
@@ -29,6 +29,7 @@
 // import org.locationtech.jts.index.intervalrtree.SortedPackedIntervalRTree;
 
 import 'dart:math';
+import 'dart:typed_data';
 
 import 'package:jtscore4dart/geometry.dart';
 import 'package:jtscore4dart/src/geom/util/LinearComponentExtracter.dart';
@@ -101,6 +102,31 @@ class IndexedPointInAreaLocator implements PointOnGeometryLocator
     return rcc.getLocation();
   }
 
+  /**
+   * Determines the {@link Location}s of a batch of points
+   * in an areal {@link Geometry}.
+   * <p>
+   * The points are processed in order of increasing y,
+   * sweeping the indexed segments once
+   * and keeping only those whose y-interval spans the current point.
+   * A single {@link RayCrossingCounter} is reused for all points,
+   * so no objects are allocated per point.
+   * The result is the same as calling {@link #locate} for each point.
+   * 
+   * @param [xs] the x ordinates of the points
+   * @param [ys] the y ordinates of the points
+   * @param [locations] receives the location of each point
+   */
+  void locateAll(Float64List xs, Float64List ys, Uint8List locations)
+  {
+    int n = xs.length;
+    if (ys.length != n || locations.length < n) {
+      throw new ArgumentError("Ordinate and location arrays must have the same length");
+    }
+    if (index == null) _createIndex();
+    index!.locateAll(xs, ys, locations);
+  }
+
   /**
    * Creates the indexed geometry, creating it if necessary.
    */
@@ -137,6 +163,11 @@ class IntervalIndexedGeometry
 {
   /**private */late final bool isEmpty;
   /**private */final SortedPackedIntervalRTree index= SortedPackedIntervalRTree();
+  /**private */final List<LineSegment> segments = [];
+  // the segments sorted by min y, for batch location
+  /**private */List<LineSegment>? sweepSegs;
+  /**private */Float64List? sweepMin;
+  /**private */Float64List? sweepMax;
 
   IntervalIndexedGeometry(Geometry geom)
   {
@@ -172,6 +203,7 @@ class IntervalIndexedGeometry
       double _min = min(seg.p0.y, seg.p1.y);
       double _max = max(seg.p0.y, seg.p1.y);
       index.insert(_min, _max, seg);
+      segments.add(seg);
     }
   }
   
@@ -194,6 +226,79 @@ class IntervalIndexedGeometry
     }
     index.queryByVisitor(min, max, visitor);
   }
+
+  /**
+   * Locates a batch of points by sweeping the segments in y order.
+   */
+  void locateAll(Float64List xs, Float64List ys, Uint8List locations)
+  {
+    int n = xs.length;
+    if (isEmpty) {
+      locations.fillRange(0, n, Location.EXTERIOR);
+      return;
+    }
+    if (sweepSegs == null) _initSweep();
+    List<LineSegment> segs = sweepSegs!;
+    Float64List segMin = sweepMin!;
+    Float64List segMax = sweepMax!;
+
+    Int32List order = new Int32List(n);
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    order.sort((a, b) => ys[a].compareTo(ys[b]));
+
+    // indexes of the segments whose y-interval may span the current point
+    Int32List active = new Int32List(segs.length);
+    int numActive = 0;
+    int next = 0;
+    Coordinate p = new Coordinate.empty2D();
+    RayCrossingCounter counter = new RayCrossingCounter(p);
+    for (int k = 0; k < n; k++) {
+      int i = order[k];
+      double y = ys[i];
+      if (y.isNaN) {
+        locations[i] = Location.EXTERIOR;
+        continue;
+      }
+      while (next < segs.length && segMin[next] <= y) {
+        active[numActive++] = next++;
+      }
+      p.x = xs[i];
+      p.y = y;
+      counter.reset(p);
+      int j = 0;
+      while (j < numActive) {
+        int s = active[j];
+        // points are visited in increasing y, so expired segments are never needed again
+        if (segMax[s] < y) {
+          active[j] = active[--numActive];
+          continue;
+        }
+        LineSegment seg = segs[s];
+        counter.countSegment(seg.p0, seg.p1);
+        j++;
+      }
+      locations[i] = counter.getLocation();
+    }
+  }
+
+  /**private */
+  void _initSweep()
+  {
+    List<LineSegment> segs = new List<LineSegment>.from(segments);
+    segs.sort((a, b) => min(a.p0.y, a.p1.y).compareTo(min(b.p0.y, b.p1.y)));
+    Float64List segMin = new Float64List(segs.length);
+    Float64List segMax = new Float64List(segs.length);
+    for (int i = 0; i < segs.length; i++) {
+      LineSegment seg = segs[i];
+      segMin[i] = min(seg.p0.y, seg.p1.y);
+      segMax[i] = max(seg.p0.y, seg.p1.y);
+    }
+    sweepSegs = segs;
+    sweepMin = segMin;
+    sweepMax = segMax;
+  }
 }
 
 
@@ -16,6 +16,14 @@
 // import org.locationtech.jts.geom.Envelope;
 // import org.locationtech.jts.geom.Geometry;
 
+import 'dart:math' as math;
+
+import 'package:jtscore4dart/src/algorithm/distance/IndexedDiscreteHausdorffDistance.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+
+import 'SimilarityMeasure.dart';
+
 /**
  * Measures the degree of similarity between two {@link Geometry}s
  * using the Hausdorff distance metric.
@@ -26,6 +34,8 @@
  * between the input geometries, and then normalizing
  * this by dividing it by the diagonal distance across
  * the envelope of the combined geometries.
+ * The distance is computed with {@link IndexedDiscreteHausdorffDistance},
+ * so large geometries can be compared efficiently.
  *
  * @author mbdavis
  *
@@ -41,22 +51,21 @@ class HausdorffSimilarityMeasure
 	}
 	*/
 
-	HausdorffSimilarityMeasure()
-	{
-	}
+	HausdorffSimilarityMeasure();
 
 	/*
 	 * Densify a small amount to increase accuracy of Hausdorff distance
 	 */
-	private static final double DENSIFY_FRACTION = 0.25;
+	/**private */static const double DENSIFY_FRACTION = 0.25;
 
+	@override
 	double measure(Geometry g1, Geometry g2)
 	{
-		double distance = DiscreteHausdorffDistance.distance(g1, g2, DENSIFY_FRACTION);
-    if (distance == 0d) return 1d;
+		double distance = IndexedDiscreteHausdorffDistance.distance(g1, g2, DENSIFY_FRACTION);
+    if (distance == 0.0) return 1.0;
 
-		Envelope env = new Envelope(g1.getEnvelopeInternal());
-		env.expandToInclude(g2.getEnvelopeInternal());
+		Envelope env = new Envelope.fromAnother(g1.getEnvelopeInternal());
+		env.expandToIncludeEnvelope(g2.getEnvelopeInternal());
 		double envSize = diagonalSize(env);
 
     // normalize so that more similarity produces a measure closer to 1
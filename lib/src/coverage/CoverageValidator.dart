@@ -139,7 +139,7 @@ class CoverageValidator {
   List<Geometry> validate() {
     STRtree index = new STRtree();
     for (Geometry geom : coverage) {
-      index.insert(geom.getEnvelopeInternal(), geom);
+      index.insert(geom.getEnvelopeView(), geom);
     }
     List<Geometry> invalidLines = new Geometry[coverage.length];
     for (int i = 0; i < coverage.length; i++) {
@@ -42,12 +42,14 @@ import 'package:jtscore4dart/src/operation/predicate/RectangleIntersects.dart';
 import 'package:jtscore4dart/src/operation/relate/RelateOp.dart';
 import 'package:jtscore4dart/src/operation/valid/IsSimpleOp.dart';
 import 'package:jtscore4dart/src/operation/valid/IsValidOp.dart';
+import 'package:jtscore4dart/src/geom/prep/PreparedGeometryCache.dart';
 
 import 'package:jtscore4dart/io.dart';
 
 import 'CoordinateSequenceComparator.dart';
 import 'Coordinate.dart';
 import 'Envelope.dart';
+import 'ImmutableEnvelope.dart';
 import 'GeometryComponentFilter.dart';
 import 'GeometryFactory.dart';
 import 'GeometryOverlay.dart';
@@ -596,8 +598,28 @@ abstract class Geometry{
   ///@return the envelope of this <code>Geometry</code>.
   ///@return an empty Envelope if this Geometry is empty
   Envelope getEnvelopeInternal() {
-    envelope ??= computeEnvelopeInternal();
-    return Envelope.fromAnother(envelope!);
+    return Envelope.fromAnother(getEnvelopeView());
+  }
+
+  /// Gets the cached {@link Envelope} of this <code>Geometry</code>
+  /// without copying it.
+  /// <p>
+  /// The returned envelope is an {@link ImmutableEnvelope}:
+  /// attempts to modify it throw an error.
+  /// It is intended for read-only tests such as index inserts
+  /// and envelope short-circuits, where {@link #getEnvelopeInternal()}
+  /// would allocate a copy on every call.
+  /// The returned object is replaced (not updated) when
+  /// {@link #geometryChanged()} is called.
+  ///
+  ///@return the (read-only) envelope of this <code>Geometry</code>
+  Envelope getEnvelopeView() {
+    Envelope env = envelope ?? computeEnvelopeInternal();
+    if (env is! ImmutableEnvelope) {
+      env = ImmutableEnvelope.fromAnother(env);
+    }
+    envelope = env;
+    return env;
   }
 
   /// Notifies this geometry that its coordinates have been changed by an external
@@ -617,6 +639,7 @@ abstract class Geometry{
   /// @see #apply(GeometryComponentFilter)
   void geometryChangedAction() {
     envelope = null;
+    PreparedGeometryCache.geometryChanged(this);
   }
 
   /// Tests whether this geometry is disjoint from the argument geometry.
@@ -666,7 +689,7 @@ abstract class Geometry{
   bool touches(Geometry g) {
     // throw UnimplementedError("ruier test");
     // short-circuit test
-    if (! getEnvelopeInternal().intersects(g.getEnvelopeInternal())) {
+    if (! getEnvelopeView().intersects(g.getEnvelopeView())) {
       return false;
     }
     return relate(g).isTouches(getDimension(), g.getDimension());
@@ -697,7 +720,7 @@ abstract class Geometry{
     // throw UnimplementedError("ruier test");
 
     // short-circuit envelope test
-    if (! getEnvelopeInternal().intersectsWith(g.getEnvelopeInternal())) {
+    if (! getEnvelopeView().intersectsWith(g.getEnvelopeView())) {
       return false;
     }
 
@@ -724,6 +747,11 @@ abstract class Geometry{
     if (g.isRectangle()) {
       return RectangleIntersects.intersects( g as Polygon, this);
     }
+    // use the prepared form of a geometry which is tested repeatedly
+    if (! g.isGeometryCollection()) {
+      bool? isIntersects = PreparedGeometryCache.intersectsCached(this, g);
+      if (isIntersects != null) return isIntersects;
+    }
     if (isGeometryCollection() || g.isGeometryCollection()) {
       for (int i = 0 ; i < getNumGeometries() ; i++) {
         for (int j = 0 ; j < g.getNumGeometries() ; j++) {
@@ -763,7 +791,7 @@ abstract class Geometry{
   bool crosses(Geometry g) {
     // throw UnimplementedError("ruier test");
     // short-circuit test
-    if (!getEnvelopeInternal().intersectsWith(g.getEnvelopeInternal())) {
+    if (!getEnvelopeView().intersectsWith(g.getEnvelopeView())) {
       return false;
     }
     return relate(g).isCrosses(getDimension(), g.getDimension());
@@ -838,13 +866,18 @@ abstract class Geometry{
       return false;
     }
     // optimization - envelope test
-    if (! getEnvelopeInternal().contains(g.getEnvelopeInternal())) {
+    if (! getEnvelopeView().contains(g.getEnvelopeView())) {
       return false;
     }
     // optimization for rectangle arguments
     if (isRectangle()) {
       return RectangleContains.contains( this as Polygon, g);
     }
+    // use the prepared form of a geometry which is tested repeatedly
+    if (! g.isGeometryCollection()) {
+      bool? isContains = PreparedGeometryCache.containsCached(this, g);
+      if (isContains != null) return isContains;
+    }
     // general case
     return relate(g).isContains();
   }
@@ -871,7 +904,7 @@ abstract class Geometry{
   bool overlaps(Geometry g) {
     // throw UnimplementedError("ruier test");
     // short-circuit test
-    if (! getEnvelopeInternal().intersectsWith(g.getEnvelopeInternal())) {
+    if (! getEnvelopeView().intersectsWith(g.getEnvelopeView())) {
       return false;
     }
     return relate(g).isOverlaps(getDimension(), g.getDimension());
@@ -921,7 +954,7 @@ abstract class Geometry{
       return false;
     }
     // optimization - envelope test
-    if (! getEnvelopeInternal().covers(g.getEnvelopeInternal())) {
+    if (! getEnvelopeView().covers(g.getEnvelopeView())) {
       return false;
     }
     // optimization for rectangle arguments
@@ -1028,7 +1061,7 @@ abstract class Geometry{
   {
     // throw UnimplementedError("ruier test");
     // short-circuit test
-    if (! getEnvelopeInternal().equals(g.getEnvelopeInternal())) {
+    if (! getEnvelopeView().equals(g.getEnvelopeView())) {
       return false;
     }
     return relate(g).isEquals(getDimension(), g.getDimension());
@@ -278,7 +278,7 @@ class GeometryCollection extends Geometry {
   Envelope computeEnvelopeInternal() {
     Envelope envelope = new Envelope.init();
     for (int i = 0; i < geometries.length; i++) {
-      envelope.expandToIncludeEnvelope(geometries[i].getEnvelopeInternal());
+      envelope.expandToIncludeEnvelope(geometries[i].getEnvelopeView());
     }
     return envelope;
   }
@@ -78,6 +78,17 @@ class GeometryFactory{
     :this._precisionModel = precisionModel ??= PrecisionModel(),
     _coordinateSequenceFactory = coordinateSequenceFactory ??= _getDefaultCoordinateSequenceFactory();
 
+  /// Constructs a GeometryFactory that generates Geometries having the given
+  /// CoordinateSequence implementation, a double-precision floating PrecisionModel and a
+  /// spatial-reference ID of 0.
+  /// <p>
+  /// For example, passing {@link PackedCoordinateSequenceFactory#DOUBLE_FACTORY}
+  /// stores the vertices of every created geometry in a single typed array.
+  ///
+  /// @param coordinateSequenceFactory the CoordinateSequenceFactory to use
+  GeometryFactory.withCoordinateSequenceFactory(CoordinateSequenceFactory coordinateSequenceFactory)
+    : this(null, 0, coordinateSequenceFactory);
+
 
 
   static CoordinateSequenceFactory _getDefaultCoordinateSequenceFactory()
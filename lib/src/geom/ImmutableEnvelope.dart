@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'Envelope.dart';
+
+/// An {@link Envelope} whose extent cannot be changed after construction.
+/// <p>
+/// This is the form in which a {@link Geometry} caches its envelope,
+/// which allows {@link Geometry#getEnvelopeView()} to hand out the cached
+/// instance without a defensive copy.
+/// Any attempt to modify it throws an {@link UnsupportedError};
+/// use {@link #copy()} to obtain a modifiable envelope.
+class ImmutableEnvelope extends Envelope {
+
+  ///  Creates an <code>ImmutableEnvelope</code> with the same extent as
+  ///  an existing Envelope.
+  ///
+  ///@param  env  the Envelope to initialize from
+  ImmutableEnvelope.fromAnother(Envelope env) : super.fromAnother(env);
+
+  @override
+  void setToNull() {
+    throw UnsupportedError("Envelope is immutable");
+  }
+
+  @override
+  void expandByDelXY(double deltaX, double deltaY) {
+    throw UnsupportedError("Envelope is immutable");
+  }
+
+  @override
+  void expandToIncludeXY(double x, double y) {
+    throw UnsupportedError("Envelope is immutable");
+  }
+
+  @override
+  void expandToIncludeEnvelope(Envelope other) {
+    throw UnsupportedError("Envelope is immutable");
+  }
+
+  @override
+  void translate(double transX, double transY) {
+    throw UnsupportedError("Envelope is immutable");
+  }
+}
@@ -290,7 +290,8 @@ class Polygon
 
  /**protected */@override
   Envelope computeEnvelopeInternal() {
-    return shell!.getEnvelopeInternal();
+    // the shell envelope is immutable, so it can be shared
+    return shell!.getEnvelopeView();
   }
 
   @override
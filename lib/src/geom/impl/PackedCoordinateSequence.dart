@@ -11,7 +11,6 @@
  */
 
 
-
 // import java.io.ObjectStreamException;
 // import java.io.Serializable;
 // import java.lang.ref.SoftReference;
@@ -25,8 +24,14 @@
 // import org.locationtech.jts.geom.CoordinateXYZM;
 // import org.locationtech.jts.geom.Envelope;
 
+import 'dart:math' as math;
+import 'dart:typed_data';
+
 import 'package:jtscore4dart/src/geom/Coordinate.dart';
 import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/CoordinateXY.dart';
+import 'package:jtscore4dart/src/geom/CoordinateXYM.dart';
+import 'package:jtscore4dart/src/geom/CoordinateXYZM.dart';
 import 'package:jtscore4dart/src/geom/Envelope.dart';
 
 /// A {@link CoordinateSequence} implementation based on a packed arrays.
@@ -34,37 +39,41 @@ import 'package:jtscore4dart/src/geom/Envelope.dart';
 /// of the internal values.
 /// To change the actual values, use the provided setters.
 /// <p>
+/// The ordinates are stored interleaved in a single typed array
+/// (<code>x0,y0[,z0][,m0], x1,y1,...</code>), so a sequence costs one
+/// object regardless of its size.
+/// The supported layouts are XY, XYZ, XYM and XYZM.
+/// <p>
 /// For efficiency, created Coordinate arrays
-/// are cached using a soft reference.
+/// are cached using a weak reference.
 /// The cache is cleared each time the coordinate sequence contents are
 /// modified through a setter method.
 ///
 /// @version 1.7
-abstract class PackedCoordinateSequence implements CoordinateSequence
+abstract class PackedCoordinateSequence extends CoordinateSequence
 {
   ///**private */static final int serialVersionUID = -3151899011275603L;
   /// The dimensions of the coordinates held in the packed array
-  /**protected */ int dimension;
-  
+  /**protected */ final int dimension;
+
   /// The number of measures of the coordinates held in the packed array.
-  /**protected */ int measures;
+  /**protected */ final int measures;
 
   /// Creates an instance of this class
   /// @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
   /// @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
-  /**protected */ PackedCoordinateSequence(int _dimension, int _measures ) {
-      if (_dimension - _measures < 2) {
-         throw ArgumentError("Must have at least 2 spatial dimensions");
-      }
-      dimension = _dimension;
-      measures = _measures;
+  /**protected */ PackedCoordinateSequence(this.dimension, this.measures) {
+    if (dimension - measures < 2) {
+      throw ArgumentError("Must have at least 2 spatial dimensions");
+    }
   }
-  
-  /// A soft reference to the List<Coordinate> representation of this sequence.
+
+  /// A weak reference to the List<Coordinate> representation of this sequence.
   /// Makes repeated coordinate array accesses more efficient.
-  /**protected transient 不序列化某个变量 */  SoftReference<List<Coordinate>> coordRef;
+  /**protected transient */ WeakReference<List<Coordinate>>? coordRef;
 
   /// @see CoordinateSequence#getDimension()
+  @override
   int getDimension() {
     return this.dimension;
   }
@@ -76,20 +85,25 @@ abstract class PackedCoordinateSequence implements CoordinateSequence
   }
 
   /// @see CoordinateSequence#getCoordinate(int)
+  @override
   Coordinate getCoordinate(int i) {
-    List<Coordinate> coords = getCachedCoords();
-    if(coords != null)
+    List<Coordinate>? coords = getCachedCoords();
+    if (coords != null) {
       return coords[i];
-    else
+    } else {
       return getCoordinateInternal(i);
+    }
   }
+
   /// @see CoordinateSequence#getCoordinate(int)
+  @override
   Coordinate getCoordinateCopy(int i) {
     return getCoordinateInternal(i);
   }
 
-  /// @see CoordinateSequence#getCoordinate(int)
-  void getCoordinate(int i, Coordinate coord) {
+  /// @see CoordinateSequence#getCoordinate(int, Coordinate)
+  @override
+  void getCoordinateTo(int i, Coordinate coord) {
     coord.x = getOrdinate(i, 0);
     coord.y = getOrdinate(i, 1);
     if (hasZ()) {
@@ -101,50 +115,42 @@ abstract class PackedCoordinateSequence implements CoordinateSequence
   }
 
   /// @see CoordinateSequence#toCoordinateArray()
+  @override
   List<Coordinate> toCoordinateArray() {
-    List<Coordinate> coords = getCachedCoords();
-// testing - never cache
-    if (coords != null)
+    List<Coordinate>? coords = getCachedCoords();
+    if (coords != null) {
       return coords;
-
-    coords = new Coordinate[size()];
-    for (int i = 0; i < coords.length; i++) {
-      coords[i] = getCoordinateInternal(i);
     }
-    coordRef = new SoftReference<List<Coordinate>>(coords);
+
+    coords = List<Coordinate>.generate(size(), getCoordinateInternal, growable: false);
+    coordRef = WeakReference<List<Coordinate>>(coords);
 
     return coords;
   }
 
- /**private */List<Coordinate> getCachedCoords() {
-    if (coordRef != null) {
-      List<Coordinate> coords = (List<Coordinate>) coordRef.get();
-      if (coords != null) {
-        return coords;
-      } else {
-        // System.out.print("-");
-        coordRef = null;
-        return null;
-      }
-    } else {
-      // System.out.print("-");
-      return null;
+ /**private */List<Coordinate>? getCachedCoords() {
+    List<Coordinate>? coords = coordRef?.target;
+    if (coords == null) {
+      coordRef = null;
     }
-
+    return coords;
   }
 
   /// @see CoordinateSequence#getX(int)
+  @override
   double getX(int index) {
     return getOrdinate(index, 0);
   }
 
   /// @see CoordinateSequence#getY(int)
+  @override
   double getY(int index) {
     return getOrdinate(index, 1);
   }
 
   /// @see CoordinateSequence#getOrdinate(int, int)
-  abstract double getOrdinate(int index, int ordinateIndex);
+  @override
+  double getOrdinate(int index, int ordinateIndex);
 
   /// Sets the first ordinate of a coordinate in this sequence.
   ///
@@ -164,29 +170,66 @@ abstract class PackedCoordinateSequence implements CoordinateSequence
     setOrdinate(index, 1, value);
   }
 
+  /// Creates a string representation of this sequence.
+  /// The format is:
+  /// <pre>
+  ///   ( ord0,ord1.. ord0,ord1,...  ... )
+  /// </pre>
+  @override
   String toString()
   {
-    return CoordinateSequences.toString(this);
+    int n = size();
+    if (n == 0) {
+      return "()";
+    }
+    StringBuffer builder = StringBuffer();
+    builder.write('(');
+    for (int i = 0; i < n; i++) {
+      if (i > 0) builder.write(" ");
+      for (int d = 0; d < dimension; d++) {
+        if (d > 0) builder.write(",");
+        builder.write(getOrdinate(i, d));
+      }
+    }
+    builder.write(')');
+    return builder.toString();
   }
 
- /**protected */Object readResolve() throws ObjectStreamException {
-    coordRef = null;
-    return this;
-  }
-  
   /// Returns a Coordinate representation of the specified coordinate, by always
   /// building a new Coordinate object
   ///
   /// @param index  the coordinate index
   /// @return  the {@link Coordinate} at the given index
- /**protected */abstract Coordinate getCoordinateInternal(int index);
+ /**protected */Coordinate getCoordinateInternal(int index);
+
+  /// Creates a {@link Coordinate} of the subclass matching the
+  /// dimension and measures of this sequence.
+ /**protected */Coordinate createCoordinateInternal(double x, double y, double ord2, double ord3) {
+    if (dimension == 2 && measures == 0) {
+      return CoordinateXY(x, y);
+    }
+    else if (dimension == 3 && measures == 0) {
+      return Coordinate(x, y, ord2);
+    }
+    else if (dimension == 3 && measures == 1) {
+      return CoordinateXYM(x, y, ord2);
+    }
+    else if (dimension == 4) {
+      return CoordinateXYZM(x, y, ord2, ord3);
+    }
+    return Coordinate(x, y);
+  }
 
   /// @see java.lang.Object#clone()
   /// @see CoordinateSequence#clone()
   /// @deprecated
-  abstract Object clone();
-  
-  abstract PackedCoordinateSequence copy();
+  @override
+  Object clone() {
+    return copy();
+  }
+
+  @override
+  PackedCoordinateSequence copy();
 
   /// Sets the ordinate of a coordinate in this sequence.
   /// <br>
@@ -200,372 +243,249 @@ abstract class PackedCoordinateSequence implements CoordinateSequence
   ///          number of dimensions
   /// @param value
   ///          the new ordinate value
-  abstract void setOrdinate(int index, int ordinate, double value);
-
-  /**
-   * Packed coordinate sequence implementation based on doubles
-   */
-  static class Double extends PackedCoordinateSequence {
-   /**private */static final int serialVersionUID = 5777450686367912719L;
-    /**
-     * The packed coordinate array
-     */
-    double[] coords;
-
-    /**
-     * Builds a new packed coordinate sequence
-     *
-     * @param coords  an array of <code>double</code> values that contains the ordinate values of the sequence
-     * @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
-     * @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
-     */
-    Double(double[] coords, int dimension, int measures) {
-      super(dimension,measures);
-      if (coords.length % dimension != 0) {
-        throw new ArgumentError("Packed array does not contain "
-            + "an integral number of coordinates");
-      }
-      this.coords = coords;
-    }
-    
-    /**
-     * Builds a new packed coordinate sequence out of a float coordinate array
-     *
-     * @param coords  an array of <code>float</code> values that contains the ordinate values of the sequence
-     * @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
-     * @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
-     */
-    Double(float[] coords, int dimension, int measures) {
-      super(dimension,measures);
-      this.coords = new double[coords.length];
-      for (int i = 0; i < coords.length; i++) {
-        this.coords[i] = coords[i];
+  @override
+  void setOrdinate(int index, int ordinate, double value);
+
+  /// Copies the ordinates of a list of {@link Coordinate}s into
+  /// a packed array of the given dimension.
+ /**protected */static void packCoordinates(List<Coordinate> coordinates, List<double> coords, int dimension) {
+    for (int i = 0; i < coordinates.length; i++) {
+      int offset = i * dimension;
+      Coordinate c = coordinates[i];
+      coords[offset] = c.x;
+      coords[offset + 1] = c.y;
+      if (dimension >= 3) {
+        coords[offset + 2] = c.getOrdinate(2)!; // Z or M
       }
-    }
-    
-    /**
-     * Builds a new packed coordinate sequence out of a coordinate array
-     * 
-     * @param coordinates an array of {@link Coordinate}s
-     * @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
-     */
-    Double(List<Coordinate> coordinates, int dimension) {
-      this( coordinates, dimension,  math.max(0,dimension-3));
-    }
-    /**
-     * Builds a new packed coordinate sequence out of a coordinate array
-     *
-     * @param coordinates an array of {@link Coordinate}s
-     * @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
-     * @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
-     */
-    Double(List<Coordinate> coordinates, int dimension, int measures) {
-      super(dimension,measures);
-      if (coordinates == null)
-        coordinates = new Coordinate[0];
-      
-      coords = new double[coordinates.length * this.dimension];
-      for (int i = 0; i < coordinates.length; i++) {
-        int offset = i * dimension;
-        coords[offset] = coordinates[i].x;
-        coords[offset + 1] = coordinates[i].y;
-        if (dimension >= 3)
-          coords[offset + 2] = coordinates[i].getOrdinate(2); // Z or M
-        if (dimension >= 4)
-          coords[offset + 3] = coordinates[i].getOrdinate(3); // M
+      if (dimension >= 4) {
+        coords[offset + 3] = c.getOrdinate(3)!; // M
       }
     }
-    /**
-     * Builds a new packed coordinate sequence out of a coordinate array
-     *
-     * @param coordinates an array of {@link Coordinate}s
-     */
-    Double(List<Coordinate> coordinates) {
-      this(coordinates, 3, 0);
-    }
+  }
 
-    /**
-     * Builds a new empty packed coordinate sequence of a given size and dimension
-     *
-     * @param size the number of coordinates in this sequence
-     * @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
-     * @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
-     */
-    Double(int size, int dimension, int measures) {
-      super(dimension,measures);  
-      coords = new double[size * this.dimension];
+  /// Checks that a packed array holds a whole number of coordinates.
+ /**protected */static void checkPackedLength(int length, int dimension) {
+    if (length % dimension != 0) {
+      throw ArgumentError("Packed array does not contain "
+          "an integral number of coordinates");
     }
+  }
+}
 
-    /**
-     * @see PackedCoordinateSequence#getCoordinate(int)
-     */
-    Coordinate getCoordinateInternal(int i) {
-      double x = coords[i * dimension];
-      double y = coords[i * dimension + 1];
-      if( dimension == 2 && measures == 0 ) {
-        return new CoordinateXY(x,y);
-      }
-      else if (dimension == 3 && measures == 0) {
-        double z = coords[i * dimension + 2];
-        return new Coordinate(x,y,z);
-      }
-      else if (dimension == 3 && measures == 1) {
-        double m = coords[i * dimension + 2];
-        return new CoordinateXYM(x,y,m);
-      }
-      else if (dimension == 4) {
-        double z = coords[i * dimension + 2];
-        double m = coords[i * dimension + 3];
-        return new CoordinateXYZM(x,y,z,m);
-      }
-      return new Coordinate(x, y);
-    }
+/// Packed coordinate sequence implementation based on doubles,
+/// stored in a {@link Float64List}.
+class PackedCoordinateSequenceDouble extends PackedCoordinateSequence {
+  ///**private */static final int serialVersionUID = 5777450686367912719L;
+  /// The packed coordinate array
+  Float64List coords;
 
-    /**
-     * Gets the underlying array containing the coordinate values.
-     * 
-     * @return the array of coordinate values
-     */
-    double[] getRawCoordinates()
-    {
-      return coords;
-    }
-    
-    /**
-     * @see CoordinateSequence#size()
-     */
-    int size() {
-      return coords.length / dimension;
-    }
+  /// Builds a new packed coordinate sequence.
+  /// The array is referenced, not copied.
+  ///
+  /// @param coords  an array of <code>double</code> values that contains the ordinate values of the sequence
+  /// @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
+  /// @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
+  PackedCoordinateSequenceDouble(this.coords, int dimension, int measures)
+      : super(dimension, measures) {
+    PackedCoordinateSequence.checkPackedLength(coords.length, dimension);
+  }
 
-    /**
-     * @see java.lang.Object#clone()
-     * @see PackedCoordinateSequence#clone()
-     * @deprecated
-     */
-    Object clone() {
-      return copy();
-    }
+  /// Builds a new packed coordinate sequence out of a float coordinate array
+  ///
+  /// @param coords  an array of <code>float</code> values that contains the ordinate values of the sequence
+  /// @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
+  /// @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
+  PackedCoordinateSequenceDouble.fromFloats(Float32List coords, int dimension, int measures)
+      : coords = Float64List.fromList(coords),
+        super(dimension, measures) {
+    PackedCoordinateSequence.checkPackedLength(coords.length, dimension);
+  }
 
-    /**
-     * @see PackedCoordinateSequence#size()
-     */
-    Double copy() {
-      double[] clone = Arrays.copyOf(coords, coords.length);
-      return new Double(clone, dimension, measures);
-    }
-    
-    /**
-     * @see PackedCoordinateSequence#getOrdinate(int, int)
-     *      Beware, for performance reasons the ordinate index is not checked, if
-     *      it's over dimensions you may not get an exception but a meaningless
-     *      value.
-     */
-    double getOrdinate(int index, int ordinate) {
-      return coords[index * dimension + ordinate];
-    }
+  /// Builds a new packed coordinate sequence out of a coordinate array.
+  /// If the measures are not given they are taken to be
+  /// <code>max(0, dimension - 3)</code>.
+  ///
+  /// @param coordinates an array of {@link Coordinate}s
+  /// @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
+  /// @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
+  PackedCoordinateSequenceDouble.fromCoordinates(List<Coordinate> coordinates, [int dimension = 3, int? measures])
+      : coords = Float64List(coordinates.length * dimension),
+        super(dimension, measures ?? math.max(0, dimension - 3)) {
+    PackedCoordinateSequence.packCoordinates(coordinates, coords, dimension);
+  }
 
-    /**
-     * @see PackedCoordinateSequence#setOrdinate(int, int, double)
-     */
-    void setOrdinate(int index, int ordinate, double value) {
-      coordRef = null;
-      coords[index * dimension + ordinate] = value;
-    }
+  /// Builds a new empty packed coordinate sequence of a given size and dimension
+  ///
+  /// @param size the number of coordinates in this sequence
+  /// @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
+  /// @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
+  PackedCoordinateSequenceDouble.withSize(int size, int dimension, int measures)
+      : coords = Float64List(size * dimension),
+        super(dimension, measures);
 
-    /**
-     * @see CoordinateSequence#expandEnvelope(Envelope)
-     */
-    Envelope expandEnvelope(Envelope env)
-    {
-      for (int i = 0; i < coords.length; i += dimension ) {
-        // added to make static code analysis happy
-        if (i + 1 < coords.length) {
-          env.expandToInclude(coords[i], coords[i + 1]);
-        }
-      }
-      return env;
-    }
+  /// @see PackedCoordinateSequence#getCoordinate(int)
+  @override
+  Coordinate getCoordinateInternal(int i) {
+    int offset = i * dimension;
+    return createCoordinateInternal(
+        coords[offset],
+        coords[offset + 1],
+        dimension > 2 ? coords[offset + 2] : Coordinate.NULL_ORDINATE,
+        dimension > 3 ? coords[offset + 3] : Coordinate.NULL_ORDINATE);
   }
 
-  /**
-   * Packed coordinate sequence implementation based on floats
-   */
-  static class Float extends PackedCoordinateSequence {
-   /**private */static final int serialVersionUID = -2902252401427938986L;
-    /**
-     * The packed coordinate array
-     */
-    float[] coords;
-
-    /**
-     * Constructs a packed coordinate sequence from an array of <code>float</code>s
-     *
-     * @param coords  an array of <code>float</code> values that contains the ordinate values of the sequence
-     * @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
-     * @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
-     */
-    Float(float[] coords, int dimension, int measures) {
-      super(dimension,measures);
-      if (coords.length % dimension != 0) {
-        throw new ArgumentError("Packed array does not contain "
-            + "an integral number of coordinates");
-      }
-      this.coords = coords;
-    }
+  /// Gets the underlying array containing the coordinate values.
+  ///
+  /// @return the array of coordinate values
+  Float64List getRawCoordinates()
+  {
+    return coords;
+  }
 
-    /**
-     * Constructs a packed coordinate sequence from an array of <code>double</code>s
-     *
-     * @param coords  an array of <code>double</code> values that contains the ordinate values of the sequence
-     * @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
-     * @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
-     */
-    Float(double[] coords, int dimension, int measures) {
-      super(dimension,measures);
-      this.coords = new float[coords.length];
-      
-      for (int i = 0; i < coords.length; i++) {
-        this.coords[i] = (float) coords[i];
-      }
-    }
+  /// @see CoordinateSequence#size()
+  @override
+  int size() {
+    return coords.length ~/ dimension;
+  }
 
-    /**
-     * Builds a new packed coordinate sequence out of a coordinate array
-     *
-     * @param coordinates an array of {@link Coordinate}s
-     * @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
-     */
-    Float(List<Coordinate> coordinates, int dimension) {
-      this( coordinates, dimension, math.max(0,dimension-3));
-    }
-    
-    /**
-     * Constructs a packed coordinate sequence out of a coordinate array
-     *
-     * @param coordinates an array of {@link Coordinate}s
-     * @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
-     * @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
-     */
-    Float(List<Coordinate> coordinates, int dimension, int measures) {
-      super(dimension,measures);
-      if (coordinates == null)
-        coordinates = new Coordinate[0];
-      
-      coords = new float[coordinates.length * dimension];
-      for (int i = 0; i < coordinates.length; i++) {
-        int offset = i * dimension;
-        coords[offset] = (float) coordinates[i].x;
-        coords[offset + 1] = (float) coordinates[i].y;
-        if (dimension >= 3)
-          coords[offset + 2] = (float) coordinates[i].getOrdinate(2); // Z or M
-        if (dimension >= 4)
-          coords[offset + 3] = (float) coordinates[i].getOrdinate(3); // M
-      }
-    }
+  /// @see PackedCoordinateSequence#copy()
+  @override
+  PackedCoordinateSequenceDouble copy() {
+    return PackedCoordinateSequenceDouble(Float64List.fromList(coords), dimension, measures);
+  }
 
-    /**
-     * Constructs an empty packed coordinate sequence of a given size and dimension
-     *
-     * @param size the number of coordinates in this sequence
-     * @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
-     * @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
-     */
-    Float(int size, int dimension,int measures) {
-      super(dimension,measures);
-      coords = new float[size * this.dimension];
-    }
+  /// @see PackedCoordinateSequence#getOrdinate(int, int)
+  ///      Beware, for performance reasons the ordinate index is not checked, if
+  ///      it's over dimensions you may not get an exception but a meaningless
+  ///      value.
+  @override
+  double getOrdinate(int index, int ordinate) {
+    return coords[index * dimension + ordinate];
+  }
 
-    /**
-     * @see PackedCoordinateSequence#getCoordinate(int)
-     */
-    Coordinate getCoordinateInternal(int i) {
-      double x = coords[i * dimension];
-      double y = coords[i * dimension + 1];
-      if( dimension == 2 && measures == 0 ) {
-        return new CoordinateXY(x,y);
-      }
-      else if (dimension == 3 && measures == 0) {
-        double z = coords[i * dimension + 2];
-        return new Coordinate(x,y,z);
-      }
-      else if (dimension == 3 && measures == 1) {
-        double m = coords[i * dimension + 2];
-        return new CoordinateXYM(x,y,m);
-      }
-      else if (dimension == 4) {
-        double z = coords[i * dimension + 2];
-        float m = coords[i * dimension + 3];
-        return new CoordinateXYZM(x,y,z,m);
-      }
-      return new Coordinate(x, y);
-    }
+  /// @see PackedCoordinateSequence#setOrdinate(int, int, double)
+  @override
+  void setOrdinate(int index, int ordinate, double value) {
+    coordRef = null;
+    coords[index * dimension + ordinate] = value;
+  }
 
-    /**
-     * Gets the underlying array containing the coordinate values.
-     * 
-     * @return the array of coordinate values
-     */
-    float[] getRawCoordinates()
-    {
-      return coords;
-    }
-    
-    /**
-     * @see CoordinateSequence#size()
-     */
-    int size() {
-      return coords.length / dimension;
+  /// @see CoordinateSequence#expandEnvelope(Envelope)
+  @override
+  Envelope expandEnvelope(Envelope env)
+  {
+    for (int i = 0; i + 1 < coords.length; i += dimension) {
+      env.expandToIncludeXY(coords[i], coords[i + 1]);
     }
+    return env;
+  }
+}
 
-    /**
-     * @see java.lang.Object#clone()
-     * @see PackedCoordinateSequence#clone()
-     * @deprecated
-     */
-    Object clone() {
-      return copy();
-    }
+/// Packed coordinate sequence implementation based on floats,
+/// stored in a {@link Float32List}.
+class PackedCoordinateSequenceFloat extends PackedCoordinateSequence {
+  ///**private */static final int serialVersionUID = -2902252401427938986L;
+  /// The packed coordinate array
+  Float32List coords;
 
-    /**
-     * @see PackedCoordinateSequence#copy()
-     */
-    Float copy() {
-      float[] clone = Arrays.copyOf(coords, coords.length);
-      return new Float(clone, dimension,measures);
-    }
+  /// Constructs a packed coordinate sequence from an array of <code>float</code>s.
+  /// The array is referenced, not copied.
+  ///
+  /// @param coords  an array of <code>float</code> values that contains the ordinate values of the sequence
+  /// @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
+  /// @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
+  PackedCoordinateSequenceFloat(this.coords, int dimension, int measures)
+      : super(dimension, measures) {
+    PackedCoordinateSequence.checkPackedLength(coords.length, dimension);
+  }
 
-    /**
-     * @see PackedCoordinateSequence#getOrdinate(int, int)
-     *      For performance reasons the ordinate index is not checked.
-     *      If it is larger than the dimension a meaningless
-     *      value may be returned.
-     */
-    double getOrdinate(int index, int ordinate) {
-      return coords[index * dimension + ordinate];
-    }
+  /// Constructs a packed coordinate sequence from an array of <code>double</code>s
+  ///
+  /// @param coords  an array of <code>double</code> values that contains the ordinate values of the sequence
+  /// @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
+  /// @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
+  PackedCoordinateSequenceFloat.fromDoubles(Float64List coords, int dimension, int measures)
+      : coords = Float32List.fromList(coords),
+        super(dimension, measures) {
+    PackedCoordinateSequence.checkPackedLength(coords.length, dimension);
+  }
 
-    /**
-     * @see PackedCoordinateSequence#setOrdinate(int, int, double)
-     */
-    void setOrdinate(int index, int ordinate, double value) {
-      coordRef = null;
-      coords[index * dimension + ordinate] = (float) value;
-    }
+  /// Constructs a packed coordinate sequence out of a coordinate array.
+  /// If the measures are not given they are taken to be
+  /// <code>max(0, dimension - 3)</code>.
+  ///
+  /// @param coordinates an array of {@link Coordinate}s
+  /// @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
+  /// @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
+  PackedCoordinateSequenceFloat.fromCoordinates(List<Coordinate> coordinates, [int dimension = 3, int? measures])
+      : coords = Float32List(coordinates.length * dimension),
+        super(dimension, measures ?? math.max(0, dimension - 3)) {
+    PackedCoordinateSequence.packCoordinates(coordinates, coords, dimension);
+  }
 
-    /**
-     * @see CoordinateSequence#expandEnvelope(Envelope)
-     */
-    Envelope expandEnvelope(Envelope env)
-    {
-      for (int i = 0; i < coords.length; i += dimension ) {
-        // added to make static code analysis happy
-        if (i + 1 < coords.length) {
-          env.expandToInclude(coords[i], coords[i + 1]);
-        }
-      }
-      return env;
-    }
+  /// Constructs an empty packed coordinate sequence of a given size and dimension
+  ///
+  /// @param size the number of coordinates in this sequence
+  /// @param dimension the total number of ordinates that make up a {@link Coordinate} in this sequence.
+  /// @param measures the number of measure-ordinates each {@link Coordinate} in this sequence has.
+  PackedCoordinateSequenceFloat.withSize(int size, int dimension, int measures)
+      : coords = Float32List(size * dimension),
+        super(dimension, measures);
+
+  /// @see PackedCoordinateSequence#getCoordinate(int)
+  @override
+  Coordinate getCoordinateInternal(int i) {
+    int offset = i * dimension;
+    return createCoordinateInternal(
+        coords[offset],
+        coords[offset + 1],
+        dimension > 2 ? coords[offset + 2] : Coordinate.NULL_ORDINATE,
+        dimension > 3 ? coords[offset + 3] : Coordinate.NULL_ORDINATE);
+  }
+
+  /// Gets the underlying array containing the coordinate values.
+  ///
+  /// @return the array of coordinate values
+  Float32List getRawCoordinates()
+  {
+    return coords;
+  }
+
+  /// @see CoordinateSequence#size()
+  @override
+  int size() {
+    return coords.length ~/ dimension;
+  }
+
+  /// @see PackedCoordinateSequence#copy()
+  @override
+  PackedCoordinateSequenceFloat copy() {
+    return PackedCoordinateSequenceFloat(Float32List.fromList(coords), dimension, measures);
+  }
+
+  /// @see PackedCoordinateSequence#getOrdinate(int, int)
+  ///      For performance reasons the ordinate index is not checked.
+  ///      If it is larger than the dimension a meaningless
+  ///      value may be returned.
+  @override
+  double getOrdinate(int index, int ordinate) {
+    return coords[index * dimension + ordinate];
+  }
+
+  /// @see PackedCoordinateSequence#setOrdinate(int, int, double)
+  @override
+  void setOrdinate(int index, int ordinate, double value) {
+    coordRef = null;
+    coords[index * dimension + ordinate] = value;
   }
 
+  /// @see CoordinateSequence#expandEnvelope(Envelope)
+  @override
+  Envelope expandEnvelope(Envelope env)
+  {
+    for (int i = 0; i + 1 < coords.length; i += dimension) {
+      env.expandToIncludeXY(coords[i], coords[i + 1]);
+    }
+    return env;
+  }
 }
@@ -20,6 +20,9 @@
 // import org.locationtech.jts.geom.CoordinateSequenceFactory;
 // import org.locationtech.jts.geom.Coordinates;
 
+import 'dart:math' as math;
+import 'dart:typed_data';
+
 import 'package:jtscore4dart/src/geom/Coordinate.dart';
 
 import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
@@ -28,32 +31,39 @@ import 'package:jtscore4dart/src/geom/Coordinates.dart';
 import '../CoordinateSequenceFactory.dart';
 import 'PackedCoordinateSequence.dart';
 
-/// Builds packed array coordinate sequences. 
+/// Builds packed array coordinate sequences.
 /// The array data type can be either
-/// <code>double</code> or <code>float</code>, 
+/// <code>double</code> ({@link Float64List}) or <code>float</code> ({@link Float32List}),
 /// and defaults to <code>double</code>.
+/// <p>
+/// To have a {@link GeometryFactory} build geometries with packed
+/// storage, pass the factory to it:
+/// <pre>
+///   GeometryFactory(PrecisionModel(), 0, PackedCoordinateSequenceFactory.DOUBLE_FACTORY)
+/// </pre>
+/// or use {@link GeometryFactory#withCoordinateSequenceFactory}.
 class PackedCoordinateSequenceFactory implements
     CoordinateSequenceFactory
 {
 //  /**private */static final int serialVersionUID = -3558264771905224525L;
-  
+
   /// Type code for arrays of type <code>double</code>.
   static const int DOUBLE = 0;
-  
+
   /// Type code for arrays of type <code>float</code>.
   static const int FLOAT = 1;
 
   /// A factory using array type {@link #DOUBLE}
   static final PackedCoordinateSequenceFactory DOUBLE_FACTORY =
       new PackedCoordinateSequenceFactory(DOUBLE);
-  
+
   /// A factory using array type {@link #FLOAT}
   static final PackedCoordinateSequenceFactory FLOAT_FACTORY =
       new PackedCoordinateSequenceFactory(FLOAT);
 
- static final int DEFAULT_MEASURES = 0;
+ static const int DEFAULT_MEASURES = 0;
 
- static final int DEFAULT_DIMENSION = 3;
+ static const int DEFAULT_DIMENSION = 3;
 
   final int _type;
 
@@ -73,7 +83,7 @@ class PackedCoordinateSequenceFactory implements
   /// Gets the type of packed coordinate sequence this factory builds, either
   /// {@linkplain PackedCoordinateSequenceFactory#FLOAT} or
   /// {@linkplain PackedCoordinateSequenceFactory#DOUBLE}
-  /// 
+  ///
   /// @return the type of packed array built
   int getType() {
     return _type;
@@ -81,109 +91,98 @@ class PackedCoordinateSequenceFactory implements
 
   /// @see CoordinateSequenceFactory#create(List<Coordinate>)
   @override
-  CoordinateSequence createFromListCoord(List<Coordinate> coordinates) {
+  CoordinateSequence create(List<Coordinate> coordinates) {
     int dimension = DEFAULT_DIMENSION;
     int measures = DEFAULT_MEASURES;
-    if (coordinates != null && coordinates.length > 0 && coordinates[0] != null) {
+    if (coordinates.isNotEmpty) {
       Coordinate first = coordinates[0];
       dimension = Coordinates.dimension(first);
       measures = Coordinates.measures(first);
     }
     if (_type == DOUBLE) {
-      return new PackedCoordinateSequence.Double(coordinates, dimension, measures);
+      return new PackedCoordinateSequenceDouble.fromCoordinates(coordinates, dimension, measures);
     } else {
-      return new PackedCoordinateSequence.Float(coordinates,  dimension, measures);
+      return new PackedCoordinateSequenceFloat.fromCoordinates(coordinates,  dimension, measures);
     }
   }
 
+  /// Packed sequences of the same array type are copied directly
+  /// from their raw ordinate array, without materializing {@link Coordinate}s.
+  ///
   /// @see CoordinateSequenceFactory#create(CoordinateSequence)
   @override
-  CoordinateSequence createFromAnother(CoordinateSequence coordSeq) {
+  CoordinateSequence createFromCoordSeq(CoordinateSequence coordSeq) {
     int dimension = coordSeq.getDimension();
     int measures = coordSeq.getMeasures();
     if (_type == DOUBLE) {
-      return new PackedCoordinateSequence.Double(coordSeq.toCoordinateArray(), dimension, measures);
+      if (coordSeq is PackedCoordinateSequenceDouble) {
+        return coordSeq.copy();
+      }
+      if (coordSeq is PackedCoordinateSequenceFloat) {
+        return new PackedCoordinateSequenceDouble.fromFloats(coordSeq.getRawCoordinates(), dimension, measures);
+      }
+      return new PackedCoordinateSequenceDouble.fromCoordinates(coordSeq.toCoordinateArray(), dimension, measures);
     } else {
-      return new PackedCoordinateSequence.Float(coordSeq.toCoordinateArray(), dimension, measures);
+      if (coordSeq is PackedCoordinateSequenceFloat) {
+        return coordSeq.copy();
+      }
+      if (coordSeq is PackedCoordinateSequenceDouble) {
+        return new PackedCoordinateSequenceFloat.fromDoubles(coordSeq.getRawCoordinates(), dimension, measures);
+      }
+      return new PackedCoordinateSequenceFloat.fromCoordinates(coordSeq.toCoordinateArray(), dimension, measures);
     }
   }
 
-  /// Creates a packed coordinate sequence of type {@link #DOUBLE}
-  /// from the provided array
-  /// using the given coordinate dimension and a measure count of 0. 
-  /// 
-  /// @param packedCoordinates the array containing coordinate values
-  /// @param dimension the coordinate dimension
-  /// @return a packed coordinate sequence of type {@link #DOUBLE}
-  @override
-  CoordinateSequence create(double[] packedCoordinates, int dimension) {
-    return create( packedCoordinates, dimension, DEFAULT_MEASURES );
-  }
-  
-  /// Creates a packed coordinate sequence of type {@link #DOUBLE}
-  /// from the provided array
-  /// using the given coordinate dimension and measure count. 
-  /// 
+  /// Creates a packed coordinate sequence of the factory type
+  /// from the provided array of <code>double</code>s
+  /// using the given coordinate dimension and measure count.
+  /// For the {@link #DOUBLE} type the array is referenced, not copied.
+  ///
   /// @param packedCoordinates the array containing coordinate values
   /// @param dimension the coordinate dimension
   /// @param measures the coordinate measure count
-  /// @return a packed coordinate sequence of type {@link #DOUBLE}
-  @override
-  CoordinateSequence create(double[] packedCoordinates, int dimension, int measures) {
+  /// @return a packed coordinate sequence of the factory type
+  CoordinateSequence createFromDoubles(Float64List packedCoordinates, int dimension, [int measures = DEFAULT_MEASURES]) {
     if (_type == DOUBLE) {
-      return new PackedCoordinateSequence.Double(packedCoordinates, dimension, measures);
+      return new PackedCoordinateSequenceDouble(packedCoordinates, dimension, measures);
     } else {
-      return new PackedCoordinateSequence.Float(packedCoordinates, dimension, measures);
+      return new PackedCoordinateSequenceFloat.fromDoubles(packedCoordinates, dimension, measures);
     }
   }
-  /// Creates a packed coordinate sequence of type {@link #FLOAT}
-  /// from the provided array. 
-  /// 
-  /// @param packedCoordinates the array containing coordinate values
-  /// @param dimension the coordinate dimension
-  /// @return a packed coordinate sequence of type {@link #FLOAT}
-  @override
-  CoordinateSequence create(float[] packedCoordinates, int dimension) {
-    return create( packedCoordinates, dimension, math.max(DEFAULT_MEASURES, dimension-3) );
-  }
-  
-  /// Creates a packed coordinate sequence of type {@link #FLOAT}
-  /// from the provided array. 
-  /// 
+
+  /// Creates a packed coordinate sequence of the factory type
+  /// from the provided array of <code>float</code>s.
+  /// If the measures are not given they are taken to be
+  /// <code>max(0, dimension - 3)</code>.
+  /// For the {@link #FLOAT} type the array is referenced, not copied.
+  ///
   /// @param packedCoordinates the array containing coordinate values
   /// @param dimension the coordinate dimension
   /// @param measures the coordinate measure count
-  /// @return a packed coordinate sequence of type {@link #FLOAT}
-  @override
-  CoordinateSequence create(float[] packedCoordinates, int dimension, int measures) {
+  /// @return a packed coordinate sequence of the factory type
+  CoordinateSequence createFromFloats(Float32List packedCoordinates, int dimension, [int? measures]) {
+    measures ??= math.max(DEFAULT_MEASURES, dimension-3);
     if (_type == DOUBLE) {
-      return new PackedCoordinateSequence.Double(packedCoordinates, dimension, measures);
+      return new PackedCoordinateSequenceDouble.fromFloats(packedCoordinates, dimension, measures);
     } else {
-      return new PackedCoordinateSequence.Float(packedCoordinates, dimension, measures);
+      return new PackedCoordinateSequenceFloat(packedCoordinates, dimension, measures);
     }
   }
 
   /// @see org.locationtech.jts.geom.CoordinateSequenceFactory#create(int, int)
   @override
   CoordinateSequence createBySize(int size, int dimension) {
-    if (_type == DOUBLE) {
-      return new PackedCoordinateSequence.Double(
-              size, dimension, math.max(DEFAULT_MEASURES, dimension-3));
-    } else {
-      return new PackedCoordinateSequence.Float(
-              size, dimension, math.max(DEFAULT_MEASURES, dimension-3));
-    }
+    return createWithSize(size, dimension, math.max(DEFAULT_MEASURES, dimension-3));
   }
-  
+
   /// @see org.locationtech.jts.geom.CoordinateSequenceFactory#create(int, int, int)
   @override
-  CoordinateSequence create(int size, int dimension, int measures) {
+  CoordinateSequence createWithSize(int size, int dimension, [int? measures]) {
+    measures ??= math.max(DEFAULT_MEASURES, dimension-3);
     if (_type == DOUBLE) {
-      return new PackedCoordinateSequence.Double(size, dimension, measures);
+      return new PackedCoordinateSequenceDouble.withSize(size, dimension, measures);
     } else {
-      return new PackedCoordinateSequence.Float(size, dimension, measures);
+      return new PackedCoordinateSequenceFloat.withSize(size, dimension, measures);
     }
   }
-
-
 }
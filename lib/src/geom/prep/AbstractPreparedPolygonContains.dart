@@ -19,6 +19,15 @@
 // import org.locationtech.jts.noding.SegmentIntersectionDetector;
 // import org.locationtech.jts.noding.SegmentStringUtil;
 
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+import 'package:jtscore4dart/src/geom/Polygonal.dart';
+import 'package:jtscore4dart/src/noding/SegmentIntersectionDetector.dart';
+import 'package:jtscore4dart/src/noding/SegmentStringUtil.dart';
+
+import 'PreparedPolygon.dart';
+import 'PreparedPolygonPredicate.dart';
+
 
 
 /**
@@ -50,10 +59,10 @@ abstract class AbstractPreparedPolygonContains
 	 * For contains the value is true.
 	 * For covers the value is false.
 	 */
-	protected bool requireSomePointInInterior = true; 
+ /**protected */bool requireSomePointInInterior = true; 
 	
 	// information about geometric situation
-	private bool hasSegmentIntersection = false;
+ /**private */bool hasSegmentIntersection = false;
  /**private */bool hasProperIntersection = false;
  /**private */bool hasNonProperIntersection = false;
 	
@@ -62,10 +71,7 @@ abstract class AbstractPreparedPolygonContains
    * 
    * @param prepPoly the PreparedPolygon to evaluate
    */
-	AbstractPreparedPolygonContains(PreparedPolygon prepPoly)
-	{
-		super(prepPoly);
-	}
+	AbstractPreparedPolygonContains(PreparedPolygon prepPoly) : super(prepPoly);
 	
 	/**
 	 * Evaluate the <tt>contains</tt> or <tt>covers</tt> relationship
@@ -74,7 +80,7 @@ abstract class AbstractPreparedPolygonContains
 	 * @param geom the test geometry
 	 * @return true if the test geometry is contained
 	 */
-	protected bool eval(Geometry geom)
+ /**protected */bool eval(Geometry geom)
 	{
 	  if (geom.getDimension() == 0) {
 	    return evalPoints(geom);
@@ -161,7 +167,7 @@ abstract class AbstractPreparedPolygonContains
 	 * @param geom a Point or MultiPoint geometry
 	 * @return the value of the predicate being evaluated
 	 */
-	private bool evalPoints(Geometry geom) {
+ /**private */bool evalPoints(Geometry geom) {
     /**
      * Do point-in-poly tests first, since they are cheaper and may result
      * in a quick negative result.
@@ -212,24 +218,24 @@ abstract class AbstractPreparedPolygonContains
    *  
    * @return true if the geometry is a single polygon with no holes
    */
-	private bool isSingleShell(Geometry geom)
+ /**private */bool isSingleShell(Geometry geom)
 	{
     // handles single-element MultiPolygons, as well as Polygons
 		if (geom.getNumGeometries() != 1) return false;
 		
-		Polygon poly = (Polygon) geom.getGeometryN(0);
+		Polygon poly = geom.getGeometryN(0) as Polygon;
 		int numHoles = poly.getNumInteriorRing();
 		if (numHoles == 0) return true;
 		return false;
 	}
 	
-	private void findAndClassifyIntersections(Geometry geom)
+ /**private */void findAndClassifyIntersections(Geometry geom)
 	{
     List lineSegStr = SegmentStringUtil.extractSegmentStrings(geom);
     
 		SegmentIntersectionDetector intDetector = new SegmentIntersectionDetector();
 		intDetector.setFindAllIntersectionTypes(true);
-		prepPoly.getIntersectionFinder().intersects(lineSegStr, intDetector);
+		prepPoly.getIntersectionFinder().intersects$2(lineSegStr, intDetector);
 			
 		hasSegmentIntersection = intDetector.hasIntersection();
     hasProperIntersection = intDetector.hasProperIntersection();
@@ -243,6 +249,6 @@ abstract class AbstractPreparedPolygonContains
 	 * @param geom the test geometry
 	 * @return true if this prepared polygon has the relationship with the test geometry
 	 */
-	protected abstract bool fullTopologicalPredicate(Geometry geom);
+ /**protected */bool fullTopologicalPredicate(Geometry geom);
 	
 }
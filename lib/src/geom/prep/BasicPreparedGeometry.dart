@@ -101,7 +101,7 @@ class BasicPreparedGeometry
    */
  /**protected */bool envelopesIntersect(Geometry g)
   {
-    if (! baseGeom.getEnvelopeInternal().intersectsWith(g.getEnvelopeInternal())) {
+    if (! baseGeom.getEnvelopeView().intersectsWith(g.getEnvelopeView())) {
       return false;
     }
     return true;
@@ -117,7 +117,7 @@ class BasicPreparedGeometry
    */
  /**protected */bool envelopeCovers(Geometry g)
   {
-    if (! baseGeom.getEnvelopeInternal().covers(g.getEnvelopeInternal())) {
+    if (! baseGeom.getEnvelopeView().covers(g.getEnvelopeView())) {
       return false;
     }
     return true;
@@ -141,7 +141,7 @@ class BasicPreparedGeometry
   	// since raw relate is used, provide some optimizations
   	
     // short-circuit test
-    if (! baseGeom.getEnvelopeInternal().contains(g.getEnvelopeInternal())) {
+    if (! baseGeom.getEnvelopeView().contains(g.getEnvelopeView())) {
       return false;
     }
   	
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:collection';
+
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/Lineal.dart';
+import 'package:jtscore4dart/src/geom/Polygonal.dart';
+
+import 'PreparedGeometry.dart';
+import 'PreparedGeometryFactory.dart';
+
+/// A cache of {@link PreparedGeometry}s, so that the indexes built
+/// to evaluate predicates against a geometry are reused
+/// each time the geometry is tested.
+/// <p>
+/// Entries are keyed either by a geometry (compared by identity)
+/// or by a user-supplied id (compared by <code>==</code>).
+/// The cache is bounded both in the number of entries and in the total
+/// number of vertices of the cached geometries
+/// (which the size of the prepared indexes is proportional to).
+/// When either bound is exceeded the least recently used entries are evicted.
+/// Hits, misses and evictions are counted.
+/// <p>
+/// A cache can also be installed as the default cache with {@link #setDefault}.
+/// {@link Geometry#intersects} and {@link Geometry#contains} then use
+/// the prepared form of a polygonal (or, for <code>intersects</code>, lineal) geometry
+/// once it has been tested {@link #getMinUses} times,
+/// so that geometries which are tested repeatedly are prepared transparently.
+/// <p>
+/// A geometry which is changed in place must be notified with
+/// {@link Geometry#geometryChanged}, as for its cached envelope.
+/// This drops it from the default cache,
+/// and makes it stale in any other cache, where it is prepared again when next used.
+/// <p>
+/// Isolates do not share memory, so each isolate has its own default cache,
+/// and a cache needs no locking.
+/// A cache must not be sent to another isolate.
+class PreparedGeometryCache {
+  /// The default maximum number of cached geometries
+  static const int DEFAULT_MAX_ENTRIES = 4096;
+
+  /// The default maximum total number of vertices of the cached geometries
+  static const int DEFAULT_MAX_VERTICES = 16 * 1024 * 1024;
+
+  /// The default number of times a geometry must be tested
+  /// before a predicate prepares it
+  static const int DEFAULT_MIN_USES = 2;
+
+ /**private */static PreparedGeometryCache? defaultCache;
+
+  // true while a prepared predicate is evaluated on behalf of Geometry,
+  // since prepared predicates may fall back to the Geometry predicates
+ /**private */static bool isEvaluating = false;
+
+  // the number of times each cached geometry has been changed,
+  // counted only once a cache has been created
+ /**private */static final Expando<int> changeCounts = new Expando<int>();
+ /**private */static bool isInUse = false;
+
+  /// Gets the default cache used by the {@link Geometry} predicates
+  /// in this isolate.
+  ///
+  /// @return the default cache, or null if there is none
+  static PreparedGeometryCache? getDefault() {
+    return defaultCache;
+  }
+
+  /// Sets the default cache used by the {@link Geometry} predicates
+  /// in this isolate.
+  ///
+  /// @param cache the cache to use, or null to stop using a cache
+  static void setDefault(PreparedGeometryCache? cache) {
+    defaultCache = cache;
+  }
+
+  /// Records that a geometry has been changed in place,
+  /// so that any prepared form of it which is cached is no longer used.
+  /// This is called by {@link Geometry#geometryChangedAction}.
+  ///
+  /// @param geom the changed geometry
+  static void geometryChanged(Geometry geom) {
+    if (!isInUse) return;
+    changeCounts[geom] = getChangeCount(geom) + 1;
+    defaultCache?.remove(geom);
+  }
+
+ /**private */static int getChangeCount(Geometry geom) {
+    return changeCounts[geom] ?? 0;
+  }
+
+  /// Evaluates <code>a.intersects(b)</code> using the default cache.
+  ///
+  /// @return the predicate value, or null if <code>a</code> is not prepared
+  static bool? intersectsCached(Geometry a, Geometry b) {
+    PreparedGeometryCache? cache = defaultCache;
+    if (cache == null || isEvaluating) return null;
+    if (!(a is Polygonal || a is Lineal)) return null;
+    PreparedGeometry? prep = cache.findOrAdmit(a);
+    if (prep == null) return null;
+    isEvaluating = true;
+    try {
+      return prep.intersects(b);
+    }
+    finally {
+      isEvaluating = false;
+    }
+  }
+
+  /// Evaluates <code>a.contains(b)</code> using the default cache.
+  ///
+  /// @return the predicate value, or null if <code>a</code> is not prepared
+  static bool? containsCached(Geometry a, Geometry b) {
+    PreparedGeometryCache? cache = defaultCache;
+    if (cache == null || isEvaluating) return null;
+    if (a is! Polygonal) return null;
+    PreparedGeometry? prep = cache.findOrAdmit(a);
+    if (prep == null) return null;
+    isEvaluating = true;
+    try {
+      return prep.contains(b);
+    }
+    finally {
+      isEvaluating = false;
+    }
+  }
+
+ /**private */static bool keyEquals(Object a, Object b) {
+    if (a is Geometry || b is Geometry) return identical(a, b);
+    return a == b;
+  }
+
+ /**private */static int keyHashCode(Object key) {
+    if (key is Geometry) return identityHashCode(key);
+    return key.hashCode;
+  }
+
+ /**private */final int maxEntries;
+ /**private */final int maxVertices;
+ /**private */final int minUses;
+ /**private */final PreparedGeometryFactory factory = new PreparedGeometryFactory();
+
+  // in order of use, least recently used first
+ /**private */final LinkedHashMap<Object, CacheEntry> entries =
+      new LinkedHashMap<Object, CacheEntry>(equals: keyEquals, hashCode: keyHashCode);
+  // the number of times uncached geometries have been tested
+ /**private */final Expando<int> useCounts = new Expando<int>();
+
+ /**private */int numVertices = 0;
+ /**private */int hits = 0;
+ /**private */int misses = 0;
+ /**private */int evictions = 0;
+
+  /// Creates a cache.
+  ///
+  /// @param maxEntries the maximum number of cached geometries
+  /// @param maxVertices the maximum total number of vertices of the cached geometries
+  /// @param minUses the number of times a geometry must be tested before a predicate prepares it
+  PreparedGeometryCache([this.maxEntries = DEFAULT_MAX_ENTRIES,
+      this.maxVertices = DEFAULT_MAX_VERTICES, this.minUses = DEFAULT_MIN_USES]) {
+    isInUse = true;
+  }
+
+  /// Gets the prepared form of a geometry, preparing and caching it if required.
+  ///
+  /// @param geom the geometry
+  /// @param key the key to cache it under (by default the geometry itself)
+  /// @return the prepared geometry
+  PreparedGeometry prepare(Geometry geom, [Object? key]) {
+    key ??= geom;
+    CacheEntry? entry = entries.remove(key);
+    if (entry != null && identical(entry.prepared.getGeometry(), geom) && !entry.isStale()) {
+      hits++;
+      entries[key] = entry;
+      return entry.prepared;
+    }
+    misses++;
+    if (entry != null) {
+      // the key now refers to a different geometry
+      numVertices -= entry.numVertices;
+    }
+    PreparedGeometry prep = factory.create(geom);
+    add(key, prep);
+    return prep;
+  }
+
+  /// Gets a cached prepared geometry.
+  ///
+  /// @param key the key of the geometry
+  /// @return the prepared geometry, or null if it is not cached
+  PreparedGeometry? get(Object key) {
+    CacheEntry? entry = lookup(key);
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.prepared;
+  }
+
+  /// Adds a prepared geometry to the cache, replacing any with the same key.
+  ///
+  /// @param key the key of the geometry
+  /// @param prep the prepared geometry
+  void put(Object key, PreparedGeometry prep) {
+    remove(key);
+    add(key, prep);
+  }
+
+  /// Removes a geometry from the cache.
+  ///
+  /// @param key the key of the geometry
+  /// @return true if the geometry was cached
+  bool remove(Object key) {
+    CacheEntry? entry = entries.remove(key);
+    if (entry == null) return false;
+    numVertices -= entry.numVertices;
+    return true;
+  }
+
+  /// Removes all geometries from the cache.
+  /// The counters are not reset.
+  void clear() {
+    entries.clear();
+    numVertices = 0;
+  }
+
+  /// Gets the number of cached geometries.
+  int size() {
+    return entries.length;
+  }
+
+  /// Gets the total number of vertices of the cached geometries.
+  int getNumVertices() {
+    return numVertices;
+  }
+
+  /// Gets the number of lookups which found a cached geometry.
+  int getHits() {
+    return hits;
+  }
+
+  /// Gets the number of lookups which did not find a cached geometry.
+  int getMisses() {
+    return misses;
+  }
+
+  /// Gets the number of geometries evicted to keep within the bounds of the cache.
+  int getEvictions() {
+    return evictions;
+  }
+
+  /// Gets the number of times a geometry must be tested by a predicate
+  /// before it is prepared.
+  int getMinUses() {
+    return minUses;
+  }
+
+  /// Resets the hit, miss and eviction counters.
+  void resetCounters() {
+    hits = 0;
+    misses = 0;
+    evictions = 0;
+  }
+
+  /// Gets the prepared form of a geometry tested by a predicate,
+  /// preparing it once it has been tested {@link #getMinUses} times.
+ /**private */PreparedGeometry? findOrAdmit(Geometry geom) {
+    CacheEntry? entry = lookup(geom);
+    if (entry != null) {
+      hits++;
+      return entry.prepared;
+    }
+    misses++;
+    if (geom.isEmpty()) return null;
+    int uses = (useCounts[geom] ?? 0) + 1;
+    if (uses < minUses) {
+      useCounts[geom] = uses;
+      return null;
+    }
+    useCounts[geom] = null;
+    PreparedGeometry prep = factory.create(geom);
+    add(geom, prep);
+    return prep;
+  }
+
+  /// Finds a cache entry and marks it as most recently used.
+  /// A stale entry is removed.
+ /**private */CacheEntry? lookup(Object key) {
+    CacheEntry? entry = entries.remove(key);
+    if (entry == null) return null;
+    if (entry.isStale()) {
+      numVertices -= entry.numVertices;
+      return null;
+    }
+    entries[key] = entry;
+    return entry;
+  }
+
+ /**private */void add(Object key, PreparedGeometry prep) {
+    Geometry geom = prep.getGeometry();
+    CacheEntry entry = new CacheEntry(prep, geom.getNumPoints(), getChangeCount(geom));
+    entries[key] = entry;
+    numVertices += entry.numVertices;
+    // keep the newest entry even if it alone exceeds the vertex bound
+    while (entries.length > maxEntries
+        || (numVertices > maxVertices && entries.length > 1)) {
+      Object oldest = entries.keys.first;
+      remove(oldest);
+      evictions++;
+    }
+  }
+}
+
+/**private */
+class CacheEntry {
+  final PreparedGeometry prepared;
+  final int numVertices;
+  // the change count of the geometry when it was prepared
+  final int changeCount;
+
+  CacheEntry(this.prepared, this.numVertices, this.changeCount);
+
+  /// Tests whether the geometry has been changed since it was prepared.
+  bool isStale() {
+    return PreparedGeometryCache.getChangeCount(prepared.getGeometry()) != changeCount;
+  }
+}
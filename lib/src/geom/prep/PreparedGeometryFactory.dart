@@ -18,7 +18,15 @@
 
 import 'package:jtscore4dart/src/geom/Geometry.dart';
 
+import 'package:jtscore4dart/src/geom/Lineal.dart';
+import 'package:jtscore4dart/src/geom/Polygonal.dart';
+import 'package:jtscore4dart/src/geom/Puntal.dart';
+
+import 'BasicPreparedGeometry.dart';
 import 'PreparedGeometry.dart';
+import 'PreparedLineString.dart';
+import 'PreparedPoint.dart';
+import 'PreparedPolygon.dart';
 
 /**
  * A factory for creating {@link PreparedGeometry}s.
@@ -46,8 +54,7 @@ class PreparedGeometryFactory
 		return (new PreparedGeometryFactory()).create(geom); 
 	}
 
-  PreparedGeometryFactory() {
-  }
+  PreparedGeometryFactory();
 
   /**
    * Creates a new {@link PreparedGeometry} appropriate for the argument {@link Geometry}.
@@ -58,11 +65,11 @@ class PreparedGeometryFactory
   PreparedGeometry create(Geometry geom)
   {
     if (geom is Polygonal) 
-      return new PreparedPolygon((Polygonal) geom);
+      return new PreparedPolygon(geom as Polygonal);
     if (geom is Lineal) 
-      return new PreparedLineString((Lineal) geom);
+      return new PreparedLineString(geom as Lineal);
     if (geom is Puntal) 
-      return new PreparedPoint((Puntal) geom);
+      return new PreparedPoint(geom as Puntal);
     
     /**
      * Default representation.
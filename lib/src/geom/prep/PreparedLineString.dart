@@ -16,10 +16,14 @@
 // import org.locationtech.jts.noding.FastSegmentSetIntersectionFinder;
 // import org.locationtech.jts.noding.SegmentStringUtil;
 
+import 'package:jtscore4dart/src/geom/Geometry.dart';
 import 'package:jtscore4dart/src/geom/Lineal.dart';
 import 'package:jtscore4dart/src/noding/FastSegmentSetIntersectionFinder.dart';
+import 'package:jtscore4dart/src/noding/SegmentString.dart';
+import 'package:jtscore4dart/src/noding/SegmentStringUtil.dart';
 
 import 'BasicPreparedGeometry.dart';
+import 'PreparedLineStringIntersects.dart';
 
 /**
  * A prepared version for {@link Lineal} geometries.
@@ -32,13 +36,11 @@ import 'BasicPreparedGeometry.dart';
 class PreparedLineString
   extends BasicPreparedGeometry
 {
- /**private */FastSegmentSetIntersectionFinder segIntFinder = null;
+ /**private */FastSegmentSetIntersectionFinder? segIntFinder = null;
 
-  PreparedLineString(Lineal line) {
-    super((Geometry) line);
-  }
+  PreparedLineString(Lineal line) : super(line as Geometry);
 
-  synchronized FastSegmentSetIntersectionFinder getIntersectionFinder()
+  FastSegmentSetIntersectionFinder getIntersectionFinder()
   {
   	/**
   	 * MD - Another option would be to use a simple scan for 
@@ -46,11 +48,12 @@ class PreparedLineString
   	 * However, testing indicates that there is no particular advantage 
   	 * to this approach.
   	 */
-  	if (segIntFinder == null)
-  		segIntFinder = new FastSegmentSetIntersectionFinder(SegmentStringUtil.extractSegmentStrings(getGeometry()));
-    return segIntFinder;
+  	segIntFinder ??= new FastSegmentSetIntersectionFinder(
+  	    SegmentStringUtil.extractSegmentStrings(getGeometry()).cast<SegmentString>());
+    return segIntFinder!;
   }
   
+  @override
   bool intersects(Geometry g)
   {
   	if (! envelopesIntersect(g)) return false;
@@ -20,6 +20,13 @@
 // import org.locationtech.jts.geom.util.ComponentCoordinateExtracter;
 // import org.locationtech.jts.noding.SegmentStringUtil;
 
+import 'package:jtscore4dart/src/algorithm/PointLocator.dart';
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/util/ComponentCoordinateExtracter.dart';
+import 'package:jtscore4dart/src/noding/SegmentStringUtil.dart';
+
+import 'PreparedLineString.dart';
 
 
 /**
@@ -46,17 +53,14 @@ class PreparedLineStringIntersects
     return op.intersects(geom);
 	}
 
-	protected PreparedLineString prepLine;
+ /**protected */PreparedLineString prepLine;
 
   /**
    * Creates an instance of this operation.
    * 
    * @param prepPoly the target PreparedLineString
    */
-	PreparedLineStringIntersects(PreparedLineString prepLine)
-	{
-		this.prepLine = prepLine;
-	}
+	PreparedLineStringIntersects(this.prepLine);
 	
 	/**
 	 * Tests whether this geometry intersects a given geometry.
@@ -71,7 +75,7 @@ class PreparedLineStringIntersects
 		 */
     List lineSegStr = SegmentStringUtil.extractSegmentStrings(geom);
     // only request intersection finder if there are segments (ie NOT for point inputs)
-    if (lineSegStr.size() > 0) {
+    if (lineSegStr.isNotEmpty) {
   		bool segsIntersect = prepLine.getIntersectionFinder().intersects(lineSegStr);
   		// MD - performance testing
   //		bool segsIntersect = false;
@@ -102,7 +106,7 @@ class PreparedLineStringIntersects
    * @param geom a Puntal geometry to test
    * @return true if any point of the argument intersects the prepared geometry
    */
-	protected bool isAnyTestPointInTarget(Geometry testGeom)
+ /**protected */bool isAnyTestPointInTarget(Geometry testGeom)
 	{
 		/**
 		 * This could be optimized by using the segment index on the lineal target.
@@ -110,8 +114,8 @@ class PreparedLineStringIntersects
 		 */
 		PointLocator locator = new PointLocator();
     List coords = ComponentCoordinateExtracter.getCoordinates(testGeom);
-    for (Iterator i = coords.iterator(); i.moveNext(); ) {
-      Coordinate p = (Coordinate) i.current;
+    for (Iterator i = coords.iterator; i.moveNext(); ) {
+      Coordinate p = i.current;
       if (locator.intersects(p, prepLine.getGeometry()))
         return true;
     }
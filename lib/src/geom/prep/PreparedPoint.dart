@@ -29,9 +29,7 @@ import 'BasicPreparedGeometry.dart';
  */
 class PreparedPoint extends BasicPreparedGeometry
 {
-  PreparedPoint(Puntal point) {
-    super((Geometry) point);
-  }
+  PreparedPoint(Puntal point) : super(point as Geometry);
 
   /**
    * Tests whether this point intersects a {@link Geometry}.
@@ -39,6 +37,7 @@ class PreparedPoint extends BasicPreparedGeometry
    * The optimization here is that computing topology for the test geometry
    * is avoided.  This can be significant for large geometries.
    */
+  @override
   bool intersects(Geometry g)
   {
   	if (! envelopesIntersect(g)) return false;
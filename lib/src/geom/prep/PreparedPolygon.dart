@@ -23,6 +23,23 @@
 // import org.locationtech.jts.operation.predicate.RectangleContains;
 // import org.locationtech.jts.operation.predicate.RectangleIntersects;
 
+import 'package:jtscore4dart/src/algorithm/locate/IndexedPointInAreaLocator.dart';
+import 'package:jtscore4dart/src/algorithm/locate/PointOnGeometryLocator.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+import 'package:jtscore4dart/src/geom/Polygonal.dart';
+import 'package:jtscore4dart/src/noding/FastSegmentSetIntersectionFinder.dart';
+import 'package:jtscore4dart/src/noding/SegmentString.dart';
+import 'package:jtscore4dart/src/noding/SegmentStringUtil.dart';
+import 'package:jtscore4dart/src/operation/predicate/RectangleContains.dart';
+import 'package:jtscore4dart/src/operation/predicate/RectangleIntersects.dart';
+
+import 'BasicPreparedGeometry.dart';
+import 'PreparedPolygonContains.dart';
+import 'PreparedPolygonContainsProperly.dart';
+import 'PreparedPolygonCovers.dart';
+import 'PreparedPolygonIntersects.dart';
+
 /**
  * A prepared version for {@link Polygonal} geometries.
  * This class supports both {@link Polygon}s and {@link MultiPolygon}s.
@@ -38,22 +55,21 @@
 class PreparedPolygon
   extends BasicPreparedGeometry
 {
-	private final bool isRectangle;
+ /**private */final bool isRectangle;
 	// create these lazily, since they are expensive
-	private FastSegmentSetIntersectionFinder segIntFinder = null;
-	private PointOnGeometryLocator pia = null;
+ /**private */FastSegmentSetIntersectionFinder? segIntFinder = null;
+ /**private */PointOnGeometryLocator? pia = null;
 
-  PreparedPolygon(Polygonal poly) {
-    super((Geometry) poly);
-    isRectangle = getGeometry().isRectangle();
-  }
+  PreparedPolygon(Polygonal poly)
+    : isRectangle = (poly as Geometry).isRectangle(),
+      super(poly as Geometry);
 
   /**
    * Gets the indexed intersection finder for this geometry.
    * 
    * @return the intersection finder
    */
-  synchronized FastSegmentSetIntersectionFinder getIntersectionFinder()
+  FastSegmentSetIntersectionFinder getIntersectionFinder()
   {
   	/**
   	 * MD - Another option would be to use a simple scan for 
@@ -61,19 +77,18 @@ class PreparedPolygon
   	 * However, testing indicates that there is no particular advantage 
   	 * to this approach.
   	 */
-  	if (segIntFinder == null)
-  		segIntFinder = new FastSegmentSetIntersectionFinder(SegmentStringUtil.extractSegmentStrings(getGeometry()));
-  	return segIntFinder;
+  	segIntFinder ??= new FastSegmentSetIntersectionFinder(
+  	    SegmentStringUtil.extractSegmentStrings(getGeometry()).cast<SegmentString>());
+  	return segIntFinder!;
   }
   
-  synchronized PointOnGeometryLocator getPointLocator()
+  PointOnGeometryLocator getPointLocator()
   {
-  	if (pia == null)
-      pia = new IndexedPointInAreaLocator(getGeometry());
- 		
-    return pia;
+    pia ??= new IndexedPointInAreaLocator(getGeometry());
+    return pia!;
   }
   
+  @override
   bool intersects(Geometry g)
   {
   	// envelope test
@@ -81,12 +96,13 @@ class PreparedPolygon
   	
     // optimization for rectangles
     if (isRectangle) {
-      return RectangleIntersects.intersects((Polygon) getGeometry(), g);
+      return RectangleIntersects.intersects(getGeometry() as Polygon, g);
     }
     
     return PreparedPolygonIntersects.intersects(this, g);
   }
   
+  @override
   bool contains(Geometry g)
   {
     // short-circuit test
@@ -95,12 +111,13 @@ class PreparedPolygon
   	
     // optimization for rectangles
     if (isRectangle) {
-      return RectangleContains.contains((Polygon) getGeometry(), g);
+      return RectangleContains.contains(getGeometry() as Polygon, g);
     }
 
     return PreparedPolygonContains.contains(this, g);
   }
   
+  @override
   bool containsProperly(Geometry g)
   {
     // short-circuit test
@@ -109,6 +126,7 @@ class PreparedPolygon
     return PreparedPolygonContainsProperly.containsProperly(this, g);
   }
   
+  @override
   bool covers(Geometry g)
   {
     // short-circuit test
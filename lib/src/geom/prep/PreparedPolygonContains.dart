@@ -14,6 +14,11 @@
 
 // import org.locationtech.jts.geom.Geometry;
 
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+
+import 'AbstractPreparedPolygonContains.dart';
+import 'PreparedPolygon.dart';
+
 /**
  * Computes the <tt>contains</tt> spatial relationship predicate
  * for a {@link PreparedPolygon} relative to all other {@link Geometry} classes.
@@ -48,10 +53,7 @@ class PreparedPolygonContains
    * 
    * @param prepPoly the PreparedPolygon to evaluate
    */
-	PreparedPolygonContains(PreparedPolygon prepPoly)
-	{
-		super(prepPoly);
-	}
+	PreparedPolygonContains(PreparedPolygon prepPoly) : super(prepPoly);
 		
 	/**
 	 * Tests whether this PreparedPolygon <tt>contains</tt> a given geometry.
@@ -71,7 +73,8 @@ class PreparedPolygonContains
 	 * @param geom the test geometry
 	 * @return true if this prepared polygon contains the test geometry
 	 */
-	protected bool fullTopologicalPredicate(Geometry geom)
+	@override
+ /**protected */bool fullTopologicalPredicate(Geometry geom)
 	{
 		bool isContained = prepPoly.getGeometry().contains(geom);
 		return isContained;
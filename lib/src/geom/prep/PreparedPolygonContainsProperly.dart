@@ -17,6 +17,13 @@
 // import org.locationtech.jts.geom.Polygonal;
 // import org.locationtech.jts.noding.SegmentStringUtil;
 
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/Polygonal.dart';
+import 'package:jtscore4dart/src/noding/SegmentStringUtil.dart';
+
+import 'PreparedPolygon.dart';
+import 'PreparedPolygonPredicate.dart';
+
 
 
 /**
@@ -58,10 +65,7 @@ class PreparedPolygonContainsProperly
    * 
    * @param prepPoly the PreparedPolygon to evaluate
    */
-	PreparedPolygonContainsProperly(PreparedPolygon prepPoly)
-	{
-		super(prepPoly);
-	}
+	PreparedPolygonContainsProperly(PreparedPolygon prepPoly) : super(prepPoly);
 	
 	/**
 	 * Tests whether this PreparedPolygon containsProperly a given geometry.
@@ -13,6 +13,11 @@
 
 // import org.locationtech.jts.geom.Geometry;
 
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+
+import 'AbstractPreparedPolygonContains.dart';
+import 'PreparedPolygon.dart';
+
 /**
  * Computes the <tt>covers</tt> spatial relationship predicate
  * for a {@link PreparedPolygon} relative to all other {@link Geometry} classes.
@@ -47,9 +52,8 @@ class PreparedPolygonCovers
    * 
    * @param prepPoly the PreparedPolygon to evaluate
    */
-	PreparedPolygonCovers(PreparedPolygon prepPoly)
+	PreparedPolygonCovers(PreparedPolygon prepPoly) : super(prepPoly)
 	{
-		super(prepPoly);
 		requireSomePointInInterior = false;
 	}
 		
@@ -71,7 +75,8 @@ class PreparedPolygonCovers
 	 * @param geom the test geometry
 	 * @return true if this prepared polygon covers the test geometry
 	 */
-	protected bool fullTopologicalPredicate(Geometry geom)
+	@override
+ /**protected */bool fullTopologicalPredicate(Geometry geom)
 	{
 		bool result = prepPoly.getGeometry().covers(geom);
 		return result;
@@ -16,6 +16,12 @@
 // import org.locationtech.jts.geom.Geometry;
 // import org.locationtech.jts.noding.SegmentStringUtil;
 
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/noding/SegmentStringUtil.dart';
+
+import 'PreparedPolygon.dart';
+import 'PreparedPolygonPredicate.dart';
+
 
 /**
  * Computes the <tt>intersects</tt> spatial relationship predicate for
@@ -47,9 +53,7 @@ class PreparedPolygonIntersects extends PreparedPolygonPredicate {
    * @param prepPoly
    *          the PreparedPolygon to evaluate
    */
-  PreparedPolygonIntersects(PreparedPolygon prepPoly) {
-    super(prepPoly);
-  }
+  PreparedPolygonIntersects(PreparedPolygon prepPoly) : super(prepPoly);
 
   /**
    * Tests whether this PreparedPolygon intersects a given geometry.
@@ -80,7 +84,7 @@ class PreparedPolygonIntersects extends PreparedPolygonPredicate {
     List lineSegStr = SegmentStringUtil.extractSegmentStrings(geom);
     // only request intersection finder if there are segments 
     // (i.e. NOT for point inputs)
-    if (lineSegStr.size() > 0) {
+    if (lineSegStr.isNotEmpty) {
       bool segsIntersect = prepPoly.getIntersectionFinder().intersects(
           lineSegStr);
       if (segsIntersect)
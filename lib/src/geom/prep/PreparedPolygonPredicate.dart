@@ -23,6 +23,16 @@
 // import org.locationtech.jts.geom.Point;
 // import org.locationtech.jts.geom.util.ComponentCoordinateExtracter;
 
+import 'package:jtscore4dart/src/algorithm/locate/PointOnGeometryLocator.dart';
+import 'package:jtscore4dart/src/algorithm/locate/SimplePointInAreaLocator.dart';
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/Location.dart';
+import 'package:jtscore4dart/src/geom/Point.dart';
+import 'package:jtscore4dart/src/geom/util/ComponentCoordinateExtracter.dart';
+
+import 'PreparedPolygon.dart';
+
 
 /**
  * A base class for predicate operations on {@link PreparedPolygon}s.
@@ -32,19 +42,16 @@
  */
 abstract class PreparedPolygonPredicate 
 {
-	protected PreparedPolygon prepPoly;
- /**private */PointOnGeometryLocator targetPointLocator;
+ /**protected */final PreparedPolygon prepPoly;
+ /**private */final PointOnGeometryLocator targetPointLocator;
 
   /**
    * Creates an instance of this operation.
    * 
    * @param prepPoly the PreparedPolygon to evaluate
    */
-	PreparedPolygonPredicate(PreparedPolygon prepPoly)
-	{
-		this.prepPoly = prepPoly;
-    targetPointLocator = prepPoly.getPointLocator();
-	}
+	PreparedPolygonPredicate(this.prepPoly)
+	  : targetPointLocator = prepPoly.getPointLocator();
 	
   /**
    * Tests whether all components of the test Geometry 
@@ -54,11 +61,11 @@ abstract class PreparedPolygonPredicate
    * @param geom a geometry to test
    * @return true if all components of the argument are contained in the target geometry
    */
-	protected bool isAllTestComponentsInTarget(Geometry testGeom)
+ /**protected */bool isAllTestComponentsInTarget(Geometry testGeom)
 	{
     List coords = ComponentCoordinateExtracter.getCoordinates(testGeom);
-    for (Iterator i = coords.iterator(); i.moveNext(); ) {
-      Coordinate p = (Coordinate) i.current;
+    for (Iterator i = coords.iterator; i.moveNext(); ) {
+      Coordinate p = i.current;
       int loc = targetPointLocator.locate(p);
       if (loc == Location.EXTERIOR)
         return false;
@@ -74,11 +81,11 @@ abstract class PreparedPolygonPredicate
    * @param geom a geometry to test
    * @return true if all components of the argument are contained in the target geometry interior
    */
-	protected bool isAllTestComponentsInTargetInterior(Geometry testGeom)
+ /**protected */bool isAllTestComponentsInTargetInterior(Geometry testGeom)
 	{
     List coords = ComponentCoordinateExtracter.getCoordinates(testGeom);
-    for (Iterator i = coords.iterator(); i.moveNext(); ) {
-      Coordinate p = (Coordinate) i.current;
+    for (Iterator i = coords.iterator; i.moveNext(); ) {
+      Coordinate p = i.current;
       int loc = targetPointLocator.locate(p);
       if (loc != Location.INTERIOR)
         return false;
@@ -94,11 +101,11 @@ abstract class PreparedPolygonPredicate
    * @param geom a geometry to test
    * @return true if any component of the argument intersects the prepared area geometry
    */
-	protected bool isAnyTestComponentInTarget(Geometry testGeom)
+ /**protected */bool isAnyTestComponentInTarget(Geometry testGeom)
 	{
     List coords = ComponentCoordinateExtracter.getCoordinates(testGeom);
-    for (Iterator i = coords.iterator(); i.moveNext(); ) {
-      Coordinate p = (Coordinate) i.current;
+    for (Iterator i = coords.iterator; i.moveNext(); ) {
+      Coordinate p = i.current;
       int loc = targetPointLocator.locate(p);
       if (loc != Location.EXTERIOR)
         return true;
@@ -116,8 +123,9 @@ abstract class PreparedPolygonPredicate
  /**protected */bool isAllTestPointsInTarget(Geometry testGeom)
   {
     for (int i = 0; i < testGeom.getNumGeometries(); i++) {
-      Point pt = (Point) testGeom.getGeometryN(i);
-      Coordinate p = pt.getCoordinate();
+      Point pt = testGeom.getGeometryN(i) as Point;
+      Coordinate? p = pt.getCoordinate();
+      if (p == null) continue;
       int loc = targetPointLocator.locate(p);
       if (loc == Location.EXTERIOR)
         return false;
@@ -132,11 +140,12 @@ abstract class PreparedPolygonPredicate
    * @param geom a geometry to test
    * @return true if any point of the argument intersects the prepared area geometry interior
    */
-	protected bool isAnyTestPointInTargetInterior(Geometry testGeom)
+ /**protected */bool isAnyTestPointInTargetInterior(Geometry testGeom)
 	{
     for (int i = 0; i < testGeom.getNumGeometries(); i++) {
-      Point pt = (Point) testGeom.getGeometryN(i);
-      Coordinate p = pt.getCoordinate();
+      Point pt = testGeom.getGeometryN(i) as Point;
+      Coordinate? p = pt.getCoordinate();
+      if (p == null) continue;
       int loc = targetPointLocator.locate(p);
       if (loc == Location.INTERIOR)
         return true;
@@ -152,11 +161,11 @@ abstract class PreparedPolygonPredicate
 	 * @param repPts the representative points of the target geometry
 	 * @return true if any component intersects the areal test geometry
 	 */
-	protected bool isAnyTargetComponentInAreaTest(Geometry testGeom, List targetRepPts)
+ /**protected */bool isAnyTargetComponentInAreaTest(Geometry testGeom, List targetRepPts)
 	{
 		PointOnGeometryLocator piaLoc = new SimplePointInAreaLocator(testGeom);
-    for (Iterator i = targetRepPts.iterator(); i.moveNext(); ) {
-      Coordinate p = (Coordinate) i.current;
+    for (Iterator i = targetRepPts.iterator; i.moveNext(); ) {
+      Coordinate p = i.current;
       int loc = piaLoc.locate(p);
       if (loc != Location.EXTERIOR)
         return true;
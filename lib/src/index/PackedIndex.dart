@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2019 Martin Davis.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+
+import 'hprtree/HPRtree.dart';
+import 'hprtree/PackedHPRtree.dart';
+import 'strtree/AbstractNode.dart';
+import 'strtree/ItemBoundable.dart';
+import 'strtree/STRtree.dart';
+
+/// Gets the <code>int</code> id under which an item is stored
+/// in a {@link PackedIndex}.
+typedef ItemIdFunction = int Function(Object item);
+
+/// A read-only spatial index stored in flat typed-data arrays,
+/// which can be saved to and reopened from a compact binary form.
+/// <p>
+/// A <code>PackedIndex</code> is created from a built {@link STRtree},
+/// {@link HPRtree} or {@link PackedHPRtree}.
+/// It has the same nodes as the tree it was created from,
+/// laid out as in {@link HPRtree}:
+/// the nodes are stored level by level starting from the leaves,
+/// with the node bounds in a single array.
+/// Since {@link STRtree} nodes can have varying numbers of children,
+/// the range of child nodes (or items, for leaves) of each node is stored explicitly.
+/// Items are stored as their bounds and an <code>int</code> id.
+/// <p>
+/// {@link #fromBytes} reads the arrays as views of the given bytes,
+/// so reopening a saved index does not copy, sort or allocate per item.
+/// The bytes can be read from a file in one call
+/// (e.g. with <code>File.readAsBytesSync</code>).
+/// <p>
+/// The binary form is a 32-byte header of <code>int32</code> fields
+/// (magic, version, node capacity, item count, node count, level count),
+/// followed by the <code>float64</code> sections
+/// (extent, node bounds, item bounds)
+/// and then the <code>int32</code> sections
+/// (level starts, node child ranges, item ids).
+/// Values are in the byte order of the platform writing them;
+/// reading bytes of the other byte order is not supported.
+///
+/// @see STRtree
+/// @see HPRtree
+class PackedIndex {
+ /**private */static const int MAGIC = 0x4A545349; // "JTSI"
+
+ /**private */static const int VERSION = 1;
+
+ /**private */static const int HEADER_SIZE = 32;
+
+ /**private */static const int ENV_SIZE = 4;
+
+ /**private */final int nodeCapacity;
+
+ /**private */final Envelope totalExtent;
+
+  /// the start index of each level in the nodes, and the total node count
+ /**private */final Int32List levelStart;
+
+  /// the start and end of the children of each node
+ /**private */final Int32List nodeChildren;
+
+ /**private */final Float64List nodeBounds;
+
+ /**private */final Float64List itemBounds;
+
+ /**private */final Int32List itemIds;
+
+ /**private */PackedIndex.init(this.nodeCapacity, this.totalExtent, this.levelStart,
+      this.nodeChildren, this.nodeBounds, this.itemBounds, this.itemIds);
+
+  /// Creates a packed index with the structure of an {@link STRtree}.
+  /// The tree is built if it is not already.
+  ///
+  /// @param tree the tree to pack
+  /// @param itemId the function giving the id of each item
+  /// (by default the items must be <code>int</code>s)
+  /// @return the packed index
+  factory PackedIndex.fromSTRtree(STRtree tree, [ItemIdFunction? itemId]) {
+    ItemIdFunction toId = itemId ?? defaultItemId;
+    AbstractNode root = tree.getRoot();
+    int numItems = tree.size();
+    if (numItems == 0) {
+      return PackedIndex.empty(tree.getNodeCapacity());
+    }
+    // collect the nodes of each level, from the root down
+    List<List<AbstractNode>> levels = [[root]];
+    while (levels.last.first.getLevel()! > 0) {
+      List<AbstractNode> childLevel = [];
+      for (AbstractNode node in levels.last) {
+        for (Object child in node.getChildBoundables()) {
+          childLevel.add(child as AbstractNode);
+        }
+      }
+      levels.add(childLevel);
+    }
+    levels = levels.reversed.toList();
+
+    Int32List levelStart = Int32List(levels.length + 1);
+    for (int i = 0; i < levels.length; i++) {
+      levelStart[i + 1] = levelStart[i] + levels[i].length;
+    }
+    int numNodes = levelStart[levels.length];
+    Int32List nodeChildren = Int32List(2 * numNodes);
+    Float64List nodeBounds = Float64List(ENV_SIZE * numNodes);
+    Float64List itemBounds = Float64List(ENV_SIZE * numItems);
+    Int32List itemIds = Int32List(numItems);
+
+    int itemCount = 0;
+    for (int level = 0; level < levels.length; level++) {
+      // children are numbered in the order the nodes of the level below were collected
+      int childCount = level == 0 ? 0 : levelStart[level - 1];
+      int nodeIndex = levelStart[level];
+      for (AbstractNode node in levels[level]) {
+        setBounds(nodeBounds, nodeIndex, node.getBounds() as Envelope);
+        nodeChildren[2 * nodeIndex] = level == 0 ? itemCount : childCount;
+        for (Object child in node.getChildBoundables()) {
+          if (level == 0) {
+            ItemBoundable item = child as ItemBoundable;
+            setBounds(itemBounds, itemCount, item.getBounds() as Envelope);
+            itemIds[itemCount] = toId(item.getItem());
+            itemCount++;
+          }
+          else {
+            childCount++;
+          }
+        }
+        nodeChildren[2 * nodeIndex + 1] = level == 0 ? itemCount : childCount;
+        nodeIndex++;
+      }
+    }
+    return PackedIndex.init(tree.getNodeCapacity(), root.getBounds() as Envelope,
+        levelStart, nodeChildren, nodeBounds, itemBounds, itemIds);
+  }
+
+  /// Creates a packed index with the structure of an {@link HPRtree}.
+  /// The tree is built if it is not already.
+  ///
+  /// @param tree the tree to pack
+  /// @param itemId the function giving the id of each item
+  /// (by default the items must be <code>int</code>s)
+  /// @return the packed index
+  factory PackedIndex.fromHPRtree(HPRtree tree, [ItemIdFunction? itemId]) {
+    ItemIdFunction toId = itemId ?? defaultItemId;
+    tree.build();
+    int numItems = tree.size();
+    if (numItems == 0) {
+      return PackedIndex.empty(tree.nodeCapacity);
+    }
+    Int32List itemIds = Int32List(numItems);
+    for (int i = 0; i < numItems; i++) {
+      itemIds[i] = toId(tree.itemValues[i]);
+    }
+    List<int> layers = tree.layerStartIndex;
+    return fromLayers(tree.nodeCapacity, tree.totalExtent, layers,
+        layers.isEmpty ? Float64List(0) : Float64List.fromList(tree.nodeBounds),
+        Float64List.fromList(tree.itemBounds), itemIds);
+  }
+
+  /// Creates a packed index with the structure of a {@link PackedHPRtree}.
+  /// The tree is built if it is not already.
+  /// The item arrays of the tree are shared, not copied.
+  ///
+  /// @param tree the tree to pack
+  /// @return the packed index
+  factory PackedIndex.fromPackedHPRtree(PackedHPRtree tree) {
+    tree.build();
+    if (tree.size() == 0) {
+      return PackedIndex.empty(tree.getNodeCapacity());
+    }
+    return fromLayers(tree.getNodeCapacity(), tree.totalExtent,
+        tree.layerStartIndex ?? const <int>[], tree.nodeBounds,
+        tree.itemBounds, tree.itemIds);
+  }
+
+  /// Creates an empty packed index.
+  ///
+  /// @param nodeCapacity the node capacity of the index
+  PackedIndex.empty(this.nodeCapacity)
+      : totalExtent = new Envelope.init(),
+        levelStart = Int32List(1),
+        nodeChildren = Int32List(0),
+        nodeBounds = Float64List(0),
+        itemBounds = Float64List(0),
+        itemIds = Int32List(0);
+
+  /// Reopens a packed index from its binary form.
+  /// The index arrays are views of the given bytes,
+  /// which must not be modified afterwards.
+  /// If the bytes are not 8-byte aligned in their buffer
+  /// they are copied once.
+  ///
+  /// @param bytes the binary form of an index, as produced by {@link #toBytes()}
+  /// @return the index
+  /// @throws ArgumentError if the bytes are not a packed index
+  /// @throws UnsupportedError if the bytes were written with the other byte order
+  factory PackedIndex.fromBytes(Uint8List bytes) {
+    if (bytes.length < HEADER_SIZE + ENV_SIZE * 8) {
+      throw ArgumentError("Not a packed index: too short");
+    }
+    if (bytes.offsetInBytes % 8 != 0) {
+      bytes = Uint8List.fromList(bytes);
+    }
+    ByteBuffer buffer = bytes.buffer;
+    int base = bytes.offsetInBytes;
+    Int32List header = Int32List.view(buffer, base, HEADER_SIZE ~/ 4);
+    if (header[0] != MAGIC) {
+      ByteData data = ByteData.sublistView(bytes, 0, 4);
+      if (data.getInt32(0, Endian.host == Endian.big ? Endian.little : Endian.big) == MAGIC) {
+        throw UnsupportedError("Packed index was written with the other byte order");
+      }
+      throw ArgumentError("Not a packed index: bad magic number");
+    }
+    if (header[1] != VERSION) {
+      throw ArgumentError("Unsupported packed index version ${header[1]}");
+    }
+    int nodeCapacity = header[2];
+    int numItems = header[3];
+    int numNodes = header[4];
+    int numLevels = header[5];
+    int size = byteSize(numItems, numNodes, numLevels);
+    if (bytes.length < size) {
+      throw ArgumentError("Not a packed index: truncated");
+    }
+
+    int offset = base + HEADER_SIZE;
+    Float64List extent = Float64List.view(buffer, offset, ENV_SIZE);
+    offset += 8 * ENV_SIZE;
+    Float64List nodeBounds = Float64List.view(buffer, offset, ENV_SIZE * numNodes);
+    offset += 8 * ENV_SIZE * numNodes;
+    Float64List itemBounds = Float64List.view(buffer, offset, ENV_SIZE * numItems);
+    offset += 8 * ENV_SIZE * numItems;
+    Int32List levelStart = Int32List.view(buffer, offset, numLevels + 1);
+    offset += 4 * (numLevels + 1);
+    Int32List nodeChildren = Int32List.view(buffer, offset, 2 * numNodes);
+    offset += 4 * 2 * numNodes;
+    Int32List itemIds = Int32List.view(buffer, offset, numItems);
+
+    Envelope totalExtent = numItems == 0
+        ? new Envelope.init()
+        : new Envelope(extent[0], extent[2], extent[1], extent[3]);
+    return PackedIndex.init(nodeCapacity, totalExtent, levelStart,
+        nodeChildren, nodeBounds, itemBounds, itemIds);
+  }
+
+ /**private */static PackedIndex fromLayers(int nodeCapacity, Envelope extent,
+      List<int> layerStartIndex, Float64List nodeBounds,
+      Float64List itemBounds, Int32List itemIds) {
+    int numItems = itemIds.length;
+    // HPRtree layer offsets are in units of the bounds array
+    int numLevels = layerStartIndex.isEmpty ? 0 : layerStartIndex.length - 1;
+    Int32List levelStart = Int32List(numLevels + 1);
+    for (int i = 1; i <= numLevels; i++) {
+      levelStart[i] = layerStartIndex[i] ~/ ENV_SIZE;
+    }
+    int numNodes = levelStart[numLevels];
+    Int32List nodeChildren = Int32List(2 * numNodes);
+    for (int level = 0; level < numLevels; level++) {
+      int childStart = level == 0 ? 0 : levelStart[level - 1];
+      int childEnd = level == 0 ? numItems : levelStart[level];
+      for (int node = levelStart[level]; node < levelStart[level + 1]; node++) {
+        int start = childStart + (node - levelStart[level]) * nodeCapacity;
+        nodeChildren[2 * node] = start;
+        nodeChildren[2 * node + 1] = start + nodeCapacity < childEnd ? start + nodeCapacity : childEnd;
+      }
+    }
+    return PackedIndex.init(nodeCapacity, extent.copy(), levelStart, nodeChildren,
+        Float64List.sublistView(nodeBounds, 0, ENV_SIZE * numNodes), itemBounds, itemIds);
+  }
+
+ /**private */static int defaultItemId(Object item) {
+    return item as int;
+  }
+
+ /**private */static void setBounds(Float64List bounds, int index, Envelope env) {
+    int i = ENV_SIZE * index;
+    bounds[i] = env.getMinX();
+    bounds[i + 1] = env.getMinY();
+    bounds[i + 2] = env.getMaxX();
+    bounds[i + 3] = env.getMaxY();
+  }
+
+  /// Gets the number of items in the index.
+  ///
+  /// @return the number of items
+  int size() {
+    return itemIds.length;
+  }
+
+  /// Gets the node capacity of the tree the index was created from.
+  ///
+  /// @return the node capacity
+  int getNodeCapacity() {
+    return nodeCapacity;
+  }
+
+  /// Gets the extent of all the items in the index.
+  ///
+  /// @return the extent of the items
+  Envelope getExtent() {
+    return totalExtent.copy();
+  }
+
+  /// Gets the binary form of the index.
+  ///
+  /// @return the bytes of the index
+  Uint8List toBytes() {
+    int numItems = itemIds.length;
+    int numNodes = nodeChildren.length ~/ 2;
+    int numLevels = levelStart.length - 1;
+    Uint8List bytes = Uint8List(byteSize(numItems, numNodes, numLevels));
+    Int32List header = Int32List.view(bytes.buffer, 0, HEADER_SIZE ~/ 4);
+    header[0] = MAGIC;
+    header[1] = VERSION;
+    header[2] = nodeCapacity;
+    header[3] = numItems;
+    header[4] = numNodes;
+    header[5] = numLevels;
+
+    Float64List extent = Float64List(ENV_SIZE);
+    if (!totalExtent.isNull()) {
+      setBounds(extent, 0, totalExtent);
+    }
+    int offset = HEADER_SIZE;
+    offset = writeSection(bytes, offset, extent);
+    offset = writeSection(bytes, offset, nodeBounds);
+    offset = writeSection(bytes, offset, itemBounds);
+    offset = writeSection(bytes, offset, levelStart);
+    offset = writeSection(bytes, offset, nodeChildren);
+    writeSection(bytes, offset, itemIds);
+    return bytes;
+  }
+
+ /**private */static int byteSize(int numItems, int numNodes, int numLevels) {
+    return HEADER_SIZE + 8 * ENV_SIZE
+        + 8 * ENV_SIZE * (numNodes + numItems)
+        + 4 * (numLevels + 1 + 2 * numNodes + numItems);
+  }
+
+ /**private */static int writeSection(Uint8List bytes, int offset, TypedData data) {
+    bytes.setRange(offset, offset + data.lengthInBytes,
+        Uint8List.view(data.buffer, data.offsetInBytes, data.lengthInBytes));
+    return offset + data.lengthInBytes;
+  }
+
+  /// Queries the index for the ids of all items whose extents
+  /// intersect the given search extent.
+  ///
+  /// @param minX the minimum X of the search extent
+  /// @param minY the minimum Y of the search extent
+  /// @param maxX the maximum X of the search extent
+  /// @param maxY the maximum Y of the search extent
+  /// @param visitor the visitor to report the item ids to
+  void query(double minX, double minY, double maxX, double maxY, IntItemVisitor visitor) {
+    if (itemIds.isEmpty) return;
+    if (maxX < totalExtent.getMinX() || maxY < totalExtent.getMinY()
+        || minX > totalExtent.getMaxX() || minY > totalExtent.getMaxY()) {
+      return;
+    }
+    int numLevels = levelStart.length - 1;
+    if (numLevels == 0) {
+      queryItems(0, itemIds.length, minX, minY, maxX, maxY, visitor);
+      return;
+    }
+    // query each node in the top level
+    for (int node = levelStart[numLevels - 1]; node < levelStart[numLevels]; node++) {
+      queryNode(numLevels - 1, node, minX, minY, maxX, maxY, visitor);
+    }
+  }
+
+  /// Queries the index for the ids of all items whose extents
+  /// intersect the given search {@link Envelope}.
+  ///
+  /// @param searchEnv the envelope to query for
+  /// @param visitor the visitor to report the item ids to
+  void queryEnvelope(Envelope searchEnv, IntItemVisitor visitor) {
+    if (searchEnv.isNull()) return;
+    query(searchEnv.getMinX(), searchEnv.getMinY(), searchEnv.getMaxX(), searchEnv.getMaxY(), visitor);
+  }
+
+ /**private */void queryNode(int level, int node,
+      double minX, double minY, double maxX, double maxY, IntItemVisitor visitor) {
+    if (! intersects(nodeBounds, ENV_SIZE * node, minX, minY, maxX, maxY)) return;
+    int childStart = nodeChildren[2 * node];
+    int childEnd = nodeChildren[2 * node + 1];
+    if (level == 0) {
+      queryItems(childStart, childEnd, minX, minY, maxX, maxY, visitor);
+      return;
+    }
+    for (int child = childStart; child < childEnd; child++) {
+      queryNode(level - 1, child, minX, minY, maxX, maxY, visitor);
+    }
+  }
+
+ /**private */void queryItems(int start, int end,
+      double minX, double minY, double maxX, double maxY, IntItemVisitor visitor) {
+    for (int itemIndex = start; itemIndex < end; itemIndex++) {
+      if (intersects(itemBounds, ENV_SIZE * itemIndex, minX, minY, maxX, maxY)) {
+        visitor(itemIds[itemIndex]);
+      }
+    }
+  }
+
+ /**private */static bool intersects(Float64List bounds, int index,
+      double minX, double minY, double maxX, double maxY) {
+    bool isBeyond = (maxX < bounds[index])
+    || (maxY < bounds[index+1])
+    || (minX > bounds[index+2])
+    || (minY > bounds[index+3]);
+    return ! isBeyond;
+  }
+}
@@ -243,7 +243,29 @@ class HPRtree implements SpatialIndex
     if (itemsToLoad.length <= nodeCapacity) return;
 
     sortItems();
+    computeNodes();
+  }
+
+  /**
+   * Builds the index from an item order computed elsewhere,
+   * if not already built.
+   * The order must be the one produced by the Hilbert sort of the build,
+   * as computed by {@link HPRtreeParallelLoader}.
+   *
+   * @param order the inserted item index for each sorted position
+   */
+  void buildWithOrder(List<int> order) {
+    if (isBuilt) return;
+    if (itemsToLoad.length > nodeCapacity) {
+      List<Item> items = itemsToLoad;
+      itemsToLoad = List.generate(items.length, (i) => items[order[i]]);
+      computeNodes();
+    }
+    prepareItems();
+    isBuilt = true;
+  }
 
+ /**private */void computeNodes() {
     layerStartIndex = computeLayerIndices(numItems, nodeCapacity);
     // allocate storage
     // int nodeCount = layerStartIndex[ layerStartIndex.length - 1 ] / 4;
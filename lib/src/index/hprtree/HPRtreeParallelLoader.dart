@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2019 Martin Davis.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:isolate';
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+
+import 'HPRtree.dart';
+import 'HilbertEncoder.dart';
+import 'PackedHPRtree.dart';
+
+/// Builds {@link HPRtree}s and {@link PackedHPRtree}s
+/// using a pool of isolates.
+/// <p>
+/// The Hilbert codes of the item midpoints are computed in
+/// parallel chunks.
+/// The items are then sorted into node blocks by the same
+/// Hoare quicksort the trees use:
+/// the first partitioning steps run on the calling isolate
+/// until the remaining ranges are small enough to hand out,
+/// and the ranges are then finished by the workers.
+/// Since each recursive step only touches its own range,
+/// the resulting tree is identical to the one produced by <code>build()</code>.
+/// <p>
+/// Buffers are passed to the workers as {@link TransferableTypedData}
+/// and returned by the worker exit, so item data is not copied
+/// between isolates more than once.
+/// <p>
+/// This uses <code>dart:isolate</code>, so it is not exported
+/// from the <code>index</code> library.
+class HPRtreeParallelLoader {
+ /**private */static const int DEFAULT_NUM_WORKERS = 4;
+
+ /**private */static const int DEFAULT_MIN_CHUNK_SIZE = 16384;
+
+ /**private */final int numWorkers;
+
+ /**private */final int minChunkSize;
+
+  /// Creates a loader which uses up to the given number of isolates.
+  /// Inputs smaller than <code>minChunkSize</code> items are
+  /// processed on the calling isolate.
+  ///
+  /// @param numWorkers the maximum number of isolates to use
+  /// @param minChunkSize the minimum number of items to hand to an isolate
+  HPRtreeParallelLoader([this.numWorkers = DEFAULT_NUM_WORKERS,
+      this.minChunkSize = DEFAULT_MIN_CHUNK_SIZE]) {
+    if (numWorkers < 1) {
+      throw ArgumentError("Number of workers must be at least 1");
+    }
+  }
+
+  /// Builds an {@link HPRtree}, if not already built.
+  ///
+  /// @param tree the tree to build
+  Future<void> build(HPRtree tree) async {
+    if (tree.isBuilt) return;
+    int n = tree.itemsToLoad.length;
+    if (n <= tree.nodeCapacity) {
+      tree.build();
+      return;
+    }
+    Float64List midpoints = Float64List(2 * n);
+    for (int i = 0; i < n; i++) {
+      // same midpoint as HilbertEncoder.encode
+      Envelope env = tree.itemsToLoad[i].getEnvelope();
+      midpoints[2 * i] = env.getWidth() / 2 + env.getMinX();
+      midpoints[2 * i + 1] = env.getHeight() / 2 + env.getMinY();
+    }
+    // HPRtree sorts down to single items
+    Int32List order = await computeOrder(midpoints, HPRtree.HILBERT_LEVEL,
+        tree.totalExtent, 1);
+    tree.buildWithOrder(order);
+  }
+
+  /// Builds a {@link PackedHPRtree}, if not already built.
+  ///
+  /// @param tree the tree to build
+  Future<void> buildPacked(PackedHPRtree tree) async {
+    if (tree.isBuilt) return;
+    int n = tree.size();
+    if (n <= tree.getNodeCapacity()) {
+      tree.build();
+      return;
+    }
+    tree.trimItems();
+    Float64List bounds = tree.itemBounds;
+    Float64List midpoints = Float64List(2 * n);
+    for (int i = 0; i < n; i++) {
+      int boundsIndex = 4 * i;
+      midpoints[2 * i] = (bounds[boundsIndex] + bounds[boundsIndex + 2]) / 2;
+      midpoints[2 * i + 1] = (bounds[boundsIndex + 1] + bounds[boundsIndex + 3]) / 2;
+    }
+    Int32List order = await computeOrder(midpoints, PackedHPRtree.HILBERT_LEVEL,
+        tree.totalExtent, tree.getNodeCapacity());
+    tree.buildWithOrder(order);
+  }
+
+  /// Computes the order of items sorted into Hilbert blocks.
+  ///
+  /// @param midpoints the item midpoints, as x,y pairs
+  /// @param level the Hilbert level to encode at
+  /// @param extent the extent of all items
+  /// @param blockSize the size of the blocks the sort stops at
+  /// @return the input item index for each sorted position
+  Future<Int32List> computeOrder(Float64List midpoints, int level,
+      Envelope extent, int blockSize) async {
+    int n = midpoints.length ~/ 2;
+    Int32List codes = await encode(midpoints, level, extent);
+    Int32List order = Int32List(n);
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    await sortIntoBlocks(codes, order, blockSize);
+    return order;
+  }
+
+ /**private */int chunkSize(int n) {
+    return math.max(minChunkSize, (n / numWorkers).ceil());
+  }
+
+  /// Computes the Hilbert codes of a set of midpoints.
+  ///
+  /// @param midpoints the item midpoints, as x,y pairs
+  /// @param level the Hilbert level to encode at
+  /// @param extent the extent of all items
+  /// @return the code of each midpoint
+  Future<Int32List> encode(Float64List midpoints, int level, Envelope extent) async {
+    int n = midpoints.length ~/ 2;
+    Float64List ext = Float64List.fromList([extent.getMinX(), extent.getMaxX(),
+        extent.getMinY(), extent.getMaxY()]);
+    int size = chunkSize(n);
+    if (size >= n) {
+      return encodeChunk(midpoints, level, ext);
+    }
+    List<Future<Int32List>> chunks = [];
+    for (int start = 0; start < n; start += size) {
+      int end = math.min(n, start + size);
+      chunks.add(runEncode(
+          TransferableTypedData.fromList(
+              [Float64List.sublistView(midpoints, 2 * start, 2 * end)]),
+          level,
+          TransferableTypedData.fromList([ext])));
+    }
+    Int32List codes = Int32List(n);
+    int pos = 0;
+    for (Int32List chunk in await Future.wait(chunks)) {
+      codes.setRange(pos, pos + chunk.length, chunk);
+      pos += chunk.length;
+    }
+    return codes;
+  }
+
+ /**private */static Future<Int32List> runEncode(
+      TransferableTypedData midpoints, int level, TransferableTypedData ext) {
+    return Isolate.run(() => encodeChunk(
+        midpoints.materialize().asFloat64List(),
+        level,
+        ext.materialize().asFloat64List()));
+  }
+
+ /**private */static Int32List encodeChunk(Float64List midpoints, int level, Float64List ext) {
+    HilbertEncoder encoder =
+        new HilbertEncoder(level, new Envelope(ext[0], ext[1], ext[2], ext[3]));
+    int n = midpoints.length ~/ 2;
+    Int32List codes = Int32List(n);
+    for (int i = 0; i < n; i++) {
+      codes[i] = encoder.encodeXY(midpoints[2 * i], midpoints[2 * i + 1]);
+    }
+    return codes;
+  }
+
+  /// Sorts codes into blocks, permuting an order array alongside.
+  ///
+  /// @param codes the codes to sort
+  /// @param order the array to permute alongside the codes
+  /// @param blockSize the size of the blocks the sort stops at
+  Future<void> sortIntoBlocks(Int32List codes, Int32List order, int blockSize) async {
+    int n = codes.length;
+    if (n == 0) return;
+    int size = chunkSize(n);
+    if (size >= n) {
+      quickSortIntoBlocks(codes, order, 0, 0, n - 1, blockSize);
+      return;
+    }
+    // partition here until ranges are small enough to hand out
+    List<int> ranges = [];
+    splitRanges(codes, order, 0, n - 1, blockSize, size, ranges);
+
+    // group consecutive ranges into spans of about the chunk size
+    List<Future<Int32List>> results = [];
+    List<int> spanStarts = [];
+    int r = 0;
+    while (r < ranges.length) {
+      int spanLo = ranges[r];
+      List<int> spanRanges = [];
+      while (r < ranges.length
+          && (spanRanges.isEmpty || ranges[r + 1] - spanLo < size)) {
+        spanRanges.add(ranges[r]);
+        spanRanges.add(ranges[r + 1]);
+        r += 2;
+      }
+      int spanHi = spanRanges.last;
+      spanStarts.add(spanLo);
+      results.add(runSort(
+          TransferableTypedData.fromList([Int32List.sublistView(codes, spanLo, spanHi + 1)]),
+          TransferableTypedData.fromList([Int32List.sublistView(order, spanLo, spanHi + 1)]),
+          spanLo,
+          Int32List.fromList(spanRanges),
+          blockSize));
+    }
+    List<Int32List> sorted = await Future.wait(results);
+    for (int i = 0; i < sorted.length; i++) {
+      order.setRange(spanStarts[i], spanStarts[i] + sorted[i].length, sorted[i]);
+    }
+  }
+
+ /**private */static void splitRanges(Int32List values, Int32List order,
+      int lo, int hi, int blockSize, int size, List<int> ranges) {
+    if (lo ~/ blockSize < hi ~/ blockSize) {
+      if (hi - lo < size) {
+        ranges.add(lo);
+        ranges.add(hi);
+        return;
+      }
+      int pivot = hoarePartition(values, order, 0, lo, hi);
+      splitRanges(values, order, lo, pivot, blockSize, size, ranges);
+      splitRanges(values, order, pivot + 1, hi, blockSize, size, ranges);
+    }
+  }
+
+ /**private */static Future<Int32List> runSort(TransferableTypedData codes,
+      TransferableTypedData order, int offset, Int32List ranges, int blockSize) {
+    return Isolate.run(() {
+      Int32List values = codes.materialize().asInt32List();
+      Int32List spanOrder = order.materialize().asInt32List();
+      for (int i = 0; i < ranges.length; i += 2) {
+        quickSortIntoBlocks(values, spanOrder, offset, ranges[i], ranges[i + 1], blockSize);
+      }
+      return spanOrder;
+    });
+  }
+
+  /// The quicksort of {@link HPRtree} and {@link PackedHPRtree},
+  /// over arrays holding the positions from <code>offset</code> onwards.
+  /// Positions <code>lo</code> and <code>hi</code> are absolute,
+  /// so that pivots and block boundaries match the sequential sort.
+ /**private */static void quickSortIntoBlocks(Int32List values, Int32List order,
+      int offset, int lo, int hi, int blockSize) {
+    // stop sorting when left/right pointers are within the same node
+    if (lo ~/ blockSize < hi ~/ blockSize) {
+      int pivot = hoarePartition(values, order, offset, lo, hi);
+      quickSortIntoBlocks(values, order, offset, lo, pivot, blockSize);
+      quickSortIntoBlocks(values, order, offset, pivot + 1, hi, blockSize);
+    }
+  }
+
+ /**private */static int hoarePartition(Int32List values, Int32List order,
+      int offset, int lo, int hi) {
+    int pivot = values[((lo + hi) >> 1) - offset];
+    int i = lo - 1 - offset;
+    int j = hi + 1 - offset;
+
+    while (true) {
+      do {
+        i++;
+      } while (values[i] < pivot);
+      do {
+        j--;
+      } while (values[j] > pivot);
+      if (i >= j) return j + offset;
+
+      int tmpValue = values[i];
+      values[i] = values[j];
+      values[j] = tmpValue;
+      int tmpOrder = order[i];
+      order[i] = order[j];
+      order[j] = tmpOrder;
+    }
+  }
+}
@@ -37,11 +37,20 @@ class HilbertEncoder {
 
   int encode(Envelope env) {
     double midx = env.getWidth()/2 + env.getMinX();
-    int x = ((midx - minx) ~/ strideX);
-
     double midy = env.getHeight()/2 + env.getMinY();
-    int y = ((midy - miny) ~/ strideY);
-      
+    return encodeXY(midx, midy);
+  }
+
+  /// Encodes the midpoint of an item given by its ordinates,
+  /// without requiring an {@link Envelope}.
+  ///
+  /// @param midx the x ordinate of the item midpoint
+  /// @param midy the y ordinate of the item midpoint
+  /// @return the Hilbert code of the midpoint
+  int encodeXY(double midx, double midy) {
+    // a zero stride means the extent is degenerate in that axis
+    int x = strideX > 0 ? ((midx - minx) ~/ strideX) : 0;
+    int y = strideY > 0 ? ((midy - miny) ~/ strideY) : 0;
     return HilbertCode.encode(level, x, y);
   }
 
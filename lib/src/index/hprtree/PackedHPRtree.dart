@@ -0,0 +1,469 @@
+/*
+ * Copyright (c) 2019 Martin Davis.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+
+import 'HilbertEncoder.dart';
+
+/// A visitor for the <code>int</code> item ids found by a query
+/// of a {@link PackedHPRtree}.
+typedef IntItemVisitor = void Function(int itemId);
+
+/// A Hilbert-Packed R-tree which stores its items in primitive arrays.
+/// <p>
+/// This has the same structure as {@link HPRtree}, but instead of
+/// holding an <code>Item</code> object per entry
+/// the items are stored as columns:
+/// <ul>
+/// <li>the item bounds in a single {@link Float64List}
+/// (<code>minX, minY, maxX, maxY</code> per item)
+/// <li>the item ids in an {@link Int32List}
+/// <li>the Hilbert codes (during the build) in an {@link Int32List}
+/// </ul>
+/// The build sorts all three columns in place.
+/// Queries report matching item ids to an {@link IntItemVisitor}
+/// and do not allocate.
+/// <p>
+/// Item ids are arbitrary <code>int</code>s in the 32-bit signed range;
+/// typically they are indexes into a caller-owned list of features.
+///
+/// @see HPRtree
+class PackedHPRtree
+{
+ /**private */static const int ENV_SIZE = 4;
+
+ /**private */static const int HILBERT_LEVEL = 12;
+
+ /**private */static const int DEFAULT_NODE_CAPACITY = 16;
+
+ /**private */static const int DEFAULT_ITEM_CAPACITY = 16;
+
+ /**private */final int nodeCapacity;
+
+ /**private */int numItems = 0;
+
+ /**private */Float64List itemBounds;
+
+ /**private */Int32List itemIds;
+
+ /**private */final Envelope totalExtent = new Envelope.init();
+
+ /**private */Int32List? layerStartIndex;
+
+ /**private */Float64List nodeBounds = Float64List(0);
+
+ /**private */bool isBuilt = false;
+
+  /// Creates a new index with the given node capacity.
+  /// The item capacity is a hint for the number of items
+  /// which will be inserted; the storage grows as needed.
+  ///
+  /// @param nodeCapacity the node capacity to use
+  /// @param itemCapacity the initial number of items to allocate storage for
+  PackedHPRtree([this.nodeCapacity = DEFAULT_NODE_CAPACITY, int itemCapacity = DEFAULT_ITEM_CAPACITY])
+      : itemBounds = Float64List(ENV_SIZE * math.max(1, itemCapacity)),
+        itemIds = Int32List(math.max(1, itemCapacity));
+
+  /// Creates a new index over items already packed in arrays.
+  /// The arrays are used directly as the index storage (they are not copied),
+  /// and are reordered when the index is built.
+  ///
+  /// @param itemBounds the item bounds, as <code>minX, minY, maxX, maxY</code> per item
+  /// @param itemIds the item ids
+  /// @param nodeCapacity the node capacity to use
+  PackedHPRtree.fromArrays(this.itemBounds, this.itemIds, [this.nodeCapacity = DEFAULT_NODE_CAPACITY]) {
+    if (itemBounds.length != ENV_SIZE * itemIds.length) {
+      throw ArgumentError("Item bounds length must be 4 times the number of item ids");
+    }
+    numItems = itemIds.length;
+    for (int i = 0; i < itemBounds.length; i += ENV_SIZE) {
+      totalExtent.expandToIncludeXY(itemBounds[i], itemBounds[i + 1]);
+      totalExtent.expandToIncludeXY(itemBounds[i + 2], itemBounds[i + 3]);
+    }
+  }
+
+  /// Gets the number of items in the index.
+  ///
+  /// @return the number of items
+  int size() {
+    return numItems;
+  }
+
+  /// Gets the node capacity of the index.
+  ///
+  /// @return the node capacity
+  int getNodeCapacity() {
+    return nodeCapacity;
+  }
+
+  /// Gets the extent of all the items in the index.
+  ///
+  /// @return the extent of the items
+  Envelope getExtent() {
+    return totalExtent.copy();
+  }
+
+  /// Adds an item with the given extent to the index.
+  ///
+  /// @param minX the minimum X of the item extent
+  /// @param minY the minimum Y of the item extent
+  /// @param maxX the maximum X of the item extent
+  /// @param maxY the maximum Y of the item extent
+  /// @param itemId the id of the item
+  void insert(double minX, double minY, double maxX, double maxY, int itemId) {
+    if (isBuilt) {
+      throw new StateError("Cannot insert items after tree is built.");
+    }
+    ensureItemCapacity(numItems + 1);
+    int boundsIndex = ENV_SIZE * numItems;
+    itemBounds[boundsIndex] = minX;
+    itemBounds[boundsIndex + 1] = minY;
+    itemBounds[boundsIndex + 2] = maxX;
+    itemBounds[boundsIndex + 3] = maxY;
+    itemIds[numItems] = itemId;
+    numItems++;
+    totalExtent.expandToIncludeXY(minX, minY);
+    totalExtent.expandToIncludeXY(maxX, maxY);
+  }
+
+  /// Adds an item with the extent of an {@link Envelope} to the index.
+  /// The envelope is not retained.
+  ///
+  /// @param itemEnv the extent of the item
+  /// @param itemId the id of the item
+  void insertEnvelope(Envelope itemEnv, int itemId) {
+    if (itemEnv.isNull()) return;
+    insert(itemEnv.getMinX(), itemEnv.getMinY(), itemEnv.getMaxX(), itemEnv.getMaxY(), itemId);
+  }
+
+ /**private */void ensureItemCapacity(int capacity) {
+    if (capacity <= itemIds.length) return;
+    int newCapacity = math.max(capacity, 2 * itemIds.length);
+    Float64List newBounds = Float64List(ENV_SIZE * newCapacity);
+    newBounds.setRange(0, ENV_SIZE * numItems, itemBounds);
+    itemBounds = newBounds;
+    Int32List newIds = Int32List(newCapacity);
+    newIds.setRange(0, numItems, itemIds);
+    itemIds = newIds;
+  }
+
+  /// Queries the index for the ids of all items whose extents
+  /// intersect the given search extent.
+  ///
+  /// @param minX the minimum X of the search extent
+  /// @param minY the minimum Y of the search extent
+  /// @param maxX the maximum X of the search extent
+  /// @param maxY the maximum Y of the search extent
+  /// @param visitor the visitor to report the item ids to
+  void query(double minX, double minY, double maxX, double maxY, IntItemVisitor visitor) {
+    build();
+    if (numItems == 0 || isBeyond(totalExtent, minX, minY, maxX, maxY)) {
+      return;
+    }
+    Int32List? layers = layerStartIndex;
+    if (layers == null) {
+      queryItems(0, minX, minY, maxX, maxY, visitor);
+      return;
+    }
+    // query each node in the top layer
+    int layerIndex = layers.length - 2;
+    int _layerSize = layerSize(layerIndex);
+    for (int i = 0; i < _layerSize; i += ENV_SIZE) {
+      queryNode(layerIndex, i, minX, minY, maxX, maxY, visitor);
+    }
+  }
+
+  /// Queries the index for the ids of all items whose extents
+  /// intersect the given search {@link Envelope}.
+  ///
+  /// @param searchEnv the envelope to query for
+  /// @param visitor the visitor to report the item ids to
+  void queryEnvelope(Envelope searchEnv, IntItemVisitor visitor) {
+    if (searchEnv.isNull()) return;
+    query(searchEnv.getMinX(), searchEnv.getMinY(), searchEnv.getMaxX(), searchEnv.getMaxY(), visitor);
+  }
+
+ /**private */void queryNode(int layerIndex, int nodeOffset,
+      double minX, double minY, double maxX, double maxY, IntItemVisitor visitor) {
+    int nodeIndex = layerStartIndex![layerIndex] + nodeOffset;
+    if (! intersects(nodeBounds, nodeIndex, minX, minY, maxX, maxY)) return;
+    if (layerIndex == 0) {
+      int childNodesOffset = (nodeOffset ~/ ENV_SIZE) * nodeCapacity;
+      queryItems(childNodesOffset, minX, minY, maxX, maxY, visitor);
+    }
+    else {
+      int childNodesOffset = nodeOffset * nodeCapacity;
+      queryNodeChildren(layerIndex - 1, childNodesOffset, minX, minY, maxX, maxY, visitor);
+    }
+  }
+
+ /**private */void queryNodeChildren(int layerIndex, int blockOffset,
+      double minX, double minY, double maxX, double maxY, IntItemVisitor visitor) {
+    int layerStart = layerStartIndex![layerIndex];
+    int layerEnd = layerStartIndex![layerIndex + 1];
+    for (int i = 0; i < nodeCapacity; i++) {
+      int nodeOffset = blockOffset + ENV_SIZE * i;
+      // don't query past layer end
+      if (layerStart + nodeOffset >= layerEnd) break;
+
+      queryNode(layerIndex, nodeOffset, minX, minY, maxX, maxY, visitor);
+    }
+  }
+
+ /**private */void queryItems(int blockStart,
+      double minX, double minY, double maxX, double maxY, IntItemVisitor visitor) {
+    int blockEnd = math.min(blockStart + nodeCapacity, numItems);
+    for (int itemIndex = blockStart; itemIndex < blockEnd; itemIndex++) {
+      if (intersects(itemBounds, itemIndex * ENV_SIZE, minX, minY, maxX, maxY)) {
+        visitor(itemIds[itemIndex]);
+      }
+    }
+  }
+
+ /**private */static bool intersects(Float64List bounds, int nodeIndex,
+      double minX, double minY, double maxX, double maxY) {
+    bool isBeyond = (maxX < bounds[nodeIndex])
+    || (maxY < bounds[nodeIndex+1])
+    || (minX > bounds[nodeIndex+2])
+    || (minY > bounds[nodeIndex+3]);
+    return ! isBeyond;
+  }
+
+ /**private */static bool isBeyond(Envelope env, double minX, double minY, double maxX, double maxY) {
+    return maxX < env.getMinX()
+        || maxY < env.getMinY()
+        || minX > env.getMaxX()
+        || minY > env.getMaxY();
+  }
+
+ /**private */int layerSize(int layerIndex) {
+    int layerStart = layerStartIndex![layerIndex];
+    int layerEnd = layerStartIndex![layerIndex + 1];
+    return layerEnd - layerStart;
+  }
+
+  /// Builds the index, if not already built.
+  /// Once built no further items can be inserted.
+  void build() {
+    if (isBuilt) return;
+    trimItems();
+    prepareIndex();
+    isBuilt = true;
+  }
+
+ /**private */void trimItems() {
+    if (itemIds.length == numItems) return;
+    itemBounds = Float64List.fromList(Float64List.sublistView(itemBounds, 0, ENV_SIZE * numItems));
+    itemIds = Int32List.fromList(Int32List.sublistView(itemIds, 0, numItems));
+  }
+
+ /**private */void prepareIndex() {
+    // don't need to build an empty or very small tree
+    if (numItems <= nodeCapacity) return;
+
+    sortItems();
+    computeNodes();
+  }
+
+  /// Builds the index from an item order computed elsewhere,
+  /// if not already built.
+  /// The order must be the one produced by the Hilbert sort of the build,
+  /// as computed by {@link HPRtreeParallelLoader}.
+  ///
+  /// @param order the inserted item position for each sorted position
+  void buildWithOrder(Int32List order) {
+    if (isBuilt) return;
+    trimItems();
+    if (numItems > nodeCapacity) {
+      Float64List bounds = itemBounds;
+      Int32List ids = itemIds;
+      itemBounds = Float64List(ENV_SIZE * numItems);
+      itemIds = Int32List(numItems);
+      for (int i = 0; i < numItems; i++) {
+        int from = order[i];
+        itemBounds.setRange(ENV_SIZE * i, ENV_SIZE * i + ENV_SIZE, bounds, ENV_SIZE * from);
+        itemIds[i] = ids[from];
+      }
+      computeNodes();
+    }
+    isBuilt = true;
+  }
+
+ /**private */void computeNodes() {
+    Int32List layers = computeLayerIndices(numItems, nodeCapacity);
+    layerStartIndex = layers;
+    int nodeCount = layers.last ~/ ENV_SIZE;
+    nodeBounds = createBoundsArray(nodeCount);
+
+    // compute tree nodes
+    computeLeafNodes(layers[1]);
+    for (int i = 1; i < layers.length - 1; i++) {
+      computeLayerNodes(i);
+    }
+  }
+
+ /**private */static Float64List createBoundsArray(int size) {
+    Float64List a = Float64List(ENV_SIZE * size);
+    for (int i = 0; i < size; i++) {
+      int index = ENV_SIZE * i;
+      a[index] = double.maxFinite;
+      a[index+1] = double.maxFinite;
+      a[index+2] = -double.maxFinite;
+      a[index+3] = -double.maxFinite;
+    }
+    return a;
+  }
+
+ /**private */void computeLayerNodes(int layerIndex) {
+    int layerStart = layerStartIndex![layerIndex];
+    int childLayerStart = layerStartIndex![layerIndex - 1];
+    int _layerSize = layerSize(layerIndex);
+    int childLayerEnd = layerStart;
+    for (int i = 0; i < _layerSize; i += ENV_SIZE) {
+      int childStart = childLayerStart + nodeCapacity * i;
+      computeNodeBounds(layerStart + i, childStart, childLayerEnd);
+    }
+  }
+
+ /**private */void computeNodeBounds(int nodeIndex, int blockStart, int nodeMaxIndex) {
+    for (int i = 0; i < nodeCapacity; i++ ) {
+      int index = blockStart + ENV_SIZE * i;
+      if (index >= nodeMaxIndex) break;
+      updateNodeBounds(nodeIndex, nodeBounds[index], nodeBounds[index+1], nodeBounds[index+2], nodeBounds[index+3]);
+    }
+  }
+
+ /**private */void computeLeafNodes(int layerSize) {
+    for (int i = 0; i < layerSize; i += ENV_SIZE) {
+      computeLeafNodeBounds(i, (nodeCapacity * i) ~/ ENV_SIZE);
+    }
+  }
+
+ /**private */void computeLeafNodeBounds(int nodeIndex, int blockStart) {
+    int blockEnd = math.min(blockStart + nodeCapacity, numItems);
+    for (int itemIndex = blockStart; itemIndex < blockEnd; itemIndex++) {
+      int boundsIndex = ENV_SIZE * itemIndex;
+      updateNodeBounds(nodeIndex, itemBounds[boundsIndex], itemBounds[boundsIndex+1],
+          itemBounds[boundsIndex+2], itemBounds[boundsIndex+3]);
+    }
+  }
+
+ /**private */void updateNodeBounds(int nodeIndex, double minX, double minY, double maxX, double maxY) {
+    if (minX < nodeBounds[nodeIndex]) nodeBounds[nodeIndex] = minX;
+    if (minY < nodeBounds[nodeIndex+1]) nodeBounds[nodeIndex+1] = minY;
+    if (maxX > nodeBounds[nodeIndex+2]) nodeBounds[nodeIndex+2] = maxX;
+    if (maxY > nodeBounds[nodeIndex+3]) nodeBounds[nodeIndex+3] = maxY;
+  }
+
+  /// Computes the start offsets of the layers within the node bounds array.
+  /// The last entry is the total length of the array.
+  ///
+  /// @param itemSize the number of items
+  /// @param nodeCapacity the node capacity
+  /// @return the layer start offsets
+  static Int32List computeLayerIndices(int itemSize, int nodeCapacity) {
+    List<int> layerIndexList = [];
+    int layerSize = itemSize;
+    int index = 0;
+    do {
+      layerIndexList.add(index);
+      layerSize = numNodesToCover(layerSize, nodeCapacity);
+      index += ENV_SIZE * layerSize;
+    } while (layerSize > 1);
+    return Int32List.fromList(layerIndexList);
+  }
+
+  /// Computes the number of blocks (nodes) required to
+  /// cover a given number of children.
+  ///
+  /// @param nChild
+  /// @param nodeCapacity
+  /// @return the number of nodes needed to cover the children
+  static int numNodesToCover(int nChild, int nodeCapacity) {
+    int mult = nChild ~/ nodeCapacity;
+    int total = mult * nodeCapacity;
+    if (total == nChild) return mult;
+    return mult + 1;
+  }
+
+  /// Gets the extents of the internal index nodes
+  ///
+  /// @return a list of the internal node extents
+  List<Envelope> getBounds() {
+    int numNodes = nodeBounds.length ~/ ENV_SIZE;
+    return List<Envelope>.generate(numNodes, (i) {
+      int boundIndex = ENV_SIZE * i;
+      return new Envelope(nodeBounds[boundIndex], nodeBounds[boundIndex+2],
+          nodeBounds[boundIndex+1], nodeBounds[boundIndex+3]);
+    }, growable: false);
+  }
+
+ /**private */void sortItems() {
+    HilbertEncoder encoder = new HilbertEncoder(HILBERT_LEVEL, totalExtent);
+    Int32List hilbertValues = Int32List(numItems);
+    for (int i = 0; i < numItems; i++) {
+      int boundsIndex = ENV_SIZE * i;
+      double midx = (itemBounds[boundsIndex] + itemBounds[boundsIndex+2]) / 2;
+      double midy = (itemBounds[boundsIndex+1] + itemBounds[boundsIndex+3]) / 2;
+      hilbertValues[i] = encoder.encodeXY(midx, midy);
+    }
+    quickSortItemsIntoNodes(hilbertValues, 0, numItems - 1);
+  }
+
+ /**private */void quickSortItemsIntoNodes(Int32List values, int lo, int hi) {
+    // stop sorting when left/right pointers are within the same node
+    // because queryItems just searches through them all sequentially
+    if (lo ~/ nodeCapacity < hi ~/ nodeCapacity) {
+      int pivot = hoarePartition(values, lo, hi);
+      quickSortItemsIntoNodes(values, lo, pivot);
+      quickSortItemsIntoNodes(values, pivot + 1, hi);
+    }
+  }
+
+ /**private */int hoarePartition(Int32List values, int lo, int hi) {
+    int pivot = values[(lo + hi) >> 1];
+    int i = lo - 1;
+    int j = hi + 1;
+
+    while (true) {
+      do {
+        i++;
+      } while (values[i] < pivot);
+      do {
+        j--;
+      } while (values[j] > pivot);
+      if (i >= j) return j;
+      swapItems(values, i, j);
+    }
+  }
+
+ /**private */void swapItems(Int32List values, int i, int j) {
+    int bi = ENV_SIZE * i;
+    int bj = ENV_SIZE * j;
+    for (int k = 0; k < ENV_SIZE; k++) {
+      double tmpBound = itemBounds[bi + k];
+      itemBounds[bi + k] = itemBounds[bj + k];
+      itemBounds[bj + k] = tmpBound;
+    }
+
+    int tmpId = itemIds[i];
+    itemIds[i] = itemIds[j];
+    itemIds[j] = tmpId;
+
+    int tmpValue = values[i];
+    values[i] = values[j];
+    values[j] = tmpValue;
+  }
+}
@@ -0,0 +1,590 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+
+import '../ArrayListVisitor.dart';
+import '../ItemVisitor.dart';
+import '../SpatialIndex.dart';
+
+/// A node of an {@link RStarTree}.
+/// The entries of a leaf (level 0) are items;
+/// the entries of other nodes are the child nodes.
+/// The bounds of each entry are stored in a single array,
+/// as <code>minX, minY, maxX, maxY</code>.
+class RStarNode {
+ /**private */final int level;
+
+ /**private */int count = 0;
+
+ /**private */final Float64List bounds;
+
+ /**private */final List<Object?> entries;
+
+  /// Creates an empty node, with room for one entry more than the node capacity
+  /// so that it can overflow before being split.
+  ///
+  /// @param level the level of the node (0 for a leaf)
+  /// @param nodeCapacity the maximum number of entries in the node
+  RStarNode(this.level, int nodeCapacity)
+      : bounds = Float64List(4 * (nodeCapacity + 1)),
+        entries = List.filled(nodeCapacity + 1, null);
+
+  /// Gets the level of the node (0 for a leaf).
+  int getLevel() {
+    return level;
+  }
+
+  /// Gets the number of entries in the node.
+  int size() {
+    return count;
+  }
+
+  /// Gets the entry at an index.
+  Object getEntry(int i) {
+    return entries[i]!;
+  }
+
+  /// Gets the bounds of the entry at an index.
+  Envelope getEntryBounds(int i) {
+    return new Envelope(bounds[4 * i], bounds[4 * i + 2], bounds[4 * i + 1], bounds[4 * i + 3]);
+  }
+
+ /**private */void add(double minX, double minY, double maxX, double maxY, Object entry) {
+    setBounds(count, minX, minY, maxX, maxY);
+    entries[count] = entry;
+    count++;
+  }
+
+ /**private */void setBounds(int i, double minX, double minY, double maxX, double maxY) {
+    bounds[4 * i] = minX;
+    bounds[4 * i + 1] = minY;
+    bounds[4 * i + 2] = maxX;
+    bounds[4 * i + 3] = maxY;
+  }
+
+  /// Removes an entry by moving the last entry into its place.
+ /**private */void removeAt(int i) {
+    count--;
+    if (i < count) {
+      bounds.setRange(4 * i, 4 * i + 4, bounds, 4 * count);
+      entries[i] = entries[count];
+    }
+    entries[count] = null;
+  }
+
+  /// Computes the bounds of all entries into an array.
+ /**private */void computeBounds(Float64List out) {
+    out[0] = double.infinity;
+    out[1] = double.infinity;
+    out[2] = double.negativeInfinity;
+    out[3] = double.negativeInfinity;
+    for (int i = 0; i < count; i++) {
+      int b = 4 * i;
+      if (bounds[b] < out[0]) out[0] = bounds[b];
+      if (bounds[b + 1] < out[1]) out[1] = bounds[b + 1];
+      if (bounds[b + 2] > out[2]) out[2] = bounds[b + 2];
+      if (bounds[b + 3] > out[3]) out[3] = bounds[b + 3];
+    }
+  }
+}
+
+/// An entry removed from a node, waiting to be inserted again.
+class _PendingEntry {
+  final double minX;
+  final double minY;
+  final double maxX;
+  final double maxY;
+  final Object entry;
+  /// the level of the node the entry must be inserted into
+  final int level;
+
+  _PendingEntry(this.minX, this.minY, this.maxX, this.maxY, this.entry, this.level);
+}
+
+/// A dynamic R-tree using the R*-tree insertion and split algorithms
+/// (Beckmann, Kriegel, Schneider and Seeger,
+/// "The R*-tree: an efficient and robust access method for points and rectangles",
+/// SIGMOD 1990).
+/// <p>
+/// Unlike {@link STRtree} and {@link HPRtree}, the tree can be updated
+/// at any time: items can be inserted and removed
+/// while the tree is being queried.
+/// <ul>
+/// <li>Inserts choose the subtree by least overlap enlargement
+/// at the level above the leaves and by least area enlargement above that.
+/// <li>When a node overflows for the first time at a level during an insert,
+/// the entries farthest from its centre are removed and inserted again,
+/// which lets the tree reorganize itself instead of splitting.
+/// <li>Otherwise nodes are split along the axis with the least total margin,
+/// at the distribution with the least overlap.
+/// <li>Removes dissolve nodes which fall below the minimum fill
+/// and insert their entries again.
+/// </ul>
+/// Items are matched for removal by <code>==</code>.
+///
+/// @see STRtree
+class RStarTree implements SpatialIndex {
+ /**private */static const int DEFAULT_NODE_CAPACITY = 16;
+
+  /// the fraction of the node capacity which is the minimum fill of a node
+ /**private */static const double MIN_FILL_FACTOR = 0.4;
+
+  /// the fraction of the node capacity which is removed for reinsertion
+ /**private */static const double REINSERT_FACTOR = 0.3;
+
+ /**private */final int nodeCapacity;
+
+ /**private */final int minNodeSize;
+
+ /**private */final int reinsertCount;
+
+ /**private */RStarNode root;
+
+ /**private */int numItems = 0;
+
+  /// the levels at which overflow has been treated by reinsertion during the current insert
+ /**private */int reinsertedLevels = 0;
+
+ /**private */final Float64List nodeEnv = Float64List(4);
+
+  /// Creates a tree with the given node capacity.
+  ///
+  /// @param nodeCapacity the maximum number of entries in a node
+  RStarTree([this.nodeCapacity = DEFAULT_NODE_CAPACITY])
+      : minNodeSize = math.max(1, (nodeCapacity * MIN_FILL_FACTOR).floor()),
+        reinsertCount = math.max(1, (nodeCapacity * REINSERT_FACTOR).round()),
+        root = new RStarNode(0, nodeCapacity) {
+    if (nodeCapacity < 4) {
+      throw ArgumentError("Node capacity must be at least 4");
+    }
+  }
+
+  /// Gets the number of items in the tree.
+  ///
+  /// @return the number of items
+  int size() {
+    return numItems;
+  }
+
+  /// Tests whether the tree is empty.
+  ///
+  /// @return true if the tree contains no items
+  bool isEmpty() {
+    return numItems == 0;
+  }
+
+  /// Gets the number of levels in the tree.
+  ///
+  /// @return the depth of the tree
+  int depth() {
+    return root.level + 1;
+  }
+
+  /// Gets the root node of the tree.
+  ///
+  /// @return the root node
+  RStarNode getRoot() {
+    return root;
+  }
+
+  @override
+  void insert(Envelope itemEnv, Object item) {
+    if (itemEnv.isNull()) return;
+    numItems++;
+    reinsertedLevels = 0;
+    insertEntry(itemEnv.getMinX(), itemEnv.getMinY(), itemEnv.getMaxX(), itemEnv.getMaxY(), item, 0);
+  }
+
+  @override
+  List query(Envelope searchEnv) {
+    ArrayListVisitor visitor = new ArrayListVisitor();
+    queryByVisitor(searchEnv, visitor);
+    return visitor.getItems();
+  }
+
+  @override
+  void queryByVisitor(Envelope searchEnv, ItemVisitor visitor) {
+    if (numItems == 0 || searchEnv.isNull()) return;
+    queryNode(root, searchEnv.getMinX(), searchEnv.getMinY(),
+        searchEnv.getMaxX(), searchEnv.getMaxY(), visitor);
+  }
+
+ /**private */void queryNode(RStarNode node, double minX, double minY, double maxX, double maxY,
+      ItemVisitor visitor) {
+    Float64List bounds = node.bounds;
+    for (int i = 0; i < node.count; i++) {
+      int b = 4 * i;
+      if (maxX < bounds[b] || maxY < bounds[b + 1] || minX > bounds[b + 2] || minY > bounds[b + 3]) {
+        continue;
+      }
+      if (node.level == 0) {
+        visitor.visitItem(node.entries[i]!);
+      }
+      else {
+        queryNode(node.entries[i] as RStarNode, minX, minY, maxX, maxY, visitor);
+      }
+    }
+  }
+
+  @override
+  bool remove(Envelope itemEnv, Object item) {
+    if (numItems == 0 || itemEnv.isNull()) return false;
+    List<RStarNode> path = [];
+    List<int> slots = [];
+    if (! findLeaf(root, itemEnv, item, path, slots)) {
+      return false;
+    }
+    RStarNode leaf = path.last;
+    leaf.removeAt(slots.last);
+    numItems--;
+    condenseTree(path, slots);
+    return true;
+  }
+
+  /// Finds the leaf containing an item, recording the path to it.
+  /// The last slot is the index of the item in the leaf;
+  /// the others are the index of the next node of the path in its parent.
+ /**private */bool findLeaf(RStarNode node, Envelope itemEnv, Object item,
+      List<RStarNode> path, List<int> slots) {
+    path.add(node);
+    Float64List bounds = node.bounds;
+    for (int i = 0; i < node.count; i++) {
+      int b = 4 * i;
+      // the entry must cover the item envelope
+      if (itemEnv.getMinX() < bounds[b] || itemEnv.getMinY() < bounds[b + 1]
+          || itemEnv.getMaxX() > bounds[b + 2] || itemEnv.getMaxY() > bounds[b + 3]) {
+        continue;
+      }
+      slots.add(i);
+      if (node.level == 0) {
+        if (node.entries[i] == item) return true;
+      }
+      else if (findLeaf(node.entries[i] as RStarNode, itemEnv, item, path, slots)) {
+        return true;
+      }
+      slots.removeLast();
+    }
+    path.removeLast();
+    return false;
+  }
+
+  /// Removes underfull nodes along a path after a remove,
+  /// inserting their entries again, and updates the bounds of the path.
+ /**private */void condenseTree(List<RStarNode> path, List<int> slots) {
+    List<_PendingEntry> orphans = [];
+    for (int depth = path.length - 1; depth > 0; depth--) {
+      RStarNode node = path[depth];
+      RStarNode parent = path[depth - 1];
+      int slot = slots[depth - 1];
+      if (node.count < minNodeSize) {
+        parent.removeAt(slot);
+        for (int i = 0; i < node.count; i++) {
+          int b = 4 * i;
+          orphans.add(new _PendingEntry(node.bounds[b], node.bounds[b + 1],
+              node.bounds[b + 2], node.bounds[b + 3], node.entries[i]!, node.level));
+        }
+      }
+      else {
+        node.computeBounds(nodeEnv);
+        parent.setBounds(slot, nodeEnv[0], nodeEnv[1], nodeEnv[2], nodeEnv[3]);
+      }
+    }
+    // shorten the tree while the root has a single child
+    while (root.level > 0 && root.count == 1) {
+      root = root.entries[0] as RStarNode;
+    }
+    if (root.level > 0 && root.count == 0) {
+      root = new RStarNode(0, nodeCapacity);
+    }
+    for (_PendingEntry orphan in orphans) {
+      reinsertedLevels = 0;
+      insertPending(orphan);
+    }
+  }
+
+ /**private */void insertPending(_PendingEntry pending) {
+    // a subtree taller than the tree is inserted as the root's sibling
+    if (pending.level > root.level) {
+      growRoot(pending.level);
+    }
+    insertEntry(pending.minX, pending.minY, pending.maxX, pending.maxY,
+        pending.entry, pending.level);
+  }
+
+  /// Adds levels above the root until it is at the given level.
+ /**private */void growRoot(int level) {
+    while (root.level < level) {
+      RStarNode newRoot = new RStarNode(root.level + 1, nodeCapacity);
+      if (root.count > 0) {
+        root.computeBounds(nodeEnv);
+        newRoot.add(nodeEnv[0], nodeEnv[1], nodeEnv[2], nodeEnv[3], root);
+      }
+      root = newRoot;
+    }
+  }
+
+  /// Inserts an entry into a node at the given level,
+  /// treating overflows on the way back up to the root.
+ /**private */void insertEntry(double minX, double minY, double maxX, double maxY,
+      Object entry, int level) {
+    List<RStarNode> path = [];
+    List<int> slots = [];
+    RStarNode node = root;
+    while (node.level > level) {
+      int slot = chooseSubtree(node, minX, minY, maxX, maxY);
+      path.add(node);
+      slots.add(slot);
+      node = node.entries[slot] as RStarNode;
+    }
+    path.add(node);
+    node.add(minX, minY, maxX, maxY, entry);
+
+    List<_PendingEntry> pending = [];
+    RStarNode? sibling;
+    for (int depth = path.length - 1; depth >= 0; depth--) {
+      RStarNode current = path[depth];
+      if (sibling != null) {
+        sibling.computeBounds(nodeEnv);
+        current.add(nodeEnv[0], nodeEnv[1], nodeEnv[2], nodeEnv[3], sibling);
+        sibling = null;
+      }
+      if (current.count > nodeCapacity) {
+        int levelBit = 1 << current.level;
+        if (current != root && (reinsertedLevels & levelBit) == 0) {
+          reinsertedLevels |= levelBit;
+          removeFarthest(current, pending);
+        }
+        else {
+          sibling = split(current);
+        }
+      }
+      if (depth > 0) {
+        current.computeBounds(nodeEnv);
+        path[depth - 1].setBounds(slots[depth - 1], nodeEnv[0], nodeEnv[1], nodeEnv[2], nodeEnv[3]);
+      }
+    }
+    if (sibling != null) {
+      // the root was split
+      RStarNode newRoot = new RStarNode(root.level + 1, nodeCapacity);
+      root.computeBounds(nodeEnv);
+      newRoot.add(nodeEnv[0], nodeEnv[1], nodeEnv[2], nodeEnv[3], root);
+      sibling.computeBounds(nodeEnv);
+      newRoot.add(nodeEnv[0], nodeEnv[1], nodeEnv[2], nodeEnv[3], sibling);
+      root = newRoot;
+    }
+    for (_PendingEntry entry in pending) {
+      insertPending(entry);
+    }
+  }
+
+  /// Chooses the entry of a node to insert a new entry into.
+ /**private */int chooseSubtree(RStarNode node, double minX, double minY, double maxX, double maxY) {
+    Float64List bounds = node.bounds;
+    bool childrenAreLeaves = node.level == 1;
+    int best = 0;
+    double bestOverlap = double.infinity;
+    double bestEnlargement = double.infinity;
+    double bestArea = double.infinity;
+    for (int i = 0; i < node.count; i++) {
+      int b = 4 * i;
+      double area = (bounds[b + 2] - bounds[b]) * (bounds[b + 3] - bounds[b + 1]);
+      double eMinX = math.min(bounds[b], minX);
+      double eMinY = math.min(bounds[b + 1], minY);
+      double eMaxX = math.max(bounds[b + 2], maxX);
+      double eMaxY = math.max(bounds[b + 3], maxY);
+      double enlargement = (eMaxX - eMinX) * (eMaxY - eMinY) - area;
+
+      double overlap = 0.0;
+      if (childrenAreLeaves) {
+        // overlap enlargement with the other entries
+        for (int j = 0; j < node.count; j++) {
+          if (j == i) continue;
+          int o = 4 * j;
+          overlap += overlapArea(eMinX, eMinY, eMaxX, eMaxY,
+                  bounds[o], bounds[o + 1], bounds[o + 2], bounds[o + 3])
+              - overlapArea(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3],
+                  bounds[o], bounds[o + 1], bounds[o + 2], bounds[o + 3]);
+        }
+      }
+      if (overlap < bestOverlap
+          || (overlap == bestOverlap && (enlargement < bestEnlargement
+              || (enlargement == bestEnlargement && area < bestArea)))) {
+        best = i;
+        bestOverlap = overlap;
+        bestEnlargement = enlargement;
+        bestArea = area;
+      }
+    }
+    return best;
+  }
+
+ /**private */static double overlapArea(double minX0, double minY0, double maxX0, double maxY0,
+      double minX1, double minY1, double maxX1, double maxY1) {
+    double w = math.min(maxX0, maxX1) - math.max(minX0, minX1);
+    if (w <= 0) return 0.0;
+    double h = math.min(maxY0, maxY1) - math.max(minY0, minY1);
+    if (h <= 0) return 0.0;
+    return w * h;
+  }
+
+  /// Removes the entries of an overflowing node farthest from its centre,
+  /// to be inserted again closest first.
+ /**private */void removeFarthest(RStarNode node, List<_PendingEntry> pending) {
+    node.computeBounds(nodeEnv);
+    double centreX = (nodeEnv[0] + nodeEnv[2]) / 2;
+    double centreY = (nodeEnv[1] + nodeEnv[3]) / 2;
+    Float64List dist = Float64List(node.count);
+    for (int i = 0; i < node.count; i++) {
+      int b = 4 * i;
+      double dx = (node.bounds[b] + node.bounds[b + 2]) / 2 - centreX;
+      double dy = (node.bounds[b + 1] + node.bounds[b + 3]) / 2 - centreY;
+      dist[i] = dx * dx + dy * dy;
+    }
+    List<int> order = List.generate(node.count, (i) => i);
+    order.sort((a, b) => dist[a].compareTo(dist[b]));
+
+    List<int> removed = order.sublist(node.count - reinsertCount);
+    for (int i in removed) {
+      int b = 4 * i;
+      pending.add(new _PendingEntry(node.bounds[b], node.bounds[b + 1],
+          node.bounds[b + 2], node.bounds[b + 3], node.entries[i]!, node.level));
+    }
+    // remove from the highest index down, so the remaining indexes stay valid
+    removed.sort();
+    for (int k = removed.length - 1; k >= 0; k--) {
+      node.removeAt(removed[k]);
+    }
+  }
+
+  /// Splits an overflowing node, keeping the first group of entries
+  /// and returning a new node holding the second.
+ /**private */RStarNode split(RStarNode node) {
+    int n = node.count;
+    Float64List bounds = node.bounds;
+
+    // choose the axis with the least total margin over all distributions
+    List<int>? bestOrder;
+    int bestSplit = 0;
+    double bestMargin = double.infinity;
+    List<List<int>> bestAxisOrders = [];
+    for (int axis = 0; axis < 2; axis++) {
+      List<int> byMin = sortedEntries(bounds, n, axis, axis + 2);
+      List<int> byMax = sortedEntries(bounds, n, axis + 2, axis);
+      double margin = sumMargins(bounds, byMin) + sumMargins(bounds, byMax);
+      if (margin < bestMargin) {
+        bestMargin = margin;
+        bestAxisOrders = [byMin, byMax];
+      }
+    }
+    // along it, choose the distribution with the least overlap, then least area
+    double bestOverlap = double.infinity;
+    double bestArea = double.infinity;
+    for (List<int> order in bestAxisOrders) {
+      Float64List prefix = prefixBounds(bounds, order);
+      Float64List suffix = suffixBounds(bounds, order);
+      for (int k = minNodeSize; k <= n - minNodeSize; k++) {
+        int p = 4 * (k - 1);
+        int s = 4 * k;
+        double overlap = overlapArea(prefix[p], prefix[p + 1], prefix[p + 2], prefix[p + 3],
+            suffix[s], suffix[s + 1], suffix[s + 2], suffix[s + 3]);
+        double area = (prefix[p + 2] - prefix[p]) * (prefix[p + 3] - prefix[p + 1])
+            + (suffix[s + 2] - suffix[s]) * (suffix[s + 3] - suffix[s + 1]);
+        if (overlap < bestOverlap || (overlap == bestOverlap && area < bestArea)) {
+          bestOverlap = overlap;
+          bestArea = area;
+          bestOrder = order;
+          bestSplit = k;
+        }
+      }
+    }
+
+    List<int> order = bestOrder!;
+    Float64List oldBounds = Float64List.fromList(bounds);
+    List<Object?> oldEntries = List.of(node.entries);
+    RStarNode sibling = new RStarNode(node.level, nodeCapacity);
+    for (int i = 0; i < node.count; i++) {
+      node.entries[i] = null;
+    }
+    node.count = 0;
+    for (int k = 0; k < n; k++) {
+      int i = order[k];
+      int b = 4 * i;
+      RStarNode target = k < bestSplit ? node : sibling;
+      target.add(oldBounds[b], oldBounds[b + 1], oldBounds[b + 2], oldBounds[b + 3], oldEntries[i]!);
+    }
+    return sibling;
+  }
+
+  /// Sorts entry indexes by one bound, then another.
+ /**private */static List<int> sortedEntries(Float64List bounds, int n, int key, int tieKey) {
+    List<int> order = List.generate(n, (i) => i);
+    order.sort((a, b) {
+      int comp = bounds[4 * a + key].compareTo(bounds[4 * b + key]);
+      return comp != 0 ? comp : bounds[4 * a + tieKey].compareTo(bounds[4 * b + tieKey]);
+    });
+    return order;
+  }
+
+ /**private */double sumMargins(Float64List bounds, List<int> order) {
+    Float64List prefix = prefixBounds(bounds, order);
+    Float64List suffix = suffixBounds(bounds, order);
+    double sum = 0.0;
+    for (int k = minNodeSize; k <= order.length - minNodeSize; k++) {
+      int p = 4 * (k - 1);
+      int s = 4 * k;
+      sum += (prefix[p + 2] - prefix[p]) + (prefix[p + 3] - prefix[p + 1])
+          + (suffix[s + 2] - suffix[s]) + (suffix[s + 3] - suffix[s + 1]);
+    }
+    return sum;
+  }
+
+  /// Computes the bounds of the first k+1 entries of an order, for each k.
+ /**private */static Float64List prefixBounds(Float64List bounds, List<int> order) {
+    Float64List prefix = Float64List(4 * order.length);
+    for (int k = 0; k < order.length; k++) {
+      int b = 4 * order[k];
+      int p = 4 * k;
+      if (k == 0) {
+        prefix.setRange(0, 4, bounds, b);
+        continue;
+      }
+      prefix[p] = math.min(prefix[p - 4], bounds[b]);
+      prefix[p + 1] = math.min(prefix[p - 3], bounds[b + 1]);
+      prefix[p + 2] = math.max(prefix[p - 2], bounds[b + 2]);
+      prefix[p + 3] = math.max(prefix[p - 1], bounds[b + 3]);
+    }
+    return prefix;
+  }
+
+  /// Computes the bounds of the entries of an order from k on, for each k.
+ /**private */static Float64List suffixBounds(Float64List bounds, List<int> order) {
+    int n = order.length;
+    Float64List suffix = Float64List(4 * n);
+    for (int k = n - 1; k >= 0; k--) {
+      int b = 4 * order[k];
+      int s = 4 * k;
+      if (k == n - 1) {
+        suffix.setRange(s, s + 4, bounds, b);
+        continue;
+      }
+      suffix[s] = math.min(suffix[s + 4], bounds[b]);
+      suffix[s + 1] = math.min(suffix[s + 5], bounds[b + 1]);
+      suffix[s + 2] = math.max(suffix[s + 6], bounds[b + 2]);
+      suffix[s + 3] = math.max(suffix[s + 7], bounds[b + 3]);
+    }
+    return suffix;
+  }
+}
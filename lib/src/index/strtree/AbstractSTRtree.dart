@@ -21,6 +21,7 @@
 // import org.locationtech.jts.index.ItemVisitor;
 // import org.locationtech.jts.util.Assert;
 
+import 'package:collection/collection.dart' show mergeSort;
 import 'package:jtscore4dart/src/index/ItemVisitor.dart';
 import 'package:jtscore4dart/src/patch/ArrayList.dart';
 import 'package:jtscore4dart/src/util/Assert.dart';
@@ -134,7 +135,7 @@ abstract class AbstractSTRtree /** implements Serializable  */ {
     if (built) return;
     root = itemBoundables!.isEmpty
         ? createNode(0)
-        : _createHigherLevels(itemBoundables!, -1);
+        : createHigherLevels(itemBoundables!, -1);
     // the item list is no longer needed
     itemBoundables = null;
     built = true;
@@ -154,7 +155,8 @@ abstract class AbstractSTRtree /** implements Serializable  */ {
     // List sortedChildBoundables = new ArrayList(childBoundables);
     List sortedChildBoundables = childBoundables.toList(growable: false);
     // Collections.sort(sortedChildBoundables, getComparator());
-    sortedChildBoundables.sort(getComparator());
+    // stable, like Collections.sort, so ties keep their input order
+    mergeSort(sortedChildBoundables, compare: getComparator());
     for (Iterator i = sortedChildBoundables.iterator; i.moveNext();) {
       Boundable childBoundable = i.current as Boundable;
       if (lastNode(parentBoundables).getChildBoundables().size() ==
@@ -189,14 +191,14 @@ abstract class AbstractSTRtree /** implements Serializable  */ {
    *            boundables (that is, below level 0)
    * @return the root, which may be a ParentNode or a LeafNode
    */
-  AbstractNode _createHigherLevels(List boundablesOfALevel, int level) {
+  /**protected */ AbstractNode createHigherLevels(List boundablesOfALevel, int level) {
     Assert.isTrue(boundablesOfALevel.isNotEmpty);
     List parentBoundables =
         createParentBoundables(boundablesOfALevel, level + 1);
     if (parentBoundables.size() == 1) {
       return parentBoundables.get(0) as AbstractNode;
     }
-    return _createHigherLevels(parentBoundables, level + 1);
+    return createHigherLevels(parentBoundables, level + 1);
   }
 
   /**
@@ -373,7 +375,6 @@ abstract class AbstractSTRtree /** implements Serializable  */ {
     build();
 
     List<Object>? valuesTree = _itemsTree(root);
-    print('>>>>>>>>> valuesTree: ${valuesTree} <<<<<<<<<<<<<<<<<<<<');
     if (valuesTree == null) {
       return [];
     }
@@ -384,13 +385,11 @@ abstract class AbstractSTRtree /** implements Serializable  */ {
     List<Object> valuesTreeForNode = [];
     for (Iterator i = node.getChildBoundables().iterator; i.moveNext();) {
       Boundable childBoundable = i.current as Boundable;
-      print(
-          '>>>>>>>>> childBoundable is AbstractNode: ${childBoundable.runtimeType} <<<<<<<<<<<<<<<<<<<<');
       if (childBoundable is AbstractNode) {
         // only add if not null (which indicates an item somewhere in this tree
         List<Object>? valuesTreeForChild = _itemsTree(childBoundable);
         if (valuesTreeForChild != null) {
-          valuesTreeForNode.addAll(valuesTreeForChild);
+          valuesTreeForNode.add(valuesTreeForChild);
         }
       } else if (childBoundable is ItemBoundable) {
         valuesTreeForNode.add(childBoundable.getItem());
@@ -194,6 +194,39 @@ class BoundablePair implements Comparable
     throw new ArgumentError("neither boundable is composite");
   }
   
+  /**
+   * For a pair which is not a leaf
+   * computes the new pairs from the expansion of the larger boundable
+   * with distance at most maxDistance,
+   * and adds them to a list.
+   * Unlike {@link #expandToQueue} pairs at exactly the limit distance are kept,
+   * which supports traversals visiting every pair of intersecting members
+   * (with a limit of 0), such as spatial joins.
+   *
+   * @param pairs the list to add the new pairs to
+   * @param maxDistance the limit on the distance between added pairs
+   */
+  void expandToList(List<BoundablePair> pairs, double maxDistance)
+  {
+    bool isComp1 = isComposite(boundable1);
+    bool isComp2 = isComposite(boundable2);
+    if (! isComp1 && ! isComp2) {
+      throw new ArgumentError("neither boundable is composite");
+    }
+    // same heuristic as expandToQueue
+    bool isFlipped = ! isComp1 || (isComp2 && area(boundable1) <= area(boundable2));
+    Boundable bndComposite = isFlipped ? boundable2 : boundable1;
+    Boundable bndOther = isFlipped ? boundable1 : boundable2;
+    for (Object child in (bndComposite as AbstractNode).getChildBoundables()) {
+      BoundablePair bp = isFlipped
+          ? new BoundablePair(bndOther, child as Boundable, itemDistance)
+          : new BoundablePair(child as Boundable, bndOther, itemDistance);
+      if (bp.getDistance() <= maxDistance) {
+        pairs.add(bp);
+      }
+    }
+  }
+
  /**private */void expand(Boundable bndComposite, Boundable bndOther, bool isFlipped,
       PriorityQueue priQ, double minDistance)
   {
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+
+import 'AbstractNode.dart';
+import 'Boundable.dart';
+import 'ItemBoundable.dart';
+import 'ItemDistance.dart';
+import 'STRtree.dart';
+
+/// Finds the items of an {@link STRtree} nearest to query items,
+/// for many queries in turn.
+/// <p>
+/// This uses the same Branch-and-Bound search as
+/// {@link STRtree#nearestNeighbour$2} and {@link STRtree#nearestNeighbour$3},
+/// but since the query side of each pair is always a single item
+/// the search queue holds just the tree node and its distance,
+/// in arrays which are reused across queries.
+/// The boundable wrapping the query item is reused as well,
+/// so a query allocates nothing other than its result.
+/// <p>
+/// The {@link ItemDistance} is called with the tree item first
+/// and the query item second, as in the {@link STRtree} methods.
+/// It must not retain the query boundable.
+/// <p>
+/// A search object is not thread-safe;
+/// use one per isolate (see {@link ParallelNearestNeighbour}).
+class NearestNeighbourSearch {
+ /**private */static const int INITIAL_CAPACITY = 64;
+
+ /**private */final STRtree tree;
+
+ /**private */final ItemDistance itemDist;
+
+ /**private */final ItemBoundable queryBnd = new ItemBoundable(new Envelope.init(), 0);
+
+ /**private */final Envelope queryPointEnv = new Envelope.init();
+
+ /**private */final Coordinate queryPoint = new Coordinate.empty2D();
+
+  // search queue: a binary min-heap on distance
+ /**private */List<Boundable?> queueBnd = List.filled(INITIAL_CAPACITY, null);
+ /**private */Float64List queueDist = Float64List(INITIAL_CAPACITY);
+ /**private */int queueSize = 0;
+
+  // k nearest items found so far: a binary max-heap on distance
+ /**private */List<ItemBoundable?> nearBnd = List.filled(INITIAL_CAPACITY, null);
+ /**private */Float64List nearDist = Float64List(INITIAL_CAPACITY);
+ /**private */int nearSize = 0;
+
+  /// Creates a search over a tree.
+  /// The tree is built if it is not already.
+  ///
+  /// @param tree the tree to search
+  /// @param itemDist a distance metric applicable to the items in the tree and the query items
+  NearestNeighbourSearch(this.tree, this.itemDist);
+
+  /// Finds the item in the tree which is nearest to the given item.
+  ///
+  /// @param env the envelope of the query item
+  /// @param item the item to find the nearest neighbour of
+  /// @return the nearest item in the tree,
+  ///    or <code>null</code> if the tree is empty
+  Object? nearest(Envelope env, Object item) {
+    return nearestBoundable(env, item)?.getItem();
+  }
+
+  /// Finds up to k items in the tree which are nearest to the given item,
+  /// ordered by increasing distance.
+  ///
+  /// @param env the envelope of the query item
+  /// @param item the item to find the nearest neighbours of
+  /// @param k the maximum number of nearest items to search for
+  /// @return the nearest items found (with length between 0 and k)
+  List<Object> nearestK(Envelope env, Object item, int k) {
+    int n = searchK(env, item, k, double.infinity);
+    List<Object> items = List.filled(n, queryBnd, growable: false);
+    for (int i = n - 1; i >= 0; i--) {
+      items[i] = popNear().getItem();
+    }
+    return items;
+  }
+
+  /// Finds the nearest tree item for each of a list of query items.
+  ///
+  /// @param envs the envelopes of the query items
+  /// @param items the query items
+  /// @return the nearest tree item for each query item
+  ///    (<code>null</code> if the tree is empty)
+  List<Object?> nearestAll(List<Envelope> envs, List<Object> items) {
+    checkQueries(envs, items);
+    return List.generate(items.length, (i) => nearest(envs[i], items[i]), growable: false);
+  }
+
+  /// Finds up to k nearest tree items for each of a list of query items.
+  ///
+  /// @param envs the envelopes of the query items
+  /// @param items the query items
+  /// @param k the maximum number of nearest items to search for
+  /// @return the nearest tree items for each query item, ordered by increasing distance
+  List<List<Object>> nearestKAll(List<Envelope> envs, List<Object> items, int k) {
+    checkQueries(envs, items);
+    return List.generate(items.length, (i) => nearestK(envs[i], items[i], k), growable: false);
+  }
+
+  /// Finds the nearest tree item for each of a list of query points.
+  /// The query item passed to the {@link ItemDistance} is a {@link Coordinate},
+  /// which is reused for all points.
+  ///
+  /// @param xy the query points, as x,y pairs
+  /// @return the nearest tree item for each point
+  ///    (<code>null</code> if the tree is empty)
+  List<Object?> nearestToPoints(Float64List xy) {
+    return List.generate(xy.length ~/ 2,
+        (i) => nearestToPoint(xy[2 * i], xy[2 * i + 1])?.getItem(), growable: false);
+  }
+
+  /// Finds the tree item nearest to a point.
+  /// The query item passed to the {@link ItemDistance} is a {@link Coordinate},
+  /// which is reused for all points.
+  ///
+  /// @param x the x ordinate of the point
+  /// @param y the y ordinate of the point
+  /// @return the boundable of the nearest item,
+  ///    or <code>null</code> if the tree is empty
+  ItemBoundable? nearestToPoint(double x, double y) {
+    queryPoint.x = x;
+    queryPoint.y = y;
+    queryPointEnv.setToNull();
+    queryPointEnv.expandToIncludeXY(x, y);
+    return nearestBoundable(queryPointEnv, queryPoint);
+  }
+
+ /**private */static void checkQueries(List<Envelope> envs, List<Object> items) {
+    if (envs.length != items.length) {
+      throw ArgumentError("Number of envelopes and query items must be equal");
+    }
+  }
+
+  /// Finds the boundable of the item in the tree which is nearest to the given item.
+  ///
+  /// @param env the envelope of the query item
+  /// @param item the item to find the nearest neighbour of
+  /// @return the boundable of the nearest item,
+  ///    or <code>null</code> if the tree is empty
+  ItemBoundable? nearestBoundable(Envelope env, Object item) {
+    if (tree.isEmpty()) return null;
+    setQuery(env, item);
+    double distanceLowerBound = double.infinity;
+    ItemBoundable? minItem;
+
+    queueSize = 0;
+    pushQueue(tree.getRoot(), distance(tree.getRoot()));
+    while (queueSize > 0 && distanceLowerBound > 0.0) {
+      double pairDistance = queueDist[0];
+      Boundable bnd = popQueue();
+      // all other nodes in the queue are at least as far
+      if (pairDistance >= distanceLowerBound) {
+        break;
+      }
+      if (bnd is ItemBoundable) {
+        distanceLowerBound = pairDistance;
+        minItem = bnd;
+      }
+      else {
+        expand(bnd as AbstractNode, distanceLowerBound);
+      }
+    }
+    return minItem;
+  }
+
+  /// Finds up to k items nearest to the given item,
+  /// leaving them in the nearest-items heap.
+  ///
+  /// @param env the envelope of the query item
+  /// @param item the item to find the nearest neighbours of
+  /// @param k the maximum number of nearest items to search for
+  /// @param maxDistance the distance limit for the search
+  /// @return the number of items found
+  int searchK(Envelope env, Object item, int k, double maxDistance) {
+    nearSize = 0;
+    if (tree.isEmpty() || k <= 0) return 0;
+    setQuery(env, item);
+    double distanceLowerBound = maxDistance;
+
+    queueSize = 0;
+    pushQueue(tree.getRoot(), distance(tree.getRoot()));
+    while (queueSize > 0 && distanceLowerBound >= 0.0) {
+      double pairDistance = queueDist[0];
+      Boundable bnd = popQueue();
+      // all other nodes in the queue are at least as far
+      // as the farthest of the k items found
+      if (pairDistance >= distanceLowerBound) {
+        break;
+      }
+      if (bnd is ItemBoundable) {
+        if (nearSize < k) {
+          pushNear(bnd, pairDistance);
+        }
+        else {
+          if (nearDist[0] > pairDistance) {
+            popNear();
+            pushNear(bnd, pairDistance);
+          }
+          // the bound is the farthest of the k nearest items
+          distanceLowerBound = nearDist[0];
+        }
+      }
+      else {
+        expand(bnd as AbstractNode, distanceLowerBound);
+      }
+    }
+    return nearSize;
+  }
+
+  /// Removes the farthest item from the nearest-items heap.
+  ///
+  /// @return the boundable of the farthest item
+  ItemBoundable popNear() {
+    ItemBoundable top = nearBnd[0]!;
+    nearSize--;
+    ItemBoundable last = nearBnd[nearSize]!;
+    double lastDist = nearDist[nearSize];
+    nearBnd[nearSize] = null;
+    if (nearSize > 0) {
+      // sift the last entry down from the root
+      int hole = 0;
+      while (true) {
+        int child = 2 * hole + 1;
+        if (child >= nearSize) break;
+        if (child + 1 < nearSize && nearDist[child + 1] > nearDist[child]) child++;
+        if (nearDist[child] <= lastDist) break;
+        nearBnd[hole] = nearBnd[child];
+        nearDist[hole] = nearDist[child];
+        hole = child;
+      }
+      nearBnd[hole] = last;
+      nearDist[hole] = lastDist;
+    }
+    return top;
+  }
+
+ /**private */void setQuery(Envelope env, Object item) {
+    queryBnd.bounds = env;
+    queryBnd.item = item;
+  }
+
+ /**private */double distance(Boundable bnd) {
+    if (bnd is ItemBoundable) {
+      return itemDist.distance(bnd, queryBnd);
+    }
+    return (bnd.getBounds() as Envelope).distance(queryBnd.getBounds() as Envelope);
+  }
+
+ /**private */void expand(AbstractNode node, double minDistance) {
+    for (Object child in node.getChildBoundables()) {
+      double childDistance = distance(child as Boundable);
+      // only add to queue if this child might contain the closest items
+      if (childDistance < minDistance) {
+        pushQueue(child, childDistance);
+      }
+    }
+  }
+
+ /**private */void pushQueue(Boundable bnd, double dist) {
+    if (queueSize == queueDist.length) {
+      int capacity = 2 * queueSize;
+      queueBnd = List.of(queueBnd)..length = capacity;
+      queueDist = Float64List(capacity)..setRange(0, queueSize, queueDist);
+    }
+    // sift up from the new leaf
+    int hole = queueSize++;
+    while (hole > 0) {
+      int parent = (hole - 1) >> 1;
+      if (queueDist[parent] <= dist) break;
+      queueBnd[hole] = queueBnd[parent];
+      queueDist[hole] = queueDist[parent];
+      hole = parent;
+    }
+    queueBnd[hole] = bnd;
+    queueDist[hole] = dist;
+  }
+
+ /**private */Boundable popQueue() {
+    Boundable top = queueBnd[0]!;
+    queueSize--;
+    Boundable last = queueBnd[queueSize]!;
+    double lastDist = queueDist[queueSize];
+    queueBnd[queueSize] = null;
+    if (queueSize > 0) {
+      // sift the last entry down from the root
+      int hole = 0;
+      while (true) {
+        int child = 2 * hole + 1;
+        if (child >= queueSize) break;
+        if (child + 1 < queueSize && queueDist[child + 1] < queueDist[child]) child++;
+        if (queueDist[child] >= lastDist) break;
+        queueBnd[hole] = queueBnd[child];
+        queueDist[hole] = queueDist[child];
+        hole = child;
+      }
+      queueBnd[hole] = last;
+      queueDist[hole] = lastDist;
+    }
+    return top;
+  }
+
+ /**private */void pushNear(ItemBoundable bnd, double dist) {
+    if (nearSize == nearDist.length) {
+      int capacity = 2 * nearSize;
+      nearBnd = List.of(nearBnd)..length = capacity;
+      nearDist = Float64List(capacity)..setRange(0, nearSize, nearDist);
+    }
+    // sift up from the new leaf
+    int hole = nearSize++;
+    while (hole > 0) {
+      int parent = (hole - 1) >> 1;
+      if (nearDist[parent] >= dist) break;
+      nearBnd[hole] = nearBnd[parent];
+      nearDist[hole] = nearDist[parent];
+      hole = parent;
+    }
+    nearBnd[hole] = bnd;
+    nearDist[hole] = dist;
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:isolate';
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+
+import 'AbstractNode.dart';
+import 'ItemBoundable.dart';
+import 'ItemDistance.dart';
+import 'NearestNeighbourSearch.dart';
+import 'STRtree.dart';
+
+/// Runs batches of nearest neighbour queries against an {@link STRtree}
+/// on a pool of isolates.
+/// <p>
+/// The queries are split into one contiguous chunk per worker.
+/// Each worker receives a copy of the tree, the {@link ItemDistance}
+/// and its chunk of queries, and runs them with a
+/// {@link NearestNeighbourSearch}, so queue buffers are reused within a worker.
+/// Workers report the nearest items as their positions in the
+/// tree's leaf order, which are mapped back to the original items,
+/// so the results are the items of this tree (not copies).
+/// <p>
+/// The tree items and query items must be sendable between isolates,
+/// as must the <code>ItemDistance</code>.
+/// The cost of copying the tree to each worker is only repaid
+/// for large batches; use {@link NearestNeighbourSearch} directly otherwise.
+/// <p>
+/// This uses <code>dart:isolate</code>, so it is not exported
+/// from the <code>index</code> library.
+class ParallelNearestNeighbour {
+ /**private */static const int DEFAULT_NUM_WORKERS = 4;
+
+ /**private */final STRtree tree;
+
+ /**private */final ItemDistance itemDist;
+
+ /**private */final int numWorkers;
+
+ /**private */List<ItemBoundable>? leafItems;
+
+  /// Creates a parallel search over a tree.
+  ///
+  /// @param tree the tree to search
+  /// @param itemDist a distance metric applicable to the items in the tree and the query items
+  /// @param numWorkers the maximum number of isolates to use
+  ParallelNearestNeighbour(this.tree, this.itemDist, [this.numWorkers = DEFAULT_NUM_WORKERS]) {
+    if (numWorkers < 1) {
+      throw ArgumentError("Number of workers must be at least 1");
+    }
+  }
+
+  /// Finds the nearest tree item for each of a list of query items.
+  ///
+  /// @param envs the envelopes of the query items
+  /// @param items the query items
+  /// @return the nearest tree item for each query item
+  ///    (<code>null</code> if the tree is empty)
+  Future<List<Object?>> nearestAll(List<Envelope> envs, List<Object> items) async {
+    Int32List found = await searchAll(envs, items, null, 1);
+    return toItems(found, 1).map((near) => near.isEmpty ? null : near[0]).toList(growable: false);
+  }
+
+  /// Finds up to k nearest tree items for each of a list of query items.
+  ///
+  /// @param envs the envelopes of the query items
+  /// @param items the query items
+  /// @param k the maximum number of nearest items to search for
+  /// @return the nearest tree items for each query item, ordered by increasing distance
+  Future<List<List<Object>>> nearestKAll(List<Envelope> envs, List<Object> items, int k) async {
+    if (k <= 0) return List.generate(items.length, (i) => <Object>[], growable: false);
+    Int32List found = await searchAll(envs, items, null, k);
+    return toItems(found, k);
+  }
+
+  /// Finds the nearest tree item for each of a list of query points.
+  /// The query item passed to the {@link ItemDistance} is a <code>Coordinate</code>.
+  ///
+  /// @param xy the query points, as x,y pairs
+  /// @return the nearest tree item for each point
+  ///    (<code>null</code> if the tree is empty)
+  Future<List<Object?>> nearestToPoints(Float64List xy) async {
+    Int32List found = await searchAll(null, null, xy, 1);
+    return toItems(found, 1).map((near) => near.isEmpty ? null : near[0]).toList(growable: false);
+  }
+
+ /**private */Future<Int32List> searchAll(List<Envelope>? envs, List<Object>? items,
+      Float64List? xy, int k) async {
+    int n = xy != null ? xy.length ~/ 2 : items!.length;
+    if (envs != null && envs.length != n) {
+      throw ArgumentError("Number of envelopes and query items must be equal");
+    }
+    if (tree.isEmpty()) {
+      return Int32List(n * k)..fillRange(0, n * k, -1);
+    }
+    leafItems ??= collectLeafItems(tree);
+
+    int chunkSize = math.max(1, (n / numWorkers).ceil());
+    List<Future<Int32List>> chunks = [];
+    for (int start = 0; start < n; start += chunkSize) {
+      int end = math.min(n, start + chunkSize);
+      if (xy != null) {
+        chunks.add(runSearch(tree, itemDist, null, null,
+            TransferableTypedData.fromList([Float64List.sublistView(xy, 2 * start, 2 * end)]), k));
+      }
+      else {
+        chunks.add(runSearch(tree, itemDist, envs!.sublist(start, end),
+            items!.sublist(start, end), null, k));
+      }
+    }
+    Int32List found = Int32List(n * k);
+    int pos = 0;
+    for (Int32List chunk in await Future.wait(chunks)) {
+      found.setRange(pos, pos + chunk.length, chunk);
+      pos += chunk.length;
+    }
+    return found;
+  }
+
+ /**private */List<List<Object>> toItems(Int32List found, int k) {
+    int n = found.length ~/ k;
+    return List.generate(n, (i) {
+      List<Object> near = [];
+      for (int j = 0; j < k; j++) {
+        int leafIndex = found[i * k + j];
+        if (leafIndex < 0) break;
+        near.add(leafItems![leafIndex].getItem());
+      }
+      return near;
+    }, growable: false);
+  }
+
+ /**private */static Future<Int32List> runSearch(STRtree tree, ItemDistance itemDist,
+      List<Envelope>? envs, List<Object>? items, TransferableTypedData? xy, int k) {
+    return Isolate.run(() => searchChunk(tree, itemDist, envs, items,
+        xy?.materialize().asFloat64List(), k));
+  }
+
+  /// Runs a chunk of queries, reporting the leaf positions of
+  /// the nearest items (-1 where fewer than k were found).
+ /**private */static Int32List searchChunk(STRtree tree, ItemDistance itemDist,
+      List<Envelope>? envs, List<Object>? items, Float64List? xy, int k) {
+    Map<ItemBoundable, int> leafIndex = Map.identity();
+    List<ItemBoundable> leaves = collectLeafItems(tree);
+    for (int i = 0; i < leaves.length; i++) {
+      leafIndex[leaves[i]] = i;
+    }
+    NearestNeighbourSearch search = new NearestNeighbourSearch(tree, itemDist);
+    int n = xy != null ? xy.length ~/ 2 : items!.length;
+    Int32List found = Int32List(n * k)..fillRange(0, n * k, -1);
+    for (int i = 0; i < n; i++) {
+      if (k == 1) {
+        ItemBoundable? nearest = xy != null
+            ? search.nearestToPoint(xy[2 * i], xy[2 * i + 1])
+            : search.nearestBoundable(envs![i], items![i]);
+        if (nearest != null) found[i] = leafIndex[nearest]!;
+      }
+      else {
+        int numFound = search.searchK(envs![i], items![i], k, double.infinity);
+        // the heap yields the farthest first
+        for (int j = numFound - 1; j >= 0; j--) {
+          found[i * k + j] = leafIndex[search.popNear()]!;
+        }
+      }
+    }
+    return found;
+  }
+
+  /// Collects the items of a tree in a fixed traversal order.
+ /**private */static List<ItemBoundable> collectLeafItems(STRtree tree) {
+    List<ItemBoundable> leaves = [];
+    List<AbstractNode> stack = [tree.getRoot()];
+    while (stack.isNotEmpty) {
+      AbstractNode node = stack.removeLast();
+      for (Object child in node.getChildBoundables()) {
+        if (child is AbstractNode) {
+          stack.add(child);
+        }
+        else {
+          leaves.add(child as ItemBoundable);
+        }
+      }
+    }
+    return leaves;
+  }
+}
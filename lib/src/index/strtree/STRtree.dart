@@ -27,6 +27,7 @@
 
 import 'dart:math';
 
+import 'package:collection/collection.dart' show mergeSort;
 import 'package:jtscore4dart/src/geom/Envelope.dart';
 import 'package:jtscore4dart/src/patch/ArrayList.dart';
 import 'package:jtscore4dart/src/util/Assert.dart';
@@ -40,6 +41,7 @@ import 'Boundable.dart';
 import 'BoundablePair.dart';
 import 'ItemBoundable.dart';
 import 'ItemDistance.dart';
+import 'NearestNeighbourSearch.dart';
 
 
 class _ implements IntersectsOp {
@@ -168,7 +170,8 @@ implements SpatialIndex /**, Serializable  */
     // List sortedChildBoundables = new ArrayList(childBoundables);
     // List sortedChildBoundables = childBoundables.toList(growable: false);
     List sortedChildBoundables = childBoundables;
-    sortedChildBoundables.sort(xComparator);
+    // stable, like Collections.sort, so ties keep their input order
+    mergeSort(sortedChildBoundables, compare: xComparator);
     // List verticalSlices = verticalSlices(sortedChildBoundables,(int) math.ceil(Math.sqrt(minLeafCount)));
     List _verticalSlices = verticalSlices(sortedChildBoundables, sqrt(minLeafCount).ceil());
     return createParentBoundablesFromVerticalSlices(_verticalSlices, newLevel);
@@ -196,13 +199,13 @@ implements SpatialIndex /**, Serializable  */
     // int sliceCapacity =  math.ceil(childBoundables.size() / (double) sliceCount);
     int sliceCapacity =  (childBoundables.size() / sliceCount.toDouble()).ceil();
     // List[] slices = new List[sliceCount];
-    List<List<Boundable>> slices = List.filled(sliceCount, <Boundable>[], growable: false);
-    Iterator i = childBoundables.iterator;
+    List<List<Boundable>> slices = List.generate(sliceCount, (_) => <Boundable>[], growable: false);
+    int i = 0;
     for (int j = 0; j < sliceCount; j++) {
       // slices[j] = [];
       int boundablesAddedToSlice = 0;
-      while (i.moveNext() && boundablesAddedToSlice < sliceCapacity) {
-        Boundable childBoundable =  i.current;
+      while (i < childBoundables.length && boundablesAddedToSlice < sliceCapacity) {
+        Boundable childBoundable =  childBoundables[i++];
         slices[j].add(childBoundable);
         boundablesAddedToSlice++;
       }
@@ -584,112 +587,13 @@ implements SpatialIndex /**, Serializable  */
    * @param item the item to find the nearest neighbours of
    * @param itemDist a distance metric applicable to the items in this tree and the query item
    * @param k the maximum number of nearest items to search for
-   * @return an array of the nearest items found (with length between 0 and K)
+   * @return an array of the nearest items found (with length between 0 and K),
+   *    ordered by increasing distance
+   * @see NearestNeighbourSearch
    */
   List<Object> nearestNeighbour$3(Envelope env, Object item, ItemDistance itemDist,int k)
   {
-    // if (isEmpty()) return new Object[0];
-    if (isEmpty()) return List<Object>.empty();
-
-    Boundable bnd = new ItemBoundable(env, item);
-    BoundablePair bp = new BoundablePair(this.getRoot(), bnd, itemDist);
-    return _nearestNeighbourK(bp,k);
-  }
-
- /**private */List<Object> _nearestNeighbourK(BoundablePair initBndPair, int k) 
-  {
-    // return nearestNeighbourK(initBndPair, Double.POSITIVE_INFINITY, k);
-    return __nearestNeighbourK(initBndPair, double.infinity, k);
-  }
-  
- /**private */
- List<Object> __nearestNeighbourK(BoundablePair initBndPair, double maxDistance, int k) 
-  {
-    double distanceLowerBound = maxDistance;
-    
-    // initialize internal structures
-    PriorityQueue priQ = new PriorityQueue();
-
-    // initialize queue
-    priQ.add(initBndPair);
-
-    PriorityQueue kNearestNeighbors = new PriorityQueue();
-
-    while (! priQ.isEmpty() && distanceLowerBound >= 0.0) {
-      // pop head of queue and expand one side of pair
-      BoundablePair bndPair = priQ.poll() as BoundablePair;
-      double pairDistance = bndPair.getDistance();
-      
-      
-      /**
-       * If the distance for the first node in the queue
-       * is >= the current maximum distance in the k queue , all other nodes
-       * in the queue must also have a greater distance.
-       * So the current minDistance must be the true minimum,
-       * and we are done.
-       */
-      if (pairDistance >= distanceLowerBound){
-    	  break;  
-      }
-      /**
-       * If the pair members are leaves
-       * then their distance is the exact lower bound.
-       * Update the distanceLowerBound to reflect this
-       * (which must be smaller, due to the test 
-       * immediately prior to this). 
-       */
-      if (bndPair.isLeaves()) {
-        // assert: currentDistance < minimumDistanceFound
-    	
-    	  if(kNearestNeighbors.size()<k){
-	    	  	kNearestNeighbors.add(bndPair);
-    	  }
-    	  else
-    	  {
-
-          BoundablePair bp1 = kNearestNeighbors.peek() as BoundablePair;
-          if(bp1.getDistance() > pairDistance) {
-    			  kNearestNeighbors.poll();
-    			  kNearestNeighbors.add(bndPair);
-    		  }
-    		  /*
-    		   * minDistance should be the farthest point in the K nearest neighbor queue.
-    		   */
-          BoundablePair bp2 = kNearestNeighbors.peek() as BoundablePair;
-    		  distanceLowerBound = bp2.getDistance();
-    	  }        
-      }
-      else {
-        /**
-         * Otherwise, expand one side of the pair,
-         * (the choice of which side to expand is heuristically determined) 
-         * and insert the new expanded pairs into the queue
-         */
-        bndPair.expandToQueue(priQ, distanceLowerBound);
-      }
-    }
-    // done - return items with min distance
-
-    return getItems(kNearestNeighbors);
-  }
- /**private */static List<Object> getItems(PriorityQueue kNearestNeighbors)
-  {
-	  /** 
-	   * Iterate the K Nearest Neighbour Queue and retrieve the item from each BoundablePair
-	   * in this queue
-	   */
-	  // List<Object> items = new Object[kNearestNeighbors.size()];
-	  List<Object> items = <Object>[];
-	  // int count=0;
-	  while( ! kNearestNeighbors.isEmpty() )
-	  {
-      BoundablePair bp = kNearestNeighbors.poll() as BoundablePair; 
-      /// TODO: @ruier edit.
-      // items[count]=(bp.getBoundable(0) as ItemBoundable).getItem();
-      items.add((bp.getBoundable(0) as ItemBoundable).getItem());
-      // count++;
-	  }	
-	  return items.toList(growable: false);
+    return new NearestNeighbourSearch(this, itemDist).nearestK(env, item, k);
   }
 }
  
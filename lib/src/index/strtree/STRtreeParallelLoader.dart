@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:isolate';
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+
+import 'AbstractNode.dart';
+import 'AbstractSTRtree.dart';
+import 'Boundable.dart';
+import 'STRtree.dart';
+
+/// Builds {@link STRtree}s using a pool of isolates.
+/// <p>
+/// The leaf level is where nearly all of the work of the
+/// Sort-Tile-Recursive packing is, so it is computed in parallel:
+/// <ul>
+/// <li>the items are sorted by the x of their midpoints in chunks,
+/// which are then merged
+/// <li>the vertical slices are sorted by the y of their midpoints,
+/// several slices per worker
+/// </ul>
+/// The much smaller upper levels are built on the calling isolate
+/// by the tree itself.
+/// Both sorts order ties by input position, as the stable
+/// sorts of the sequential build do,
+/// so the resulting tree is identical to the one produced by <code>build()</code>.
+/// <p>
+/// Only the midpoint ordinates and item positions are sent to the workers,
+/// as {@link TransferableTypedData}.
+/// <p>
+/// This uses <code>dart:isolate</code>, so it is not exported
+/// from the <code>index</code> library.
+class STRtreeParallelLoader {
+ /**private */static const int DEFAULT_NUM_WORKERS = 4;
+
+ /**private */static const int DEFAULT_MIN_CHUNK_SIZE = 16384;
+
+ /**private */final int numWorkers;
+
+ /**private */final int minChunkSize;
+
+  /// Creates a loader which uses up to the given number of isolates.
+  /// Inputs smaller than <code>minChunkSize</code> items are
+  /// processed on the calling isolate.
+  ///
+  /// @param numWorkers the maximum number of isolates to use
+  /// @param minChunkSize the minimum number of items to hand to an isolate
+  STRtreeParallelLoader([this.numWorkers = DEFAULT_NUM_WORKERS,
+      this.minChunkSize = DEFAULT_MIN_CHUNK_SIZE]) {
+    if (numWorkers < 1) {
+      throw ArgumentError("Number of workers must be at least 1");
+    }
+  }
+
+  /// Builds an {@link STRtree}, if not already built.
+  ///
+  /// @param tree the tree to build
+  Future<void> build(STRtree tree) async {
+    if (tree.built) return;
+    List<Boundable> items = tree.itemBoundables!;
+    int n = items.length;
+    if (n == 0) {
+      tree.build();
+      return;
+    }
+    Float64List centreX = Float64List(n);
+    Float64List centreY = Float64List(n);
+    for (int i = 0; i < n; i++) {
+      Envelope env = items[i].getBounds() as Envelope;
+      centreX[i] = STRtree.centreX(env);
+      centreY[i] = STRtree.centreY(env);
+    }
+
+    int nodeCapacity = tree.getNodeCapacity();
+    int minLeafCount = (n / nodeCapacity).ceil();
+    int sliceCount = math.sqrt(minLeafCount).ceil();
+    int sliceCapacity = (n / sliceCount).ceil();
+
+    Int32List xOrder = await sortByKey(centreX);
+    Int32List leafOrder = await sortSlicesByKey(xOrder, centreY, sliceCapacity);
+
+    List leaves = [];
+    for (int sliceStart = 0; sliceStart < n; sliceStart += sliceCapacity) {
+      int sliceEnd = math.min(n, sliceStart + sliceCapacity);
+      late AbstractNode node;
+      for (int i = sliceStart; i < sliceEnd; i++) {
+        if ((i - sliceStart) % nodeCapacity == 0) {
+          node = tree.createNode(0);
+          leaves.add(node);
+        }
+        node.addChildBoundable(items[leafOrder[i]]);
+      }
+    }
+    tree.root = leaves.length == 1
+        ? leaves[0] as AbstractNode
+        : tree.createHigherLevels(leaves, 0);
+    // the item list is no longer needed
+    tree.itemBoundables = null;
+    tree.built = true;
+  }
+
+ /**private */int chunkSize(int n) {
+    return math.max(minChunkSize, (n / numWorkers).ceil());
+  }
+
+  /// Sorts positions by key, ordering equal keys by position.
+  ///
+  /// @param keys the key of each position
+  /// @return the positions in sorted order
+  Future<Int32List> sortByKey(Float64List keys) async {
+    int n = keys.length;
+    int size = chunkSize(n);
+    if (size >= n) {
+      return sortChunk(keys, 0);
+    }
+    List<Future<Int32List>> chunks = [];
+    for (int start = 0; start < n; start += size) {
+      int end = math.min(n, start + size);
+      chunks.add(runSortChunk(
+          TransferableTypedData.fromList([Float64List.sublistView(keys, start, end)]),
+          start));
+    }
+    List<Int32List> runs = await Future.wait(chunks);
+    // merge pairs of runs until one remains
+    while (runs.length > 1) {
+      List<Int32List> merged = [];
+      for (int i = 0; i < runs.length; i += 2) {
+        merged.add(i + 1 < runs.length ? merge(keys, runs[i], runs[i + 1]) : runs[i]);
+      }
+      runs = merged;
+    }
+    return runs[0];
+  }
+
+ /**private */static Future<Int32List> runSortChunk(TransferableTypedData keys, int start) {
+    return Isolate.run(() => sortChunk(keys.materialize().asFloat64List(), start));
+  }
+
+ /**private */static Int32List sortChunk(Float64List keys, int start) {
+    Int32List order = Int32List(keys.length);
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    order.sort((a, b) => compareKeys(keys, a, b));
+    for (int i = 0; i < order.length; i++) {
+      order[i] += start;
+    }
+    return order;
+  }
+
+ /**private */static int compareKeys(Float64List keys, int a, int b) {
+    int comp = AbstractSTRtree.compareDoubles(keys[a], keys[b]);
+    return comp != 0 ? comp : a - b;
+  }
+
+ /**private */static Int32List merge(Float64List keys, Int32List run0, Int32List run1) {
+    Int32List merged = Int32List(run0.length + run1.length);
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < run0.length && j < run1.length) {
+      merged[k++] = compareKeys(keys, run0[i], run1[j]) <= 0 ? run0[i++] : run1[j++];
+    }
+    while (i < run0.length) {
+      merged[k++] = run0[i++];
+    }
+    while (j < run1.length) {
+      merged[k++] = run1[j++];
+    }
+    return merged;
+  }
+
+  /// Sorts each slice of an ordering by key,
+  /// ordering equal keys by their position in the ordering.
+  ///
+  /// @param order the ordering to sort the slices of
+  /// @param keys the key of each item
+  /// @param sliceCapacity the size of each slice
+  /// @return the ordering with each slice sorted
+  Future<Int32List> sortSlicesByKey(Int32List order, Float64List keys, int sliceCapacity) async {
+    int n = order.length;
+    Float64List orderKeys = Float64List(n);
+    for (int i = 0; i < n; i++) {
+      orderKeys[i] = keys[order[i]];
+    }
+    int size = chunkSize(n);
+    if (size >= n) {
+      return sortSlices(order, orderKeys, sliceCapacity);
+    }
+    // whole slices per worker
+    int slicesPerWorker = math.max(1, size ~/ sliceCapacity);
+    int spanSize = slicesPerWorker * sliceCapacity;
+    List<Future<Int32List>> spans = [];
+    for (int start = 0; start < n; start += spanSize) {
+      int end = math.min(n, start + spanSize);
+      spans.add(runSortSlices(
+          TransferableTypedData.fromList([Int32List.sublistView(order, start, end)]),
+          TransferableTypedData.fromList([Float64List.sublistView(orderKeys, start, end)]),
+          sliceCapacity));
+    }
+    Int32List sorted = Int32List(n);
+    int pos = 0;
+    for (Int32List span in await Future.wait(spans)) {
+      sorted.setRange(pos, pos + span.length, span);
+      pos += span.length;
+    }
+    return sorted;
+  }
+
+ /**private */static Future<Int32List> runSortSlices(TransferableTypedData order,
+      TransferableTypedData keys, int sliceCapacity) {
+    return Isolate.run(() => sortSlices(order.materialize().asInt32List(),
+        keys.materialize().asFloat64List(), sliceCapacity));
+  }
+
+ /**private */static Int32List sortSlices(Int32List order, Float64List keys, int sliceCapacity) {
+    int n = order.length;
+    Int32List sorted = Int32List(n);
+    for (int start = 0; start < n; start += sliceCapacity) {
+      int end = math.min(n, start + sliceCapacity);
+      Int32List slice = sortChunk(Float64List.sublistView(keys, start, end), start);
+      for (int i = 0; i < slice.length; i++) {
+        sorted[start + i] = order[slice[i]];
+      }
+    }
+    return sorted;
+  }
+}
@@ -11,108 +11,63 @@
  */
 
 
+import 'dart:typed_data';
+
 /**
- * Methods to read and write primitive Java datatypes from/to byte
+ * Methods to read and write primitive datatypes from/to byte
  * sequences, allowing the byte order to be specified
  * <p>
  * Similar to the standard Java <code>ByteBuffer</code> class.
+ * The byte order constants map to the {@link Endian} values
+ * used by {@link ByteData}; see {@link #toEndian}.
+ * <p>
+ * The <code>long</code> methods use 64-bit integer access,
+ * which is not supported when compiled to JavaScript.
  */
 class ByteOrderValues
 {
-  static final int BIG_ENDIAN = 1;
-  static final int LITTLE_ENDIAN = 2;
+  static const int BIG_ENDIAN = 1;
+  static const int LITTLE_ENDIAN = 2;
+
+  /**
+   * Gets the {@link Endian} for a byte order value.
+   *
+   * @param byteOrder {@link #BIG_ENDIAN} or {@link #LITTLE_ENDIAN}
+   * @return the corresponding <code>Endian</code>
+   */
+  static Endian toEndian(int byteOrder)
+  {
+    return byteOrder == BIG_ENDIAN ? Endian.big : Endian.little;
+  }
 
-  static int getInt(byte[] buf, int byteOrder)
+  static int getInt(Uint8List buf, int byteOrder)
   {
-    if (byteOrder == BIG_ENDIAN) {
-      return  ( (buf[0] & 0xff) << 24)
-            | ( (buf[1] & 0xff) << 16)
-            | ( (buf[2] & 0xff) << 8)
-            | ( (buf[3] & 0xff) );
-    }
-    else {// LITTLE_ENDIAN
-      return  ( (buf[3] & 0xff) << 24)
-            | ( (buf[2] & 0xff) << 16)
-            | ( (buf[1] & 0xff) << 8)
-            | ( (buf[0] & 0xff) );
-    }
+    return ByteData.sublistView(buf).getInt32(0, toEndian(byteOrder));
   }
 
-  static void putInt(int intValue, byte[] buf, int byteOrder)
+  static void putInt(int intValue, Uint8List buf, int byteOrder)
   {
-    if (byteOrder == BIG_ENDIAN) {
-      buf[0] = (byte)(intValue >> 24);
-      buf[1] = (byte)(intValue >> 16);
-      buf[2] = (byte)(intValue >> 8);
-      buf[3] = (byte) intValue;
-    }
-    else {// LITTLE_ENDIAN
-      buf[0] = (byte) intValue;
-      buf[1] = (byte)(intValue >> 8);
-      buf[2] = (byte)(intValue >> 16);
-      buf[3] = (byte)(intValue >> 24);
-    }
+    ByteData.sublistView(buf).setInt32(0, intValue, toEndian(byteOrder));
   }
-  static int getLong(byte[] buf, int byteOrder)
+
+  static int getLong(Uint8List buf, int byteOrder)
   {
-    if (byteOrder == BIG_ENDIAN) {
-      return
-            (long) (buf[0] & 0xff) << 56
-          | (long) (buf[1] & 0xff) << 48
-          | (long) (buf[2] & 0xff) << 40
-          | (long) (buf[3] & 0xff) << 32
-          | (long) (buf[4] & 0xff) << 24
-          | (long) (buf[5] & 0xff) << 16
-          | (long) (buf[6] & 0xff) <<  8
-          | (long) (buf[7] & 0xff);
-    }
-    else {// LITTLE_ENDIAN
-      return
-            (long) (buf[7] & 0xff) << 56
-          | (long) (buf[6] & 0xff) << 48
-          | (long) (buf[5] & 0xff) << 40
-          | (long) (buf[4] & 0xff) << 32
-          | (long) (buf[3] & 0xff) << 24
-          | (long) (buf[2] & 0xff) << 16
-          | (long) (buf[1] & 0xff) <<  8
-          | (long) (buf[0] & 0xff);
-    }
+    return ByteData.sublistView(buf).getInt64(0, toEndian(byteOrder));
   }
 
-  static void putLong(long longValue, byte[] buf, int byteOrder)
+  static void putLong(int longValue, Uint8List buf, int byteOrder)
   {
-    if (byteOrder == BIG_ENDIAN) {
-      buf[0] = (byte)(longValue >> 56);
-      buf[1] = (byte)(longValue >> 48);
-      buf[2] = (byte)(longValue >> 40);
-      buf[3] = (byte)(longValue >> 32);
-      buf[4] = (byte)(longValue >> 24);
-      buf[5] = (byte)(longValue >> 16);
-      buf[6] = (byte)(longValue >> 8);
-      buf[7] = (byte) longValue;
-    }
-    else {  // LITTLE_ENDIAN
-      buf[0] = (byte) longValue;
-      buf[1] = (byte)(longValue >> 8);
-      buf[2] = (byte)(longValue >> 16);
-      buf[3] = (byte)(longValue >> 24);
-      buf[4] = (byte)(longValue >> 32);
-      buf[5] = (byte)(longValue >> 40);
-      buf[6] = (byte)(longValue >> 48);
-      buf[7] = (byte)(longValue >> 56);
-    }
+    ByteData.sublistView(buf).setInt64(0, longValue, toEndian(byteOrder));
   }
 
-  static double getDouble(byte[] buf, int byteOrder)
+  static double getDouble(Uint8List buf, int byteOrder)
   {
-    int longVal = getLong(buf, byteOrder);
-    return Double.longBitsToDouble(longVal);
+    return ByteData.sublistView(buf).getFloat64(0, toEndian(byteOrder));
   }
 
-  static void putDouble(double doubleValue, byte[] buf, int byteOrder)
+  static void putDouble(double doubleValue, Uint8List buf, int byteOrder)
   {
-    int longVal = Double.doubleToLongBits(doubleValue);
-    putLong(longVal, buf, byteOrder);
+    ByteData.sublistView(buf).setFloat64(0, doubleValue, toEndian(byteOrder));
   }
 
 }
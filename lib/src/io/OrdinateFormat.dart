@@ -10,15 +10,7 @@
  * http://www.eclipse.org/org/documents/edl-v10.php.
  */
 
-
-
-// import java.text.NumberFormat;
-// import java.text.NumberFormat;
-// import java.util.Locale;
-
-import 'package:intl/date_symbol_data_local.dart';
-import 'package:intl/intl.dart';
-
+import 'package:jtscore4dart/src/geom/PrecisionModel.dart';
 
 /// Formats numeric values for ordinates
 /// in a consistent, accurate way.
@@ -27,19 +19,26 @@ import 'package:intl/intl.dart';
 /// <ul>
 /// <li>It is consistent in all locales (in particular, the decimal separator is always a period)
 /// <li>Scientific notation is never output, even for very large numbers.
-/// This means that it is possible that output can contain a large number of digits. 
+/// This means that it is possible that output can contain a large number of digits.
 /// <li>The maximum number of decimal places reflects the available precision
+/// <li>The shortest text which reads back as the same <code>double</code> is output,
+/// unless that needs more than the maximum number of decimal places
 /// <li>NaN values are represented as "NaN"
 /// <li>Inf values are represented as "Inf" or "-Inf"
-/// </ul> 
-/// 
+/// </ul>
+/// <p>
+/// Values are appended to a caller-supplied <code>StringBuffer</code>
+/// by {@link #write}, so writers can format many ordinates into one buffer.
+/// Integral values, and values with at most 15 significant digits
+/// (which includes all values made precise by a fixed {@link PrecisionModel}),
+/// are written as scaled integers, without formatting a <code>double</code>.
+/// Other values use the shortest round-trip digits of {@link double#toString},
+/// rewritten without an exponent and rounded if required.
+///
 /// @author mdavis
 ///
 class OrdinateFormat
 {
-   static final _ = initializeDateFormatting();
- /**private */static final String DECIMAL_PATTERN = "0";
-
   /// The output representation of {@link Double#POSITIVE_INFINITY}
   static const String REP_POS_INF = "Inf";
 
@@ -50,70 +49,214 @@ class OrdinateFormat
   static const String REP_NAN = "NaN";
 
   /// The maximum number of fraction digits to support output of reasonable ordinate values.
-  /// 
+  ///
   /// The default is chosen to allow representing the smallest possible IEEE-754 double-precision value,
   /// although this is not expected to occur (and is not supported by other areas of the JTS code).
   static const int MAX_FRACTION_DIGITS = 325;
-  
+
   /// The default formatter using the maximum number of digits in the fraction portion of a number.
-  static OrdinateFormat DEFAULT = new OrdinateFormat();
+  static final OrdinateFormat DEFAULT = new OrdinateFormat();
+
+  // 2^53: integral values below this are exact ints
+ /**private */static const double MAX_EXACT_INT = 9007199254740992.0;
+  // decimals with at most this many significant digits are distinct doubles
+ /**private */static const int MAX_SCALED_DIGITS = 15;
+ /**private */static const double MAX_SCALED = 1e15;
+ /**private */static const List<int> POW10_INT = [
+    1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000,
+    10000000000, 100000000000, 1000000000000, 10000000000000, 100000000000000,
+    1000000000000000
+  ];
+ /**private */static const List<double> POW10 = [
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+  ];
+
+ /**private */static const int CC_MINUS = 0x2D;
+ /**private */static const int CC_DOT = 0x2E;
+ /**private */static const int CC_0 = 0x30;
 
   /// Creates a new formatter with the given maximum number of digits in the fraction portion of a number.
-  /// 
+  ///
   /// @param maximumFractionDigits the maximum number of fraction digits to output
   /// @return a formatter
   static OrdinateFormat create(int maximumFractionDigits) {
     return new OrdinateFormat(maximumFractionDigits);
   }
-  
- /**private */ NumberFormat format;
 
-  /// Creates an OrdinateFormat using the default maximum number of fraction digits.
-  OrdinateFormat() {
-    format = createFormat(MAX_FRACTION_DIGITS);
+  /// Creates a formatter which writes the number of decimal places
+  /// supported by a {@link PrecisionModel}.
+  ///
+  /// @param precisionModel the precision model of the values to write
+  /// @return a formatter
+  static OrdinateFormat forPrecisionModel(PrecisionModel precisionModel) {
+    return new OrdinateFormat(precisionModel.getMaximumSignificantDigits());
   }
 
+ /**private */final int maximumFractionDigits;
+  // the number of fraction digits to try as a scaled integer
+ /**private */final int scaledDigits;
+
   /// Creates an OrdinateFormat using the given maximum number of fraction digits.
-  /// 
+  ///
   /// @param maximumFractionDigits the maximum number of fraction digits to output
-  OrdinateFormat(int maximumFractionDigits) {
-    format = createFormat(maximumFractionDigits);
-  }
+  OrdinateFormat([int maximumFractionDigits = MAX_FRACTION_DIGITS])
+    : maximumFractionDigits = maximumFractionDigits < 0 ? 0 : maximumFractionDigits,
+      scaledDigits = maximumFractionDigits < 0 ? 0
+          : (maximumFractionDigits < MAX_SCALED_DIGITS ? maximumFractionDigits : MAX_SCALED_DIGITS);
 
- /**private */static NumberFormat createFormat(int maximumFractionDigits) {
-    // ensure format uses standard WKY number format
-    NumberFormat nf = NumberFormat.getInstance(Locale.US);
-    // This is expected to succeed for Locale.US
-    NumberFormat format;
-    try {
-      format = (NumberFormat) nf;
-    }
-    // on ClassCastException catch ( ex) {
-    on Exception catch ( ex) {
-      throw new Exception("Unable to create NumberFormat for Locale.US");
-    }
-    format.applyPattern(DECIMAL_PATTERN);
-    format.setMaximumFractionDigits(maximumFractionDigits);
-    return format;
-  }
-  
   /// Returns a string representation of the given ordinate numeric value.
-  /// 
+  ///
   /// @param ord the ordinate value
   /// @return the formatted number string
-  /**synchronized */ String format(double ord)
+  String format(double ord)
+  {
+    StringBuffer buf = new StringBuffer();
+    write(ord, buf);
+    return buf.toString();
+  }
+
+  /// Appends the representation of the given ordinate numeric value
+  /// to a buffer.
+  ///
+  /// @param ord the ordinate value
+  /// @param buf the buffer to append to
+  void write(double ord, StringBuffer buf)
   {
-    /**
-     * FUTURE: If it seems better to use scientific notation 
-     * for very large/small numbers then this can be done here.
-     */
-    
-    if ((ord).isNaN) return REP_NAN;
+    if (ord.isNaN) {
+      buf.write(REP_NAN);
+      return;
+    }
     if (ord.isInfinite) {
-      // TODO:Infinite cmp。
-      return ord > 0 ? REP_POS_INF : REP_NEG_INF;
+      buf.write(ord > 0 ? REP_POS_INF : REP_NEG_INF);
+      return;
+    }
+    if (ord == ord.truncateToDouble() && ord.abs() < MAX_EXACT_INT) {
+      if (ord == 0 && ord.isNegative) buf.writeCharCode(CC_MINUS);
+      buf.write(ord.toInt());
+      return;
     }
-    return format.format(ord);
+    if (!writeScaled(ord, buf)) {
+      writeDigits(ord, buf);
+    }
+  }
+
+  /// Writes a value as an integer number of units of the last decimal place,
+  /// if it reads back exactly.
+  /// Since two different decimals of at most 15 significant digits
+  /// are never the same <code>double</code>, the text is then the shortest one.
+  ///
+  /// @return true if the value was written
+ /**private */bool writeScaled(double ord, StringBuffer buf) {
+    double abs = ord.abs();
+    int k = scaledDigits;
+    while (k > 0 && abs * POW10[k] >= MAX_SCALED) {
+      k--;
+    }
+    if (k == 0) return false;
+    int n = (abs * POW10[k]).round();
+    if (n / POW10[k] != abs) return false;
+
+    // drop trailing zeros
+    while (n % 10 == 0) {
+      n ~/= 10;
+      k--;
+    }
+    if (ord < 0) buf.writeCharCode(CC_MINUS);
+    int intPart = n ~/ POW10_INT[k];
+    int frac = n - intPart * POW10_INT[k];
+    buf.write(intPart);
+    if (k > 0) {
+      buf.writeCharCode(CC_DOT);
+      for (int p = POW10_INT[k - 1]; p > frac; p ~/= 10) {
+        buf.writeCharCode(CC_0);
+      }
+      buf.write(frac);
+    }
+    return true;
   }
 
+  /// Writes the shortest round-trip digits of a value in plain notation,
+  /// rounded half up to the maximum number of fraction digits.
+ /**private */void writeDigits(double ord, StringBuffer buf) {
+    String s = ord.abs().toString();
+    int expIndex = s.indexOf('e');
+    String mantissa = expIndex < 0 ? s : s.substring(0, expIndex);
+    int exponent = expIndex < 0 ? 0 : int.parse(s.substring(expIndex + 1));
+    int dotIndex = mantissa.indexOf('.');
+    String digits;
+    // the number of digits before the decimal point
+    int pointPos;
+    if (dotIndex < 0) {
+      digits = mantissa;
+      pointPos = mantissa.length + exponent;
+    }
+    else {
+      digits = mantissa.substring(0, dotIndex) + mantissa.substring(dotIndex + 1);
+      pointPos = dotIndex + exponent;
+    }
+    List<int> d = digits.codeUnits.toList();
+
+    int keep = pointPos + maximumFractionDigits;
+    if (keep < d.length) {
+      if (keep < 0) {
+        d = [CC_0];
+        pointPos = 1;
+      }
+      else {
+        bool roundUp = d[keep] >= CC_0 + 5;
+        d.length = keep;
+        for (int i = keep - 1; roundUp && i >= 0; i--) {
+          if (d[i] == CC_0 + 9) {
+            d[i] = CC_0;
+          }
+          else {
+            d[i]++;
+            roundUp = false;
+          }
+        }
+        if (roundUp) {
+          d.insert(0, CC_0 + 1);
+          pointPos++;
+        }
+      }
+    }
+    // drop trailing zeros after the decimal point
+    int len = d.length;
+    while (len > pointPos && len > 0 && d[len - 1] == CC_0) {
+      len--;
+    }
+    // drop leading zeros before the decimal point
+    int start = 0;
+    while (start < pointPos - 1 && start < len - 1 && d[start] == CC_0) {
+      start++;
+    }
+
+    bool isZero = true;
+    for (int i = start; i < len; i++) {
+      if (d[i] != CC_0) isZero = false;
+    }
+    if (ord < 0 && !isZero) buf.writeCharCode(CC_MINUS);
+    if (pointPos <= 0) {
+      buf.writeCharCode(CC_0);
+      if (len > 0) {
+        buf.writeCharCode(CC_DOT);
+        for (int i = pointPos; i < 0; i++) {
+          buf.writeCharCode(CC_0);
+        }
+      }
+      for (int i = 0; i < len; i++) {
+        buf.writeCharCode(d[i]);
+      }
+      return;
+    }
+    for (int i = start; i < pointPos; i++) {
+      buf.writeCharCode(i < len ? d[i] : CC_0);
+    }
+    if (len > pointPos) {
+      buf.writeCharCode(CC_DOT);
+      for (int i = pointPos; i < len; i++) {
+        buf.writeCharCode(d[i]);
+      }
+    }
+  }
 }
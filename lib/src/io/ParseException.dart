@@ -12,41 +12,25 @@
 
 
 /**
- *  Thrown by a <code>WKTReader</code> when a parsing problem occurs.
+ *  Thrown by a <code>WKTReader</code> or <code>WKBReader</code> when a parsing problem occurs.
  *
  *@version 1.7
  */
-class ParseException extends Exception {
+class ParseException implements Exception {
+  final String message;
+
+  /// The exception which caused this one, if any.
+  final Object? cause;
 
   /**
    *  Creates a <code>ParseException</code> with the given detail message.
    *
    *@param  message  a description of this <code>ParseException</code>
-   */
-  ParseException(String message) {
-    super(message);
-  }
-
-  /**
-   *  Creates a <code>ParseException</code> with <code>e</code>s detail message.
-   *
-   *@param  e  an exception that occurred while a <code>WKTReader</code> was
-   *      parsing a Well-known Text string
-   */
-  ParseException(Exception e) {
-    this(e.toString(), e);
-  }
-  
-  /**
-   *  Creates a <code>ParseException</code> with <code>e</code>s detail message.
-   *  
-   *@param  message  a description of this <code>ParseException</code>
-   *@param  e  a throwable that occurred while a com.vividsolutions.jts.io reader was
+   *@param  cause  an exception that occurred while a reader was
    *      parsing a string representation
    */
-  ParseException(String message, Throwable e) {
-          super(message, e);
-  }
-}
-
+  ParseException(this.message, [this.cause]);
 
+  @override
+  String toString() => "ParseException: " + message;
+}
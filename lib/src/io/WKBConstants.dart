@@ -15,14 +15,14 @@
  * Constant values used by the WKB format
  */
 abstract class WKBConstants {
-  int wkbXDR = 0;
-  int wkbNDR = 1;
+  static const int wkbXDR = 0;
+  static const int wkbNDR = 1;
 
-  int wkbPoint = 1;
-  int wkbLineString = 2;
-  int wkbPolygon = 3;
-  int wkbMultiPoint = 4;
-  int wkbMultiLineString = 5;
-  int wkbMultiPolygon = 6;
-  int wkbGeometryCollection = 7;
+  static const int wkbPoint = 1;
+  static const int wkbLineString = 2;
+  static const int wkbPolygon = 3;
+  static const int wkbMultiPoint = 4;
+  static const int wkbMultiLineString = 5;
+  static const int wkbMultiPolygon = 6;
+  static const int wkbGeometryCollection = 7;
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/PrecisionModel.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequence.dart';
+
+/// A {@link CoordinateSequence} which is a view of the ordinates
+/// of a WKB geometry, in the bytes it was read from.
+/// <p>
+/// Ordinates are read on demand with {@link ByteData#getFloat64}
+/// in the byte order of the WKB geometry,
+/// and made precise according to the precision model of the reader.
+/// The first call to a setter copies the ordinates into a
+/// <code>Float64List</code>, which is used from then on,
+/// so the WKB bytes are never modified.
+/// <p>
+/// The WKB bytes must not be modified while the sequence is in use.
+///
+/// @see WKBReader#view
+class WKBCoordinateSequence extends PackedCoordinateSequence {
+ /**private */final ByteData data;
+  // byte offset of the first ordinate
+ /**private */final int offset;
+ /**private */final int numCoords;
+ /**private */final Endian order;
+  // null if the ordinates do not need to be made precise
+ /**private */final PrecisionModel? precisionModel;
+  // the ordinates, once copied out of the bytes
+ /**private */Float64List? coords;
+
+  /// Creates a view of packed ordinates in WKB bytes.
+  ///
+  /// @param data the bytes holding the ordinates
+  /// @param offset the byte offset of the first ordinate
+  /// @param numCoords the number of coordinates
+  /// @param dimension the number of ordinates in each coordinate
+  /// @param measures the number of measure-ordinates in each coordinate
+  /// @param order the byte order of the ordinates
+  /// @param precisionModel the precision model to apply to the X and Y ordinates
+  WKBCoordinateSequence(this.data, this.offset, this.numCoords, int dimension,
+      int measures, this.order, [PrecisionModel? precisionModel])
+      : precisionModel = precisionModel == null || precisionModel.isFloating() ? null : precisionModel,
+        super(dimension, measures);
+
+  /// Tests whether the ordinates have been copied out of the WKB bytes.
+  ///
+  /// @return true if the sequence no longer reads from the WKB bytes
+  bool isCopied() {
+    return coords != null;
+  }
+
+  @override
+  int size() {
+    return numCoords;
+  }
+
+  @override
+  double getOrdinate(int index, int ordinate) {
+    Float64List? copied = coords;
+    if (copied != null) return copied[index * dimension + ordinate];
+    double value = data.getFloat64(offset + 8 * (index * dimension + ordinate), order);
+    if (ordinate < 2 && precisionModel != null) {
+      return precisionModel!.makePrecise(value);
+    }
+    return value;
+  }
+
+  @override
+  void setOrdinate(int index, int ordinate, double value) {
+    coordRef = null;
+    Float64List copied = coords ??= readOrdinates();
+    copied[index * dimension + ordinate] = value;
+  }
+
+  @override
+  Coordinate getCoordinateInternal(int i) {
+    return createCoordinateInternal(
+        getOrdinate(i, 0),
+        getOrdinate(i, 1),
+        dimension > 2 ? getOrdinate(i, 2) : Coordinate.NULL_ORDINATE,
+        dimension > 3 ? getOrdinate(i, 3) : Coordinate.NULL_ORDINATE);
+  }
+
+  /// Creates a copy of this sequence.
+  /// Until either is modified the copy is a view of the same bytes.
+  @override
+  PackedCoordinateSequence copy() {
+    Float64List? copied = coords;
+    if (copied != null) {
+      return PackedCoordinateSequenceDouble(Float64List.fromList(copied), dimension, measures);
+    }
+    return WKBCoordinateSequence(data, offset, numCoords, dimension, measures, order, precisionModel);
+  }
+
+  @override
+  Envelope expandEnvelope(Envelope env) {
+    for (int i = 0; i < numCoords; i++) {
+      env.expandToIncludeXY(getOrdinate(i, 0), getOrdinate(i, 1));
+    }
+    return env;
+  }
+
+ /**private */Float64List readOrdinates() {
+    Float64List ords = Float64List(numCoords * dimension);
+    for (int i = 0; i < numCoords; i++) {
+      for (int j = 0; j < dimension; j++) {
+        ords[i * dimension + j] = getOrdinate(i, j);
+      }
+    }
+    return ords;
+  }
+}
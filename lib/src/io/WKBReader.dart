@@ -28,10 +28,33 @@
 // import org.locationtech.jts.geom.Polygon;
 // import org.locationtech.jts.geom.PrecisionModel;
 
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequenceFactory.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequences.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryCollection.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/geom/LineString.dart';
+import 'package:jtscore4dart/src/geom/LinearRing.dart';
+import 'package:jtscore4dart/src/geom/MultiLineString.dart';
+import 'package:jtscore4dart/src/geom/MultiPoint.dart';
+import 'package:jtscore4dart/src/geom/MultiPolygon.dart';
+import 'package:jtscore4dart/src/geom/Point.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+import 'package:jtscore4dart/src/geom/PrecisionModel.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequenceFactory.dart';
+
+import 'ParseException.dart';
+import 'WKBCoordinateSequence.dart';
+import 'WKBConstants.dart';
+
 /**
- * Reads a {@link Geometry}from a byte stream in Well-Known Binary format.
- * Supports use of an {@link InStream}, which allows easy use
- * with arbitrary byte stream sources.
+ * Reads a {@link Geometry}from a byte array in Well-Known Binary format.
+ * To read geometries incrementally from a stream of byte chunks
+ * use {@link WKBStreamReader}.
  * <p>
  * This class reads the format describe in {@link WKBWriter}.  
  * It partially handles
@@ -55,6 +78,18 @@
  * It also checks that the reader does not read beyond the end of the data supplied.
  * A {@link ParseException} is thrown if this situation is detected.
  * <p>
+ * Ordinates are read straight from the bytes into a <code>Float64List</code>.
+ * If the factory uses a {@link PackedCoordinateSequenceFactory}
+ * that array becomes the storage of the coordinate sequence,
+ * so no {@link Coordinate} objects are created.
+ * <p>
+ * A reader created with {@link WKBReader.view} does not decode the ordinates at all.
+ * The coordinate sequences of the geometries it returns are
+ * {@link WKBCoordinateSequence}s, which read the ordinates from the
+ * original bytes on demand and copy them only when modified.
+ * This suits pipelines which discard most geometries after checking
+ * their envelopes.
+ * <p>
  * This class is designed to support reuse of a single instance to read multiple
  * geometries. This class is not thread-safe; each thread should create its own
  * instance.
@@ -84,116 +119,136 @@ class WKBReader
    * @param hex a string containing hex digits
    * @return an array of bytes with the value of the hex string
    */
-  static byte[] hexToBytes(String hex)
+  static Uint8List hexToBytes(String hex)
   {
-    int byteLen = hex.length() / 2;
-    byte[] bytes = new byte[byteLen];
+    if (hex.length % 2 != 0)
+      throw new ArgumentError("Hex string has odd length");
+    int byteLen = hex.length ~/ 2;
+    Uint8List bytes = Uint8List(byteLen);
 
-    for (int i = 0; i < hex.length() / 2; i++) {
+    for (int i = 0; i < byteLen; i++) {
       int i2 = 2 * i;
-      if (i2 + 1 > hex.length())
-        throw new ArgumentError("Hex string has odd length");
-
-      int nib1 = hexToInt(hex.charAt(i2));
-      int nib0 = hexToInt(hex.charAt(i2 + 1));
-      byte b = (byte) ((nib1 << 4) + (byte) nib0);
-      bytes[i] = b;
+      int nib1 = hexToInt(hex[i2]);
+      int nib0 = hexToInt(hex[i2 + 1]);
+      bytes[i] = (nib1 << 4) + nib0;
     }
     return bytes;
   }
 
- /**private */static int hexToInt(char hex)
+ /**private */static int hexToInt(String hex)
   {
-    int nib = Character.digit(hex, 16);
-    if (nib < 0)
+    int? nib = int.tryParse(hex, radix: 16);
+    if (nib == null)
       throw new ArgumentError("Invalid hex digit: '" + hex + "'");
     return nib;
   }
 
- /**private */static final String INVALID_GEOM_TYPE_MSG
+ /**private */static const String INVALID_GEOM_TYPE_MSG
   = "Invalid geometry type encountered in ";
 
- /**private */static final String FIELD_NUMCOORDS = "numCoords";
+ /**private */static const String FIELD_NUMCOORDS = "numCoords";
 
- /**private */static final String FIELD_NUMRINGS = "numRings";
+ /**private */static const String FIELD_NUMRINGS = "numRings";
 
- /**private */static final String FIELD_NUMELEMS = "numElems";
+ /**private */static const String FIELD_NUMELEMS = "numElems";
 
- /**private */GeometryFactory factory;
- /**private */CoordinateSequenceFactory csFactory;
- /**private */PrecisionModel precisionModel;
+ /**private */final GeometryFactory factory;
+ /**private */final CoordinateSequenceFactory csFactory;
+ /**private */final PrecisionModel precisionModel;
   // default dimension - will be set on read
  /**private */int inputDimension = 2;
+ /**private */int inputMeasures = 0;
   /**
    * true if structurally invalid input should be reported rather than repaired.
    * At some point this could be made client-controllable.
    */
  /**private */bool isStrict = false;
- /**private */ByteOrderDataInStream dis = new ByteOrderDataInStream();
- /**private */double[] ordValues;
+  /**
+   * true if coordinate sequences are views of the WKB bytes.
+   */
+ /**private */final bool isView;
 
- /**private */int maxNumFieldValue;
+ /**private */ByteData data = ByteData(0);
+ /**private */int pos = 0;
+ /**private */Endian order = Endian.big;
 
-  WKBReader() {
-    this(new GeometryFactory());
-  }
+ /**private */int maxNumFieldValue = 0;
 
-  WKBReader(GeometryFactory geometryFactory) {
-    this.factory = geometryFactory;
-    precisionModel = factory.getPrecisionModel();
-    csFactory = factory.getCoordinateSequenceFactory();
-  }
+  WKBReader([GeometryFactory? geometryFactory])
+    : this._(geometryFactory ?? new GeometryFactory(), false);
+
+  /**
+   * Creates a reader which returns geometries whose coordinate sequences
+   * are views of the bytes they were read from.
+   * The bytes must not be modified while the geometries are in use.
+   *
+   * @param geometryFactory the factory to use to create the geometries
+   */
+  WKBReader.view([GeometryFactory? geometryFactory])
+    : this._(geometryFactory ?? new GeometryFactory(), true);
+
+  WKBReader._(this.factory, this.isView)
+    : precisionModel = factory.getPrecisionModel(),
+      csFactory = factory.getCoordinateSequenceFactory();
 
   /**
    * Reads a single {@link Geometry} in WKB format from a byte array.
+   * Any bytes following the geometry are ignored.
    *
    * @param bytes the byte array to read from
    * @return the geometry read
    * @throws ParseException if the WKB is ill-formed
    */
-  Geometry read(byte[] bytes) throws ParseException
-  {  
-    // possibly reuse the ByteArrayInStream?
-    // don't throw IOExceptions, since we are not doing any I/O
+  Geometry read(Uint8List bytes)
+  {
+    data = ByteData.sublistView(bytes);
+    pos = 0;
+    order = Endian.big;
+    /**
+     * This puts an upper bound on the allowed value
+     * in coordNum fields.
+     * It avoids OOM exceptions due to malformed input.
+     */
+    maxNumFieldValue = bytes.length ~/ 8;
     try {
-      return read(new ByteArrayInStream(bytes), bytes.length / 8);
+      return readGeometry(0);
     }
-    catch (IOException ex) {
-      throw new RuntimeException("Unexpected IOException caught: " + ex.getMessage());
+    finally {
+      // don't keep the caller's bytes reachable
+      data = ByteData(0);
     }
   }
 
   /**
-   * Reads a {@link Geometry} in binary WKB format from an {@link InStream}.
+   * Gets the number of bytes consumed by the last call to {@link #read}.
    *
-   * @param is the stream to read from
-   * @return the Geometry read
-   * @throws IOException if the underlying stream creates an error
-   * @throws ParseException if the WKB is ill-formed
+   * @return the length of the last geometry read, in bytes
    */
-  Geometry read(InStream is)
-  throws IOException, ParseException
-  {
-    // can't tell size of InStream, but MAX_VALUE should be safe
-    return read(is, Integer.MAX_VALUE);
+  int getBytesRead() {
+    return pos;
   }
 
- /**private */Geometry read(InStream is, int maxCoordNum)
-  throws IOException, ParseException
-  {
-    /**
-     * This puts an upper bound on the allowed value
-     * in coordNum fields.
-     * It avoids OOM exceptions due to malformed input.
-     */
-    this.maxNumFieldValue = maxCoordNum;
-    dis.setInStream(is);
-    return readGeometry(0);
+ /**private */void checkAvailable(int numBytes) {
+    if (pos + numBytes > data.lengthInBytes) {
+      throw new ParseException("Unexpected EOF parsing WKB");
+    }
   }
-  
- /**private */int readNumField(String fieldName) throws IOException, ParseException {
-    // num field is unsigned int, but Java has only signed int
-    int num = dis.readInt();
+
+ /**private */int readByte() {
+    checkAvailable(1);
+    return data.getUint8(pos++);
+  }
+
+ /**private */int readInt() {
+    checkAvailable(4);
+    int value = data.getInt32(pos, order);
+    pos += 4;
+    return value;
+  }
+
+ /**private */int readNumField(String fieldName) {
+    // num field is unsigned int, but is read as a signed int
+    int num = readInt();
     if (num < 0 || num > maxNumFieldValue) {
       throw new ParseException(fieldName + " value is too large");
     }
@@ -201,32 +256,30 @@ class WKBReader
   }
   
  /**private */Geometry readGeometry(int SRID)
-  throws IOException, ParseException
   {
-
       // determine byte order
-      byte byteOrderWKB = dis.readByte();
+      int byteOrderWKB = readByte();
 
       // always set byte order, since it may change from geometry to geometry
      if(byteOrderWKB == WKBConstants.wkbNDR)
      {
-        dis.setOrder(ByteOrderValues.LITTLE_ENDIAN);
+        order = Endian.little;
      }
      else if(byteOrderWKB == WKBConstants.wkbXDR)
      {
-        dis.setOrder(ByteOrderValues.BIG_ENDIAN);
+        order = Endian.big;
      }
      else if(isStrict)
      {
-        throw new ParseException("Unknown geometry byte order (not NDR or XDR): " + byteOrderWKB);
+        throw new ParseException("Unknown geometry byte order (not NDR or XDR): " + byteOrderWKB.toString());
      }
-     //if not strict and not XDR or NDR, then we just use the dis default set at the
-     //start of the geometry (if a multi-geometry).  This  allows WBKReader to work
+     //if not strict and not XDR or NDR, then we just use the order set
+     //by the enclosing geometry (if a multi-geometry).  This  allows WBKReader to work
      //with Spatialite native BLOB WKB, as well as other WKB variants that might just
      //specify endian-ness at the start of the multigeometry.
 
 
-    int typeInt = dis.readInt();
+    int typeInt = readInt();
     
     /**
      * To get geometry type mask out EWKB flag bits, 
@@ -238,24 +291,21 @@ class WKBReader
     // handle 3D and 4D WKB geometries
     // geometries with Z coordinates have the 0x80 flag (postgis EWKB)
     // or are in the 1000 range (Z) or in the 3000 range (ZM) of geometry type (ISO/OGC 06-103r4)
-    bool hasZ = ((typeInt & 0x80000000) != 0 || (typeInt & 0xffff)/1000 == 1 || (typeInt & 0xffff)/1000 == 3);
+    int isoRange = (typeInt & 0xffff) ~/ 1000;
+    bool hasZ = ((typeInt & 0x80000000) != 0 || isoRange == 1 || isoRange == 3);
     // geometries with M coordinates have the 0x40 flag (postgis EWKB)
     // or are in the 1000 range (M) or in the 3000 range (ZM) of geometry type (ISO/OGC 06-103r4)
-    bool hasM = ((typeInt & 0x40000000) != 0 || (typeInt & 0xffff)/1000 == 2 || (typeInt & 0xffff)/1000 == 3);
-    //System.out.println(typeInt + " - " + geometryType + " - hasZ:" + hasZ);
+    bool hasM = ((typeInt & 0x40000000) != 0 || isoRange == 2 || isoRange == 3);
     inputDimension = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+    inputMeasures = hasM ? 1 : 0;
 
     // determine if SRIDs are present (EWKB only)
     bool hasSRID = (typeInt & 0x20000000) != 0;
     if (hasSRID) {
-      SRID = dis.readInt();
+      SRID = readInt();
     }
 
-    // only allocate ordValues buffer if necessary
-    if (ordValues == null || ordValues.length < inputDimension)
-      ordValues = new double[inputDimension];
-
-    Geometry geom = null;
+    Geometry geom;
     switch (geometryType) {
       case WKBConstants.wkbPoint :
         geom = readPoint();
@@ -279,7 +329,7 @@ class WKBReader
         geom = readGeometryCollection(SRID);
         break;
       default: 
-        throw new ParseException("Unknown WKB type " + geometryType);
+        throw new ParseException("Unknown WKB type " + geometryType.toString());
     }
     setSRID(geom, SRID);
     return geom;
@@ -298,114 +348,142 @@ class WKBReader
     return g;
   }
 
- /**private */Point readPoint() throws IOException, ParseException
+ /**private */Point readPoint()
   {
     CoordinateSequence pts = readCoordinateSequence(1);
     // If X and Y are NaN create a empty point
     if ((pts.getX(0).isNaN) || (pts.getY(0).isNaN)) {
       return factory.createPoint();
     }
-    return factory.createPoint(pts);
+    return factory.createPointFromCoordSeq(pts);
   }
 
- /**private */LineString readLineString() throws IOException, ParseException
+ /**private */LineString readLineString()
   {
     int size = readNumField(FIELD_NUMCOORDS);
     CoordinateSequence pts = readCoordinateSequenceLineString(size);
-    return factory.createLineString(pts);
+    return factory.createLineStringFromSeq(pts);
   }
 
- /**private */LinearRing readLinearRing() throws IOException, ParseException
+ /**private */LinearRing readLinearRing()
   {
     int size = readNumField(FIELD_NUMCOORDS);
     CoordinateSequence pts = readCoordinateSequenceRing(size);
-    return factory.createLinearRing(pts);
+    return factory.createLinearRingFromCoordSeq(pts);
   }
 
- /**private */Polygon readPolygon() throws IOException, ParseException
+ /**private */Polygon readPolygon()
   {
     int numRings = readNumField(FIELD_NUMRINGS);
-    List<LinearRing> holes = null;
-    if (numRings > 1)
-      holes = new LinearRing[numRings - 1];
 
     // empty polygon
     if (numRings <= 0)
       return factory.createPolygon();
     
     LinearRing shell = readLinearRing();
+    List<LinearRing> holes = [];
     for (int i = 0; i < numRings - 1; i++) {
-      holes[i] = readLinearRing();
+      holes.add(readLinearRing());
     }
     return factory.createPolygon(shell, holes);
   }
 
- /**private */MultiPoint readMultiPoint(int SRID) throws IOException, ParseException
+ /**private */MultiPoint readMultiPoint(int SRID)
   {
     int numGeom = readNumField(FIELD_NUMELEMS);
-    Point[] geoms = new Point[numGeom];
+    List<Point> geoms = [];
     for (int i = 0; i < numGeom; i++) {
       Geometry g = readGeometry(SRID);
-      if (! (g is Point))
+      if (g is! Point)
         throw new ParseException(INVALID_GEOM_TYPE_MSG + "MultiPoint");
-      geoms[i] = (Point) g;
+      geoms.add(g);
     }
-    return factory.createMultiPoint(geoms);
+    return factory.createMultiPointFromPoints(geoms);
   }
 
- /**private */MultiLineString readMultiLineString(int SRID) throws IOException, ParseException
+ /**private */MultiLineString readMultiLineString(int SRID)
   {
     int numGeom = readNumField(FIELD_NUMELEMS);
-    List<LineString> geoms = new LineString[numGeom];
+    List<LineString> geoms = [];
     for (int i = 0; i < numGeom; i++) {
       Geometry g = readGeometry(SRID);
-      if (! (g is LineString))
+      if (g is! LineString)
         throw new ParseException(INVALID_GEOM_TYPE_MSG + "MultiLineString");
-      geoms[i] = (LineString) g;
+      geoms.add(g);
     }
     return factory.createMultiLineString(geoms);
   }
 
- /**private */MultiPolygon readMultiPolygon(int SRID) throws IOException, ParseException
+ /**private */MultiPolygon readMultiPolygon(int SRID)
   {
     int numGeom = readNumField(FIELD_NUMELEMS);
-    List<Polygon> geoms = new Polygon[numGeom];
-
+    List<Polygon> geoms = [];
     for (int i = 0; i < numGeom; i++) {
       Geometry g = readGeometry(SRID);
-      if (! (g is Polygon))
+      if (g is! Polygon)
         throw new ParseException(INVALID_GEOM_TYPE_MSG + "MultiPolygon");
-      geoms[i] = (Polygon) g;
+      geoms.add(g);
     }
     return factory.createMultiPolygon(geoms);
   }
 
- /**private */GeometryCollection readGeometryCollection(int SRID) throws IOException, ParseException
+ /**private */GeometryCollection readGeometryCollection(int SRID)
   {
     int numGeom = readNumField(FIELD_NUMELEMS);
-    List<Geometry> geoms = new Geometry[numGeom];
+    List<Geometry> geoms = [];
     for (int i = 0; i < numGeom; i++) {
-      geoms[i] = readGeometry(SRID);
+      geoms.add(readGeometry(SRID));
     }
     return factory.createGeometryCollection(geoms);
   }
 
- /**private */CoordinateSequence readCoordinateSequence(int size) throws IOException, ParseException
+  /**
+   * Reads the ordinates of a sequence into a packed array,
+   * making the X and Y ordinates precise according to the precision model
+   * in use.
+   * In view mode a view of the ordinates is returned instead.
+   */
+ /**private */CoordinateSequence readCoordinateSequence(int size)
   {
-    CoordinateSequence seq = csFactory.create(size, inputDimension);
-    int targetDim = seq.getDimension();
-    if (targetDim > inputDimension)
-      targetDim = inputDimension;
+    int dim = inputDimension;
+    checkAvailable(size * dim * 8);
+    if (isView) {
+      CoordinateSequence view = new WKBCoordinateSequence(data, pos, size, dim,
+          inputMeasures, order, precisionModel);
+      pos += size * dim * 8;
+      return view;
+    }
+    Float64List ords = Float64List(size * dim);
+    int k = 0;
+    for (int i = 0; i < size; i++) {
+      ords[k++] = precisionModel.makePrecise(data.getFloat64(pos, order));
+      ords[k++] = precisionModel.makePrecise(data.getFloat64(pos + 8, order));
+      pos += 16;
+      for (int j = 2; j < dim; j++) {
+        ords[k++] = data.getFloat64(pos, order);
+        pos += 8;
+      }
+    }
+    return createSequence(ords, size);
+  }
+
+ /**private */CoordinateSequence createSequence(Float64List ords, int size)
+  {
+    CoordinateSequenceFactory csf = csFactory;
+    if (csf is PackedCoordinateSequenceFactory) {
+      return csf.createFromDoubles(ords, inputDimension, inputMeasures);
+    }
+    CoordinateSequence seq = csf.createWithSize(size, inputDimension, inputMeasures);
+    int targetDim = math.min(seq.getDimension(), inputDimension);
     for (int i = 0; i < size; i++) {
-      readCoordinate();
       for (int j = 0; j < targetDim; j++) {
-        seq.setOrdinate(i, j, ordValues[j]);
+        seq.setOrdinate(i, j, ords[i * inputDimension + j]);
       }
     }
     return seq;
   }
 
- /**private */CoordinateSequence readCoordinateSequenceLineString(int size) throws IOException, ParseException
+ /**private */CoordinateSequence readCoordinateSequenceLineString(int size)
   {
     CoordinateSequence seq = readCoordinateSequence(size);
     if (isStrict) return seq;
@@ -413,7 +491,7 @@ class WKBReader
     return CoordinateSequences.extend(csFactory, seq, 2);
   }
   
- /**private */CoordinateSequence readCoordinateSequenceRing(int size) throws IOException, ParseException
+ /**private */CoordinateSequence readCoordinateSequenceRing(int size)
   {
     CoordinateSequence seq = readCoordinateSequence(size);
     if (isStrict) return seq;
@@ -421,23 +499,4 @@ class WKBReader
     return CoordinateSequences.ensureValidRing(csFactory, seq);
   }
 
-  /**
-   * Reads a coordinate value with the specified dimensionality.
-   * Makes the X and Y ordinates precise according to the precision model
-   * in use.
-   * @throws ParseException 
-   */
- /**private */void readCoordinate() throws IOException, ParseException
-  {
-    for (int i = 0; i < inputDimension; i++) {
-      if (i <= 1) {
-        ordValues[i] = precisionModel.makePrecise(dis.readDouble());
-      }
-      else {
-        ordValues[i] = dis.readDouble();
-      }
-
-    }
-  }
-
 }
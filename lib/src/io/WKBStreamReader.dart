@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:async';
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequenceFactory.dart';
+
+import 'ParseException.dart';
+import 'WKBConstants.dart';
+import 'WKBReader.dart';
+
+/// Reads a sequence of concatenated WKB geometries
+/// from a stream of byte chunks, such as a file read or a socket,
+/// yielding each geometry as soon as all of its bytes have arrived.
+/// <p>
+/// Incoming bytes are scanned once as they arrive to find where
+/// each geometry ends; a geometry may be split across any number of chunks.
+/// Only the bytes of the geometry being read (and the rest of the current chunk)
+/// are buffered, so memory use is bounded by the largest geometry
+/// rather than the size of the stream.
+/// Complete geometries are decoded by a {@link WKBReader},
+/// which reads the ordinates straight into typed-data coordinate sequences.
+/// By default a {@link PackedCoordinateSequenceFactory#DOUBLE_FACTORY} is used,
+/// so the sequences are backed by the decoded <code>Float64List</code>s.
+/// <p>
+/// The WKB variants accepted are the same as for {@link WKBReader}.
+/// A {@link ParseException} is added to the output stream
+/// if a geometry is malformed or the input ends part way through a geometry.
+/// Count fields are checked as soon as they are read,
+/// so a geometry larger than the maximum frame size
+/// (for instance because of a corrupted count) is rejected
+/// without buffering the rest of the stream.
+/// <p>
+/// Usage:
+/// <pre>
+///   await for (Geometry g in new WKBStreamReader().read(file.openRead())) { ... }
+/// </pre>
+class WKBStreamReader extends StreamTransformerBase<List<int>, Geometry> {
+ /**private */static const int INITIAL_CAPACITY = 64 * 1024;
+
+  /// The default maximum size of a single WKB geometry, in bytes
+  static const int DEFAULT_MAX_FRAME_SIZE = 256 * 1024 * 1024;
+
+  // the smallest encoded sizes of a ring and of a collection element
+ /**private */static const int MIN_RING_SIZE = 4;
+ /**private */static const int MIN_ELEM_SIZE = 9;
+
+  // scanner states
+ /**private */static const int STATE_BYTE_ORDER = 0;
+ /**private */static const int STATE_TYPE = 1;
+ /**private */static const int STATE_SRID = 2;
+ /**private */static const int STATE_NUM_COORDS = 3;
+ /**private */static const int STATE_NUM_RINGS = 4;
+ /**private */static const int STATE_RING_NUM_COORDS = 5;
+ /**private */static const int STATE_NUM_ELEMS = 6;
+ /**private */static const int STATE_SKIP = 7;
+
+ /**private */final GeometryFactory factory;
+ /**private */final int maxFrameSize;
+
+  /// Creates a reader which creates geometries using the given factory.
+  ///
+  /// @param factory the factory to use (by default one using packed
+  ///    <code>double</code> coordinate sequences)
+  /// @param maxFrameSize the maximum size of a single geometry, in bytes
+  WKBStreamReader([GeometryFactory? factory, this.maxFrameSize = DEFAULT_MAX_FRAME_SIZE])
+    : factory = factory ?? new GeometryFactory.withCoordinateSequenceFactory(
+          PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+
+  /// Reads the geometries in a stream of WKB bytes.
+  ///
+  /// @param chunks the stream of byte chunks
+  /// @return the stream of geometries read
+  Stream<Geometry> read(Stream<List<int>> chunks) {
+    return bind(chunks);
+  }
+
+  @override
+  Stream<Geometry> bind(Stream<List<int>> stream) async* {
+    WKBReader reader = new WKBReader(factory);
+    WKBFrameScanner scanner = new WKBFrameScanner(maxFrameSize);
+    await for (List<int> chunk in stream) {
+      scanner.add(chunk);
+      while (scanner.scan()) {
+        yield reader.read(scanner.takeFrame());
+      }
+    }
+    if (scanner.hasPartialFrame()) {
+      throw new ParseException("Unexpected end of WKB stream");
+    }
+  }
+}
+
+/// Finds the extent of each WKB geometry in a sequence of byte chunks.
+/// <p>
+/// The scanner reads only the header and count fields
+/// and skips over the ordinates, keeping its state between chunks,
+/// so every byte is examined at most once.
+/// It follows the same byte order rules as {@link WKBReader}.
+class WKBFrameScanner {
+ /**private */final int maxFrameSize;
+ /**private */Uint8List buf = Uint8List(WKBStreamReader.INITIAL_CAPACITY);
+ /**private */ByteData view = ByteData(0);
+  // start of the current frame
+ /**private */int start = 0;
+  // end of the buffered bytes
+ /**private */int end = 0;
+  // scan position
+ /**private */int pos = 0;
+
+ /**private */int state = WKBStreamReader.STATE_BYTE_ORDER;
+ /**private */Endian order = Endian.big;
+ /**private */int geometryType = 0;
+ /**private */int dimension = 2;
+ /**private */bool hasSRID = false;
+ /**private */int ringsLeft = 0;
+ /**private */int skipLeft = 0;
+  // number of elements left to scan in each enclosing collection
+ /**private */final List<int> elemsLeft = [];
+
+  /// Creates a scanner.
+  ///
+  /// @param maxFrameSize the maximum size of a single geometry, in bytes
+  WKBFrameScanner([this.maxFrameSize = WKBStreamReader.DEFAULT_MAX_FRAME_SIZE]) {
+    view = ByteData.sublistView(buf);
+  }
+
+  /// Appends a chunk of bytes.
+  ///
+  /// @param chunk the bytes to append
+  void add(List<int> chunk) {
+    int needed = end - start + chunk.length;
+    if (end + chunk.length > buf.length) {
+      Uint8List target = buf;
+      if (needed > buf.length) {
+        target = Uint8List(math.max(2 * buf.length, needed));
+      }
+      // move the current frame to the start of the buffer
+      target.setRange(0, end - start, buf, start);
+      pos -= start;
+      end -= start;
+      start = 0;
+      buf = target;
+      view = ByteData.sublistView(buf);
+    }
+    buf.setRange(end, end + chunk.length, chunk);
+    end += chunk.length;
+  }
+
+  /// Tests whether any bytes of an incomplete geometry are buffered.
+  bool hasPartialFrame() {
+    return end > start;
+  }
+
+  /// Removes the bytes of the geometry found by the last successful {@link #scan}.
+  /// The returned view is only valid until the next call to {@link #add}.
+  ///
+  /// @return the bytes of the geometry
+  Uint8List takeFrame() {
+    Uint8List frame = Uint8List.sublistView(buf, start, pos);
+    start = pos;
+    return frame;
+  }
+
+  /// Scans the buffered bytes for the end of the current geometry.
+  ///
+  /// @return true if a complete geometry is buffered
+  bool scan() {
+    while (true) {
+      switch (state) {
+        case WKBStreamReader.STATE_BYTE_ORDER:
+          if (end - pos < 1) return false;
+          int byteOrderWKB = buf[pos++];
+          if (byteOrderWKB == WKBConstants.wkbNDR) {
+            order = Endian.little;
+          }
+          else if (byteOrderWKB == WKBConstants.wkbXDR) {
+            order = Endian.big;
+          }
+          state = WKBStreamReader.STATE_TYPE;
+          break;
+
+        case WKBStreamReader.STATE_TYPE:
+          if (end - pos < 4) return false;
+          readType(view.getInt32(pos, order));
+          pos += 4;
+          state = hasSRID ? WKBStreamReader.STATE_SRID : stateForType();
+          break;
+
+        case WKBStreamReader.STATE_SRID:
+          if (end - pos < 4) return false;
+          pos += 4;
+          state = stateForType();
+          break;
+
+        case WKBStreamReader.STATE_NUM_COORDS:
+        case WKBStreamReader.STATE_RING_NUM_COORDS:
+          if (end - pos < 4) return false;
+          int numCoords = readNumField(dimension * 8);
+          if (state == WKBStreamReader.STATE_RING_NUM_COORDS) ringsLeft--;
+          skipLeft = numCoords * dimension * 8;
+          state = WKBStreamReader.STATE_SKIP;
+          break;
+
+        case WKBStreamReader.STATE_NUM_RINGS:
+          if (end - pos < 4) return false;
+          ringsLeft = readNumField(WKBStreamReader.MIN_RING_SIZE);
+          if (ringsLeft == 0) {
+            if (finishGeometry()) return true;
+          }
+          else {
+            state = WKBStreamReader.STATE_RING_NUM_COORDS;
+          }
+          break;
+
+        case WKBStreamReader.STATE_NUM_ELEMS:
+          if (end - pos < 4) return false;
+          int numElems = readNumField(WKBStreamReader.MIN_ELEM_SIZE);
+          if (numElems == 0) {
+            if (finishGeometry()) return true;
+          }
+          else {
+            elemsLeft.add(numElems);
+            state = WKBStreamReader.STATE_BYTE_ORDER;
+          }
+          break;
+
+        case WKBStreamReader.STATE_SKIP:
+          int n = math.min(skipLeft, end - pos);
+          pos += n;
+          skipLeft -= n;
+          if (skipLeft > 0) return false;
+          if (geometryType == WKBConstants.wkbPolygon && ringsLeft > 0) {
+            state = WKBStreamReader.STATE_RING_NUM_COORDS;
+          }
+          else if (finishGeometry()) {
+            return true;
+          }
+          break;
+      }
+    }
+  }
+
+ /**private */void readType(int typeInt) {
+    // the same decoding as WKBReader
+    geometryType = (typeInt & 0xffff) % 1000;
+    int isoRange = (typeInt & 0xffff) ~/ 1000;
+    bool hasZ = ((typeInt & 0x80000000) != 0 || isoRange == 1 || isoRange == 3);
+    bool hasM = ((typeInt & 0x40000000) != 0 || isoRange == 2 || isoRange == 3);
+    dimension = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+    hasSRID = (typeInt & 0x20000000) != 0;
+  }
+
+ /**private */int stateForType() {
+    switch (geometryType) {
+      case WKBConstants.wkbPoint:
+        skipLeft = dimension * 8;
+        return WKBStreamReader.STATE_SKIP;
+      case WKBConstants.wkbLineString:
+        return WKBStreamReader.STATE_NUM_COORDS;
+      case WKBConstants.wkbPolygon:
+        return WKBStreamReader.STATE_NUM_RINGS;
+      case WKBConstants.wkbMultiPoint:
+      case WKBConstants.wkbMultiLineString:
+      case WKBConstants.wkbMultiPolygon:
+      case WKBConstants.wkbGeometryCollection:
+        return WKBStreamReader.STATE_NUM_ELEMS;
+      default:
+        throw new ParseException("Unknown WKB type " + geometryType.toString());
+    }
+  }
+
+  /// Reads a count field, checking that the items counted
+  /// cannot make the geometry larger than the maximum frame size.
+  ///
+  /// @param itemSize the smallest size of each item, in bytes
+ /**private */int readNumField(int itemSize) {
+    int num = view.getInt32(pos, order);
+    pos += 4;
+    if (num < 0) {
+      throw new ParseException("WKB count field value is negative: " + num.toString());
+    }
+    if (num > (maxFrameSize - (pos - start)) ~/ itemSize) {
+      throw new ParseException("WKB count field value " + num.toString()
+          + " exceeds the maximum frame size of " + maxFrameSize.toString() + " bytes");
+    }
+    return num;
+  }
+
+  /// Records the end of a geometry.
+  ///
+  /// @return true if it completes a top-level geometry
+ /**private */bool finishGeometry() {
+    state = WKBStreamReader.STATE_BYTE_ORDER;
+    while (elemsLeft.isNotEmpty) {
+      int left = elemsLeft.removeLast() - 1;
+      if (left > 0) {
+        elemsLeft.add(left);
+        return false;
+      }
+    }
+    // each top-level geometry starts with the reader's default byte order
+    order = Endian.big;
+    return true;
+  }
+}
@@ -0,0 +1,560 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequenceFactory.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryCollection.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/geom/LineString.dart';
+import 'package:jtscore4dart/src/geom/LinearRing.dart';
+import 'package:jtscore4dart/src/geom/MultiLineString.dart';
+import 'package:jtscore4dart/src/geom/MultiPoint.dart';
+import 'package:jtscore4dart/src/geom/MultiPolygon.dart';
+import 'package:jtscore4dart/src/geom/Point.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+import 'package:jtscore4dart/src/geom/PrecisionModel.dart';
+import 'package:jtscore4dart/src/geom/impl/CoordinateArraySequenceFactory.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequenceFactory.dart';
+
+import 'ParseException.dart';
+
+/// Parses Well-Known Text in a single pass over the code units of a string.
+/// <p>
+/// There is no separate tokenizer: keywords are matched in place,
+/// and numbers are converted directly from their digits
+/// without creating intermediate strings
+/// (only numbers with more than 16 significant digits or a large exponent
+/// are handed to {@link double#parse}, so that every value is correctly rounded).
+/// The ordinates of each coordinate list are written into one reused
+/// <code>Float64List</code>.
+/// If the factory uses a {@link PackedCoordinateSequenceFactory}
+/// a copy of that array becomes the storage of the coordinate sequence,
+/// so no {@link Coordinate} objects are created.
+/// <p>
+/// The syntax accepted is the same as for {@link WKTReader#read},
+/// which uses this class.
+/// A <code>WKTParser</code> is not thread-safe, but can be reused.
+class WKTParser {
+ /**private */static const int INITIAL_CAPACITY = 256;
+
+  // 2^53: integers below this are exact doubles
+ /**private */static const int MAX_EXACT_MANTISSA = 9007199254740992;
+ /**private */static const int MAX_FAST_DIGITS = 16;
+ /**private */static const List<double> POW10 = [
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  ];
+
+ /**private */static const int CC_TAB = 0x09;
+ /**private */static const int CC_LF = 0x0A;
+ /**private */static const int CC_CR = 0x0D;
+ /**private */static const int CC_SPACE = 0x20;
+ /**private */static const int CC_LPAREN = 0x28;
+ /**private */static const int CC_RPAREN = 0x29;
+ /**private */static const int CC_PLUS = 0x2B;
+ /**private */static const int CC_COMMA = 0x2C;
+ /**private */static const int CC_MINUS = 0x2D;
+ /**private */static const int CC_DOT = 0x2E;
+ /**private */static const int CC_0 = 0x30;
+ /**private */static const int CC_E = 0x45;
+ /**private */static const int CC_e = 0x65;
+
+ /**private */GeometryFactory geometryFactory;
+ /**private */CoordinateSequenceFactory csFactory;
+  // null if the ordinates do not need to be made precise
+ /**private */final PrecisionModel? precisionModel;
+ /**private */final bool isAllowOldJtsCoordinateSyntax;
+ /**private */final bool isAllowOldJtsMultipointSyntax;
+
+ /**private */String text = "";
+ /**private */int pos = 0;
+ /**private */int end = 0;
+
+ /**private */Float64List ords = Float64List(INITIAL_CAPACITY);
+ /**private */int numOrds = 0;
+
+  // the layout of the coordinates of the geometry being read
+ /**private */int dimension = 2;
+ /**private */int measures = 0;
+  // the number of ordinates which must be present in each coordinate
+ /**private */int numRequired = 2;
+
+  /// Creates a parser which creates geometries using the given factory.
+  ///
+  /// @param geometryFactory the factory used to create <code>Geometry</code>s
+  /// @param isAllowOldJtsCoordinateSyntax true if coordinates may have
+  ///    a third ordinate even though no Z or M indicator is present
+  /// @param isAllowOldJtsMultipointSyntax true if the points of a MultiPoint
+  ///    may be written without enclosing parentheses
+  WKTParser(this.geometryFactory,
+      [this.isAllowOldJtsCoordinateSyntax = true, this.isAllowOldJtsMultipointSyntax = true])
+      : csFactory = geometryFactory.getCoordinateSequenceFactory(),
+        precisionModel = geometryFactory.getPrecisionModel().isFloating()
+            ? null : geometryFactory.getPrecisionModel();
+
+  /// Parses a Well-Known Text representation of a {@link Geometry}.
+  /// Any text after the first &lt;Geometry Tagged Text&gt; is ignored.
+  ///
+  /// @param wellKnownText a &lt;Geometry Tagged Text&gt; string
+  /// @return the geometry read, or null if the text is blank
+  /// @throws ParseException if the text is not valid WKT
+  Geometry? parse(String wellKnownText) {
+    text = wellKnownText;
+    pos = 0;
+    end = wellKnownText.length;
+    skipWhitespace();
+    if (pos >= end) return null;
+    return readGeometryTaggedText();
+  }
+
+ /**private */Geometry readGeometryTaggedText() {
+    skipWhitespace();
+    int typeStart = pos;
+    String type = readWord();
+    if (type.isEmpty) {
+      throw unexpected("geometry type");
+    }
+    bool hasZ = false;
+    bool hasM = false;
+    if (type.endsWith("ZM")) {
+      hasZ = true;
+      hasM = true;
+    }
+    else if (type.endsWith("Z")) {
+      hasZ = true;
+    }
+    else if (type.endsWith("M")) {
+      hasM = true;
+    }
+    else {
+      // the ordinate flags may be a separate word
+      int wordStart = pos;
+      String flags = readWord();
+      if (flags == "ZM") {
+        hasZ = true;
+        hasM = true;
+      }
+      else if (flags == "Z") {
+        hasZ = true;
+      }
+      else if (flags == "M") {
+        hasM = true;
+      }
+      else {
+        pos = wordStart;
+      }
+    }
+    numRequired = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+    dimension = numRequired;
+    measures = hasM ? 1 : 0;
+    if (dimension == 2 && isAllowOldJtsCoordinateSyntax) dimension++;
+    checkFactoryDimension();
+
+    if (type.startsWith("POINT")) {
+      return readPointText();
+    }
+    else if (type.startsWith("LINESTRING")) {
+      return readLineStringText();
+    }
+    else if (type.startsWith("LINEARRING")) {
+      return readLinearRingText();
+    }
+    else if (type.startsWith("POLYGON")) {
+      return readPolygonText();
+    }
+    else if (type.startsWith("MULTIPOINT")) {
+      return readMultiPointText();
+    }
+    else if (type.startsWith("MULTILINESTRING")) {
+      return readMultiLineStringText();
+    }
+    else if (type.startsWith("MULTIPOLYGON")) {
+      return readMultiPolygonText();
+    }
+    else if (type.startsWith("GEOMETRYCOLLECTION")) {
+      return readGeometryCollectionText();
+    }
+    throw new ParseException("Unknown geometry type: "
+        + text.substring(typeStart, typeStart + type.length) + " at position $typeStart");
+  }
+
+  /// Switches to a factory which can hold the ordinates of the geometry,
+  /// if the current one cannot (as {@link WKTReader} does).
+ /**private */void checkFactoryDimension() {
+    if (csFactory is PackedCoordinateSequenceFactory) return;
+    try {
+      csFactory.createWithSize(0, dimension, measures);
+    }
+    catch (e) {
+      csFactory = CoordinateArraySequenceFactory.instance();
+      geometryFactory = new GeometryFactory(geometryFactory.getPrecisionModel(),
+          geometryFactory.getSRID(), csFactory);
+    }
+  }
+
+ /**private */Point readPointText() {
+    return geometryFactory.createPointFromCoordSeq(readCoordinateSequence(false));
+  }
+
+ /**private */LineString readLineStringText() {
+    return geometryFactory.createLineStringFromSeq(readCoordinateSequence(false));
+  }
+
+ /**private */LinearRing readLinearRingText() {
+    return geometryFactory.createLinearRingFromCoordSeq(readCoordinateSequence(false));
+  }
+
+ /**private */MultiPoint readMultiPointText() {
+    return geometryFactory.createMultiPointFromCoordSeq(readCoordinateSequence(true));
+  }
+
+ /**private */Polygon readPolygonText() {
+    if (readEmptyOrOpener()) {
+      return geometryFactory.createPolygon();
+    }
+    LinearRing shell = readLinearRingText();
+    List<LinearRing> holes = [];
+    while (readCloserOrComma()) {
+      holes.add(readLinearRingText());
+    }
+    return geometryFactory.createPolygon(shell, holes);
+  }
+
+ /**private */MultiLineString readMultiLineStringText() {
+    if (readEmptyOrOpener()) {
+      return geometryFactory.createMultiLineString([]);
+    }
+    List<LineString> lineStrings = [];
+    do {
+      lineStrings.add(readLineStringText());
+    } while (readCloserOrComma());
+    return geometryFactory.createMultiLineString(lineStrings);
+  }
+
+ /**private */MultiPolygon readMultiPolygonText() {
+    if (readEmptyOrOpener()) {
+      return geometryFactory.createMultiPolygonEmpty();
+    }
+    List<Polygon> polygons = [];
+    do {
+      polygons.add(readPolygonText());
+    } while (readCloserOrComma());
+    return geometryFactory.createMultiPolygon(polygons);
+  }
+
+ /**private */GeometryCollection readGeometryCollectionText() {
+    if (readEmptyOrOpener()) {
+      return geometryFactory.createGeometryCollection([]);
+    }
+    List<Geometry> geometries = [];
+    do {
+      geometries.add(readGeometryTaggedText());
+    } while (readCloserOrComma());
+    return geometryFactory.createGeometryCollection(geometries);
+  }
+
+  /// Reads a coordinate list, or EMPTY.
+  ///
+  /// @param isMultiPoint true if each coordinate may be enclosed in parentheses
+ /**private */CoordinateSequence readCoordinateSequence(bool isMultiPoint) {
+    numOrds = 0;
+    if (!readEmptyOrOpener()) {
+      do {
+        readCoordinate(isMultiPoint);
+      } while (readCloserOrComma());
+    }
+    return createSequence();
+  }
+
+ /**private */void readCoordinate(bool isMultiPoint) {
+    bool opened = false;
+    if (isMultiPoint) {
+      skipWhitespace();
+      if (pos < end && text.codeUnitAt(pos) == CC_LPAREN) {
+        pos++;
+        opened = true;
+      }
+      else if (!isAllowOldJtsMultipointSyntax) {
+        throw unexpected("(");
+      }
+    }
+    if (numOrds + dimension > ords.length) {
+      Float64List grown = Float64List(2 * ords.length + dimension);
+      grown.setRange(0, numOrds, ords);
+      ords = grown;
+    }
+    int k = numOrds;
+    double x = readNumber();
+    double y = readNumber();
+    PrecisionModel? pm = precisionModel;
+    if (pm != null) {
+      x = pm.makePrecise(x);
+      y = pm.makePrecise(y);
+    }
+    ords[k] = x;
+    ords[k + 1] = y;
+    for (int j = 2; j < numRequired; j++) {
+      ords[k + j] = readNumber();
+    }
+    // an optional Z ordinate in the old JTS syntax
+    if (numRequired < dimension) {
+      ords[k + 2] = isNumberNext() ? readNumber() : double.nan;
+    }
+    numOrds += dimension;
+    if (opened) readCloser();
+  }
+
+ /**private */CoordinateSequence createSequence() {
+    int size = numOrds ~/ dimension;
+    CoordinateSequenceFactory csf = csFactory;
+    if (csf is PackedCoordinateSequenceFactory) {
+      return csf.createFromDoubles(ords.sublist(0, numOrds), dimension, measures);
+    }
+    CoordinateSequence seq = csf.createWithSize(size, dimension, measures);
+    int targetDim = seq.getDimension() < dimension ? seq.getDimension() : dimension;
+    int k = 0;
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < targetDim; j++) {
+        seq.setOrdinate(i, j, ords[k + j]);
+      }
+      k += dimension;
+    }
+    return seq;
+  }
+
+  /// Reads the next number.
+  /// Numbers with exponents are handled.
+  /// <tt>NaN</tt> values are handled, and the case of the "NaN" symbol is not significant.
+ /**private */double readNumber() {
+    skipWhitespace();
+    int start = pos;
+    bool isNegative = false;
+    if (pos < end) {
+      int sign = text.codeUnitAt(pos);
+      if (sign == CC_MINUS) {
+        isNegative = true;
+        pos++;
+      }
+      else if (sign == CC_PLUS) {
+        pos++;
+      }
+    }
+
+    int mantissa = 0;
+    int numDigits = 0;
+    int exponent = 0;
+    bool hasDigits = false;
+    int c = 0;
+    while (pos < end) {
+      c = text.codeUnitAt(pos) - CC_0;
+      if (c < 0 || c > 9) break;
+      hasDigits = true;
+      // leading zeros are not significant
+      if (mantissa != 0 || c != 0) {
+        mantissa = 10 * mantissa + c;
+        numDigits++;
+      }
+      pos++;
+    }
+    if (pos < end && text.codeUnitAt(pos) == CC_DOT) {
+      pos++;
+      while (pos < end) {
+        c = text.codeUnitAt(pos) - CC_0;
+        if (c < 0 || c > 9) break;
+        hasDigits = true;
+        if (mantissa != 0 || c != 0) {
+          mantissa = 10 * mantissa + c;
+          numDigits++;
+        }
+        exponent--;
+        pos++;
+      }
+    }
+    if (!hasDigits) {
+      pos = start;
+      return readNumberWord();
+    }
+    if (pos < end && (text.codeUnitAt(pos) == CC_E || text.codeUnitAt(pos) == CC_e)) {
+      pos++;
+      bool isNegativeExp = false;
+      if (pos < end) {
+        int sign = text.codeUnitAt(pos);
+        if (sign == CC_MINUS) {
+          isNegativeExp = true;
+          pos++;
+        }
+        else if (sign == CC_PLUS) {
+          pos++;
+        }
+      }
+      int expValue = 0;
+      bool hasExpDigits = false;
+      while (pos < end) {
+        c = text.codeUnitAt(pos) - CC_0;
+        if (c < 0 || c > 9) break;
+        hasExpDigits = true;
+        if (expValue < 100000) expValue = 10 * expValue + c;
+        pos++;
+      }
+      if (!hasExpDigits) {
+        throw invalidNumber(start);
+      }
+      exponent += isNegativeExp ? -expValue : expValue;
+    }
+    if (!isDelimiterNext()) {
+      throw invalidNumber(start);
+    }
+
+    double value;
+    if (mantissa == 0) {
+      value = 0.0;
+    }
+    else if (numDigits <= MAX_FAST_DIGITS && mantissa < MAX_EXACT_MANTISSA
+        && exponent >= -22 && exponent <= 22) {
+      // both operands are exact, so the single rounding gives the correctly rounded value
+      value = exponent >= 0
+          ? mantissa.toDouble() * POW10[exponent]
+          : mantissa.toDouble() / POW10[-exponent];
+    }
+    else {
+      return double.parse(text.substring(start, pos));
+    }
+    return isNegative ? -value : value;
+  }
+
+  /// Reads a number written as a word, such as <tt>NaN</tt> or <tt>Infinity</tt>.
+ /**private */double readNumberWord() {
+    int start = pos;
+    if (pos < end) {
+      int sign = text.codeUnitAt(pos);
+      if (sign == CC_MINUS || sign == CC_PLUS) pos++;
+    }
+    String word = readWord();
+    if (word.isEmpty) {
+      pos = start;
+      throw unexpected("number");
+    }
+    if (word == "NAN") return double.nan;
+    double? value = double.tryParse(text.substring(start, pos));
+    if (value == null) {
+      throw invalidNumber(start);
+    }
+    return value;
+  }
+
+  /// Tests whether the next token could be a number,
+  /// rather than a comma or closing parenthesis.
+ /**private */bool isNumberNext() {
+    skipWhitespace();
+    if (pos >= end) return false;
+    int c = text.codeUnitAt(pos);
+    return c != CC_COMMA && c != CC_RPAREN;
+  }
+
+  /// Reads an opening parenthesis or EMPTY.
+  /// An ordinate flag word before either is skipped.
+  ///
+  /// @return true if EMPTY was read
+ /**private */bool readEmptyOrOpener() {
+    skipWhitespace();
+    if (pos < end && text.codeUnitAt(pos) == CC_LPAREN) {
+      pos++;
+      return false;
+    }
+    int wordStart = pos;
+    String word = readWord();
+    if (word == "Z" || word == "M" || word == "ZM") {
+      return readEmptyOrOpener();
+    }
+    if (word == "EMPTY") return true;
+    pos = wordStart;
+    throw unexpected("EMPTY or (");
+  }
+
+  /// Reads a comma or a closing parenthesis.
+  ///
+  /// @return true if a comma was read
+ /**private */bool readCloserOrComma() {
+    skipWhitespace();
+    if (pos < end) {
+      int c = text.codeUnitAt(pos);
+      if (c == CC_COMMA || c == CC_RPAREN) {
+        pos++;
+        return c == CC_COMMA;
+      }
+    }
+    throw unexpected(", or )");
+  }
+
+ /**private */void readCloser() {
+    skipWhitespace();
+    if (pos < end && text.codeUnitAt(pos) == CC_RPAREN) {
+      pos++;
+      return;
+    }
+    throw unexpected(")");
+  }
+
+  /// Reads a run of ASCII letters.
+  ///
+  /// @return the word in upper case, or an empty string if there is no word next
+ /**private */String readWord() {
+    skipWhitespace();
+    int start = pos;
+    while (pos < end && isLetter(text.codeUnitAt(pos))) {
+      pos++;
+    }
+    return start == pos ? "" : text.substring(start, pos).toUpperCase();
+  }
+
+ /**private */void skipWhitespace() {
+    while (pos < end) {
+      int c = text.codeUnitAt(pos);
+      if (c != CC_SPACE && c != CC_LF && c != CC_CR && c != CC_TAB) return;
+      pos++;
+    }
+  }
+
+ /**private */bool isDelimiterNext() {
+    return pos >= end || isDelimiterAt(pos);
+  }
+
+ /**private */static bool isLetter(int c) {
+    // folds lower case onto upper case
+    int u = c & ~0x20;
+    return u >= 0x41 && u <= 0x5A;
+  }
+
+ /**private */ParseException invalidNumber(int start) {
+    int stop = pos;
+    while (stop < end && !isDelimiterAt(stop)) {
+      stop++;
+    }
+    return new ParseException("Invalid number: " + text.substring(start, stop)
+        + " at position $start");
+  }
+
+ /**private */bool isDelimiterAt(int i) {
+    int c = text.codeUnitAt(i);
+    return c == CC_SPACE || c == CC_COMMA || c == CC_RPAREN || c == CC_LPAREN
+        || c == CC_LF || c == CC_CR || c == CC_TAB;
+  }
+
+ /**private */ParseException unexpected(String expected) {
+    String found = pos >= end ? "End-of-Stream" : "'" + text[pos] + "'";
+    return new ParseException("Expected " + expected + " but found " + found
+        + " at position $pos");
+  }
+}
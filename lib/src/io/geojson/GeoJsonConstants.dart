@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+
+/// Constants for GeoJSON member names and type names.
+class GeoJsonConstants {
+  static const String NAME_TYPE = "type";
+  static const String NAME_COORDINATES = "coordinates";
+  static const String NAME_GEOMETRIES = "geometries";
+  static const String NAME_GEOMETRY = "geometry";
+  static const String NAME_PROPERTIES = "properties";
+  static const String NAME_FEATURES = "features";
+  static const String NAME_ID = "id";
+  static const String NAME_BBOX = "bbox";
+  static const String NAME_CRS = "crs";
+  static const String NAME_NAME = "name";
+
+  static const String NAME_POINT = "Point";
+  static const String NAME_LINESTRING = "LineString";
+  static const String NAME_POLYGON = "Polygon";
+  static const String NAME_MULTIPOINT = "MultiPoint";
+  static const String NAME_MULTILINESTRING = "MultiLineString";
+  static const String NAME_MULTIPOLYGON = "MultiPolygon";
+  static const String NAME_GEOMETRYCOLLECTION = "GeometryCollection";
+  static const String NAME_FEATURE = "Feature";
+  static const String NAME_FEATURECOLLECTION = "FeatureCollection";
+
+  /// The prefix of a CRS name holding an EPSG code, which is read as the SRID.
+  static const String EPSG_PREFIX = "EPSG:";
+}
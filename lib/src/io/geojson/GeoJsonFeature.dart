@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+
+/// A GeoJSON <code>Feature</code>:
+/// a geometry with an optional identifier and a map of properties.
+class GeoJsonFeature {
+  /// The feature identifier (a <code>String</code> or a <code>num</code>), or null
+  final Object? id;
+
+  /// The geometry of the feature, or null if it has none
+  final Geometry? geometry;
+
+  /// The properties of the feature, as decoded JSON values
+  final Map<String, Object?> properties;
+
+  /// Creates a feature.
+  ///
+  /// @param geometry the geometry, or null
+  /// @param properties the properties (by default none)
+  /// @param id the identifier, or null
+  GeoJsonFeature(this.geometry, [Map<String, Object?>? properties, this.id])
+    : properties = properties ?? {};
+}
@@ -0,0 +1,816 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:convert';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequenceFactory.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/geom/LineString.dart';
+import 'package:jtscore4dart/src/geom/LinearRing.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+import 'package:jtscore4dart/src/geom/PrecisionModel.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequenceFactory.dart';
+
+import '../ParseException.dart';
+import 'GeoJsonConstants.dart';
+import 'GeoJsonFeature.dart';
+
+/// Reads geometries and features from GeoJSON text.
+/// <p>
+/// The JSON is parsed in a single pass without building a tree of
+/// <code>Map</code>s and <code>List</code>s:
+/// coordinate arrays are decoded straight into a reused <code>Float64List</code>
+/// and turned into {@link CoordinateSequence}s by the
+/// {@link CoordinateSequenceFactory} of the {@link GeometryFactory}.
+/// With a {@link PackedCoordinateSequenceFactory} the sequences are
+/// backed by the decoded ordinates.
+/// Only feature properties are decoded into JSON values.
+/// <p>
+/// A <code>Feature</code> is read as its geometry, with the properties
+/// as the user data of the geometry.
+/// A <code>FeatureCollection</code> is read as a {@link GeometryCollection}
+/// of the feature geometries.
+/// Use {@link #readFeatures} to keep the features,
+/// or {@link GeoJsonStreamReader} to read them from a stream of bytes one at a time.
+/// <p>
+/// A <tt>crs</tt> member with a name of the form <tt>EPSG:&lt;code&gt;</tt>
+/// sets the SRID of the geometry.
+/// Positions may have a third (Z) ordinate; further ordinates are ignored.
+class GeoJsonReader {
+ /**private */static const int INITIAL_CAPACITY = 256;
+ /**private */static const int MAX_EXACT_MANTISSA = 9007199254740992;
+ /**private */static const int MAX_FAST_DIGITS = 16;
+ /**private */static const List<double> POW10 = [
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  ];
+
+ /**private */static const int CC_TAB = 0x09;
+ /**private */static const int CC_LF = 0x0A;
+ /**private */static const int CC_CR = 0x0D;
+ /**private */static const int CC_SPACE = 0x20;
+ /**private */static const int CC_QUOTE = 0x22;
+ /**private */static const int CC_PLUS = 0x2B;
+ /**private */static const int CC_COMMA = 0x2C;
+ /**private */static const int CC_MINUS = 0x2D;
+ /**private */static const int CC_DOT = 0x2E;
+ /**private */static const int CC_0 = 0x30;
+ /**private */static const int CC_9 = 0x39;
+ /**private */static const int CC_COLON = 0x3A;
+ /**private */static const int CC_E = 0x45;
+ /**private */static const int CC_LBRACKET = 0x5B;
+ /**private */static const int CC_BACKSLASH = 0x5C;
+ /**private */static const int CC_RBRACKET = 0x5D;
+ /**private */static const int CC_e = 0x65;
+ /**private */static const int CC_LBRACE = 0x7B;
+ /**private */static const int CC_RBRACE = 0x7D;
+
+ /**private */final GeometryFactory geometryFactory;
+ /**private */late final CoordinateSequenceFactory csFactory;
+  // null if the ordinates do not need to be made precise
+ /**private */late final PrecisionModel? precisionModel;
+
+ /**private */List<int> data = const [];
+  // true if data holds UTF-8 bytes, false if it holds UTF-16 code units
+ /**private */bool isBytes = false;
+ /**private */int pos = 0;
+ /**private */int end = 0;
+
+  // ordinates of the positions being read, 3 per position
+ /**private */Float64List ords = Float64List(INITIAL_CAPACITY);
+ /**private */int numOrds = 0;
+ /**private */bool hasZ = false;
+
+  /// Creates a reader which creates geometries using the given factory.
+  ///
+  /// @param geometryFactory the factory to use (by default a <code>GeometryFactory()</code>)
+  GeoJsonReader([GeometryFactory? geometryFactory])
+    : this.geometryFactory = geometryFactory ?? new GeometryFactory() {
+    csFactory = this.geometryFactory.getCoordinateSequenceFactory();
+    PrecisionModel pm = this.geometryFactory.getPrecisionModel();
+    precisionModel = pm.isFloating() ? null : pm;
+  }
+
+  /// Reads a GeoJSON geometry, <code>Feature</code> or <code>FeatureCollection</code>.
+  ///
+  /// @param json the GeoJSON text
+  /// @return the geometry read (null for a <code>Feature</code> without a geometry)
+  /// @throws ParseException if the text is not valid GeoJSON
+  Geometry? read(String json) {
+    setSource(json.codeUnits, false);
+    return toGeometry(readDocument());
+  }
+
+  /// Reads GeoJSON from UTF-8 bytes.
+  ///
+  /// @param bytes the UTF-8 encoded GeoJSON
+  /// @return the geometry read
+  /// @throws ParseException if the bytes are not valid GeoJSON
+  Geometry? readBytes(List<int> bytes) {
+    setSource(bytes, true);
+    return toGeometry(readDocument());
+  }
+
+  /// Reads the features of a GeoJSON <code>FeatureCollection</code>.
+  /// A <code>Feature</code> is returned as a single feature,
+  /// and a geometry as a feature without properties.
+  ///
+  /// @param json the GeoJSON text
+  /// @return the features read
+  /// @throws ParseException if the text is not valid GeoJSON
+  List<GeoJsonFeature> readFeatures(String json) {
+    setSource(json.codeUnits, false);
+    Object doc = readDocument();
+    if (doc is List<GeoJsonFeature>) return doc;
+    return [toFeature(doc)];
+  }
+
+  /// Reads a single <code>Feature</code> or geometry from UTF-8 bytes.
+  /// A geometry is returned as a feature without properties.
+  ///
+  /// @param bytes the UTF-8 encoded GeoJSON object
+  /// @return the feature read
+  /// @throws ParseException if the bytes are not a GeoJSON feature or geometry
+  GeoJsonFeature readFeatureBytes(List<int> bytes) {
+    setSource(bytes, true);
+    Object doc = readDocument();
+    if (doc is List<GeoJsonFeature>) {
+      throw new ParseException("Expected a Feature or geometry but found a FeatureCollection");
+    }
+    return toFeature(doc);
+  }
+
+ /**private */void setSource(List<int> source, bool isBytes) {
+    data = source;
+    this.isBytes = isBytes;
+    pos = 0;
+    end = source.length;
+    numOrds = 0;
+  }
+
+ /**private */Object readDocument() {
+    Object obj = readObject();
+    skipWhitespace();
+    if (pos < end) throw unexpected("end of input");
+    return obj;
+  }
+
+ /**private */Geometry? toGeometry(Object obj) {
+    if (obj is Geometry) return obj;
+    if (obj is GeoJsonFeature) {
+      obj.geometry?.setUserData(obj.properties);
+      return obj.geometry;
+    }
+    List<GeoJsonFeature> features = obj as List<GeoJsonFeature>;
+    List<Geometry> geoms = [];
+    for (GeoJsonFeature f in features) {
+      Geometry? g = toGeometry(f);
+      if (g != null) geoms.add(g);
+    }
+    return geometryFactory.createGeometryCollection(geoms);
+  }
+
+ /**private */GeoJsonFeature toFeature(Object obj) {
+    if (obj is GeoJsonFeature) return obj;
+    return new GeoJsonFeature(obj as Geometry);
+  }
+
+  /// Reads a GeoJSON object.
+  /// The members may be in any order, so they are all read before
+  /// the object is built.
+  ///
+  /// @return a {@link Geometry}, a {@link GeoJsonFeature},
+  ///   or a <code>List&lt;GeoJsonFeature&gt;</code> for a <code>FeatureCollection</code>
+ /**private */Object readObject() {
+    expect(CC_LBRACE);
+    String? type;
+    Object? coordinates;
+    bool hasCoordinates = false;
+    List<Geometry>? geometries;
+    Object? geometry;
+    bool hasGeometry = false;
+    Map<String, Object?>? properties;
+    Object? id;
+    List<GeoJsonFeature>? features;
+    int srid = -1;
+
+    skipWhitespace();
+    if (peek() == CC_RBRACE) {
+      pos++;
+    }
+    else {
+      do {
+        String name = readString();
+        expect(CC_COLON);
+        switch (name) {
+          case GeoJsonConstants.NAME_TYPE:
+            type = readString();
+            break;
+          case GeoJsonConstants.NAME_COORDINATES:
+            int start = numOrds;
+            hasZ = false;
+            coordinates = readCoordinates();
+            // a single position is left in the buffer
+            coordinates ??= createSequence(start);
+            hasCoordinates = true;
+            break;
+          case GeoJsonConstants.NAME_GEOMETRIES:
+            geometries = readGeometries();
+            break;
+          case GeoJsonConstants.NAME_GEOMETRY:
+            geometry = readNullOr(readObject);
+            hasGeometry = true;
+            break;
+          case GeoJsonConstants.NAME_PROPERTIES:
+            Object? props = readNullOr(readValue);
+            if (props != null && props is! Map<String, Object?>) {
+              throw new ParseException("Feature properties is not an object");
+            }
+            properties = props as Map<String, Object?>?;
+            break;
+          case GeoJsonConstants.NAME_ID:
+            id = readValue();
+            break;
+          case GeoJsonConstants.NAME_FEATURES:
+            features = readFeatureList();
+            break;
+          case GeoJsonConstants.NAME_CRS:
+            srid = readCRS();
+            break;
+          default:
+            skipValue();
+        }
+      } while (readCommaOrClose(CC_RBRACE));
+    }
+
+    if (type == null) {
+      throw new ParseException("Missing GeoJSON type member");
+    }
+    Object result;
+    if (type == GeoJsonConstants.NAME_FEATURE) {
+      if (!hasGeometry) {
+        throw new ParseException("Missing geometry member in Feature");
+      }
+      if (geometry != null && geometry is! Geometry) {
+        throw new ParseException("Feature geometry is not a GeoJSON geometry");
+      }
+      result = new GeoJsonFeature(geometry as Geometry?, properties, id);
+    }
+    else if (type == GeoJsonConstants.NAME_FEATURECOLLECTION) {
+      if (features == null) {
+        throw new ParseException("Missing features member in FeatureCollection");
+      }
+      result = features;
+    }
+    else if (type == GeoJsonConstants.NAME_GEOMETRYCOLLECTION) {
+      if (geometries == null) {
+        throw new ParseException("Missing geometries member in GeometryCollection");
+      }
+      result = geometryFactory.createGeometryCollection(geometries);
+    }
+    else {
+      if (!hasCoordinates) {
+        throw new ParseException("Missing coordinates member in " + type);
+      }
+      result = createGeometry(type, coordinates);
+    }
+    if (srid >= 0 && result is Geometry) {
+      result.setSRID(srid);
+    }
+    return result;
+  }
+
+ /**private */Object? readNullOr(Object? Function() readFn) {
+    skipWhitespace();
+    if (peek() == 0x6E) {
+      expectWord("null");
+      return null;
+    }
+    return readFn();
+  }
+
+ /**private */List<Geometry> readGeometries() {
+    List<Geometry> geoms = [];
+    expect(CC_LBRACKET);
+    skipWhitespace();
+    if (peek() == CC_RBRACKET) {
+      pos++;
+      return geoms;
+    }
+    do {
+      Object obj = readObject();
+      if (obj is! Geometry) {
+        throw new ParseException("GeometryCollection member is not a geometry");
+      }
+      geoms.add(obj);
+    } while (readCommaOrClose(CC_RBRACKET));
+    return geoms;
+  }
+
+ /**private */List<GeoJsonFeature> readFeatureList() {
+    List<GeoJsonFeature> features = [];
+    expect(CC_LBRACKET);
+    skipWhitespace();
+    if (peek() == CC_RBRACKET) {
+      pos++;
+      return features;
+    }
+    do {
+      Object obj = readObject();
+      if (obj is! GeoJsonFeature) {
+        throw new ParseException("FeatureCollection member is not a Feature");
+      }
+      features.add(obj);
+    } while (readCommaOrClose(CC_RBRACKET));
+    return features;
+  }
+
+  /// Reads a named CRS, returning the EPSG code or -1.
+ /**private */int readCRS() {
+    Object? crs = readValue();
+    if (crs is Map) {
+      Object? props = crs[GeoJsonConstants.NAME_PROPERTIES];
+      if (props is Map) {
+        Object? name = props[GeoJsonConstants.NAME_NAME];
+        if (name is String) {
+          int i = name.lastIndexOf(GeoJsonConstants.EPSG_PREFIX);
+          if (i >= 0) {
+            return int.tryParse(name.substring(i + GeoJsonConstants.EPSG_PREFIX.length)) ?? -1;
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+ /**private */Geometry createGeometry(String type, Object? coords) {
+    switch (type) {
+      case GeoJsonConstants.NAME_POINT:
+        return geometryFactory.createPointFromCoordSeq(toSequence(coords));
+      case GeoJsonConstants.NAME_LINESTRING:
+        return geometryFactory.createLineStringFromSeq(toSequence(coords));
+      case GeoJsonConstants.NAME_MULTIPOINT:
+        return geometryFactory.createMultiPointFromCoordSeq(toSequence(coords));
+      case GeoJsonConstants.NAME_POLYGON:
+        return createPolygon(coords);
+      case GeoJsonConstants.NAME_MULTILINESTRING:
+        List<LineString> lines = [];
+        for (Object? line in toList(coords)) {
+          lines.add(geometryFactory.createLineStringFromSeq(toSequence(line)));
+        }
+        return geometryFactory.createMultiLineString(lines);
+      case GeoJsonConstants.NAME_MULTIPOLYGON:
+        List<Polygon> polys = [];
+        for (Object? poly in toList(coords)) {
+          polys.add(createPolygon(poly));
+        }
+        return geometryFactory.createMultiPolygon(polys);
+    }
+    throw new ParseException("Unknown GeoJSON type: " + type);
+  }
+
+ /**private */Polygon createPolygon(Object? coords) {
+    List<Object?> rings = toList(coords);
+    if (rings.isEmpty) return geometryFactory.createPolygon();
+    LinearRing shell = geometryFactory.createLinearRingFromCoordSeq(toSequence(rings[0]));
+    List<LinearRing> holes = [];
+    for (int i = 1; i < rings.length; i++) {
+      holes.add(geometryFactory.createLinearRingFromCoordSeq(toSequence(rings[i])));
+    }
+    return geometryFactory.createPolygon(shell, holes);
+  }
+
+ /**private */CoordinateSequence toSequence(Object? coords) {
+    if (coords is CoordinateSequence) return coords;
+    if (coords is List && coords.isEmpty) return createSequence(numOrds);
+    throw new ParseException("Expected an array of positions");
+  }
+
+ /**private */List<Object?> toList(Object? coords) {
+    if (coords is List) return coords;
+    if (coords is CoordinateSequence && coords.size() == 0) return const [];
+    throw new ParseException("Expected an array of coordinate arrays");
+  }
+
+  /// Reads a coordinates array of any depth.
+  /// Positions are appended to the ordinate buffer.
+  ///
+  /// @return null for a position, a {@link CoordinateSequence} for an array of positions,
+  ///   or a <code>List</code> of the values of a deeper array
+ /**private */Object? readCoordinates() {
+    expect(CC_LBRACKET);
+    skipWhitespace();
+    int c = peek();
+    if (c == CC_RBRACKET) {
+      pos++;
+      return const [];
+    }
+    if (c == CC_MINUS || (c >= CC_0 && c <= CC_9)) {
+      readPosition();
+      return null;
+    }
+    int start = numOrds;
+    hasZ = false;
+    Object? first = readCoordinates();
+    if (first == null) {
+      // an array of positions
+      while (readCommaOrClose(CC_RBRACKET)) {
+        if (readCoordinates() != null) {
+          throw new ParseException("Expected a position at position $pos");
+        }
+      }
+      return createSequence(start);
+    }
+    List<Object?> items = [first];
+    while (readCommaOrClose(CC_RBRACKET)) {
+      Object? item = readCoordinates();
+      if (item == null) {
+        throw new ParseException("Unexpected position at position $pos");
+      }
+      items.add(item);
+    }
+    return items;
+  }
+
+  /// Reads the ordinates of a position, after the opening bracket.
+ /**private */void readPosition() {
+    if (numOrds + 3 > ords.length) {
+      Float64List grown = Float64List(2 * ords.length);
+      grown.setRange(0, numOrds, ords);
+      ords = grown;
+    }
+    double x = readNumber();
+    expect(CC_COMMA);
+    double y = readNumber();
+    PrecisionModel? pm = precisionModel;
+    if (pm != null) {
+      x = pm.makePrecise(x);
+      y = pm.makePrecise(y);
+    }
+    double z = double.nan;
+    if (readCommaOrClose(CC_RBRACKET)) {
+      z = readNumber();
+      hasZ = true;
+      // ignore any further ordinates
+      while (readCommaOrClose(CC_RBRACKET)) {
+        readNumber();
+      }
+    }
+    ords[numOrds] = x;
+    ords[numOrds + 1] = y;
+    ords[numOrds + 2] = z;
+    numOrds += 3;
+  }
+
+  /// Creates a sequence from the positions in the buffer after <code>start</code>,
+  /// and removes them from the buffer.
+ /**private */CoordinateSequence createSequence(int start) {
+    int size = (numOrds - start) ~/ 3;
+    int dim = hasZ ? 3 : 2;
+    CoordinateSequence seq;
+    CoordinateSequenceFactory csf = csFactory;
+    if (csf is PackedCoordinateSequenceFactory) {
+      Float64List packed;
+      if (dim == 3) {
+        packed = ords.sublist(start, numOrds);
+      }
+      else {
+        packed = Float64List(2 * size);
+        for (int i = 0; i < size; i++) {
+          packed[2 * i] = ords[start + 3 * i];
+          packed[2 * i + 1] = ords[start + 3 * i + 1];
+        }
+      }
+      seq = csf.createFromDoubles(packed, dim, 0);
+    }
+    else {
+      seq = csf.createWithSize(size, dim, 0);
+      int targetDim = seq.getDimension() < dim ? seq.getDimension() : dim;
+      for (int i = 0; i < size; i++) {
+        for (int j = 0; j < targetDim; j++) {
+          seq.setOrdinate(i, j, ords[start + 3 * i + j]);
+        }
+      }
+    }
+    numOrds = start;
+    return seq;
+  }
+
+  /// Reads a JSON number as a <code>double</code>.
+  /// Numbers of up to 16 significant digits with small exponents
+  /// are converted directly from their digits.
+ /**private */double readNumber() {
+    skipWhitespace();
+    int start = pos;
+    bool isNegative = false;
+    if (pos < end && data[pos] == CC_MINUS) {
+      isNegative = true;
+      pos++;
+    }
+    int mantissa = 0;
+    int numDigits = 0;
+    int exponent = 0;
+    bool hasDigits = false;
+    int c = 0;
+    while (pos < end) {
+      c = data[pos] - CC_0;
+      if (c < 0 || c > 9) break;
+      hasDigits = true;
+      if (mantissa != 0 || c != 0) {
+        mantissa = 10 * mantissa + c;
+        numDigits++;
+      }
+      pos++;
+    }
+    if (pos < end && data[pos] == CC_DOT) {
+      pos++;
+      while (pos < end) {
+        c = data[pos] - CC_0;
+        if (c < 0 || c > 9) break;
+        if (mantissa != 0 || c != 0) {
+          mantissa = 10 * mantissa + c;
+          numDigits++;
+        }
+        exponent--;
+        pos++;
+      }
+    }
+    if (!hasDigits) {
+      pos = start;
+      throw unexpected("number");
+    }
+    if (pos < end && (data[pos] == CC_E || data[pos] == CC_e)) {
+      pos++;
+      bool isNegativeExp = false;
+      if (pos < end && (data[pos] == CC_MINUS || data[pos] == CC_PLUS)) {
+        isNegativeExp = data[pos] == CC_MINUS;
+        pos++;
+      }
+      int expValue = 0;
+      bool hasExpDigits = false;
+      while (pos < end) {
+        c = data[pos] - CC_0;
+        if (c < 0 || c > 9) break;
+        hasExpDigits = true;
+        if (expValue < 100000) expValue = 10 * expValue + c;
+        pos++;
+      }
+      if (!hasExpDigits) {
+        throw new ParseException("Invalid number at position $start");
+      }
+      exponent += isNegativeExp ? -expValue : expValue;
+    }
+
+    double value;
+    if (mantissa == 0) {
+      value = 0.0;
+    }
+    else if (numDigits <= MAX_FAST_DIGITS && mantissa < MAX_EXACT_MANTISSA
+        && exponent >= -22 && exponent <= 22) {
+      value = exponent >= 0
+          ? mantissa.toDouble() * POW10[exponent]
+          : mantissa.toDouble() / POW10[-exponent];
+    }
+    else {
+      return double.parse(decode(start, pos));
+    }
+    return isNegative ? -value : value;
+  }
+
+  /// Reads any JSON value into a Dart value, as <code>jsonDecode</code> would.
+ /**private */Object? readValue() {
+    skipWhitespace();
+    int c = peek();
+    if (c == CC_LBRACE) {
+      Map<String, Object?> map = {};
+      pos++;
+      skipWhitespace();
+      if (peek() == CC_RBRACE) {
+        pos++;
+        return map;
+      }
+      do {
+        String key = readString();
+        expect(CC_COLON);
+        map[key] = readValue();
+      } while (readCommaOrClose(CC_RBRACE));
+      return map;
+    }
+    if (c == CC_LBRACKET) {
+      List<Object?> list = [];
+      pos++;
+      skipWhitespace();
+      if (peek() == CC_RBRACKET) {
+        pos++;
+        return list;
+      }
+      do {
+        list.add(readValue());
+      } while (readCommaOrClose(CC_RBRACKET));
+      return list;
+    }
+    if (c == CC_QUOTE) return readString();
+    if (c == 0x74) {
+      expectWord("true");
+      return true;
+    }
+    if (c == 0x66) {
+      expectWord("false");
+      return false;
+    }
+    if (c == 0x6E) {
+      expectWord("null");
+      return null;
+    }
+    int start = pos;
+    skipNumber();
+    return num.parse(decode(start, pos));
+  }
+
+  /// Skips any JSON value without decoding it.
+ /**private */void skipValue() {
+    skipWhitespace();
+    int c = peek();
+    if (c == CC_LBRACE || c == CC_LBRACKET) {
+      int depth = 0;
+      while (pos < end) {
+        c = data[pos];
+        if (c == CC_QUOTE) {
+          skipString();
+          continue;
+        }
+        pos++;
+        if (c == CC_LBRACE || c == CC_LBRACKET) {
+          depth++;
+        }
+        else if (c == CC_RBRACE || c == CC_RBRACKET) {
+          if (--depth == 0) return;
+        }
+      }
+      throw unexpected("end of value");
+    }
+    if (c == CC_QUOTE) {
+      skipString();
+      return;
+    }
+    readValue();
+  }
+
+ /**private */void skipNumber() {
+    int start = pos;
+    while (pos < end) {
+      int c = data[pos];
+      if ((c >= CC_0 && c <= CC_9) || c == CC_MINUS || c == CC_PLUS || c == CC_DOT
+          || c == CC_E || c == CC_e) {
+        pos++;
+      }
+      else {
+        break;
+      }
+    }
+    if (pos == start) throw unexpected("value");
+  }
+
+ /**private */void skipString() {
+    pos++;
+    while (pos < end) {
+      int c = data[pos++];
+      if (c == CC_BACKSLASH) {
+        pos++;
+      }
+      else if (c == CC_QUOTE) {
+        return;
+      }
+    }
+    throw unexpected("\"");
+  }
+
+ /**private */String readString() {
+    skipWhitespace();
+    expect(CC_QUOTE);
+    int start = pos;
+    while (pos < end) {
+      int c = data[pos];
+      if (c == CC_QUOTE) {
+        String s = decode(start, pos);
+        pos++;
+        return s;
+      }
+      if (c == CC_BACKSLASH) {
+        return readEscapedString(start);
+      }
+      pos++;
+    }
+    throw unexpected("\"");
+  }
+
+ /**private */String readEscapedString(int start) {
+    StringBuffer buf = new StringBuffer();
+    int segStart = start;
+    while (pos < end) {
+      int c = data[pos];
+      if (c == CC_QUOTE) {
+        buf.write(decode(segStart, pos));
+        pos++;
+        return buf.toString();
+      }
+      if (c != CC_BACKSLASH) {
+        pos++;
+        continue;
+      }
+      buf.write(decode(segStart, pos));
+      if (pos + 1 >= end) break;
+      int e = data[pos + 1];
+      pos += 2;
+      switch (e) {
+        case 0x62: buf.writeCharCode(0x08); break;
+        case 0x66: buf.writeCharCode(0x0C); break;
+        case 0x6E: buf.writeCharCode(0x0A); break;
+        case 0x72: buf.writeCharCode(0x0D); break;
+        case 0x74: buf.writeCharCode(0x09); break;
+        case 0x75:
+          if (pos + 4 > end) throw unexpected("unicode escape");
+          int code = int.tryParse(String.fromCharCodes(data, pos, pos + 4), radix: 16) ?? -1;
+          if (code < 0) throw unexpected("unicode escape");
+          buf.writeCharCode(code);
+          pos += 4;
+          break;
+        default:
+          buf.writeCharCode(e);
+      }
+      segStart = pos;
+    }
+    throw unexpected("\"");
+  }
+
+ /**private */String decode(int start, int stop) {
+    if (isBytes) {
+      return utf8.decoder.convert(data, start, stop);
+    }
+    return String.fromCharCodes(data, start, stop);
+  }
+
+ /**private */bool readCommaOrClose(int closer) {
+    skipWhitespace();
+    if (pos < end) {
+      int c = data[pos];
+      if (c == CC_COMMA) {
+        pos++;
+        return true;
+      }
+      if (c == closer) {
+        pos++;
+        return false;
+      }
+    }
+    throw unexpected(closer == CC_RBRACE ? ", or }" : ", or ]");
+  }
+
+ /**private */void expect(int c) {
+    skipWhitespace();
+    if (pos < end && data[pos] == c) {
+      pos++;
+      return;
+    }
+    throw unexpected(String.fromCharCode(c));
+  }
+
+ /**private */void expectWord(String word) {
+    for (int i = 0; i < word.length; i++) {
+      if (pos + i >= end || data[pos + i] != word.codeUnitAt(i)) {
+        throw unexpected(word);
+      }
+    }
+    pos += word.length;
+  }
+
+ /**private */int peek() {
+    return pos < end ? data[pos] : -1;
+  }
+
+ /**private */void skipWhitespace() {
+    while (pos < end) {
+      int c = data[pos];
+      if (c != CC_SPACE && c != CC_LF && c != CC_CR && c != CC_TAB) return;
+      pos++;
+    }
+  }
+
+ /**private */ParseException unexpected(String expected) {
+    String found = pos >= end ? "End-of-Stream" : "'" + String.fromCharCode(data[pos]) + "'";
+    return new ParseException("Expected " + expected + " but found " + found
+        + " at position $pos");
+  }
+}
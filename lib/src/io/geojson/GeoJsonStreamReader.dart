@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:async';
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+
+import '../ParseException.dart';
+import 'GeoJsonFeature.dart';
+import 'GeoJsonReader.dart';
+
+/// Reads the features of GeoJSON documents
+/// from a stream of UTF-8 byte chunks, such as a file read or an HTTP response,
+/// yielding each feature as soon as all of its bytes have arrived.
+/// <p>
+/// The features of a <code>FeatureCollection</code> are read one at a time,
+/// so memory use is bounded by the largest feature
+/// rather than the size of the collection.
+/// A top-level <code>Feature</code> or geometry is read as a single feature.
+/// Several top-level objects may follow each other, separated by whitespace
+/// (as in newline-delimited GeoJSON) or record separators (as in GeoJSON text sequences).
+/// <p>
+/// Each feature is decoded by a {@link GeoJsonReader},
+/// which reads the coordinates straight into coordinate sequences.
+/// A {@link ParseException} is added to the output stream
+/// if a feature is malformed or the input ends part way through an object.
+/// <p>
+/// Usage:
+/// <pre>
+///   await for (GeoJsonFeature f in new GeoJsonStreamReader().read(file.openRead())) { ... }
+/// </pre>
+class GeoJsonStreamReader extends StreamTransformerBase<List<int>, GeoJsonFeature> {
+ /**private */final GeometryFactory? factory;
+
+  /// Creates a reader which creates geometries using the given factory.
+  ///
+  /// @param factory the factory to use (by default a <code>GeometryFactory()</code>)
+  GeoJsonStreamReader([this.factory]);
+
+  /// Reads the features in a stream of GeoJSON bytes.
+  ///
+  /// @param chunks the stream of byte chunks
+  /// @return the stream of features read
+  Stream<GeoJsonFeature> read(Stream<List<int>> chunks) {
+    return bind(chunks);
+  }
+
+  @override
+  Stream<GeoJsonFeature> bind(Stream<List<int>> stream) async* {
+    GeoJsonReader reader = new GeoJsonReader(factory);
+    GeoJsonFrameScanner scanner = new GeoJsonFrameScanner();
+    await for (List<int> chunk in stream) {
+      scanner.add(chunk);
+      while (scanner.scan()) {
+        yield reader.readFeatureBytes(scanner.takeFrame());
+      }
+    }
+    if (scanner.hasPartialFrame()) {
+      throw new ParseException("Unexpected end of GeoJSON stream");
+    }
+  }
+}
+
+/// Finds the extent of each feature in a sequence of GeoJSON byte chunks.
+/// <p>
+/// The scanner tracks only the nesting of objects and arrays and
+/// the extent of strings, keeping its state between chunks,
+/// so every byte is examined once.
+/// A frame is either an element of the <tt>features</tt> array
+/// of a top-level object, or a whole top-level object without one.
+class GeoJsonFrameScanner {
+ /**private */static const int INITIAL_CAPACITY = 64 * 1024;
+ /**private */static const List<int> FEATURES_KEY = [0x66, 0x65, 0x61, 0x74, 0x75, 0x72, 0x65, 0x73];
+
+ /**private */static const int CC_TAB = 0x09;
+ /**private */static const int CC_LF = 0x0A;
+ /**private */static const int CC_CR = 0x0D;
+ /**private */static const int CC_RS = 0x1E;
+ /**private */static const int CC_SPACE = 0x20;
+ /**private */static const int CC_QUOTE = 0x22;
+ /**private */static const int CC_LBRACKET = 0x5B;
+ /**private */static const int CC_BACKSLASH = 0x5C;
+ /**private */static const int CC_RBRACKET = 0x5D;
+ /**private */static const int CC_LBRACE = 0x7B;
+ /**private */static const int CC_RBRACE = 0x7D;
+
+ /**private */Uint8List buf = Uint8List(INITIAL_CAPACITY);
+  // start of the bytes which must be kept
+ /**private */int start = 0;
+  // end of the buffered bytes
+ /**private */int end = 0;
+  // scan position
+ /**private */int pos = 0;
+
+ /**private */int depth = 0;
+ /**private */bool inString = false;
+ /**private */bool isEscaped = false;
+  // start of the current string, and whether the last string at depth 1 was "features"
+ /**private */int stringStart = 0;
+ /**private */bool isFeaturesKey = false;
+  // true while inside the features array of a top-level object
+ /**private */bool inFeatures = false;
+  // true once the current top-level object is known to hold a features array
+ /**private */bool hasFeatures = false;
+ /**private */int frameStart = 0;
+ /**private */int frameEnd = 0;
+
+  /// Appends a chunk of bytes.
+  ///
+  /// @param chunk the bytes to append
+  void add(List<int> chunk) {
+    if (end + chunk.length > buf.length) {
+      int needed = end - start + chunk.length;
+      Uint8List target = buf;
+      if (needed > buf.length) {
+        target = Uint8List(math.max(2 * buf.length, needed));
+      }
+      // move the kept bytes to the start of the buffer
+      target.setRange(0, end - start, buf, start);
+      pos -= start;
+      end -= start;
+      frameStart -= start;
+      stringStart -= start;
+      start = 0;
+      buf = target;
+    }
+    buf.setRange(end, end + chunk.length, chunk);
+    end += chunk.length;
+  }
+
+  /// Tests whether any bytes of an incomplete object are buffered.
+  bool hasPartialFrame() {
+    return depth > 0 || inString;
+  }
+
+  /// Removes the bytes of the object found by the last successful {@link #scan}.
+  /// The returned view is only valid until the next call to {@link #add}.
+  ///
+  /// @return the bytes of the object
+  Uint8List takeFrame() {
+    Uint8List frame = Uint8List.sublistView(buf, frameStart, frameEnd);
+    start = frameEnd;
+    return frame;
+  }
+
+  /// Scans the buffered bytes for the end of the next feature.
+  ///
+  /// @return true if a complete feature is buffered
+  bool scan() {
+    while (pos < end) {
+      int c = buf[pos++];
+      if (inString) {
+        if (isEscaped) {
+          isEscaped = false;
+        }
+        else if (c == CC_BACKSLASH) {
+          isEscaped = true;
+        }
+        else if (c == CC_QUOTE) {
+          inString = false;
+          if (depth == 1 && !hasFeatures) {
+            isFeaturesKey = isFeatures(stringStart, pos - 1);
+          }
+        }
+        continue;
+      }
+      switch (c) {
+        case CC_QUOTE:
+          inString = true;
+          stringStart = pos;
+          break;
+
+        case CC_LBRACE:
+        case CC_LBRACKET:
+          if (depth == 0) {
+            if (c != CC_LBRACE) throw unexpected(c);
+            frameStart = pos - 1;
+            hasFeatures = false;
+            isFeaturesKey = false;
+          }
+          else if (depth == 1 && c == CC_LBRACKET && isFeaturesKey && !hasFeatures) {
+            // a features array: the rest of the top-level object need not be kept
+            inFeatures = true;
+            hasFeatures = true;
+            start = pos;
+          }
+          else if (depth == 2 && inFeatures) {
+            frameStart = pos - 1;
+          }
+          depth++;
+          break;
+
+        case CC_RBRACE:
+        case CC_RBRACKET:
+          if (depth == 0) throw unexpected(c);
+          depth--;
+          if (depth == 2 && inFeatures) {
+            frameEnd = pos;
+            return true;
+          }
+          if (depth == 1 && inFeatures) {
+            inFeatures = false;
+          }
+          else if (depth == 0) {
+            if (!hasFeatures) {
+              frameEnd = pos;
+              return true;
+            }
+            start = pos;
+          }
+          break;
+
+        default:
+          if (depth == 0 && c != CC_SPACE && c != CC_LF && c != CC_CR && c != CC_TAB && c != CC_RS) {
+            throw unexpected(c);
+          }
+          if (depth == 0 || (depth == 2 && inFeatures)) {
+            // separators between objects need not be kept
+            start = pos;
+          }
+      }
+    }
+    return false;
+  }
+
+ /**private */bool isFeatures(int from, int to) {
+    if (to - from != FEATURES_KEY.length) return false;
+    for (int i = 0; i < FEATURES_KEY.length; i++) {
+      if (buf[from + i] != FEATURES_KEY[i]) return false;
+    }
+    return true;
+  }
+
+ /**private */ParseException unexpected(int c) {
+    return new ParseException("Unexpected '" + String.fromCharCode(c) + "' in GeoJSON stream");
+  }
+}
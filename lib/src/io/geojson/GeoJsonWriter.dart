@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:convert';
+
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryCollection.dart';
+import 'package:jtscore4dart/src/geom/LineString.dart';
+import 'package:jtscore4dart/src/geom/MultiLineString.dart';
+import 'package:jtscore4dart/src/geom/MultiPoint.dart';
+import 'package:jtscore4dart/src/geom/MultiPolygon.dart';
+import 'package:jtscore4dart/src/geom/Point.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+
+import '../OrdinateFormat.dart';
+import 'GeoJsonConstants.dart';
+import 'GeoJsonFeature.dart';
+
+/// Writes geometries and features as GeoJSON.
+/// <p>
+/// Ordinates are written by an {@link OrdinateFormat}
+/// straight into the output buffer.
+/// Z ordinates are written when present (not <tt>NaN</tt>).
+/// LinearRings are written as LineStrings.
+/// <p>
+/// {@link #writeFeatureCollection} writes a <code>FeatureCollection</code>
+/// from a stream of features as a stream of text chunks,
+/// so a large collection never has to be held in memory as text.
+class GeoJsonWriter {
+  /// The default maximum number of decimal places written
+  static const int DEFAULT_DECIMALS = 8;
+
+  /// The approximate size of the chunks written by {@link #writeFeatureCollection}
+  static const int CHUNK_SIZE = 64 * 1024;
+
+ /**private */final OrdinateFormat format;
+ /**private */bool isEncodeCRS = false;
+
+  /// Creates a writer which writes ordinates with at most
+  /// the given number of decimal places.
+  ///
+  /// @param decimals the maximum number of decimal places to write
+  GeoJsonWriter([int decimals = DEFAULT_DECIMALS])
+    : format = OrdinateFormat.create(decimals);
+
+  /// Sets whether a <tt>crs</tt> member naming the SRID of the geometry
+  /// (as <tt>EPSG:&lt;srid&gt;</tt>) is written.
+  /// The default is false, since RFC 7946 removed the <tt>crs</tt> member.
+  ///
+  /// @param isEncodeCRS true if the CRS is to be written
+  void setEncodeCRS(bool isEncodeCRS) {
+    this.isEncodeCRS = isEncodeCRS;
+  }
+
+  /// Writes a geometry as GeoJSON.
+  ///
+  /// @param geometry the geometry to write
+  /// @return the GeoJSON text
+  String write(Geometry geometry) {
+    StringBuffer buf = new StringBuffer();
+    writeGeometry(geometry, buf);
+    return buf.toString();
+  }
+
+  /// Writes a feature as a GeoJSON <code>Feature</code>.
+  ///
+  /// @param feature the feature to write
+  /// @return the GeoJSON text
+  String writeFeature(GeoJsonFeature feature) {
+    StringBuffer buf = new StringBuffer();
+    appendFeature(feature, buf);
+    return buf.toString();
+  }
+
+  /// Writes a stream of features as a GeoJSON <code>FeatureCollection</code>.
+  /// The text is emitted in chunks of about {@link #CHUNK_SIZE} characters.
+  ///
+  /// @param features the features to write
+  /// @return the stream of text chunks
+  Stream<String> writeFeatureCollection(Stream<GeoJsonFeature> features) async* {
+    StringBuffer buf = new StringBuffer();
+    buf.write('{"type":"');
+    buf.write(GeoJsonConstants.NAME_FEATURECOLLECTION);
+    buf.write('","features":[');
+    bool isFirst = true;
+    await for (GeoJsonFeature feature in features) {
+      if (!isFirst) buf.write(",");
+      isFirst = false;
+      appendFeature(feature, buf);
+      if (buf.length >= CHUNK_SIZE) {
+        yield buf.toString();
+        buf.clear();
+      }
+    }
+    buf.write("]}");
+    yield buf.toString();
+  }
+
+  /// Appends a feature as a GeoJSON <code>Feature</code>.
+  ///
+  /// @param feature the feature to write
+  /// @param buf the buffer to append to
+  void appendFeature(GeoJsonFeature feature, StringBuffer buf) {
+    buf.write('{"type":"');
+    buf.write(GeoJsonConstants.NAME_FEATURE);
+    buf.write('"');
+    if (feature.id != null) {
+      buf.write(',"id":');
+      buf.write(jsonEncode(feature.id));
+    }
+    buf.write(',"geometry":');
+    Geometry? geometry = feature.geometry;
+    if (geometry == null) {
+      buf.write("null");
+    }
+    else {
+      writeGeometry(geometry, buf);
+    }
+    buf.write(',"properties":');
+    buf.write(jsonEncode(feature.properties));
+    buf.write("}");
+  }
+
+  /// Appends a geometry as GeoJSON.
+  ///
+  /// @param geometry the geometry to write
+  /// @param buf the buffer to append to
+  void writeGeometry(Geometry geometry, StringBuffer buf) {
+    buf.write('{"type":"');
+    buf.write(typeName(geometry));
+    if (geometry is GeometryCollection && geometry is! MultiPoint
+        && geometry is! MultiLineString && geometry is! MultiPolygon) {
+      buf.write('","geometries":[');
+      for (int i = 0; i < geometry.getNumGeometries(); i++) {
+        if (i > 0) buf.write(",");
+        writeGeometry(geometry.getGeometryN(i), buf);
+      }
+      buf.write("]");
+    }
+    else {
+      buf.write('","coordinates":');
+      writeCoordinates(geometry, buf);
+    }
+    if (isEncodeCRS) {
+      buf.write(',"crs":{"type":"name","properties":{"name":"');
+      buf.write(GeoJsonConstants.EPSG_PREFIX);
+      buf.write(geometry.getSRID());
+      buf.write('"}}');
+    }
+    buf.write("}");
+  }
+
+ /**private */static String typeName(Geometry geometry) {
+    if (geometry is Point) return GeoJsonConstants.NAME_POINT;
+    if (geometry is LineString) return GeoJsonConstants.NAME_LINESTRING;
+    if (geometry is Polygon) return GeoJsonConstants.NAME_POLYGON;
+    if (geometry is MultiPoint) return GeoJsonConstants.NAME_MULTIPOINT;
+    if (geometry is MultiLineString) return GeoJsonConstants.NAME_MULTILINESTRING;
+    if (geometry is MultiPolygon) return GeoJsonConstants.NAME_MULTIPOLYGON;
+    return GeoJsonConstants.NAME_GEOMETRYCOLLECTION;
+  }
+
+ /**private */void writeCoordinates(Geometry geometry, StringBuffer buf) {
+    if (geometry is Point) {
+      if (geometry.isEmpty()) {
+        buf.write("[]");
+      }
+      else {
+        writePosition(geometry.getCoordinateSequence(), 0, buf);
+      }
+    }
+    else if (geometry is LineString) {
+      writeSequence(geometry.getCoordinateSequence(), buf);
+    }
+    else if (geometry is Polygon) {
+      writePolygon(geometry, buf);
+    }
+    else if (geometry is MultiPoint) {
+      buf.write("[");
+      bool isFirst = true;
+      for (int i = 0; i < geometry.getNumGeometries(); i++) {
+        Point pt = geometry.getGeometryN(i) as Point;
+        // a position cannot be empty, so empty points are left out
+        if (pt.isEmpty()) continue;
+        if (!isFirst) buf.write(",");
+        isFirst = false;
+        writePosition(pt.getCoordinateSequence(), 0, buf);
+      }
+      buf.write("]");
+    }
+    else {
+      // MultiLineString or MultiPolygon
+      buf.write("[");
+      for (int i = 0; i < geometry.getNumGeometries(); i++) {
+        if (i > 0) buf.write(",");
+        writeCoordinates(geometry.getGeometryN(i), buf);
+      }
+      buf.write("]");
+    }
+  }
+
+ /**private */void writePolygon(Polygon poly, StringBuffer buf) {
+    buf.write("[");
+    if (!poly.isEmpty()) {
+      writeSequence(poly.getExteriorRing().getCoordinateSequence(), buf);
+      for (int i = 0; i < poly.getNumInteriorRing(); i++) {
+        buf.write(",");
+        writeSequence(poly.getInteriorRingN(i).getCoordinateSequence(), buf);
+      }
+    }
+    buf.write("]");
+  }
+
+ /**private */void writeSequence(CoordinateSequence seq, StringBuffer buf) {
+    buf.write("[");
+    for (int i = 0; i < seq.size(); i++) {
+      if (i > 0) buf.write(",");
+      writePosition(seq, i, buf);
+    }
+    buf.write("]");
+  }
+
+ /**private */void writePosition(CoordinateSequence seq, int i, StringBuffer buf) {
+    buf.write("[");
+    writeOrdinate(seq.getX(i), buf);
+    buf.write(",");
+    writeOrdinate(seq.getY(i), buf);
+    if (seq.hasZ()) {
+      double z = seq.getZ(i);
+      if (!z.isNaN) {
+        buf.write(",");
+        writeOrdinate(z, buf);
+      }
+    }
+    buf.write("]");
+  }
+
+  /// Writes an ordinate value.
+  /// JSON has no representation for NaN or infinite numbers,
+  /// so these are rejected.
+ /**private */void writeOrdinate(double ord, StringBuffer buf) {
+    if (!ord.isFinite) {
+      throw new ArgumentError("Cannot write a non-finite ordinate as GeoJSON: " + ord.toString());
+    }
+    format.write(ord, buf);
+  }
+}
@@ -27,6 +27,8 @@
 // import org.locationtech.jts.geom.Polygon;
 // import org.locationtech.jts.util.Assert;
 
+import '../OrdinateFormat.dart';
+
 
 /**
  * Writes {@link Geometry}s as XML fragments in GML2 format.
@@ -391,15 +393,15 @@ class GMLWriter {
 				isNewLine = false;
 			}
 			if (dim == 2) {
-				writer.write("" + coords[i].x);
+				writer.write(OrdinateFormat.DEFAULT.format(coords[i].x));
 				writer.write(coordinateSeparator);
-				writer.write("" + coords[i].y);
+				writer.write(OrdinateFormat.DEFAULT.format(coords[i].y));
 			} else if (dim == 3) {
-				writer.write("" + coords[i].x);
+				writer.write(OrdinateFormat.DEFAULT.format(coords[i].x));
 				writer.write(coordinateSeparator);
-				writer.write("" + coords[i].y);
+				writer.write(OrdinateFormat.DEFAULT.format(coords[i].y));
 				writer.write(coordinateSeparator);
-				writer.write("" + coords[i].getZ());
+				writer.write(OrdinateFormat.DEFAULT.format(coords[i].getZ()));
 			}
 			writer.write(tupleSeparator);
 
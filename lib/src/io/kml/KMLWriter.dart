@@ -26,6 +26,8 @@
 // import org.locationtech.jts.geom.Polygon;
 // import org.locationtech.jts.util.StringUtil;
 
+import '../OrdinateFormat.dart';
+
 
 /**
  * Writes a formatted string containing the KML representation of a JTS
@@ -103,7 +105,7 @@ class KMLWriter
  /**private */bool extrude = false;
  /**private */bool tesselate;
  /**private */String altitudeMode = null;
- /**private */DecimalFormat numberFormatter = null;
+ /**private */OrdinateFormat numberFormatter = OrdinateFormat.DEFAULT;
 
   /**
    * Creates a new writer.
@@ -370,30 +372,20 @@ class KMLWriter
   }
 
  /**private */void write(double num, StringBuffer buf) {
-    if (numberFormatter != null)
-      buf.append(numberFormatter.format(num));
-    else
-      buf.append(num);
+    numberFormatter.write(num, buf);
   }
 
   /**
-   * Creates the <code>DecimalFormat</code> used to write <code>double</code>s
+   * Creates the <code>OrdinateFormat</code> used to write <code>double</code>s
    * with a sufficient number of decimal places.
    * 
-   * @param precisionModel
-   *          the <code>PrecisionModel</code> used to determine the number of
-   *          decimal places to write.
-   * @return a <code>DecimalFormat</code> that write <code>double</code> s
+   * @param precision
+   *          the number of decimal places to write.
+   * @return an <code>OrdinateFormat</code> that write <code>double</code> s
    *         without scientific notation.
    */
- /**private */static DecimalFormat createFormatter(int precision) {
-    // specify decimal separator explicitly to avoid problems in other locales
-    DecimalFormatSymbols symbols = new DecimalFormatSymbols();
-    symbols.setDecimalSeparator('.');
-    DecimalFormat format = new DecimalFormat("0."
-        + StringUtil.chars('#', precision), symbols);
-    format.setDecimalSeparatorAlwaysShown(false);
-    return format;
+ /**private */static OrdinateFormat createFormatter(int precision) {
+    return OrdinateFormat.create(precision);
   }
 
 }
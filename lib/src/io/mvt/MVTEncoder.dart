@@ -0,0 +1,662 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryCollection.dart';
+import 'package:jtscore4dart/src/geom/LineString.dart';
+import 'package:jtscore4dart/src/geom/LinearRing.dart';
+import 'package:jtscore4dart/src/geom/MultiLineString.dart';
+import 'package:jtscore4dart/src/geom/MultiPoint.dart';
+import 'package:jtscore4dart/src/geom/MultiPolygon.dart';
+import 'package:jtscore4dart/src/geom/Point.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+import 'package:jtscore4dart/src/operation/overlayng/LineLimiter.dart';
+import 'package:jtscore4dart/src/operation/overlayng/RingClipper.dart';
+
+import 'MVTLayer.dart';
+import 'ProtobufWriter.dart';
+
+/// Encodes layers of features as Mapbox Vector Tiles (version 2).
+/// <p>
+/// Each geometry passes through a single pipeline,
+/// with no intermediate geometries:
+/// <ol>
+/// <li>Components whose envelope is disjoint from the buffered tile envelope are skipped,
+/// and components whose envelope is covered by it are not clipped
+/// (as in {@link RectangleIntersects}).
+/// <li>Rings which cross the buffered tile boundary are clipped by a {@link RingClipper}.
+/// Lines are limited to the sections near the tile by a {@link LineLimiter},
+/// and each segment of a section is then clipped to the tile.
+/// <li>Vertices are transformed and rounded to integer tile coordinates
+/// into a reused buffer, dropping repeated points.
+/// <li>Lines and rings are simplified with the Douglas-Peucker algorithm,
+/// using a tolerance in tile units.
+/// Rings which collapse are dropped, and the others are oriented
+/// as the specification requires.
+/// <li>The vertices are written as delta- and zigzag-encoded command integers.
+/// </ol>
+/// <p>
+/// Tiles are encoded independently of each other,
+/// so tiles can be encoded concurrently by encoders on different isolates
+/// (see {@link ParallelMVTEncoder}).
+/// An encoder holds working buffers, so it must not be shared between isolates.
+/// <p>
+/// A <code>GeometryCollection</code> is encoded as up to three features
+/// (of points, lines and polygons) with the same attributes.
+class MVTEncoder {
+  /// The default tile extent, in tile units
+  static const int DEFAULT_EXTENT = 4096;
+
+  /// The default buffer around the tile, in tile units
+  static const int DEFAULT_BUFFER = 64;
+
+  /// The default simplification tolerance, in tile units
+  static const double DEFAULT_SIMPLIFY_TOLERANCE = 1.0;
+
+  /// The geometry type of point features
+  static const int GEOM_POINT = 1;
+
+  /// The geometry type of line features
+  static const int GEOM_LINESTRING = 2;
+
+  /// The geometry type of polygon features
+  static const int GEOM_POLYGON = 3;
+
+ /**private */static const int CMD_MOVE_TO = 1;
+ /**private */static const int CMD_LINE_TO = 2;
+ /**private */static const int CMD_CLOSE_PATH = 7;
+
+  // field numbers of the vector tile messages
+ /**private */static const int TILE_LAYERS = 3;
+ /**private */static const int LAYER_NAME = 1;
+ /**private */static const int LAYER_FEATURES = 2;
+ /**private */static const int LAYER_KEYS = 3;
+ /**private */static const int LAYER_VALUES = 4;
+ /**private */static const int LAYER_EXTENT = 5;
+ /**private */static const int LAYER_VERSION = 15;
+ /**private */static const int FEATURE_ID = 1;
+ /**private */static const int FEATURE_TAGS = 2;
+ /**private */static const int FEATURE_TYPE = 3;
+ /**private */static const int FEATURE_GEOMETRY = 4;
+ /**private */static const int VALUE_STRING = 1;
+ /**private */static const int VALUE_DOUBLE = 3;
+ /**private */static const int VALUE_UINT = 5;
+ /**private */static const int VALUE_SINT = 6;
+ /**private */static const int VALUE_BOOL = 7;
+
+ /**private */static const int VERSION = 2;
+
+  /// The tile extent, in tile units
+  final int extent;
+
+  /// The buffer around the tile, in tile units
+  final int buffer;
+
+  /// The simplification tolerance, in tile units (0 for no simplification)
+  final double simplifyTolerance;
+
+  // the current tile
+ /**private */double tileMinX = 0;
+ /**private */double tileMaxY = 0;
+ /**private */double scaleX = 1;
+ /**private */double scaleY = 1;
+ /**private */Envelope clipEnv = new Envelope.init();
+ /**private */LineLimiter? lineLimiter;
+ /**private */RingClipper? ringClipper;
+
+  // the tile coordinates of the current line or ring, as x,y pairs
+ /**private */Int32List pts = Int32List(256);
+ /**private */int numPts = 0;
+ /**private */Uint8List keep = Uint8List(128);
+ /**private */Int32List stack = Int32List(256);
+  // the result of clipSegment
+ /**private */double t0 = 0;
+ /**private */double t1 = 1;
+
+  // the command integers of the current feature
+ /**private */Uint32List cmds = Uint32List(256);
+ /**private */int numCmds = 0;
+ /**private */int cursorX = 0;
+ /**private */int cursorY = 0;
+
+  // the attributes of the current layer
+ /**private */final List<int> tags = [];
+ /**private */final Map<String, int> keyIndex = {};
+ /**private */final List<String> keys = [];
+ /**private */final Map<String, int> stringValues = {};
+ /**private */final Map<int, int> intValues = {};
+ /**private */final Map<double, int> doubleValues = {};
+ /**private */final Map<bool, int> boolValues = {};
+ /**private */final List<Object> values = [];
+
+ /**private */final ProtobufWriter layerWriter = new ProtobufWriter(64 * 1024);
+ /**private */final ProtobufWriter featureWriter = new ProtobufWriter();
+ /**private */final ProtobufWriter valueWriter = new ProtobufWriter(64);
+
+  /// Encodes a single tile with a default encoder.
+  ///
+  /// @param tileEnv the envelope of the tile
+  /// @param layers the layers to encode
+  /// @return the encoded tile
+  static Uint8List encode(Envelope tileEnv, List<MVTLayer> layers) {
+    return new MVTEncoder().encodeTile(tileEnv, layers);
+  }
+
+  /// Creates an encoder.
+  ///
+  /// @param extent the tile extent, in tile units
+  /// @param buffer the buffer around the tile to keep, in tile units
+  /// @param simplifyTolerance the simplification tolerance, in tile units
+  MVTEncoder([this.extent = DEFAULT_EXTENT, this.buffer = DEFAULT_BUFFER,
+      this.simplifyTolerance = DEFAULT_SIMPLIFY_TOLERANCE]);
+
+  /// Encodes the features of some layers which lie in a tile.
+  /// Layers with no features in the tile are omitted.
+  ///
+  /// @param tileEnv the envelope of the tile, in the coordinates of the features
+  /// @param layers the layers to encode
+  /// @return the encoded tile
+  Uint8List encodeTile(Envelope tileEnv, List<MVTLayer> layers) {
+    setTile(tileEnv);
+    ProtobufWriter tile = new ProtobufWriter(64 * 1024);
+    for (MVTLayer layer in layers) {
+      if (encodeLayer(layer)) {
+        tile.writeMessageField(TILE_LAYERS, layerWriter);
+      }
+    }
+    return Uint8List.fromList(tile.toBytes());
+  }
+
+  /// Encodes a list of tiles.
+  ///
+  /// @param tiles the envelopes of the tiles
+  /// @param layers the layers to encode
+  /// @return the encoded tiles, in the order of the envelopes
+  List<Uint8List> encodeAll(List<Envelope> tiles, List<MVTLayer> layers) {
+    List<Uint8List> result = [];
+    for (Envelope tile in tiles) {
+      result.add(encodeTile(tile, layers));
+    }
+    return result;
+  }
+
+ /**private */void setTile(Envelope tileEnv) {
+    tileMinX = tileEnv.getMinX();
+    tileMaxY = tileEnv.getMaxY();
+    scaleX = extent / tileEnv.getWidth();
+    scaleY = extent / tileEnv.getHeight();
+    clipEnv = new Envelope.fromAnother(tileEnv);
+    clipEnv.expandByDelXY(buffer / scaleX, buffer / scaleY);
+    lineLimiter = new LineLimiter(clipEnv);
+    ringClipper = new RingClipper(clipEnv);
+  }
+
+ /**private */bool encodeLayer(MVTLayer layer) {
+    layerWriter.clear();
+    tags.clear();
+    keyIndex.clear();
+    keys.clear();
+    stringValues.clear();
+    intValues.clear();
+    doubleValues.clear();
+    boolValues.clear();
+    values.clear();
+
+    layerWriter.writeStringField(LAYER_NAME, layer.name);
+    int numFeatures = 0;
+    for (MVTFeature feature in layer.features) {
+      Geometry geom = feature.geometry;
+      Envelope env = geom.getEnvelopeInternal();
+      if (env.isNull() || !clipEnv.intersects(env)) continue;
+
+      int geomType = typeOf(geom);
+      bool isTagged = false;
+      for (int type = GEOM_POINT; type <= GEOM_POLYGON; type++) {
+        if (geomType != 0 && type != geomType) continue;
+        numCmds = 0;
+        cursorX = 0;
+        cursorY = 0;
+        encodeGeometry(geom, type);
+        if (numCmds == 0) continue;
+
+        if (!isTagged) {
+          addTags(feature);
+          isTagged = true;
+        }
+        featureWriter.clear();
+        if (feature.id != null) {
+          featureWriter.writeVarintField(FEATURE_ID, feature.id!);
+        }
+        if (tags.isNotEmpty) {
+          featureWriter.writePackedField(FEATURE_TAGS, tags, tags.length);
+        }
+        featureWriter.writeVarintField(FEATURE_TYPE, type);
+        featureWriter.writePackedField(FEATURE_GEOMETRY, cmds, numCmds);
+        layerWriter.writeMessageField(LAYER_FEATURES, featureWriter);
+        numFeatures++;
+      }
+    }
+    if (numFeatures == 0) return false;
+
+    for (String key in keys) {
+      layerWriter.writeStringField(LAYER_KEYS, key);
+    }
+    for (Object value in values) {
+      valueWriter.clear();
+      writeValue(value);
+      layerWriter.writeMessageField(LAYER_VALUES, valueWriter);
+    }
+    layerWriter.writeVarintField(LAYER_EXTENT, extent);
+    layerWriter.writeVarintField(LAYER_VERSION, VERSION);
+    return true;
+  }
+
+  /// Gets the feature type of a geometry,
+  /// or 0 for a collection which may have components of several types.
+ /**private */static int typeOf(Geometry geom) {
+    if (geom is Point || geom is MultiPoint) return GEOM_POINT;
+    if (geom is LineString || geom is MultiLineString) return GEOM_LINESTRING;
+    if (geom is Polygon || geom is MultiPolygon) return GEOM_POLYGON;
+    return 0;
+  }
+
+  //=========  attributes  ==========
+
+ /**private */void addTags(MVTFeature feature) {
+    tags.clear();
+    feature.properties.forEach((String key, Object? value) {
+      if (value == null) return;
+      tags.add(indexOf(keyIndex, key, keys));
+      if (value is String) {
+        tags.add(indexOf(stringValues, value, values));
+      }
+      else if (value is bool) {
+        tags.add(indexOf(boolValues, value, values));
+      }
+      else if (value is int) {
+        tags.add(indexOf(intValues, value, values));
+      }
+      else if (value is double) {
+        tags.add(indexOf(doubleValues, value, values));
+      }
+      else {
+        tags.add(indexOf(stringValues, value.toString(), values));
+      }
+    });
+  }
+
+ /**private */static int indexOf<T extends Object>(Map<T, int> index, T value, List<Object> list) {
+    int? i = index[value];
+    if (i == null) {
+      i = list.length;
+      index[value] = i;
+      list.add(value);
+    }
+    return i;
+  }
+
+ /**private */void writeValue(Object value) {
+    if (value is String) {
+      valueWriter.writeStringField(VALUE_STRING, value);
+    }
+    else if (value is bool) {
+      valueWriter.writeVarintField(VALUE_BOOL, value ? 1 : 0);
+    }
+    else if (value is int) {
+      if (value >= 0) {
+        valueWriter.writeVarintField(VALUE_UINT, value);
+      }
+      else {
+        valueWriter.writeVarintField(VALUE_SINT, ProtobufWriter.zigzag(value));
+      }
+    }
+    else {
+      valueWriter.writeDoubleField(VALUE_DOUBLE, value as double);
+    }
+  }
+
+  //=========  geometry  ==========
+
+ /**private */void encodeGeometry(Geometry geom, int type) {
+    if (type == GEOM_POINT) {
+      // all the points of a feature must be in one MoveTo command
+      numPts = 0;
+      collectPoints(geom);
+      if (numPts > 0) {
+        addCommand(CMD_MOVE_TO, numPts);
+        for (int i = 0; i < numPts; i++) {
+          addVertex(i);
+        }
+      }
+      return;
+    }
+    encodeComponents(geom, type);
+  }
+
+ /**private */void collectPoints(Geometry geom) {
+    if (geom is Point) {
+      if (geom.isEmpty()) return;
+      CoordinateSequence seq = geom.getCoordinateSequence();
+      double x = seq.getX(0);
+      double y = seq.getY(0);
+      if (clipEnv.coversXY(x, y)) {
+        addPoint(x, y, false);
+      }
+    }
+    else if (geom is GeometryCollection) {
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        collectPoints(geom.getGeometryN(i));
+      }
+    }
+  }
+
+ /**private */void encodeComponents(Geometry geom, int type) {
+    if (geom is LineString) {
+      if (type == GEOM_LINESTRING) encodeLine(geom);
+    }
+    else if (geom is Polygon) {
+      if (type == GEOM_POLYGON) encodePolygon(geom);
+    }
+    else if (geom is GeometryCollection) {
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        encodeComponents(geom.getGeometryN(i), type);
+      }
+    }
+  }
+
+ /**private */void encodeLine(LineString line) {
+    Envelope env = line.getEnvelopeInternal();
+    if (env.isNull() || !clipEnv.intersects(env)) return;
+    CoordinateSequence seq = line.getCoordinateSequence();
+    if (clipEnv.covers(env)) {
+      numPts = 0;
+      for (int i = 0; i < seq.size(); i++) {
+        addPoint(seq.getX(i), seq.getY(i), true);
+      }
+      emitLine();
+      return;
+    }
+    for (List<Coordinate> section in lineLimiter!.limit(seq.toCoordinateArray())) {
+      clipSection(section);
+    }
+  }
+
+  /// Clips the segments of a line section to the clip envelope,
+  /// emitting each part of the line inside it.
+ /**private */void clipSection(List<Coordinate> section) {
+    numPts = 0;
+    for (int i = 0; i < section.length - 1; i++) {
+      Coordinate a = section[i];
+      Coordinate b = section[i + 1];
+      if (!clipSegment(a.x, a.y, b.x, b.y)) {
+        emitLine();
+        continue;
+      }
+      double dx = b.x - a.x;
+      double dy = b.y - a.y;
+      if (numPts == 0) {
+        addPoint(t0 == 0 ? a.x : a.x + t0 * dx, t0 == 0 ? a.y : a.y + t0 * dy, true);
+      }
+      addPoint(t1 == 1 ? b.x : a.x + t1 * dx, t1 == 1 ? b.y : a.y + t1 * dy, true);
+      if (t1 < 1) {
+        // the line leaves the clip envelope
+        emitLine();
+      }
+    }
+    emitLine();
+  }
+
+  /// Computes the parameters <tt>t0</tt> and <tt>t1</tt> of the part of a segment
+  /// inside the clip envelope, using the Liang-Barsky algorithm.
+  ///
+  /// @return false if the segment does not intersect the clip envelope
+ /**private */bool clipSegment(double x0, double y0, double x1, double y1) {
+    t0 = 0;
+    t1 = 1;
+    double dx = x1 - x0;
+    double dy = y1 - y0;
+    return clipTest(-dx, x0 - clipEnv.getMinX())
+        && clipTest(dx, clipEnv.getMaxX() - x0)
+        && clipTest(-dy, y0 - clipEnv.getMinY())
+        && clipTest(dy, clipEnv.getMaxY() - y0);
+  }
+
+ /**private */bool clipTest(double p, double q) {
+    if (p == 0) return q >= 0;
+    double r = q / p;
+    if (p < 0) {
+      if (r > t1) return false;
+      if (r > t0) t0 = r;
+    }
+    else {
+      if (r < t0) return false;
+      if (r < t1) t1 = r;
+    }
+    return true;
+  }
+
+ /**private */void encodePolygon(Polygon poly) {
+    if (poly.isEmpty()) return;
+    if (!loadRing(poly.getExteriorRing()) || !emitRing(true)) return;
+    for (int i = 0; i < poly.getNumInteriorRing(); i++) {
+      if (loadRing(poly.getInteriorRingN(i))) {
+        emitRing(false);
+      }
+    }
+  }
+
+  /// Loads the tile coordinates of the part of a ring inside the clip envelope.
+  ///
+  /// @return false if the ring is outside the clip envelope
+ /**private */bool loadRing(LinearRing ring) {
+    numPts = 0;
+    Envelope env = ring.getEnvelopeInternal();
+    if (env.isNull() || !clipEnv.intersects(env)) return false;
+    if (clipEnv.covers(env)) {
+      CoordinateSequence seq = ring.getCoordinateSequence();
+      for (int i = 0; i < seq.size(); i++) {
+        addPoint(seq.getX(i), seq.getY(i), true);
+      }
+    }
+    else {
+      for (Coordinate p in ringClipper!.clip(ring.getCoordinates())) {
+        addPoint(p.x, p.y, true);
+      }
+    }
+    return true;
+  }
+
+ /**private */void emitLine() {
+    simplify();
+    if (numPts >= 2) {
+      addCommand(CMD_MOVE_TO, 1);
+      addVertex(0);
+      addCommand(CMD_LINE_TO, numPts - 1);
+      for (int i = 1; i < numPts; i++) {
+        addVertex(i);
+      }
+    }
+    numPts = 0;
+  }
+
+  /// Emits the loaded ring, if it has not collapsed.
+  /// Shells are oriented to have positive area in tile coordinates
+  /// (clockwise, since the y axis points down), and holes negative area.
+  ///
+  /// @return true if the ring was emitted
+ /**private */bool emitRing(bool isShell) {
+    if (numPts == 0) return false;
+    if (pts[0] != pts[2 * numPts - 2] || pts[1] != pts[2 * numPts - 1]) {
+      appendVertex(pts[0], pts[1]);
+    }
+    simplify();
+    if (numPts < 4) return false;
+    int area2 = signedArea2();
+    if (area2 == 0) return false;
+    if ((area2 > 0) != isShell) reverse();
+
+    addCommand(CMD_MOVE_TO, 1);
+    addVertex(0);
+    addCommand(CMD_LINE_TO, numPts - 2);
+    for (int i = 1; i < numPts - 1; i++) {
+      addVertex(i);
+    }
+    addCommand(CMD_CLOSE_PATH, 1);
+    return true;
+  }
+
+ /**private */int signedArea2() {
+    int sum = 0;
+    for (int i = 0; i < numPts - 1; i++) {
+      sum += pts[2 * i] * pts[2 * i + 3] - pts[2 * i + 2] * pts[2 * i + 1];
+    }
+    return sum;
+  }
+
+ /**private */void reverse() {
+    for (int i = 0, j = numPts - 1; i < j; i++, j--) {
+      int x = pts[2 * i];
+      int y = pts[2 * i + 1];
+      pts[2 * i] = pts[2 * j];
+      pts[2 * i + 1] = pts[2 * j + 1];
+      pts[2 * j] = x;
+      pts[2 * j + 1] = y;
+    }
+  }
+
+  //=========  vertex buffer  ==========
+
+  /// Adds a point to the vertex buffer in tile coordinates.
+  ///
+  /// @param isDistinct true if a point equal to the last one is to be dropped
+ /**private */void addPoint(double x, double y, bool isDistinct) {
+    int qx = ((x - tileMinX) * scaleX).round();
+    int qy = ((tileMaxY - y) * scaleY).round();
+    if (isDistinct && numPts > 0 && pts[2 * numPts - 2] == qx && pts[2 * numPts - 1] == qy) {
+      return;
+    }
+    appendVertex(qx, qy);
+  }
+
+ /**private */void appendVertex(int qx, int qy) {
+    if (2 * numPts + 2 > pts.length) {
+      Int32List target = Int32List(2 * pts.length);
+      target.setRange(0, 2 * numPts, pts);
+      pts = target;
+    }
+    pts[2 * numPts] = qx;
+    pts[2 * numPts + 1] = qy;
+    numPts++;
+  }
+
+  /// Simplifies the vertex buffer in place with the Douglas-Peucker algorithm.
+  /// The endpoints are always kept.
+ /**private */void simplify() {
+    if (simplifyTolerance <= 0 || numPts < 3) return;
+    if (keep.length < numPts) {
+      keep = Uint8List(2 * numPts);
+    }
+    keep.fillRange(0, numPts, 0);
+    keep[0] = 1;
+    keep[numPts - 1] = 1;
+
+    double tolerance2 = simplifyTolerance * simplifyTolerance;
+    int top = 0;
+    stack[top++] = 0;
+    stack[top++] = numPts - 1;
+    while (top > 0) {
+      int j = stack[--top];
+      int i = stack[--top];
+      double maxDist2 = -1;
+      int maxIndex = i;
+      for (int k = i + 1; k < j; k++) {
+        double dist2 = segmentDistance2(k, i, j);
+        if (dist2 > maxDist2) {
+          maxDist2 = dist2;
+          maxIndex = k;
+        }
+      }
+      if (maxDist2 <= tolerance2) continue;
+      keep[maxIndex] = 1;
+      if (top + 4 > stack.length) {
+        Int32List target = Int32List(2 * stack.length);
+        target.setRange(0, top, stack);
+        stack = target;
+      }
+      stack[top++] = i;
+      stack[top++] = maxIndex;
+      stack[top++] = maxIndex;
+      stack[top++] = j;
+    }
+
+    int n = 0;
+    for (int k = 0; k < numPts; k++) {
+      if (keep[k] == 0) continue;
+      pts[2 * n] = pts[2 * k];
+      pts[2 * n + 1] = pts[2 * k + 1];
+      n++;
+    }
+    numPts = n;
+  }
+
+  /// Computes the squared distance from vertex k to the segment between vertices i and j.
+ /**private */double segmentDistance2(int k, int i, int j) {
+    double ax = pts[2 * i].toDouble();
+    double ay = pts[2 * i + 1].toDouble();
+    double dx = pts[2 * j] - ax;
+    double dy = pts[2 * j + 1] - ay;
+    double px = pts[2 * k] - ax;
+    double py = pts[2 * k + 1] - ay;
+    double len2 = dx * dx + dy * dy;
+    if (len2 > 0) {
+      double t = (px * dx + py * dy) / len2;
+      if (t > 1) {
+        t = 1;
+      }
+      else if (t < 0) {
+        t = 0;
+      }
+      px -= t * dx;
+      py -= t * dy;
+    }
+    return px * px + py * py;
+  }
+
+  //=========  commands  ==========
+
+ /**private */void addCommand(int id, int count) {
+    addCommandInteger((id & 0x7) | (count << 3));
+  }
+
+ /**private */void addVertex(int i) {
+    int x = pts[2 * i];
+    int y = pts[2 * i + 1];
+    addCommandInteger(ProtobufWriter.zigzag(x - cursorX));
+    addCommandInteger(ProtobufWriter.zigzag(y - cursorY));
+    cursorX = x;
+    cursorY = y;
+  }
+
+ /**private */void addCommandInteger(int v) {
+    if (numCmds == cmds.length) {
+      Uint32List target = Uint32List(2 * cmds.length);
+      target.setRange(0, numCmds, cmds);
+      cmds = target;
+    }
+    cmds[numCmds++] = v;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+
+/// A named layer of features to be encoded in vector tiles
+/// by an {@link MVTEncoder}.
+/// Feature geometries are in the coordinate system of the tile envelopes.
+class MVTLayer {
+  /// The name of the layer
+  final String name;
+
+  /// The features of the layer
+  final List<MVTFeature> features;
+
+  /// Creates a layer.
+  ///
+  /// @param name the layer name
+  /// @param features the features in the layer
+  MVTLayer(this.name, [List<MVTFeature>? features])
+    : features = features ?? [];
+}
+
+/// A feature of an {@link MVTLayer}: a geometry with attributes.
+/// <p>
+/// Attribute values may be strings, ints, doubles or bools.
+/// Other values are encoded as their string representation,
+/// and null values are omitted.
+class MVTFeature {
+  /// The feature geometry
+  final Geometry geometry;
+
+  /// The feature attributes
+  final Map<String, Object?> properties;
+
+  /// The feature id, or null
+  final int? id;
+
+  /// Creates a feature.
+  ///
+  /// @param geometry the feature geometry
+  /// @param properties the feature attributes
+  /// @param id the feature id (must be non-negative)
+  MVTFeature(this.geometry, [Map<String, Object?>? properties, this.id])
+    : properties = properties ?? {};
+}
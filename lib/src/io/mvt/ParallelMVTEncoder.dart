@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:isolate';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+
+import 'MVTEncoder.dart';
+import 'MVTLayer.dart';
+
+/// Encodes many vector tiles using a pool of isolates.
+/// <p>
+/// The tiles are split into contiguous runs, one per worker,
+/// so tiles which are listed in row or curve order
+/// give each worker a compact area.
+/// Each worker is sent only the features whose envelopes
+/// intersect the buffered envelope of its tiles,
+/// and encodes its tiles with its own {@link MVTEncoder}.
+/// Since tiles are encoded independently, the result is the same
+/// as encoding the tiles one by one.
+/// <p>
+/// This uses <code>dart:isolate</code>, so it is not exported
+/// from the <code>io</code> library.
+class ParallelMVTEncoder {
+ /**private */static const int DEFAULT_NUM_WORKERS = 4;
+
+  /// Tile lists shorter than this are encoded on the calling isolate.
+ /**private */static const int MIN_PARALLEL_SIZE = 16;
+
+ /**private */final int numWorkers;
+ /**private */final int extent;
+ /**private */final int buffer;
+ /**private */final double simplifyTolerance;
+
+  /// Creates an encoder which uses up to the given number of isolates.
+  ///
+  /// @param numWorkers the maximum number of isolates to use
+  /// @param extent the tile extent, in tile units
+  /// @param buffer the buffer around each tile to keep, in tile units
+  /// @param simplifyTolerance the simplification tolerance, in tile units
+  ParallelMVTEncoder([this.numWorkers = DEFAULT_NUM_WORKERS,
+      this.extent = MVTEncoder.DEFAULT_EXTENT, this.buffer = MVTEncoder.DEFAULT_BUFFER,
+      this.simplifyTolerance = MVTEncoder.DEFAULT_SIMPLIFY_TOLERANCE]);
+
+  /// Encodes a list of tiles.
+  ///
+  /// @param tiles the envelopes of the tiles
+  /// @param layers the layers to encode
+  /// @return the encoded tiles, in the order of the envelopes
+  Future<List<Uint8List>> encodeTiles(List<Envelope> tiles, List<MVTLayer> layers) async {
+    if (numWorkers <= 1 || tiles.length < MIN_PARALLEL_SIZE) {
+      return encodeRun(tiles, layers);
+    }
+    int runSize = (tiles.length + numWorkers - 1) ~/ numWorkers;
+    List<Future<List<Uint8List>>> runs = [];
+    for (int start = 0; start < tiles.length; start += runSize) {
+      int end = start + runSize < tiles.length ? start + runSize : tiles.length;
+      List<Envelope> run = tiles.sublist(start, end);
+      List<MVTLayer> selected = selectLayers(run, layers);
+      int extent = this.extent;
+      int buffer = this.buffer;
+      double simplifyTolerance = this.simplifyTolerance;
+      runs.add(Isolate.run(() => new MVTEncoder(extent, buffer, simplifyTolerance)
+          .encodeAll(run, selected)));
+    }
+    List<Uint8List> result = [];
+    for (List<Uint8List> run in await Future.wait(runs)) {
+      result.addAll(run);
+    }
+    return result;
+  }
+
+ /**private */List<Uint8List> encodeRun(List<Envelope> tiles, List<MVTLayer> layers) {
+    return new MVTEncoder(extent, buffer, simplifyTolerance).encodeAll(tiles, layers);
+  }
+
+  /// Selects the features which may lie in a run of tiles,
+  /// so that only they are copied to the worker.
+ /**private */List<MVTLayer> selectLayers(List<Envelope> run, List<MVTLayer> layers) {
+    Envelope runEnv = new Envelope.init();
+    for (Envelope tile in run) {
+      Envelope clipEnv = new Envelope.fromAnother(tile);
+      clipEnv.expandByDelXY(tile.getWidth() * buffer / extent, tile.getHeight() * buffer / extent);
+      runEnv.expandToIncludeEnvelope(clipEnv);
+    }
+
+    List<MVTLayer> selected = [];
+    for (MVTLayer layer in layers) {
+      List<MVTFeature> features = [];
+      for (MVTFeature feature in layer.features) {
+        if (runEnv.intersects(feature.geometry.getEnvelopeInternal())) {
+          features.add(feature);
+        }
+      }
+      selected.add(new MVTLayer(layer.name, features));
+    }
+    return selected;
+  }
+}
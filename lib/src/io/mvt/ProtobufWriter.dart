@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:convert';
+import 'dart:typed_data';
+
+/// Writes Protocol Buffers fields into a growable byte buffer.
+/// Only the wire types used by vector tiles are supported.
+/// <p>
+/// A writer can be cleared and reused, so the buffer of
+/// a nested message is allocated only once.
+class ProtobufWriter {
+  static const int WIRE_VARINT = 0;
+  static const int WIRE_FIXED64 = 1;
+  static const int WIRE_BYTES = 2;
+
+ /**private */Uint8List buf;
+ /**private */int length = 0;
+ /**private */final ByteData scratch = ByteData(8);
+
+  /// Creates a writer.
+  ///
+  /// @param initialCapacity the initial buffer size
+  ProtobufWriter([int initialCapacity = 256])
+    : buf = Uint8List(initialCapacity);
+
+  /// Gets the number of bytes written.
+  int size() {
+    return length;
+  }
+
+  /// Discards the bytes written.
+  void clear() {
+    length = 0;
+  }
+
+  /// Gets a view of the bytes written.
+  /// The view is only valid until the writer is next written or cleared.
+  ///
+  /// @return the bytes written
+  Uint8List toBytes() {
+    return Uint8List.sublistView(buf, 0, length);
+  }
+
+ /**private */void ensureCapacity(int n) {
+    if (length + n <= buf.length) return;
+    int cap = 2 * buf.length;
+    if (cap < length + n) cap = length + n;
+    Uint8List target = Uint8List(cap);
+    target.setRange(0, length, buf);
+    buf = target;
+  }
+
+  /// Writes an integer as a varint.
+  /// The value is encoded as an unsigned 64-bit integer,
+  /// so a negative value takes 10 bytes (as for protobuf <code>int64</code>).
+  void writeVarint(int v) {
+    ensureCapacity(10);
+    while ((v & ~0x7F) != 0) {
+      buf[length++] = (v & 0x7F) | 0x80;
+      v >>>= 7;
+    }
+    buf[length++] = v;
+  }
+
+  /// Gets the number of bytes in the varint encoding of an integer.
+  static int varintSize(int v) {
+    int n = 1;
+    while ((v & ~0x7F) != 0) {
+      v >>>= 7;
+      n++;
+    }
+    return n;
+  }
+
+  /// Encodes a signed integer so that small magnitudes have short varints.
+  static int zigzag(int n) {
+    return n < 0 ? ((-n) << 1) - 1 : n << 1;
+  }
+
+  /// Writes a field key.
+  void writeTag(int field, int wireType) {
+    writeVarint((field << 3) | wireType);
+  }
+
+  /// Writes a varint field.
+  void writeVarintField(int field, int v) {
+    writeTag(field, WIRE_VARINT);
+    writeVarint(v);
+  }
+
+  /// Writes a double field.
+  void writeDoubleField(int field, double v) {
+    writeTag(field, WIRE_FIXED64);
+    scratch.setFloat64(0, v, Endian.little);
+    ensureCapacity(8);
+    buf.setRange(length, length + 8, scratch.buffer.asUint8List());
+    length += 8;
+  }
+
+  /// Writes a string field as UTF-8.
+  void writeStringField(int field, String s) {
+    writeBytesField(field, utf8.encode(s));
+  }
+
+  /// Writes a length-delimited field.
+  void writeBytesField(int field, List<int> bytes) {
+    writeTag(field, WIRE_BYTES);
+    writeVarint(bytes.length);
+    ensureCapacity(bytes.length);
+    buf.setRange(length, length + bytes.length, bytes);
+    length += bytes.length;
+  }
+
+  /// Writes the contents of another writer as a nested message.
+  void writeMessageField(int field, ProtobufWriter message) {
+    writeBytesField(field, message.toBytes());
+  }
+
+  /// Writes the first <tt>n</tt> values of a list as a packed varint field.
+  void writePackedField(int field, List<int> values, int n) {
+    int size = 0;
+    for (int i = 0; i < n; i++) {
+      size += varintSize(values[i]);
+    }
+    writeTag(field, WIRE_BYTES);
+    writeVarint(size);
+    for (int i = 0; i < n; i++) {
+      writeVarint(values[i]);
+    }
+  }
+}
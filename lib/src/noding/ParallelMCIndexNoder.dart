@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions, and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:isolate';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/algorithm/LineIntersector.dart';
+import 'package:jtscore4dart/src/algorithm/RobustLineIntersector.dart';
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/index/chain/MonotoneChain.dart';
+import 'package:jtscore4dart/src/index/chain/MonotoneChainBuilder.dart';
+import 'package:jtscore4dart/src/index/chain/MonotoneChainOverlapAction.dart';
+import 'package:jtscore4dart/src/index/hprtree/HPRtree.dart';
+
+import 'IntersectionAdder.dart';
+import 'NodedSegmentString.dart';
+import 'SegmentString.dart';
+
+/// Nodes a set of {@link NodedSegmentString}s using the same
+/// monotone chain index as {@link MCIndexNoder}, with the chain overlap
+/// tests shared out over a pool of isolates.
+/// <p>
+/// The intersections added are those of an {@link MCIndexNoder}
+/// using an {@link IntersectionAdder} with a {@link RobustLineIntersector}
+/// (which is the floating noder used by overlay).
+/// <p>
+/// Each worker is sent the coordinates of all the segment strings,
+/// builds the same chains and index as {@link MCIndexNoder},
+/// and tests the query chains of one contiguous range of chain ids.
+/// The intersection nodes found are returned as typed data,
+/// and added to the segment strings in order of range.
+/// This is exactly the order in which {@link MCIndexNoder} adds them,
+/// so the result does not depend on the number of workers.
+/// <p>
+/// Small inputs are noded on the calling isolate.
+/// <p>
+/// This uses <code>dart:isolate</code>, so it is only available
+/// on platforms which support isolates.
+class ParallelMCIndexNoder {
+ /**private */static const int DEFAULT_NUM_WORKERS = 4;
+ /**private */static const int MIN_SEGMENTS_PER_WORKER = 4096;
+
+ /**private */final int numWorkers;
+ /**private */Iterable nodedSegStrings = [];
+ /**private */int numIntersections = 0;
+
+  /// Creates a parallel noder.
+  ///
+  /// @param numWorkers the maximum number of isolates to use
+  ParallelMCIndexNoder([this.numWorkers = DEFAULT_NUM_WORKERS]) {
+    if (numWorkers < 1) {
+      throw ArgumentError("Number of workers must be at least 1");
+    }
+  }
+
+  /// Computes the noding for a collection of {@link NodedSegmentString}s,
+  /// adding the intersection nodes to them.
+  ///
+  /// @param segStrings the segment strings to node
+  Future<void> computeNodes(Iterable segStrings) async {
+    nodedSegStrings = segStrings;
+    List<NodedSegmentString> segStrList = [
+      for (Object segStr in segStrings) segStr as NodedSegmentString
+    ];
+    NodingInput input = NodingInput.fromSegmentStrings(segStrList);
+
+    int numRanges = input.numSegments() ~/ MIN_SEGMENTS_PER_WORKER;
+    if (numRanges > numWorkers) numRanges = numWorkers;
+    if (numRanges < 1) numRanges = 1;
+
+    List<NodeRecords> ranges;
+    if (numRanges == 1) {
+      ranges = [computeRange(input, 0, 1)];
+    }
+    else {
+      ranges = await Future.wait([
+        for (int range = 0; range < numRanges; range++)
+          Isolate.run(() => computeRange(input, range, numRanges))
+      ]);
+    }
+    numIntersections = 0;
+    for (NodeRecords records in ranges) {
+      records.addTo(segStrList);
+      numIntersections += records.size();
+    }
+  }
+
+  /// Gets the number of intersection nodes added by the last noding,
+  /// including those at an already existing node.
+  ///
+  /// @return the number of intersection nodes added
+  int getNumIntersections() { return numIntersections; }
+
+  /// Returns the fully noded {@link SegmentString}s.
+  /// The SegmentStrings have the same context as their parent.
+  ///
+  /// @return the noded substrings
+  Iterable<SegmentString> getNodedSubstrings() {
+    return NodedSegmentString.getNodedSubstrings(nodedSegStrings);
+  }
+
+  /// Computes the intersection nodes found by testing the query chains
+  /// in one of a number of ranges of chain ids.
+  /// The ranges contain roughly equal numbers of segments.
+  ///
+  /// @param input the segment strings to node
+  /// @param range the index of the range to test
+  /// @param numRanges the number of ranges
+  /// @return the intersection nodes, in the order found
+  static NodeRecords computeRange(NodingInput input, int range, int numRanges) {
+    List<List<Coordinate>> pts = input.toCoordinates();
+    List<MonotoneChain> chains = [];
+    HPRtree index = HPRtree();
+    for (int i = 0; i < pts.length; i++) {
+      for (MonotoneChain mc in MonotoneChainBuilder.getChains(pts[i], i)) {
+        mc.setId(chains.length);
+        index.insert(mc.getEnvelope(), mc);
+        chains.add(mc);
+      }
+    }
+
+    int numSegments = input.numSegments();
+    int rangeStart = numSegments * range ~/ numRanges;
+    int rangeEnd = numSegments * (range + 1) ~/ numRanges;
+    NodeRecords records = NodeRecords();
+    RecordingOverlapAction overlapAction = RecordingOverlapAction(pts, records);
+    int chainStart = 0;
+    for (MonotoneChain queryChain in chains) {
+      int chainSize = queryChain.getEndIndex() - queryChain.getStartIndex();
+      // assign each chain to the range containing its first segment
+      bool isInRange = chainStart >= rangeStart && chainStart < rangeEnd;
+      chainStart += chainSize;
+      if (! isInRange) continue;
+
+      Envelope queryEnv = queryChain.getEnvelope();
+      for (Object item in index.query(queryEnv)) {
+        MonotoneChain testChain = item as MonotoneChain;
+        if (testChain.getId() > queryChain.getId()) {
+          queryChain.computeOverlaps(testChain, overlapAction);
+        }
+      }
+    }
+    return records;
+  }
+}
+
+/**private */
+/// The coordinates of a set of segment strings, packed as typed data
+/// so they can be sent to a worker isolate.
+class NodingInput {
+  /// The offset of the first coordinate of each segment string,
+  /// followed by the total number of coordinates
+  final Int32List offsets;
+  /// The X, Y and Z ordinates of the coordinates
+  final Float64List ords;
+
+  NodingInput(this.offsets, this.ords);
+
+  static NodingInput fromSegmentStrings(List<NodedSegmentString> segStrings) {
+    Int32List offsets = Int32List(segStrings.length + 1);
+    int numPts = 0;
+    for (int i = 0; i < segStrings.length; i++) {
+      offsets[i] = numPts;
+      numPts += segStrings[i].size();
+    }
+    offsets[segStrings.length] = numPts;
+    Float64List ords = Float64List(3 * numPts);
+    int k = 0;
+    for (NodedSegmentString segStr in segStrings) {
+      for (Coordinate p in segStr.getCoordinates()) {
+        ords[k++] = p.x;
+        ords[k++] = p.y;
+        ords[k++] = p.getZ();
+      }
+    }
+    return NodingInput(offsets, ords);
+  }
+
+  int numSegments() {
+    int numSegments = 0;
+    for (int i = 0; i + 1 < offsets.length; i++) {
+      int size = offsets[i + 1] - offsets[i];
+      if (size > 1) numSegments += size - 1;
+    }
+    return numSegments;
+  }
+
+  List<List<Coordinate>> toCoordinates() {
+    return [
+      for (int i = 0; i + 1 < offsets.length; i++)
+        [
+          for (int j = offsets[i]; j < offsets[i + 1]; j++)
+            Coordinate(ords[3 * j], ords[3 * j + 1], ords[3 * j + 2])
+        ]
+    ];
+  }
+}
+
+/**private */
+/// A list of intersection nodes, held as typed data.
+class NodeRecords {
+ /**private */Int32List indexes = Int32List(64);
+ /**private */Float64List ords = Float64List(96);
+ /**private */int count = 0;
+
+  int size() { return count; }
+
+  void add(int segStrIndex, int segmentIndex, Coordinate p) {
+    if (count == indexes.length ~/ 2) {
+      Int32List newIndexes = Int32List(2 * indexes.length);
+      newIndexes.setRange(0, indexes.length, indexes);
+      indexes = newIndexes;
+      Float64List newOrds = Float64List(2 * ords.length);
+      newOrds.setRange(0, ords.length, ords);
+      ords = newOrds;
+    }
+    indexes[2 * count] = segStrIndex;
+    indexes[2 * count + 1] = segmentIndex;
+    ords[3 * count] = p.x;
+    ords[3 * count + 1] = p.y;
+    ords[3 * count + 2] = p.getZ();
+    count++;
+  }
+
+  /// Adds the nodes to the segment strings, in the order they were found.
+  void addTo(List<NodedSegmentString> segStrings) {
+    for (int i = 0; i < count; i++) {
+      Coordinate intPt = Coordinate(ords[3 * i], ords[3 * i + 1], ords[3 * i + 2]);
+      segStrings[indexes[2 * i]].addIntersection(intPt, indexes[2 * i + 1]);
+    }
+  }
+}
+
+/**private */
+/// Records the intersection nodes of overlapping segments,
+/// in the same way as an {@link IntersectionAdder}.
+class RecordingOverlapAction extends MonotoneChainOverlapAction {
+ /**private */final List<List<Coordinate>> pts;
+ /**private */final NodeRecords records;
+ /**private */final LineIntersector li = RobustLineIntersector();
+
+  RecordingOverlapAction(this.pts, this.records);
+
+  @override
+  void overlap(MonotoneChain mc1, int start1, MonotoneChain mc2, int start2) {
+    int i0 = mc1.getContext() as int;
+    int i1 = mc2.getContext() as int;
+    if (i0 == i1 && start1 == start2) return;
+    List<Coordinate> pts0 = pts[i0];
+    List<Coordinate> pts1 = pts[i1];
+    li.computeIntersection4Coord(pts0[start1], pts0[start1 + 1], pts1[start2], pts1[start2 + 1]);
+    if (! li.hasIntersection()) return;
+    if (isTrivialIntersection(i0, start1, i1, start2)) return;
+    for (int i = 0; i < li.getIntersectionNum(); i++) {
+      records.add(i0, start1, li.getIntersection(i));
+    }
+    for (int i = 0; i < li.getIntersectionNum(); i++) {
+      records.add(i1, start2, li.getIntersection(i));
+    }
+  }
+
+ /**private */bool isTrivialIntersection(int i0, int segIndex0, int i1, int segIndex1) {
+    if (i0 != i1 || li.getIntersectionNum() != 1) return false;
+    if (IntersectionAdder.isAdjacentSegments(segIndex0, segIndex1)) return true;
+    List<Coordinate> segPts = pts[i0];
+    if (segPts[0].equals(segPts[segPts.length - 1])) {
+      int maxSegIndex = segPts.length - 1;
+      return (segIndex0 == 0 && segIndex1 == maxSegIndex)
+          || (segIndex1 == 0 && segIndex0 == maxSegIndex);
+    }
+    return false;
+  }
+}
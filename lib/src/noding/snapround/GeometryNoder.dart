@@ -56,6 +56,7 @@ class GeometryNoder {
   /**private */ GeometryFactory? geomFact;
   /**private */ PrecisionModel pm;
   /**private */ bool isValidityChecked = false;
+  /**private */ bool isGridIndexed = false;
 
   /**
    * Creates a new noder which snap-rounds to a grid specified
@@ -74,6 +75,16 @@ class GeometryNoder {
     this.isValidityChecked = isValidityChecked;
   }
 
+  /**
+   * Sets whether the hot pixels are indexed by their grid coordinates
+   * (using a {@link HotPixelGridIndex}) rather than by a kd-tree.
+   * 
+   * @param isGridIndexed true if the hot pixels should be held in a grid index
+   */
+  void setGridIndexed(bool isGridIndexed) {
+    this.isGridIndexed = isGridIndexed;
+  }
+
   /**
    * Nodes the linework of a set of Geometrys using SnapRounding. 
    * 
@@ -88,7 +99,7 @@ class GeometryNoder {
     geomFact = geom0.getFactory();
 
     List<SegmentString> segStrings = _toSegmentStrings(_extractLines(geoms));
-    Noder sr = new SnapRoundingNoder(pm);
+    Noder sr = new SnapRoundingNoder(pm, isGridIndexed);
     sr.computeNodes(segStrings);
     Iterable nodedLines = sr.getNodedSubstrings();
 
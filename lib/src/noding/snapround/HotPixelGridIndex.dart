@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2019 Martin Davis.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:math';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/PrecisionModel.dart';
+import 'package:jtscore4dart/src/index/kdtree/KdNode.dart';
+import 'package:jtscore4dart/src/index/kdtree/KdNodeVisitor.dart';
+
+import 'HotPixel.dart';
+import 'HotPixelStore.dart';
+
+/// A {@link HotPixelStore} which stores the hot pixels in a hash table
+/// keyed by their integer grid coordinates.
+/// <p>
+/// With a fixed precision model every hot pixel lies on an integer grid
+/// (in units of the pixel width), so finding the pixel for a point
+/// is a single hash lookup, and no shuffling is needed to keep the index balanced.
+/// <p>
+/// Queries use a grid of square buckets of pixels, built when the first query is made.
+/// The bucket size is chosen so that a bucket holds about one pixel on average,
+/// and a query visits only the buckets along the query segment.
+/// As for <code>HotPixelIndex</code>, the visitor may be given pixels
+/// which do not intersect the segment.
+class HotPixelGridIndex implements HotPixelStore {
+ /**private */final PrecisionModel precModel;
+ /**private */final double scaleFactor;
+ /**private */final List<KdNode> pixels = [];
+ /**private */final PixelKeyTable pixelTable = PixelKeyTable();
+
+  // the query buckets, or null if they must be rebuilt
+ /**private */PixelKeyTable? bucketTable;
+ /**private */Int32List bucketStart = Int32List(0);
+ /**private */Int32List bucketPixels = Int32List(0);
+ /**private */double bucketSize = 1.0;
+
+  /// Creates a new index for the hot pixels of a precision model.
+  ///
+  /// @param precModel the fixed precision model of the pixel grid
+  HotPixelGridIndex(this.precModel) :
+    scaleFactor = precModel.getScale();
+
+  /// Adds a list of points as non-node pixels.
+  ///
+  /// @param pts the points to add
+  @override
+  void addAll(List<Coordinate> pts) {
+    // a hash table needs no shuffling for balance
+    for (Coordinate pt in pts) {
+      add(pt);
+    }
+  }
+
+  /// Adds a list of points as node pixels.
+  ///
+  /// @param pts the points to add
+  @override
+  void addNodes(List<Coordinate> pts) {
+    for (Coordinate pt in pts) {
+      HotPixel hp = add(pt);
+      hp.setToNode();
+    }
+  }
+
+  /// Adds a point as a Hot Pixel.
+  /// If the point has been added already, it is marked as a node.
+  ///
+  /// @param p the point to add
+  /// @return the HotPixel for the point
+  @override
+  HotPixel add(Coordinate p) {
+    Coordinate pRound = round(p);
+    double ix = pixelOrdinate(pRound.x);
+    double iy = pixelOrdinate(pRound.y);
+    int pixelIndex = pixelTable.get(ix, iy);
+    if (pixelIndex >= 0) {
+      HotPixel hp = pixels[pixelIndex].getData() as HotPixel;
+      hp.setToNode();
+      return hp;
+    }
+    HotPixel hp = new HotPixel(pRound, scaleFactor);
+    pixelTable.put(ix, iy, pixels.length);
+    pixels.add(new KdNode(hp.getCoordinate(), hp));
+    bucketTable = null;
+    return hp;
+  }
+
+  /// Finds the hot pixel for a rounded point.
+  ///
+  /// @param pixelPt the rounded point
+  /// @return the HotPixel for the point, or null if there is none
+  HotPixel? find(Coordinate pixelPt) {
+    int pixelIndex = pixelTable.get(pixelOrdinate(pixelPt.x), pixelOrdinate(pixelPt.y));
+    if (pixelIndex < 0) {
+      return null;
+    }
+    return pixels[pixelIndex].getData() as HotPixel;
+  }
+
+  /// Visits all the hot pixels which may intersect a segment (p0-p1).
+  /// The visitor must determine whether each hot pixel actually intersects
+  /// the segment.
+  /// The visitor is given a {@link KdNode} whose data is the {@link HotPixel}.
+  ///
+  /// @param p0 the segment start point
+  /// @param p1 the segment end point
+  /// @param visitor the visitor to apply
+  @override
+  void query(Coordinate p0, Coordinate p1, KdNodeVisitor visitor) {
+    if (pixels.isEmpty) return;
+    PixelKeyTable buckets = bucketTable ?? buildBuckets();
+
+    // segment in pixel units, ordered by X
+    double u0 = p0.x * scaleFactor;
+    double v0 = p0.y * scaleFactor;
+    double u1 = p1.x * scaleFactor;
+    double v1 = p1.y * scaleFactor;
+    if (u0 > u1) {
+      double t = u0; u0 = u1; u1 = t;
+      t = v0; v0 = v1; v1 = t;
+    }
+    /**
+     * Visit the pixels whose centres are within one pixel width
+     * of the segment (as for the kd-tree query, this is a safe expansion).
+     * Each column of buckets is visited for the range of rows
+     * the segment passes through inside it.
+     */
+    double bxMin = ((u0 - 1) / bucketSize).floorToDouble();
+    double bxMax = ((u1 + 1) / bucketSize).floorToDouble();
+    for (double bx = bxMin; bx <= bxMax; bx++) {
+      double a = max(u0, bx * bucketSize - 1);
+      double b = min(u1, bx * bucketSize + bucketSize);
+      if (a > b) continue;
+      double va = v0;
+      double vb = v1;
+      if (u1 > u0) {
+        double slope = (v1 - v0) / (u1 - u0);
+        va = v0 + (a - u0) * slope;
+        vb = v0 + (b - u0) * slope;
+      }
+      double byMin = ((min(va, vb) - 1) / bucketSize).floorToDouble();
+      double byMax = ((max(va, vb) + 1) / bucketSize).floorToDouble();
+      for (double by = byMin; by <= byMax; by++) {
+        int bucket = buckets.get(bx, by);
+        if (bucket < 0) continue;
+        for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1]; i++) {
+          visitor.visit(pixels[bucketPixels[i]]);
+        }
+      }
+    }
+  }
+
+ /**private */Coordinate round(Coordinate pt) {
+    Coordinate p2 = pt.copy();
+    precModel.makePreciseFromCoord(p2);
+    return p2;
+  }
+
+ /**private */double pixelOrdinate(double ord) {
+    return (ord * scaleFactor).roundToDouble();
+  }
+
+  /// Builds the query buckets, holding the pixels in order of addition.
+ /**private */PixelKeyTable buildBuckets() {
+    int n = pixels.length;
+    Float64List ixs = Float64List(n);
+    Float64List iys = Float64List(n);
+    double minX = double.infinity, maxX = double.negativeInfinity;
+    double minY = double.infinity, maxY = double.negativeInfinity;
+    for (int i = 0; i < n; i++) {
+      Coordinate p = pixels[i].getCoordinate();
+      ixs[i] = pixelOrdinate(p.x);
+      iys[i] = pixelOrdinate(p.y);
+      minX = min(minX, ixs[i]);
+      maxX = max(maxX, ixs[i]);
+      minY = min(minY, iys[i]);
+      maxY = max(maxY, iys[i]);
+    }
+    bucketSize = sqrt((maxX - minX + 1) * (maxY - minY + 1) / n).ceilToDouble();
+
+    PixelKeyTable buckets = PixelKeyTable();
+    Int32List pixelBucket = Int32List(n);
+    List<int> counts = [];
+    for (int i = 0; i < n; i++) {
+      double bx = (ixs[i] / bucketSize).floorToDouble();
+      double by = (iys[i] / bucketSize).floorToDouble();
+      int bucket = buckets.get(bx, by);
+      if (bucket < 0) {
+        bucket = counts.length;
+        buckets.put(bx, by, bucket);
+        counts.add(0);
+      }
+      pixelBucket[i] = bucket;
+      counts[bucket]++;
+    }
+    bucketStart = Int32List(counts.length + 1);
+    for (int b = 0; b < counts.length; b++) {
+      bucketStart[b + 1] = bucketStart[b] + counts[b];
+    }
+    Int32List fill = Int32List.fromList(bucketStart);
+    bucketPixels = Int32List(n);
+    for (int i = 0; i < n; i++) {
+      bucketPixels[fill[pixelBucket[i]]++] = i;
+    }
+    bucketTable = buckets;
+    return buckets;
+  }
+}
+
+/**private */
+/// An open-addressing hash table from pairs of integer-valued ordinates
+/// to non-negative integer values.
+/// The keys are held as doubles so that they are exact beyond 32 bits.
+class PixelKeyTable {
+ /**private */static const int INITIAL_CAPACITY = 64;
+
+ /**private */Float64List keys = Float64List(2 * INITIAL_CAPACITY);
+ /**private */Int32List values = Int32List(INITIAL_CAPACITY)..fillRange(0, INITIAL_CAPACITY, -1);
+ /**private */int count = 0;
+
+  /// Gets the value for a key.
+  ///
+  /// @return the value, or -1 if the key is not present
+  int get(double kx, double ky) {
+    int mask = values.length - 1;
+    int slot = hash(kx, ky) & mask;
+    while (values[slot] >= 0) {
+      if (keys[2 * slot] == kx && keys[2 * slot + 1] == ky) {
+        return values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /// Sets the value for a key which is not present.
+  void put(double kx, double ky, int value) {
+    if (2 * (count + 1) > values.length) {
+      resize();
+    }
+    int mask = values.length - 1;
+    int slot = hash(kx, ky) & mask;
+    while (values[slot] >= 0) {
+      slot = (slot + 1) & mask;
+    }
+    keys[2 * slot] = kx;
+    keys[2 * slot + 1] = ky;
+    values[slot] = value;
+    count++;
+  }
+
+ /**private */void resize() {
+    Float64List oldKeys = keys;
+    Int32List oldValues = values;
+    int capacity = 2 * oldValues.length;
+    keys = Float64List(2 * capacity);
+    values = Int32List(capacity)..fillRange(0, capacity, -1);
+    count = 0;
+    for (int slot = 0; slot < oldValues.length; slot++) {
+      if (oldValues[slot] >= 0) {
+        put(oldKeys[2 * slot], oldKeys[2 * slot + 1], oldValues[slot]);
+      }
+    }
+  }
+
+ /**private */static int hash(double kx, double ky) {
+    int h = kx.toInt() * 0x9E3779B1 + ky.toInt() * 0x85EBCA77;
+    h ^= h >> 16;
+    h = (h * 0x7FEB352D) & 0x3FFFFFFF;
+    return h ^ (h >> 15);
+  }
+}
@@ -32,6 +32,7 @@ import 'package:jtscore4dart/src/index/kdtree/KdNodeVisitor.dart';
 import 'package:jtscore4dart/src/index/kdtree/KdTree.dart';
 
 import 'HotPixel.dart';
+import 'HotPixelStore.dart';
 
 /**
  * An index which creates unique {@link HotPixel}s for provided points,
@@ -43,7 +44,7 @@ import 'HotPixel.dart';
  * @author mdavis
  *
  */
-class HotPixelIndex {
+class HotPixelIndex implements HotPixelStore {
  /**private */PrecisionModel precModel;
  /**private */double scaleFactor;
 
@@ -63,6 +64,7 @@ class HotPixelIndex {
    *
    * @param pts the points to add
    */
+  @override
   void addAll(List<Coordinate> pts) {
     /**
      * Shuffle the points before adding.
@@ -82,6 +84,7 @@ class HotPixelIndex {
    *
    * @param pts the points to add
    */
+  @override
   void addNodes(List<Coordinate> pts) {
     /**
      * Node points are not shuffled, since they are
@@ -101,6 +104,7 @@ class HotPixelIndex {
    * @param p the point to add
    * @return the HotPixel for the point
    */
+  @override
   HotPixel add(Coordinate p) {
     // TODO: is there a faster way of doing this?
     Coordinate pRound = round(p);
@@ -150,6 +154,7 @@ class HotPixelIndex {
    * @param p1 the segment end point
    * @param visitor the visitor to apply
    */
+  @override
   void query(Coordinate p0, Coordinate p1, KdNodeVisitor visitor) {
     Envelope queryEnv = new Envelope.fromCoord2(p0, p1);
     // expand query range to account for HotPixel extent
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019 Martin Davis.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/index/kdtree/KdNodeVisitor.dart';
+
+import 'HotPixel.dart';
+
+/**
+ * Creates unique {@link HotPixel}s for provided points,
+ * and performs range queries on them.
+ * This is the part of a hot pixel index used by {@link SnapRoundingNoder}.
+ *
+ * @see HotPixelIndex
+ * @see HotPixelGridIndex
+ */
+abstract class HotPixelStore
+{
+  /**
+   * Adds a list of points as non-node pixels.
+   *
+   * @param pts the points to add
+   */
+  void addAll(List<Coordinate> pts);
+
+  /**
+   * Adds a list of points as node pixels.
+   *
+   * @param pts the points to add
+   */
+  void addNodes(List<Coordinate> pts);
+
+  /**
+   * Adds a point as a Hot Pixel.
+   * If the point has been added already, it is marked as a node.
+   *
+   * @param p the point to add
+   * @return the HotPixel for the point
+   */
+  HotPixel add(Coordinate p);
+
+  /**
+   * Visits all the hot pixels which may intersect a segment (p0-p1).
+   * The visitor must determine whether each hot pixel actually intersects
+   * the segment.
+   * The visitor is given a {@link KdNode} whose data is the {@link HotPixel}.
+   *
+   * @param p0 the segment start point
+   * @param p1 the segment end point
+   * @param visitor the visitor to apply
+   */
+  void query(Coordinate p0, Coordinate p1, KdNodeVisitor visitor);
+}
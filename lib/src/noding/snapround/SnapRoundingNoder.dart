@@ -36,7 +36,9 @@ import '../NodedSegmentString.dart';
 import '../Noder.dart';
 import '../SegmentString.dart';
 import 'HotPixel.dart';
+import 'HotPixelGridIndex.dart';
 import 'HotPixelIndex.dart';
+import 'HotPixelStore.dart';
 import 'SnapRoundingIntersectionAdder.dart';
 
 /**
@@ -77,12 +79,20 @@ class SnapRoundingNoder implements Noder
  /**private */static const int NEARNESS_FACTOR = 100;
   
  /**private */final PrecisionModel pm;
- /**private */final HotPixelIndex pixelIndex;
+ /**private */final HotPixelStore pixelIndex;
   
  /**private */late List<NodedSegmentString> snappedResult;
 
-  SnapRoundingNoder(this.pm) :
-    pixelIndex = new HotPixelIndex(pm);
+  /**
+   * Creates a snap-rounding noder for a given precision model.
+   * The hot pixels can be held in a {@link HotPixelGridIndex},
+   * keyed by their grid coordinates, instead of a kd-tree.
+   * 
+   * @param pm the precision model of the grid to snap-round to
+   * @param [isGridIndexed] whether to index the hot pixels by grid coordinates
+   */
+  SnapRoundingNoder(this.pm, [bool isGridIndexed = false]) :
+    pixelIndex = isGridIndexed ? new HotPixelGridIndex(pm) : new HotPixelIndex(pm);
 
   /**
 	 * @return a Collection of NodedSegmentStrings representing the substrings
@@ -11,7 +11,6 @@
  */
 
 
-
 // import org.locationtech.jts.algorithm.Distance;
 // import org.locationtech.jts.geom.Coordinate;
 // import org.locationtech.jts.geom.CoordinateSequence;
@@ -19,6 +18,15 @@
 // import org.locationtech.jts.geom.Geometry;
 // import org.locationtech.jts.geom.LineSegment;
 
+import 'package:jtscore4dart/src/algorithm/Distance.dart';
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/LineSegment.dart';
+
+import 'GeometryLocation.dart';
+
 /**
  * Represents a sequence of facets (points or line segments)
  * of a {@link Geometry}
@@ -29,7 +37,7 @@
  */
 class FacetSequence
 {
- /**private */Geometry geom = null;
+ /**private */Geometry? geom = null;
  /**private */CoordinateSequence pts;
  /**private */int start;
  /**private */int end;
@@ -38,51 +46,36 @@ class FacetSequence
    * Creates a new sequence of facets based on a {@link CoordinateSequence}
    * contained in the given {@link Geometry}.
    * 
-   * @param geom the geometry containing the facets 
-   * @param pts the sequence containing the facet points
-   * @param start the index of the start point
-   * @param end the index of the end point + 1
+   * @param [geom] the geometry containing the facets 
+   * @param [pts] the sequence containing the facet points
+   * @param [start] the index of the start point
+   * @param [end] the index of the end point + 1
    */
-  FacetSequence(Geometry geom, CoordinateSequence pts, int start, int end) 
-  {
-    this.geom = geom;
-    this.pts = pts;
-    this.start = start;
-    this.end = end;
-  } 
+  FacetSequence(this.geom, this.pts, this.start, this.end);
   
   /**
    * Creates a new sequence of facets based on a {@link CoordinateSequence}.
    * 
-   * @param pts the sequence containing the facet points
-   * @param start the index of the start point
-   * @param end the index of the end point + 1
+   * @param [pts] the sequence containing the facet points
+   * @param [start] the index of the start point
+   * @param [end] the index of the end point + 1
    */
-  FacetSequence(CoordinateSequence pts, int start, int end) 
-  {
-    this.pts = pts;
-    this.start = start;
-    this.end = end;
-  }
+  FacetSequence.seq(this.pts, this.start, this.end);
   
   /**
    * Creates a new sequence for a single point from a {@link CoordinateSequence}.
    * 
-   * @param pts the sequence containing the facet point
-   * @param start the index of the point
+   * @param [pts] the sequence containing the facet point
+   * @param [start] the index of the point
    */
-  FacetSequence(CoordinateSequence pts, int start) 
-  {
-    this.pts = pts;
-    this.start = start;
-    this.end = start + 1;
-  }
+  FacetSequence.point(this.pts, this.start)
+    : end = start + 1;
   
   Envelope getEnvelope()
   {
-    Envelope env = new Envelope();
+    Envelope env = new Envelope.init();
     for (int i = start; i < end; i++) {
-      env.expandToInclude(pts.getX(i), pts.getY(i));
+      env.expandToIncludeXY(pts.getX(i), pts.getY(i));
     }
     return env;
   }
@@ -106,12 +99,12 @@ class FacetSequence
    * Computes the distance between this and another
    * <tt>FacetSequence</tt>.
    * 
-   * @param facetSeq the sequence to compute the distance to
+   * @param [facetSeq] the sequence to compute the distance to
    * @return the minimum distance between the sequences
    */
   double distance(FacetSequence facetSeq)
   {
-    bool isPoint = isPoint();
+    bool isPoint = this.isPoint();
     bool isPointOther = facetSeq.isPoint();
     double distance;
     
@@ -133,6 +126,30 @@ class FacetSequence
     }
     return distance;
   }
+
+  /**
+   * Computes the distance from a point to this sequence,
+   * stopping as soon as a facet is found within a given distance.
+   * 
+   * @param [pt] the point to compute the distance to
+   * @param [stopDistance] the distance at which the search may stop
+   * @return the minimum distance, or a distance no greater than stopDistance
+   */
+  double distanceToPoint(Coordinate pt, [double stopDistance = 0.0])
+  {
+    if (isPoint()) {
+      return pt.distance(pts.getCoordinate(start));
+    }
+    double minDistance = double.maxFinite;
+    for (int i = start; i < end - 1; i++) {
+      double dist = Distance.pointToSegment(pt, pts.getCoordinate(i), pts.getCoordinate(i + 1));
+      if (dist < minDistance) {
+        minDistance = dist;
+        if (minDistance <= stopDistance) return minDistance;
+      }
+    }
+    return minDistance;
+  }
   
   /**
    * Computes the locations of the nearest points between this sequence
@@ -141,17 +158,17 @@ class FacetSequence
    *
    * @return a pair of {@link GeometryLocation}s for the nearest points
    */
-  GeometryLocation[] nearestLocations(FacetSequence facetSeq)
+  List<GeometryLocation?> nearestLocations(FacetSequence facetSeq)
   {
-    bool isPoint = isPoint();
+    bool isPoint = this.isPoint();
     bool isPointOther = facetSeq.isPoint();
-    GeometryLocation[] locs = new GeometryLocation[2];
+    List<GeometryLocation?> locs = List<GeometryLocation?>.filled(2, null);
     
     if (isPoint && isPointOther) {
       Coordinate pt = pts.getCoordinate(start);
       Coordinate seqPt = facetSeq.pts.getCoordinate(facetSeq.start);
-      locs[0] = new  GeometryLocation(geom, start, new Coordinate(pt));
-      locs[1] = new  GeometryLocation(facetSeq.geom, facetSeq.start, new Coordinate(seqPt));
+      locs[0] = new  GeometryLocation(geom!, new Coordinate.fromAnother(pt), start);
+      locs[1] = new  GeometryLocation(facetSeq.geom!, new Coordinate.fromAnother(seqPt), facetSeq.start);
     }
     else if (isPoint) {
       Coordinate pt = pts.getCoordinate(start);      
@@ -161,7 +178,7 @@ class FacetSequence
       Coordinate seqPt = facetSeq.pts.getCoordinate(facetSeq.start);
       computeDistancePointLine(seqPt, this, locs);
       // unflip the locations
-      GeometryLocation tmp = locs[0];
+      GeometryLocation? tmp = locs[0];
       locs[0] = locs[1];
       locs[1] = tmp;
     }
@@ -171,10 +188,10 @@ class FacetSequence
     return locs;    
   }
 
- /**private */double computeDistanceLineLine(FacetSequence facetSeq, GeometryLocation[] locs)
+ /**private */double computeDistanceLineLine(FacetSequence facetSeq, List<GeometryLocation?>? locs)
   {
     // both linear - compute minimum segment-segment distance
-    double minDistance = double.maxFinite
+    double minDistance = double.maxFinite;
 
     for (int i = start; i < end - 1; i++) {
       Coordinate p0 = pts.getCoordinate(i);
@@ -195,17 +212,17 @@ class FacetSequence
   }
 
  /**private */void updateNearestLocationsLineLine(int i, Coordinate p0, Coordinate p1, FacetSequence facetSeq, int j,
-      Coordinate q0, Coordinate q1, GeometryLocation[] locs) {
+      Coordinate q0, Coordinate q1, List<GeometryLocation?> locs) {
     LineSegment seg0 = new LineSegment(p0, p1);
     LineSegment seg1 = new LineSegment(q0, q1);
     List<Coordinate> closestPt = seg0.closestPoints(seg1);
-    locs[0] = new GeometryLocation(geom, i, new Coordinate(closestPt[0]));
-    locs[1] = new GeometryLocation(facetSeq.geom, j, new Coordinate(closestPt[1]));    
+    locs[0] = new GeometryLocation(geom!, new Coordinate.fromAnother(closestPt[0]), i);
+    locs[1] = new GeometryLocation(facetSeq.geom!, new Coordinate.fromAnother(closestPt[1]), j);
   }
   
- /**private */double computeDistancePointLine(Coordinate pt, FacetSequence facetSeq, GeometryLocation[] locs) 
+ /**private */double computeDistancePointLine(Coordinate pt, FacetSequence facetSeq, List<GeometryLocation?>? locs) 
   {
-    double minDistance = double.maxFinite
+    double minDistance = double.maxFinite;
 
     for (int i = facetSeq.start; i < facetSeq.end - 1; i++) {
       Coordinate q0 = facetSeq.pts.getCoordinate(i);
@@ -222,25 +239,25 @@ class FacetSequence
   
  /**private */void updateNearestLocationsPointLine(Coordinate pt, 
       FacetSequence facetSeq, int i, Coordinate q0, Coordinate q1, 
-      GeometryLocation[] locs) {
-    locs[0] = new GeometryLocation(geom, start, new Coordinate(pt));
+      List<GeometryLocation?> locs) {
+    locs[0] = new GeometryLocation(geom!, new Coordinate.fromAnother(pt), start);
     LineSegment seg = new LineSegment(q0, q1);
     Coordinate segClosestPoint = seg.closestPoint(pt);
-    locs[1] = new  GeometryLocation(facetSeq.geom, i, new Coordinate(segClosestPoint));
+    locs[1] = new  GeometryLocation(facetSeq.geom!, new Coordinate.fromAnother(segClosestPoint), i);
   }
 
+  @override
   String toString()
   {
     StringBuffer buf = new StringBuffer();
-    buf.append("LINESTRING ( ");
-    Coordinate p = new Coordinate();
+    buf.write("LINESTRING ( ");
     for (int i = start; i < end; i++) {
-      if (i > start)
-        buf.append(", ");
-      pts.getCoordinate(i, p);
-      buf.append(p.x + " " + p.y);
+      if (i > start) {
+        buf.write(", ");
+      }
+      buf.write("${pts.getX(i)} ${pts.getY(i)}");
     }
-    buf.append(" )");
+    buf.write(" )");
     return buf.toString();
   }
 }
@@ -11,7 +11,6 @@
  */
 
 
-
 // import java.util.ArrayList;
 // import java.util.Iterator;
 // import java.util.List;
@@ -23,19 +22,45 @@
 // import org.locationtech.jts.geom.Point;
 // import org.locationtech.jts.index.strtree.STRtree;
 
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryComponentFilter.dart';
+import 'package:jtscore4dart/src/geom/LineString.dart';
+import 'package:jtscore4dart/src/geom/Point.dart';
+import 'package:jtscore4dart/src/index/strtree/STRtree.dart';
+
+import 'FacetSequence.dart';
+
+class _ implements GeometryComponentFilter {
+  final List<FacetSequence> sections;
+
+  _(this.sections);
+
+  @override
+  void filter(Geometry geom) {
+    CoordinateSequence? seq = null;
+    if (geom is LineString) {
+      seq = geom.getCoordinateSequence();
+      FacetSequenceTreeBuilder.addFacetSequences(geom, seq, sections);
+    }
+    else if (geom is Point) {
+      seq = geom.getCoordinateSequence();
+      FacetSequenceTreeBuilder.addFacetSequences(geom, seq, sections);
+    }
+  }
+}
 
 class FacetSequenceTreeBuilder {
   // 6 seems to be a good facet sequence size
- /**private */static final int FACET_SEQUENCE_SIZE = 6;
+ /**private */static const int FACET_SEQUENCE_SIZE = 6;
 
   // Seems to be better to use a minimum node capacity
- /**private */static final int STR_TREE_NODE_CAPACITY = 4;
+ /**private */static const int STR_TREE_NODE_CAPACITY = 4;
 
   static STRtree build(Geometry g) {
     STRtree tree = new STRtree(STR_TREE_NODE_CAPACITY);
-    List sections = computeFacetSequences(g);
-    for (Iterator i = sections.iterator(); i.moveNext();) {
-      FacetSequence section = (FacetSequence) i.current;
+    List<FacetSequence> sections = computeFacetSequences(g);
+    for (FacetSequence section in sections) {
       tree.insert(section.getEnvelope(), section);
     }
     tree.build();
@@ -45,38 +70,26 @@ class FacetSequenceTreeBuilder {
   /**
    * Creates facet sequences
    * 
-   * @param g
+   * @param [g]
    * @return List<GeometryFacetSequence>
    */
- /**private */static List computeFacetSequences(Geometry g) {
-    final List sections = [];
+ /**private */static List<FacetSequence> computeFacetSequences(Geometry g) {
+    final List<FacetSequence> sections = [];
 
-    g.apply(new GeometryComponentFilter() {
-
-      void filter(Geometry geom) {
-        CoordinateSequence seq = null;
-        if (geom is LineString) {
-          seq = ((LineString) geom).getCoordinateSequence();
-          addFacetSequences(geom, seq, sections);
-        }
-        else if (geom is Point) {
-          seq = ((Point) geom).getCoordinateSequence();
-          addFacetSequences(geom, seq, sections);
-        }
-      }
-    });
+    g.applyGeometryComonent(_(sections));
     return sections;
   }
 
- /**private */static void addFacetSequences(Geometry geom, CoordinateSequence pts, List sections) {
+ /**private */static void addFacetSequences(Geometry geom, CoordinateSequence pts, List<FacetSequence> sections) {
     int i = 0;
     int size = pts.size();
     while (i <= size - 1) {
       int end = i + FACET_SEQUENCE_SIZE + 1;
       // if only one point remains after this section, include it in this
       // section
-      if (end >= size - 1)
+      if (end >= size - 1) {
         end = size;
+      }
       FacetSequence sect = new FacetSequence(geom, pts, i, end);
       sections.add(sect);
       i = i + FACET_SEQUENCE_SIZE;
@@ -21,6 +21,21 @@
 // import org.locationtech.jts.index.strtree.ItemDistance;
 // import org.locationtech.jts.index.strtree.STRtree;
 
+import 'dart:math' as math;
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/index/strtree/AbstractNode.dart';
+import 'package:jtscore4dart/src/index/strtree/Boundable.dart';
+import 'package:jtscore4dart/src/index/strtree/ItemBoundable.dart';
+import 'package:jtscore4dart/src/index/strtree/ItemDistance.dart';
+import 'package:jtscore4dart/src/index/strtree/STRtree.dart';
+
+import 'FacetSequence.dart';
+import 'FacetSequenceTreeBuilder.dart';
+import 'GeometryLocation.dart';
+
 /**
  * Computes the distance between the facets (segments and vertices) 
  * of two {@link Geometry}s
@@ -59,11 +74,11 @@ class IndexedFacetDistance
    * this can be faster than using a simple distance
    * algorithm.
    * 
-   * @param g1 a geometry
-   * @param g2 a geometry
+   * @param [g1] a geometry
+   * @param [g2] a geometry
    * @return the distance between facets of the geometries
    */
-  static double distance(Geometry g1, Geometry g2)
+  static double distance$2(Geometry g1, Geometry g2)
   {
     IndexedFacetDistance dist = new IndexedFacetDistance(g1);
     return dist.distance(g2);
@@ -72,12 +87,12 @@ class IndexedFacetDistance
   /**
    * Tests whether the facets of two geometries lie within a given distance.
    * 
-   * @param g1 a geometry
-   * @param g2 a geometry
-   * @param distance the distance limit
+   * @param [g1] a geometry
+   * @param [g2] a geometry
+   * @param [distance] the distance limit
    * @return true if two facets lie with the given distance
    */
-  static bool isWithinDistance(Geometry g1, Geometry g2, double distance) {
+  static bool isWithinDistance$3(Geometry g1, Geometry g2, double distance) {
     IndexedFacetDistance dist = new IndexedFacetDistance(g1);
     return dist.isWithinDistance(g2, distance);
   }
@@ -85,11 +100,11 @@ class IndexedFacetDistance
   /**
    * Computes the nearest points of the facets of two geometries.   
    * 
-   * @param g1 a geometry
-   * @param g2 a geometry
+   * @param [g1] a geometry
+   * @param [g2] a geometry
    * @return the nearest points on the facets of the geometries
    */
-  static List<Coordinate> nearestPoints(Geometry g1, Geometry g2) {
+  static List<Coordinate>? nearestPoints$2(Geometry g1, Geometry g2) {
     IndexedFacetDistance dist = new IndexedFacetDistance(g1);
     return dist.nearestPoints(g2);
   }
@@ -108,45 +123,67 @@ class IndexedFacetDistance
    * In the case of {@link Polygonal} inputs, this is equivalent 
    * to computing the distance to the polygon boundaries. 
    * 
-   * @param geom a Geometry, which may be of any type.
+   * @param [geom] a Geometry, which may be of any type.
    */
-  IndexedFacetDistance(Geometry geom) {
-    this.baseGeometry = geom;
-    cachedTree = FacetSequenceTreeBuilder.build(geom);
-  }
+  IndexedFacetDistance(Geometry geom)
+    : baseGeometry = geom,
+      cachedTree = FacetSequenceTreeBuilder.build(geom);
 
   /**
    * Computes the distance from the base geometry to 
    * the given geometry.
    *  
-   * @param g the geometry to compute the distance to
+   * @param [g] the geometry to compute the distance to
    * 
    * @return the computed distance
    */
   double distance(Geometry g)
   {
     STRtree tree2 = FacetSequenceTreeBuilder.build(g);
-    Object[] obj = cachedTree.nearestNeighbour(tree2, 
-        FACET_SEQ_DIST);
-    FacetSequence fs1 = (FacetSequence) obj[0];
-    FacetSequence fs2 = (FacetSequence) obj[1];
+    List<Object> obj = cachedTree.nearestNeighbourAnother(tree2, 
+        FACET_SEQ_DIST)!;
+    FacetSequence fs1 = obj[0] as FacetSequence;
+    FacetSequence fs2 = obj[1] as FacetSequence;
     return fs1.distance(fs2);
   }
+
+  /**
+   * Computes the distance from the base geometry to a point.
+   * <p>
+   * The search visits the tree nodes nearest the point first,
+   * and stops as soon as a facet within <code>stopDistance</code> is found.
+   * This allows quickly testing whether a point is further than a given distance
+   * from the geometry, which is the inner loop of
+   * {@link IndexedDiscreteHausdorffDistance}.
+   * 
+   * @param [p] the point to compute the distance to
+   * @param [stopDistance] the distance at which the search may stop
+   * @return the distance to the base geometry if it is greater than stopDistance,
+   *    or otherwise a distance no greater than stopDistance
+   *    (<code>double.infinity</code> if the base geometry is empty)
+   */
+  double distanceToPoint(Coordinate p, [double stopDistance = 0.0])
+  {
+    if (cachedTree.isEmpty()) return double.infinity;
+    PointSearch search = new PointSearch(p, stopDistance);
+    search.searchNode(cachedTree.getRoot());
+    return search.minDistance;
+  }
   
   /**
    * Computes the nearest locations on the base geometry
    * and the given geometry.
    * 
-   * @param g the geometry to compute the nearest location to
+   * @param [g] the geometry to compute the nearest location to
    * @return the nearest locations
    */
-  GeometryLocation[] nearestLocations(Geometry g)
+  List<GeometryLocation?> nearestLocations(Geometry g)
   {
     STRtree tree2 = FacetSequenceTreeBuilder.build(g);
-    Object[] obj = cachedTree.nearestNeighbour(tree2, 
-        FACET_SEQ_DIST);
-    FacetSequence fs1 = (FacetSequence) obj[0];
-    FacetSequence fs2 = (FacetSequence) obj[1];
+    List<Object> obj = cachedTree.nearestNeighbourAnother(tree2, 
+        FACET_SEQ_DIST)!;
+    FacetSequence fs1 = obj[0] as FacetSequence;
+    FacetSequence fs2 = obj[1] as FacetSequence;
     return fs1.nearestLocations(fs2);
   }
 
@@ -154,21 +191,22 @@ class IndexedFacetDistance
    * Compute the nearest locations on the target geometry
    * and the given geometry.
    * 
-   * @param g the geometry to compute the nearest point to
+   * @param [g] the geometry to compute the nearest point to
    * @return the nearest points
    */
-  List<Coordinate> nearestPoints(Geometry g) {
-    GeometryLocation[] minDistanceLocation = nearestLocations(g);
-    List<Coordinate> nearestPts = toPoints(minDistanceLocation);
+  List<Coordinate>? nearestPoints(Geometry g) {
+    List<GeometryLocation?> minDistanceLocation = nearestLocations(g);
+    List<Coordinate>? nearestPts = toPoints(minDistanceLocation);
     return nearestPts;
   }
 
- /**private */static List<Coordinate> toPoints(GeometryLocation[] locations) {
-    if (locations == null) 
+ /**private */static List<Coordinate>? toPoints(List<GeometryLocation?>? locations) {
+    if (locations == null || locations[0] == null || locations[1] == null) {
       return null;
-    List<Coordinate> nearestPts = new List<Coordinate> {
-        locations[0].getCoordinate(),
-      locations[1].getCoordinate() };
+    }
+    List<Coordinate> nearestPts = [
+        locations[0]!.getCoordinate(),
+        locations[1]!.getCoordinate() ];
     return nearestPts;
   }
 
@@ -176,33 +214,94 @@ class IndexedFacetDistance
    * Tests whether the base geometry lies within
    * a specified distance of the given geometry.
    * 
-   * @param g the geometry to test
-   * @param maxDistance the maximum distance to test
+   * @param [g] the geometry to test
+   * @param [maxDistance] the maximum distance to test
    * @return true if the geometry lies with the specified distance
    */
   bool isWithinDistance(Geometry g, double maxDistance) {
     // short-ciruit check
     double envDist = baseGeometry.getEnvelopeInternal().distance(g.getEnvelopeInternal());
-    if (envDist > maxDistance)
+    if (envDist > maxDistance) {
       return false;
+    }
 
     STRtree tree2 = FacetSequenceTreeBuilder.build(g);
     return cachedTree.isWithinDistance(tree2, 
         FACET_SEQ_DIST, maxDistance);
   }  
- 
- /**private */static class FacetSequenceDistance
+}
+
+/**private static */
+class FacetSequenceDistance
   implements ItemDistance
-  {
-    double distance(ItemBoundable item1, ItemBoundable item2) {
-      FacetSequence fs1 = (FacetSequence) item1.getItem();
-      FacetSequence fs2 = (FacetSequence) item2.getItem();
-      return fs1.distance(fs2);    
-    }
+{
+  @override
+  double distance(ItemBoundable item1, ItemBoundable item2) {
+    FacetSequence fs1 = item1.getItem() as FacetSequence;
+    FacetSequence fs2 = item2.getItem() as FacetSequence;
+    return fs1.distance(fs2);    
   }
+}
 
+/**
+ * A depth-first Branch-and-Bound search for the distance from a point
+ * to the facets in a tree, visiting nearer children first.
+ */
+/**private static */
+class PointSearch
+{
+  final Coordinate p;
+  final double stopDistance;
+  double minDistance = double.infinity;
 
+  PointSearch(this.p, this.stopDistance);
 
-}
+  bool isDone() { return minDistance <= stopDistance; }
 
+  void searchNode(AbstractNode node)
+  {
+    List children = node.getChildBoundables();
+    int n = children.length;
+    List<double> dists = List<double>.filled(n, 0.0);
+    List<int> order = List<int>.filled(n, 0);
+    for (int i = 0; i < n; i++) {
+      dists[i] = envelopeDistance((children[i] as Boundable).getBounds() as Envelope);
+      order[i] = i;
+    }
+    order.sort((a, b) => dists[a].compareTo(dists[b]));
+    for (int k = 0; k < n; k++) {
+      int i = order[k];
+      // the remaining children are no nearer
+      if (dists[i] >= minDistance) return;
+      Object child = children[i];
+      if (child is AbstractNode) {
+        searchNode(child);
+      }
+      else {
+        FacetSequence fs = (child as ItemBoundable).getItem() as FacetSequence;
+        double dist = fs.distanceToPoint(p, stopDistance);
+        if (dist < minDistance) minDistance = dist;
+      }
+      if (isDone()) return;
+    }
+  }
 
+ /**private */double envelopeDistance(Envelope env)
+  {
+    double dx = 0.0;
+    if (p.x < env.getMinX()) {
+      dx = env.getMinX() - p.x;
+    } else if (p.x > env.getMaxX()) {
+      dx = p.x - env.getMaxX();
+    }
+    double dy = 0.0;
+    if (p.y < env.getMinY()) {
+      dy = env.getMinY() - p.y;
+    } else if (p.y > env.getMaxY()) {
+      dy = p.y - env.getMaxY();
+    }
+    if (dx == 0.0) return dy;
+    if (dy == 0.0) return dx;
+    return math.sqrt(dx * dx + dy * dy);
+  }
+}
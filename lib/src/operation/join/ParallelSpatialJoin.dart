@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:isolate';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+
+import 'SpatialJoin.dart';
+
+/// Runs a {@link SpatialJoin} on a pool of isolates.
+/// <p>
+/// The left source is split into one contiguous partition per worker.
+/// Each worker is sent its partition and the right geometries
+/// whose envelopes lie within the join distance of the partition envelope,
+/// and joins them with its own <code>SpatialJoin</code>.
+/// Workers report the pairs as index pairs, which are mapped back to
+/// the original geometries, so the result is the same
+/// (and in the same order) as {@link SpatialJoin#join}.
+/// <p>
+/// The geometries must be sendable between isolates.
+/// Copying them to the workers is only repaid for joins
+/// with expensive predicates or many candidate pairs.
+/// <p>
+/// This uses <code>dart:isolate</code>, so it is not exported
+/// from the <code>operation</code> library.
+class ParallelSpatialJoin {
+ /**private */static const int DEFAULT_NUM_WORKERS = 4;
+
+  /// Left sources shorter than this are joined on the calling isolate.
+ /**private */static const int MIN_PARALLEL_SIZE = 64;
+
+ /**private */final SpatialJoin join;
+ /**private */final int numWorkers;
+
+  /// Creates a parallel join.
+  ///
+  /// @param join the join to run
+  /// @param numWorkers the maximum number of isolates to use
+  ParallelSpatialJoin(this.join, [this.numWorkers = DEFAULT_NUM_WORKERS]) {
+    if (numWorkers < 1) {
+      throw ArgumentError("Number of workers must be at least 1");
+    }
+  }
+
+  /// Joins two lists of geometries.
+  ///
+  /// @param left the left geometries
+  /// @param right the right geometries
+  /// @return the matching pairs, in order of left index
+  Future<List<JoinPair>> joinAll(List<Geometry> left, List<Geometry> right) async {
+    if (numWorkers <= 1 || left.length < MIN_PARALLEL_SIZE) {
+      return join.join(left, right).toList();
+    }
+    int predicate = join.getPredicate();
+    double distance = join.getDistance();
+    int indexType = join.getIndexType();
+    int partSize = (left.length + numWorkers - 1) ~/ numWorkers;
+    List<Future<Int32List>> parts = [];
+    for (int start = 0; start < left.length; start += partSize) {
+      int end = start + partSize < left.length ? start + partSize : left.length;
+      List<Geometry> part = left.sublist(start, end);
+      Int32List rightIndex = selectRight(part, right, distance);
+      List<Geometry> selected = [for (int j in rightIndex) right[j]];
+      int offset = start;
+      parts.add(Isolate.run(() => toIndexPairs(
+          new SpatialJoin(predicate, distance, indexType).join(part, selected),
+          offset, rightIndex)));
+    }
+    List<JoinPair> result = [];
+    for (Int32List pairs in await Future.wait(parts)) {
+      for (int k = 0; k < pairs.length; k += 2) {
+        int i = pairs[k];
+        int j = pairs[k + 1];
+        result.add(new JoinPair(i, left[i], j, right[j]));
+      }
+    }
+    return result;
+  }
+
+  /// Selects the indexes of the right geometries which may match
+  /// a partition, so that only they are copied to the worker.
+ /**private */static Int32List selectRight(List<Geometry> part, List<Geometry> right, double distance) {
+    Envelope partEnv = new Envelope.init();
+    for (Geometry geom in part) {
+      partEnv.expandToIncludeEnvelope(geom.getEnvelopeInternal());
+    }
+    // the distance only applies to WITHIN_DISTANCE, but is 0 otherwise
+    if (distance > 0) partEnv.expandBy(distance);
+    List<int> selected = [];
+    for (int j = 0; j < right.length; j++) {
+      if (partEnv.intersects(right[j].getEnvelopeInternal())) {
+        selected.add(j);
+      }
+    }
+    return Int32List.fromList(selected);
+  }
+
+  /// Converts the pairs found by a worker to indexes into the full sources.
+ /**private */static Int32List toIndexPairs(Iterable<JoinPair> pairs, int leftOffset, Int32List rightIndex) {
+    List<int> result = [];
+    for (JoinPair pair in pairs) {
+      result.add(pair.leftIndex + leftOffset);
+      result.add(rightIndex[pair.rightIndex]);
+    }
+    return Int32List.fromList(result);
+  }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/prep/PreparedGeometry.dart';
+import 'package:jtscore4dart/src/geom/prep/PreparedGeometryFactory.dart';
+import 'package:jtscore4dart/src/index/SpatialIndex.dart';
+import 'package:jtscore4dart/src/index/hprtree/HPRtree.dart';
+import 'package:jtscore4dart/src/index/strtree/AbstractNode.dart';
+import 'package:jtscore4dart/src/index/strtree/BoundablePair.dart';
+import 'package:jtscore4dart/src/index/strtree/ItemBoundable.dart';
+import 'package:jtscore4dart/src/index/strtree/ItemDistance.dart';
+import 'package:jtscore4dart/src/index/strtree/STRtree.dart';
+
+/// A pair of geometries matched by a {@link SpatialJoin}.
+class JoinPair {
+  /// The index of the left geometry in the left source
+  final int leftIndex;
+
+  /// The left geometry
+  final Geometry left;
+
+  /// The index of the right geometry in the right source
+  final int rightIndex;
+
+  /// The right geometry
+  final Geometry right;
+
+  JoinPair(this.leftIndex, this.left, this.rightIndex, this.right);
+
+  @override
+  String toString() {
+    return "($leftIndex, $rightIndex)";
+  }
+}
+
+/// Finds the pairs of geometries from two sources
+/// which satisfy a spatial predicate.
+/// <p>
+/// The predicate is evaluated as <code>left.predicate(right)</code>, and is one of
+/// {@link #INTERSECTS}, {@link #CONTAINS}, {@link #WITHIN}
+/// or {@link #WITHIN_DISTANCE}.
+/// <p>
+/// {@link #join} indexes the right source in an {@link STRtree}
+/// or {@link HPRtree} and streams the left source,
+/// so the left source may be arbitrarily long and is read lazily.
+/// The pairs for each left geometry are produced in order of right index.
+/// {@link #joinDualTree} indexes both sources and traverses the two trees
+/// together, which is faster when both sources are large.
+/// <p>
+/// Candidate pairs are found by envelope, and the predicate is then evaluated
+/// using {@link PreparedGeometry}s: a geometry is prepared
+/// once it has been tested against {@link #MIN_PREPARE_USES} candidates,
+/// so the cost of preparing is only paid by geometries which are reused.
+/// <p>
+/// To partition a join over isolates, see <code>ParallelSpatialJoin</code>.
+class SpatialJoin {
+  /// The predicate <code>left.intersects(right)</code>
+  static const int INTERSECTS = 0;
+
+  /// The predicate <code>left.contains(right)</code>
+  static const int CONTAINS = 1;
+
+  /// The predicate <code>left.within(right)</code>
+  static const int WITHIN = 2;
+
+  /// The predicate <code>left.isWithinDistance(right, distance)</code>
+  static const int WITHIN_DISTANCE = 3;
+
+  /// Indexes the right source with an {@link STRtree}
+  static const int INDEX_STRTREE = 0;
+
+  /// Indexes the right source with an {@link HPRtree}
+  static const int INDEX_HPRTREE = 1;
+
+  /// The number of candidates a geometry must be tested against
+  /// before it is prepared
+  static const int MIN_PREPARE_USES = 2;
+
+ /**private */final int predicate;
+ /**private */final double distance;
+ /**private */final int indexType;
+
+  /// Creates a join for a predicate.
+  ///
+  /// @param predicate the predicate to match pairs with
+  /// @param distance the distance for {@link #WITHIN_DISTANCE}
+  /// @param indexType the index to use for the right source
+  SpatialJoin(this.predicate, [this.distance = 0.0, this.indexType = INDEX_STRTREE]) {
+    if (predicate < INTERSECTS || predicate > WITHIN_DISTANCE) {
+      throw new ArgumentError("Unknown predicate: $predicate");
+    }
+    if (distance < 0) {
+      throw new ArgumentError("Distance must be non-negative");
+    }
+  }
+
+  /// Gets the predicate this join matches pairs with.
+  int getPredicate() {
+    return predicate;
+  }
+
+  /// Gets the distance for {@link #WITHIN_DISTANCE}.
+  double getDistance() {
+    return distance;
+  }
+
+  /// Gets the index used for the right source.
+  int getIndexType() {
+    return indexType;
+  }
+
+  /// Joins two sources, reading the left source lazily.
+  /// The right source is read and indexed when the first pair is requested.
+  ///
+  /// @param left the left geometries
+  /// @param right the right geometries
+  /// @return the matching pairs, in order of left index
+  Iterable<JoinPair> join(Iterable<Geometry> left, Iterable<Geometry> right) sync* {
+    JoinSide rightSide = new JoinSide(right.toList());
+    SpatialIndex index = buildIndex(rightSide.geoms);
+    JoinSide leftSide = new JoinSide([]);
+    int i = 0;
+    for (Geometry geom in left) {
+      yield* probe(index, leftSide.reset(geom), i, rightSide);
+      i++;
+    }
+  }
+
+  /// Joins a stream of geometries to a source,
+  /// producing the pairs as the left geometries arrive.
+  ///
+  /// @param left the left geometries
+  /// @param right the right geometries
+  /// @return the matching pairs, in order of left index
+  Stream<JoinPair> joinStream(Stream<Geometry> left, Iterable<Geometry> right) async* {
+    JoinSide rightSide = new JoinSide(right.toList());
+    SpatialIndex index = buildIndex(rightSide.geoms);
+    JoinSide leftSide = new JoinSide([]);
+    int i = 0;
+    await for (Geometry geom in left) {
+      for (JoinPair pair in probe(index, leftSide.reset(geom), i, rightSide)) {
+        yield pair;
+      }
+      i++;
+    }
+  }
+
+  /// Joins two sources by traversing {@link STRtree}s on both of them
+  /// with {@link BoundablePair}s, descending only into pairs of nodes
+  /// whose envelopes are within the join distance.
+  /// The pairs are produced in tree order.
+  ///
+  /// @param left the left geometries
+  /// @param right the right geometries
+  /// @return the matching pairs
+  Iterable<JoinPair> joinDualTree(Iterable<Geometry> left, Iterable<Geometry> right) sync* {
+    JoinSide leftSide = new JoinSide(left.toList());
+    JoinSide rightSide = new JoinSide(right.toList());
+    if (leftSide.geoms.isEmpty || rightSide.geoms.isEmpty) return;
+    STRtree leftTree = buildSTRtree(leftSide.geoms);
+    STRtree rightTree = buildSTRtree(rightSide.geoms);
+    AbstractNode leftRoot = leftTree.getRoot();
+    AbstractNode rightRoot = rightTree.getRoot();
+    if (leftRoot.isEmpty() || rightRoot.isEmpty()) return;
+
+    double maxDist = searchDistance();
+    ItemDistance envDist = new EnvelopeItemDistance();
+    List<BoundablePair> stack = [new BoundablePair(leftRoot, rightRoot, envDist)];
+    while (stack.isNotEmpty) {
+      BoundablePair pair = stack.removeLast();
+      if (pair.getDistance() > maxDist) continue;
+      if (! pair.isLeaves()) {
+        pair.expandToList(stack, maxDist);
+        continue;
+      }
+      int i = (pair.getBoundable(0) as ItemBoundable).getItem() as int;
+      int j = (pair.getBoundable(1) as ItemBoundable).getItem() as int;
+      if (matches(leftSide, i, rightSide, j)) {
+        yield new JoinPair(i, leftSide.geoms[i], j, rightSide.geoms[j]);
+      }
+    }
+  }
+
+  /// Finds the pairs for one left geometry.
+ /**private */Iterable<JoinPair> probe(SpatialIndex index, JoinSide leftSide, int leftIndex,
+      JoinSide rightSide) sync* {
+    Geometry geom = leftSide.geoms[0];
+    if (geom.isEmpty()) return;
+    Envelope searchEnv = new Envelope.fromAnother(geom.getEnvelopeInternal());
+    double searchDist = searchDistance();
+    if (searchDist > 0) searchEnv.expandBy(searchDist);
+    List candidates = index.query(searchEnv);
+    if (candidates.isEmpty) return;
+    Int32List sorted = new Int32List(candidates.length);
+    for (int k = 0; k < candidates.length; k++) {
+      sorted[k] = candidates[k] as int;
+    }
+    sorted.sort();
+    for (int j in sorted) {
+      if (matches(leftSide, 0, rightSide, j)) {
+        yield new JoinPair(leftIndex, geom, j, rightSide.geoms[j]);
+      }
+    }
+  }
+
+  /// The distance between envelopes of candidate pairs.
+ /**private */double searchDistance() {
+    return predicate == WITHIN_DISTANCE ? distance : 0.0;
+  }
+
+ /**private */bool matches(JoinSide leftSide, int i, JoinSide rightSide, int j) {
+    Geometry a = leftSide.geoms[i];
+    Geometry b = rightSide.geoms[j];
+    if (predicate == INTERSECTS) {
+      PreparedGeometry? prepA = leftSide.prepared(i);
+      if (prepA != null) return prepA.intersects(b);
+      PreparedGeometry? prepB = rightSide.prepared(j);
+      if (prepB != null) return prepB.intersects(a);
+      return a.intersects(b);
+    }
+    if (predicate == CONTAINS) {
+      PreparedGeometry? prepA = leftSide.prepared(i);
+      if (prepA != null) return prepA.contains(b);
+      return a.contains(b);
+    }
+    if (predicate == WITHIN) {
+      // a within b is b contains a
+      PreparedGeometry? prepB = rightSide.prepared(j);
+      if (prepB != null) return prepB.contains(a);
+      return b.contains(a);
+    }
+    return a.isWithinDistance(b, distance);
+  }
+
+ /**private */SpatialIndex buildIndex(List<Geometry> geoms) {
+    if (indexType == INDEX_HPRTREE) {
+      HPRtree tree = new HPRtree();
+      insertAll(tree, geoms);
+      tree.build();
+      return tree;
+    }
+    return buildSTRtree(geoms);
+  }
+
+ /**private */static STRtree buildSTRtree(List<Geometry> geoms) {
+    STRtree tree = new STRtree();
+    insertAll(tree, geoms);
+    tree.build();
+    return tree;
+  }
+
+ /**private */static void insertAll(SpatialIndex index, List<Geometry> geoms) {
+    for (int i = 0; i < geoms.length; i++) {
+      Geometry geom = geoms[i];
+      if (geom.isEmpty()) continue;
+      index.insert(geom.getEnvelopeInternal(), i);
+    }
+  }
+}
+
+/// The geometries of one side of a join,
+/// with their prepared forms created on reuse.
+/**private */
+class JoinSide {
+  final List<Geometry> geoms;
+  final List<PreparedGeometry?> preps = [];
+  final List<int> uses = [];
+
+  JoinSide(this.geoms) {
+    for (int i = 0; i < geoms.length; i++) {
+      preps.add(null);
+      uses.add(0);
+    }
+  }
+
+  /// Makes this the side of a single streamed geometry.
+  JoinSide reset(Geometry geom) {
+    if (geoms.isEmpty) {
+      geoms.add(geom);
+      preps.add(null);
+      uses.add(0);
+    }
+    geoms[0] = geom;
+    preps[0] = null;
+    uses[0] = 0;
+    return this;
+  }
+
+  /// Gets the prepared form of a geometry once it has been used
+  /// {@link SpatialJoin#MIN_PREPARE_USES} times.
+  PreparedGeometry? prepared(int i) {
+    PreparedGeometry? prep = preps[i];
+    if (prep != null) return prep;
+    if (++uses[i] < SpatialJoin.MIN_PREPARE_USES) return null;
+    prep = PreparedGeometryFactory.prepare(geoms[i]);
+    preps[i] = prep;
+    return prep;
+  }
+}
+
+/// The distance between the envelopes of items,
+/// used to find the candidate pairs of a dual-tree join.
+/**private */
+class EnvelopeItemDistance implements ItemDistance {
+  @override
+  double distance(ItemBoundable item1, ItemBoundable item2) {
+    return (item1.getBounds() as Envelope).distance(item2.getBounds() as Envelope);
+  }
+}
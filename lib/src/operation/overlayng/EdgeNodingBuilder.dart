@@ -229,7 +229,7 @@ class EdgeNodingBuilder {
   /**private */ void add(Geometry g, int geomIndex) {
     if (g == null || g.isEmpty()) return;
 
-    if (isClippedCompletely(g.getEnvelopeInternal())) {
+    if (isClippedCompletely(g.getEnvelopeView())) {
       return;
     }
 
@@ -287,7 +287,7 @@ class EdgeNodingBuilder {
     // don't add empty rings
     if (ring.isEmpty()) return;
 
-    if (isClippedCompletely(ring.getEnvelopeInternal())) {
+    if (isClippedCompletely(ring.getEnvelopeView())) {
       return;
     }
 
@@ -335,7 +335,7 @@ class EdgeNodingBuilder {
    */
   /**private */ List<Coordinate> clip(LinearRing ring) {
     List<Coordinate> pts = ring.getCoordinates();
-    Envelope env = ring.getEnvelopeInternal();
+    Envelope env = ring.getEnvelopeView();
 
     /**
      * If no clipper or ring is completely contained then no need to clip.
@@ -401,7 +401,7 @@ class EdgeNodingBuilder {
     // don't add empty lines
     if (line.isEmpty()) return;
 
-    if (isClippedCompletely(line.getEnvelopeInternal())) {
+    if (isClippedCompletely(line.getEnvelopeView())) {
       return;
     }
 
@@ -446,7 +446,7 @@ class EdgeNodingBuilder {
     if (limiter == null || pts.length <= MIN_LIMIT_PTS) {
       return false;
     }
-    Envelope env = line.getEnvelopeInternal();
+    Envelope env = line.getEnvelopeView();
     /**
      * If line is completely contained then no need to limit
      */
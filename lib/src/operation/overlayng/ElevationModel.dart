@@ -60,9 +60,9 @@ class ElevationModel {
    * @return the elevation model computed from the geometries
    */
   static ElevationModel create(Geometry geom1, Geometry? geom2) {
-    Envelope extent = geom1.getEnvelopeInternal().copy();
+    Envelope extent = geom1.getEnvelopeView().copy();
     if (geom2 != null) {
-      extent.expandToIncludeEnvelope(geom2.getEnvelopeInternal());
+      extent.expandToIncludeEnvelope(geom2.getEnvelopeView());
     }
     ElevationModel model =
         new ElevationModel(extent, DEFAULT_CELL_NUM, DEFAULT_CELL_NUM);
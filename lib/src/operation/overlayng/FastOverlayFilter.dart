@@ -82,10 +82,10 @@ class FastOverlayFilter {
   }
 
   bool _isEnvelopeIntersects(Geometry a, Geometry b) {
-    return a.getEnvelopeInternal().intersects(b.getEnvelopeInternal());
+    return a.getEnvelopeView().intersects(b.getEnvelopeView());
   }
 
   /**private */ bool _isEnvelopeCovers(Geometry a, Geometry b) {
-    return a.getEnvelopeInternal().covers(b.getEnvelopeInternal());
+    return a.getEnvelopeView().covers(b.getEnvelopeView());
   }
 }
@@ -60,7 +60,7 @@ class InputGeometry {
   }
 
   Envelope getEnvelope(int geomIndex) {
-    return geom[geomIndex]!.getEnvelopeInternal();
+    return geom[geomIndex]!.getEnvelopeView();
   }
 
   bool isEmpty(int geomIndex) {
@@ -57,7 +57,7 @@ class OverlayEdgeRing {
 
   /**private */
   Envelope getEnvelope() {
-    return _ring!.getEnvelopeInternal();
+    return _ring!.getEnvelopeView();
   }
 
   /**
@@ -327,7 +327,7 @@ class OverlayNGRobust {
    */
   static double _ordinateMagnitude(Geometry geom) {
     if (geom == null || geom.isEmpty()) return 0;
-    Envelope env = geom.getEnvelopeInternal();
+    Envelope env = geom.getEnvelopeView();
     double magMax = max((env.getMaxX().abs()), (env.getMaxY().abs()));
     double magMin = max((env.getMinX().abs()), (env.getMinY().abs()));
     return max(magMax, magMin);
@@ -210,9 +210,9 @@ class OverlayUtil {
   static bool isEnvDisjoint(Geometry a, Geometry b, PrecisionModel pm) {
     if (isEmpty(a) || isEmpty(b)) return true;
     if (isFloating(pm)) {
-      return a.getEnvelopeInternal().disjoint(b.getEnvelopeInternal());
+      return a.getEnvelopeView().disjoint(b.getEnvelopeView());
     }
-    return isDisjoint(a.getEnvelopeInternal(), b.getEnvelopeInternal(), pm);
+    return isDisjoint(a.getEnvelopeView(), b.getEnvelopeView(), pm);
   }
 
   /**
@@ -96,7 +96,7 @@ class PrecisionUtil {
    * @return a safe scale factor for the geometry ordinates
    */
   static double safeScale1(Geometry geom) {
-    return safeScale(_maxBoundMagnitude(geom.getEnvelopeInternal()));
+    return safeScale(_maxBoundMagnitude(geom.getEnvelopeView()));
   }
 
   /**
@@ -110,9 +110,9 @@ class PrecisionUtil {
    * @return a safe scale factor for the geometry ordinates
    */
   static double safeScale2(Geometry a, Geometry? b) {
-    double maxBnd = _maxBoundMagnitude(a.getEnvelopeInternal());
+    double maxBnd = _maxBoundMagnitude(a.getEnvelopeView());
     if (b != null) {
-      double maxBndB = _maxBoundMagnitude(b.getEnvelopeInternal());
+      double maxBndB = _maxBoundMagnitude(b.getEnvelopeView());
       maxBnd = max(maxBnd, maxBndB);
     }
     double scale = PrecisionUtil.safeScale(maxBnd);
@@ -51,7 +51,6 @@ class _ implements UnionStrategy {
     @override
     Geometry union(Geometry g0, Geometry g1) {
       try {
-        print('>>>>>>>>> SnapIfNeededOverlayOp.union(g0, g1): ${ SnapIfNeededOverlayOp.union(g0, g1) } <<<<<<<<<<<<<<<<<<<<');
         return SnapIfNeededOverlayOp.union(g0, g1);
       }
       on TopologyException catch (__) {
@@ -121,6 +120,23 @@ class CascadedPolygonUnion
     return op.union();
   }
 
+  /**
+   * Computes the union of a tree of {@link Polygonal} {@link Geometry}s,
+   * in the nested-list form returned by {@link STRtree#itemsTree}.
+   * Each list is unioned recursively, in the same way as
+   * the index built by {@link #union}.
+   * Items which are already geometries are used as they are,
+   * so subtrees can be replaced by their unions computed elsewhere.
+   *
+   * @param itemTree a non-empty tree-structured list of geometries
+   * @param unionFun the union strategy to use
+   * @return the union of the geometries in the tree
+   */
+  static Geometry unionItemsTree(List itemTree, [UnionStrategy? unionFun])
+  {
+    return new CascadedPolygonUnion([], unionFun).unionTree(itemTree);
+  }
+
 	/**private */ Iterable? inputPolys;
 	/**private */ GeometryFactory? geomFactory;
   /**private */ UnionStrategy unionFun;
@@ -207,7 +223,7 @@ class CascadedPolygonUnion
     STRtree index = new STRtree(_STRTREE_NODE_CAPACITY);
     for (Iterator i = inputPolys!.iterator; i.moveNext(); ) {
       Geometry item = i.current as Geometry;
-      index.insert(item.getEnvelopeInternal(), item);
+      index.insert(item.getEnvelopeView(), item);
     }
     // To avoiding holding memory remove references to the input geometries,
     inputPolys = null;
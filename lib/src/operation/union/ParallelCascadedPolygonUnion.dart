@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:isolate';
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/geom/LinearRing.dart';
+import 'package:jtscore4dart/src/geom/MultiPolygon.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequence.dart';
+import 'package:jtscore4dart/src/index/strtree/STRtree.dart';
+
+import 'CascadedPolygonUnion.dart';
+import 'UnionStrategy.dart';
+
+/// Computes the union of a collection of {@link Polygonal} geometries
+/// in the same way as {@link CascadedPolygonUnion},
+/// using a pool of isolates.
+/// <p>
+/// The geometries are indexed in an {@link STRtree} as usual.
+/// The upper levels of the tree are split into independent subtrees,
+/// which are shared out between the workers and unioned there with
+/// {@link CascadedPolygonUnion#unionItemsTree}.
+/// The partial results then replace their subtrees,
+/// and the rest of the tree is unioned on the calling isolate.
+/// Since every subtree is reduced exactly as it would be sequentially,
+/// the result is the same as the result of {@link CascadedPolygonUnion}.
+/// <p>
+/// Geometries are passed to and from the workers in a compact binary form:
+/// the ring structure as an <code>Int32List</code> and the ordinates as a
+/// <code>Float64List</code>, both sent as {@link TransferableTypedData}.
+/// Decoded rings use {@link PackedCoordinateSequenceDouble}s which are views
+/// of the received ordinates, so the coordinates are not copied again.
+/// X, Y and (if present) Z ordinates are transferred.
+/// <p>
+/// The {@link UnionStrategy} must be sendable between isolates.
+/// <p>
+/// This uses <code>dart:isolate</code>, so it is not exported
+/// from the <code>operation</code> library.
+class ParallelCascadedPolygonUnion {
+ /**private */static const int DEFAULT_NUM_WORKERS = 4;
+
+  /// The number of subtrees to aim for per worker, to even out the load.
+ /**private */static const int SUBTREES_PER_WORKER = 4;
+
+  /// Inputs with fewer geometries than this are unioned on the calling isolate.
+ /**private */static const int MIN_PARALLEL_SIZE = 256;
+
+  /// The same node capacity as {@link CascadedPolygonUnion}
+ /**private */static const int STRTREE_NODE_CAPACITY = 4;
+
+ /**private */final int numWorkers;
+
+ /**private */final UnionStrategy? unionFun;
+
+  /// Computes the union of a collection of {@link Polygonal} geometries.
+  ///
+  /// @param polys a collection of Polygonal geometries
+  /// @param numWorkers the maximum number of isolates to use
+  /// @param unionFun the union strategy to use
+  /// @return the union of the geometries, or null if there are none
+  static Future<Geometry?> of(Iterable polys,
+      [int numWorkers = DEFAULT_NUM_WORKERS, UnionStrategy? unionFun]) {
+    return new ParallelCascadedPolygonUnion(numWorkers, unionFun).union(polys);
+  }
+
+  /// Creates a union operation which uses up to the given number of isolates.
+  ///
+  /// @param numWorkers the maximum number of isolates to use
+  /// @param unionFun the union strategy to use
+  ///    (by default {@link CascadedPolygonUnion#CLASSIC_UNION})
+  ParallelCascadedPolygonUnion([this.numWorkers = DEFAULT_NUM_WORKERS, this.unionFun]) {
+    if (numWorkers < 1) {
+      throw ArgumentError("Number of workers must be at least 1");
+    }
+  }
+
+  /// Computes the union of a collection of {@link Polygonal} geometries.
+  ///
+  /// @param polys a collection of Polygonal geometries
+  /// @return the union of the geometries, or null if there are none
+  Future<Geometry?> union(Iterable polys) async {
+    if (polys.isEmpty) return null;
+    if (polys.length < MIN_PARALLEL_SIZE || numWorkers == 1) {
+      return CascadedPolygonUnion.of(polys, unionFun);
+    }
+    GeometryFactory factory = (polys.first as Geometry).getFactory();
+
+    STRtree index = new STRtree(STRTREE_NODE_CAPACITY);
+    for (Object poly in polys) {
+      Geometry item = poly as Geometry;
+      index.insert(item.getEnvelopeView(), item);
+    }
+    List itemTree = index.itemsTree();
+
+    List<List> subtrees = selectSubtrees(itemTree, numWorkers * SUBTREES_PER_WORKER);
+    Map<List, Geometry> subtreeUnions = Map.identity();
+    int chunkSize = math.max(1, (subtrees.length / numWorkers).ceil());
+    List<Future<void>> chunks = [];
+    for (int start = 0; start < subtrees.length; start += chunkSize) {
+      List<List> chunk = subtrees.sublist(start, math.min(subtrees.length, start + chunkSize));
+      chunks.add(unionOnWorker(chunk, factory).then((unions) {
+        for (int i = 0; i < chunk.length; i++) {
+          subtreeUnions[chunk[i]] = unions[i];
+        }
+      }));
+    }
+    await Future.wait(chunks);
+    Object reduced = replaceSubtrees(itemTree, subtreeUnions);
+    // the whole tree may have been unioned by one worker
+    if (reduced is Geometry) return reduced;
+    return CascadedPolygonUnion.unionItemsTree(reduced as List, unionFun);
+  }
+
+  /// Chooses disjoint subtrees of a tree,
+  /// by expanding the tree level by level
+  /// until there are enough subtrees to share out.
+ /**private */static List<List> selectSubtrees(List itemTree, int target) {
+    List<List> level = [itemTree];
+    while (true) {
+      List<List> next = [];
+      for (List node in level) {
+        for (Object child in node) {
+          if (child is List) next.add(child);
+        }
+      }
+      // stop before the subtrees become too small to be worth sending
+      if (next.isEmpty || level.length >= target) return level;
+      level = next;
+    }
+  }
+
+  /// Creates a copy of a tree in which the given subtrees
+  /// are replaced by their unions.
+ /**private */static Object replaceSubtrees(List node, Map<List, Geometry> unions) {
+    Geometry? union = unions[node];
+    if (union != null) return union;
+    return node.map((child) => child is List ? replaceSubtrees(child, unions) : child).toList();
+  }
+
+ /**private */Future<List<Geometry>> unionOnWorker(List<List> subtrees, GeometryFactory factory) async {
+    PolygonalTreeWriter writer = new PolygonalTreeWriter(dimensionOf(subtrees));
+    writer.writeNode(subtrees);
+    TransferableTypedData structure = TransferableTypedData.fromList([writer.getStructure()]);
+    TransferableTypedData ordinates = TransferableTypedData.fromList([writer.getOrdinates()]);
+    int dimension = writer.dimension;
+    UnionStrategy? unionFun = this.unionFun;
+
+    List<TransferableTypedData> result = await Isolate.run(() {
+      List received = new PolygonalTreeReader(factory,
+          structure.materialize().asInt32List(),
+          ordinates.materialize().asFloat64List(), dimension).readNode() as List;
+      List<Geometry> unions = [
+        for (Object subtree in received)
+          CascadedPolygonUnion.unionItemsTree(subtree as List, unionFun)
+      ];
+      PolygonalTreeWriter unionWriter = new PolygonalTreeWriter(dimensionOf(unions));
+      unionWriter.writeNode(unions);
+      return [
+        TransferableTypedData.fromList([unionWriter.getStructure()]),
+        TransferableTypedData.fromList([unionWriter.getOrdinates()]),
+        TransferableTypedData.fromList([Int32List.fromList([unionWriter.dimension])]),
+      ];
+    });
+    int resultDimension = result[2].materialize().asInt32List()[0];
+    List unions = new PolygonalTreeReader(factory,
+        result[0].materialize().asInt32List(),
+        result[1].materialize().asFloat64List(), resultDimension).readNode() as List;
+    return unions.cast<Geometry>();
+  }
+
+  /// Gets the ordinate dimension needed to transfer a tree of geometries:
+  /// 3 if any coordinate has a Z value, otherwise 2.
+ /**private */static int dimensionOf(List tree) {
+    for (Object item in tree) {
+      if (item is List) {
+        if (dimensionOf(item) == 3) return 3;
+      }
+      else {
+        for (Polygon poly in polygonsOf(item as Geometry)) {
+          if (hasZ(poly.getExteriorRing().getCoordinateSequence())) return 3;
+          for (int i = 0; i < poly.getNumInteriorRing(); i++) {
+            if (hasZ(poly.getInteriorRingN(i).getCoordinateSequence())) return 3;
+          }
+        }
+      }
+    }
+    return 2;
+  }
+
+ /**private */static bool hasZ(CoordinateSequence seq) {
+    if (!seq.hasZ()) return false;
+    for (int i = 0; i < seq.size(); i++) {
+      if (!seq.getZ(i).isNaN) return true;
+    }
+    return false;
+  }
+
+ /**private */static List<Polygon> polygonsOf(Geometry geom) {
+    if (geom is Polygon) return [geom];
+    if (geom is MultiPolygon) {
+      return [for (int i = 0; i < geom.getNumGeometries(); i++) geom.getGeometryN(i) as Polygon];
+    }
+    throw ArgumentError("Only Polygonal geometries are supported: " + geom.getGeometryType());
+  }
+}
+
+/// Writes a tree of polygonal geometries (nested lists of
+/// {@link Polygon}s and {@link MultiPolygon}s) as a pre-order
+/// structure array and a packed ordinate array.
+/// <p>
+/// The structure array holds, for each node:
+/// <ul>
+/// <li>a list: {@link #TAG_LIST}, the number of children, then the children
+/// <li>a polygon: {@link #TAG_POLYGON}, then the polygon
+/// <li>a multipolygon: {@link #TAG_MULTIPOLYGON}, the number of polygons, then the polygons
+/// </ul>
+/// where a polygon is its number of rings followed by the number of
+/// coordinates in each ring.
+class PolygonalTreeWriter {
+  static const int TAG_LIST = 0;
+  static const int TAG_POLYGON = 1;
+  static const int TAG_MULTIPOLYGON = 2;
+
+  final int dimension;
+
+ /**private */Int32List structure = Int32List(64);
+ /**private */int structureSize = 0;
+ /**private */Float64List ordinates = Float64List(1024);
+ /**private */int ordinatesSize = 0;
+
+  /// Creates a writer.
+  ///
+  /// @param dimension the number of ordinates to write for each coordinate (2 or 3)
+  PolygonalTreeWriter(this.dimension);
+
+  /// Writes a node of the tree.
+  ///
+  /// @param node a list of nodes, or a Polygon or MultiPolygon
+  void writeNode(Object node) {
+    if (node is List) {
+      addInt(TAG_LIST);
+      addInt(node.length);
+      for (Object child in node) {
+        writeNode(child);
+      }
+    }
+    else if (node is Polygon) {
+      addInt(TAG_POLYGON);
+      writePolygon(node);
+    }
+    else if (node is MultiPolygon) {
+      addInt(TAG_MULTIPOLYGON);
+      addInt(node.getNumGeometries());
+      for (int i = 0; i < node.getNumGeometries(); i++) {
+        writePolygon(node.getGeometryN(i) as Polygon);
+      }
+    }
+    else {
+      throw ArgumentError("Only Polygonal geometries are supported: " + (node as Geometry).getGeometryType());
+    }
+  }
+
+  /// Gets the structure array written.
+  Int32List getStructure() {
+    return Int32List.sublistView(structure, 0, structureSize);
+  }
+
+  /// Gets the ordinate array written.
+  Float64List getOrdinates() {
+    return Float64List.sublistView(ordinates, 0, ordinatesSize);
+  }
+
+ /**private */void writePolygon(Polygon poly) {
+    if (poly.isEmpty()) {
+      addInt(0);
+      return;
+    }
+    addInt(1 + poly.getNumInteriorRing());
+    writeRing(poly.getExteriorRing());
+    for (int i = 0; i < poly.getNumInteriorRing(); i++) {
+      writeRing(poly.getInteriorRingN(i));
+    }
+  }
+
+ /**private */void writeRing(LinearRing ring) {
+    CoordinateSequence seq = ring.getCoordinateSequence();
+    int n = seq.size();
+    addInt(n);
+    ensureOrdinateCapacity(n * dimension);
+    for (int i = 0; i < n; i++) {
+      ordinates[ordinatesSize++] = seq.getX(i);
+      ordinates[ordinatesSize++] = seq.getY(i);
+      if (dimension > 2) ordinates[ordinatesSize++] = seq.getZ(i);
+    }
+  }
+
+ /**private */void addInt(int value) {
+    if (structureSize == structure.length) {
+      structure = Int32List(2 * structure.length)..setRange(0, structureSize, structure);
+    }
+    structure[structureSize++] = value;
+  }
+
+ /**private */void ensureOrdinateCapacity(int extra) {
+    if (ordinatesSize + extra > ordinates.length) {
+      int capacity = math.max(2 * ordinates.length, ordinatesSize + extra);
+      ordinates = Float64List(capacity)..setRange(0, ordinatesSize, ordinates);
+    }
+  }
+}
+
+/// Reads a tree of polygonal geometries written by a {@link PolygonalTreeWriter}.
+/// The coordinate sequences of the geometries read are views of the ordinate array.
+class PolygonalTreeReader {
+ /**private */final GeometryFactory factory;
+ /**private */final Int32List structure;
+ /**private */final Float64List ordinates;
+ /**private */final int dimension;
+ /**private */int structurePos = 0;
+ /**private */int ordinatesPos = 0;
+
+  PolygonalTreeReader(this.factory, this.structure, this.ordinates, this.dimension);
+
+  /// Reads the next node of the tree.
+  ///
+  /// @return a list of nodes, or a Polygon or MultiPolygon
+  Object readNode() {
+    int tag = structure[structurePos++];
+    switch (tag) {
+      case PolygonalTreeWriter.TAG_LIST:
+        int n = structure[structurePos++];
+        return List<Object>.generate(n, (i) => readNode());
+      case PolygonalTreeWriter.TAG_POLYGON:
+        return readPolygon();
+      case PolygonalTreeWriter.TAG_MULTIPOLYGON:
+        int n = structure[structurePos++];
+        return factory.createMultiPolygon(List<Polygon>.generate(n, (i) => readPolygon()));
+      default:
+        throw StateError("Invalid polygonal tree tag: " + tag.toString());
+    }
+  }
+
+ /**private */Polygon readPolygon() {
+    int numRings = structure[structurePos++];
+    if (numRings == 0) return factory.createPolygon();
+    LinearRing shell = readRing();
+    List<LinearRing> holes = List<LinearRing>.generate(numRings - 1, (i) => readRing());
+    return factory.createPolygon(shell, holes);
+  }
+
+ /**private */LinearRing readRing() {
+    int n = structure[structurePos++];
+    int end = ordinatesPos + n * dimension;
+    CoordinateSequence seq = new PackedCoordinateSequenceDouble(
+        Float64List.sublistView(ordinates, ordinatesPos, end), dimension, 0);
+    ordinatesPos = end;
+    return factory.createLinearRingFromCoordSeq(seq);
+  }
+}
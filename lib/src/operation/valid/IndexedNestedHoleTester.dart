@@ -62,7 +62,7 @@ class IndexedNestedHoleTester
 
     for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
       LinearRing hole = polygon.getInteriorRingN(i);
-      Envelope env = hole.getEnvelopeInternal();
+      Envelope env = hole.getEnvelopeView();
       index.insert(env, hole);
     }
   }
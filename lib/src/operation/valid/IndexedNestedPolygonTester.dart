@@ -58,7 +58,7 @@ class IndexedNestedPolygonTester {
 
     for (int i = 0; i < multiPoly.getNumGeometries(); i++) {
       Polygon poly = multiPoly.getGeometryN(i) as Polygon;
-      Envelope env = poly.getEnvelopeInternal();
+      Envelope env = poly.getEnvelopeView();
       index.insert(env, i);
     }
   }
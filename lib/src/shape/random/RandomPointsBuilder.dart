@@ -22,13 +22,24 @@
 // import org.locationtech.jts.geom.Polygonal;
 // import org.locationtech.jts.shape.GeometricShapeBuilder;
 
+import 'dart:math' as math;
+
+import 'package:jtscore4dart/src/algorithm/locate/IndexedPointInAreaLocator.dart';
 import 'package:jtscore4dart/src/algorithm/locate/PointOnGeometryLocator.dart';
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
 import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/geom/Location.dart';
+import 'package:jtscore4dart/src/geom/Polygonal.dart';
 import 'package:jtscore4dart/src/shape/GeometricShapeBuilder.dart';
 
 /**
  * Creates random point sets contained in a 
  * region defined by either a rectangular or a polygonal extent. 
+ * <p>
+ * Supplying a seeded {@link math.Random} makes the generated
+ * point sets reproducible.
  * 
  * @author mbdavis
  *
@@ -36,28 +47,20 @@ import 'package:jtscore4dart/src/shape/GeometricShapeBuilder.dart';
 class RandomPointsBuilder 
 extends GeometricShapeBuilder
 {
- /**protected */Geometry maskPoly = null;
- /**private */PointOnGeometryLocator extentLocator;
-
-  /**
-   * Create a shape factory which will create shapes using the default
-   * {@link GeometryFactory}.
-   */
-  RandomPointsBuilder()
-  {
-    super(new GeometryFactory());
-  }
+ /**protected */Geometry? maskPoly;
+ /**private */PointOnGeometryLocator? extentLocator;
+ /**private */final math.Random random;
 
   /**
    * Create a shape factory which will create shapes using the given
-   * {@link GeometryFactory}.
+   * {@link GeometryFactory} (or the default one if none is given).
    *
    * @param geomFact the factory to use
+   * @param random the source of random values (or null to use an unseeded one)
    */
-  RandomPointsBuilder(GeometryFactory geomFact)
-  {
-  	super(geomFact);
-  }
+  RandomPointsBuilder([GeometryFactory? geomFact, math.Random? random])
+    : random = random ?? math.Random(),
+      super(geomFact ?? new GeometryFactory());
 
   /**
    * Sets a polygonal mask.
@@ -65,24 +68,24 @@ extends GeometricShapeBuilder
    * @param mask
    * @throws ArgumentError if the mask is not polygonal
    */
-  void setExtent(Geometry mask)
+  void setExtentFromGeometry(Geometry mask)
   {
-  	if (! (mask is Polygonal))
+  	if (mask is! Polygonal)
   		throw new ArgumentError("Only polygonal extents are supported");
   	this.maskPoly = mask;
   	setExtent(mask.getEnvelopeInternal());
   	extentLocator = new IndexedPointInAreaLocator(mask);
   }
   
+  @override
   Geometry getGeometry()
   {
-  	List<Coordinate> pts = new Coordinate[numPts];
-  	int i = 0;
-  	while (i < numPts) {
+  	List<Coordinate> pts = [];
+  	while (pts.length < numPts) {
   		Coordinate p = createRandomCoord(getExtent());
   		if (extentLocator != null && ! isInExtent(p))
   			continue;
-  		pts[i++] = p;
+  		pts.add(p);
   	}
   	return geomFactory.createMultiPointFromCoords(pts);
   }
@@ -90,21 +93,14 @@ extends GeometricShapeBuilder
  /**protected */bool isInExtent(Coordinate p)
   {
   	if (extentLocator != null) 
-  		return extentLocator.locate(p) != Location.EXTERIOR;
-  	return getExtent().contains(p);
-  }
-  
- /**protected */Coordinate createCoord(double x, double y)
-  {
-  	Coordinate pt = new Coordinate(x, y);
-  	geomFactory.getPrecisionModel().makePrecise(pt);
-    return pt;
+  		return extentLocator!.locate(p) != Location.EXTERIOR;
+  	return getExtent().containsCoord(p);
   }
   
  /**protected */Coordinate createRandomCoord(Envelope env)
   {
-    double x = env.getMinX() + env.getWidth() * math.random();
-    double y = env.getMinY() + env.getHeight() * math.random();
+    double x = env.getMinX() + env.getWidth() * random.nextDouble();
+    double y = env.getMinY() + env.getHeight() * random.nextDouble();
     return createCoord(x, y);
   }
 
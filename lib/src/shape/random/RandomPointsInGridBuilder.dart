@@ -20,9 +20,20 @@
 // import org.locationtech.jts.shape.GeometricShapeBuilder;
 
 
+import 'dart:math' as math;
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/math/MathUtil.dart';
+import 'package:jtscore4dart/src/shape/GeometricShapeBuilder.dart';
+
 /**
  * Creates random point sets 
  * where the points are constrained to lie in the cells of a grid. 
+ * <p>
+ * Supplying a seeded {@link math.Random} makes the generated
+ * point sets reproducible.
  * 
  * @author mbdavis
  *
@@ -30,28 +41,20 @@
 class RandomPointsInGridBuilder 
 extends GeometricShapeBuilder
 {
-	private bool isConstrainedToCircle = false;
-	private double gutterFraction = 0;
+ /**private */bool isConstrainedToCircle = false;
+ /**private */double gutterFraction = 0;
+ /**private */final math.Random random;
 	
-  /**
-   * Create a builder which will create shapes using the default
-   * {@link GeometryFactory}.
-   */
-  RandomPointsInGridBuilder()
-  {
-    super(new GeometryFactory());
-  }
-
   /**
    * Create a builder which will create shapes using the given
-   * {@link GeometryFactory}.
+   * {@link GeometryFactory} (or the default one if none is given).
    *
    * @param geomFact the factory to use
+   * @param random the source of random values (or null to use an unseeded one)
    */
-  RandomPointsInGridBuilder(GeometryFactory geomFact)
-  {
-  	super(geomFact);
-  }
+  RandomPointsInGridBuilder([GeometryFactory? geomFact, math.Random? random])
+    : random = random ?? math.Random(),
+      super(geomFact ?? new GeometryFactory());
 
   /**
    * Sets whether generated points are constrained to lie
@@ -84,9 +87,10 @@ extends GeometricShapeBuilder
    * 
    * @return a MultiPoint
    */
+  @override
   Geometry getGeometry()
   {
-    int nCells = (int) math.sqrt(numPts);
+    int nCells = math.sqrt(numPts).toInt();
     // ensure that at least numPts points are generated
     if (nCells * nCells < numPts)
       nCells += 1;
@@ -101,13 +105,12 @@ extends GeometricShapeBuilder
     double cellDX = cellFrac * gridDX;
     double cellDY = cellFrac * gridDY;
     	
-    List<Coordinate> pts = new Coordinate[nCells * nCells];
-    int index = 0;
+    List<Coordinate> pts = [];
     for (int i = 0; i < nCells; i++) {
       for (int j = 0; j < nCells; j++) {
       	double orgX = getExtent().getMinX() + i * gridDX + gutterOffsetX;
       	double orgY = getExtent().getMinY() + j * gridDY + gutterOffsetY;
-        pts[index++] = randomPointInCell(orgX, orgY, cellDX, cellDY);
+        pts.add(randomPointInCell(orgX, orgY, cellDX, cellDY));
       }
     }
     return geomFactory.createMultiPointFromCoords(pts);
@@ -126,18 +129,18 @@ extends GeometricShapeBuilder
   
  /**private */Coordinate randomPointInGridCell(double orgX, double orgY, double xLen, double yLen)
   {
-    double x = orgX + xLen * math.random();
-    double y = orgY + yLen * math.random();
+    double x = orgX + xLen * random.nextDouble();
+    double y = orgY + yLen * random.nextDouble();
     return createCoord(x, y);
   }
 
- /**private */static Coordinate randomPointInCircle(double orgX, double orgY, double width, double height)
+ /**private */Coordinate randomPointInCircle(double orgX, double orgY, double width, double height)
   {
   	double centreX = orgX + width/2;
   	double centreY = orgY + height/2;
   		
-  	double rndAng = 2 * math.PI * math.random();
-  	double rndRadius = math.random();
+  	double rndAng = 2 * math.pi * random.nextDouble();
+  	double rndRadius = random.nextDouble();
     // use square root of radius, since area is proportional to square of radius
     double rndRadius2 = math.sqrt(rndRadius);
   	double rndX = width/2 * rndRadius2 * math.cos(rndAng); 
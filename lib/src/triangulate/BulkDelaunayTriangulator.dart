@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/Geometry.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+import 'package:jtscore4dart/src/shape/fractal/HilbertCode.dart';
+
+import 'quadedge/ArrayQuadEdgeSubdivision.dart';
+
+/// Computes the Delaunay triangulation of a large set of sites in bulk.
+/// <p>
+/// The sites are sorted along a Hilbert curve and inserted
+/// with the incremental algorithm of {@link IncrementalDelaunayTriangulator}.
+/// Since consecutive sites are close together, locating each site
+/// by walking from the last inserted one visits only a few triangles.
+/// The triangulation is stored in an {@link ArrayQuadEdgeSubdivision},
+/// and the sites are held in typed arrays,
+/// so no objects are created per site or edge.
+/// <p>
+/// The result is available as triangles of site indexes,
+/// as polygons, or as an {@link ArrayQuadEdgeSubdivision}.
+/// Sites which are equal (up to the tolerance) to an earlier site are
+/// not inserted; {@link #getVertexIndex} maps them to the site they duplicate.
+/// <p>
+/// As with {@link IncrementalDelaunayTriangulator},
+/// the triangulation boundary is forced to be convex by default.
+class BulkDelaunayTriangulator {
+  /// Creates a triangulator for a list of coordinates.
+  ///
+  /// @param sites the sites to triangulate
+  /// @param tolerance the distance within which sites are considered equal
+  static BulkDelaunayTriangulator fromCoordinates(List<Coordinate> sites, [double tolerance = 0.0]) {
+    Float64List xs = new Float64List(sites.length);
+    Float64List ys = new Float64List(sites.length);
+    for (int i = 0; i < sites.length; i++) {
+      xs[i] = sites[i].x;
+      ys[i] = sites[i].y;
+    }
+    return new BulkDelaunayTriangulator(xs, ys, tolerance);
+  }
+
+ /**private */final Float64List xs;
+ /**private */final Float64List ys;
+ /**private */final double tolerance;
+ /**private */bool isForceConvex = true;
+ /**private */Envelope? frameEnv;
+
+ /**private */ArrayQuadEdgeSubdivision? subdiv;
+  // the site of each subdivision vertex (after the frame vertices)
+ /**private */Int32List? vertexSite;
+  // the subdivision vertex of each site
+ /**private */Int32List? siteVertex;
+
+  /// Creates a triangulator for sites given by their ordinates.
+  ///
+  /// @param xs the X ordinates of the sites
+  /// @param ys the Y ordinates of the sites
+  /// @param tolerance the distance within which sites are considered equal
+  BulkDelaunayTriangulator(this.xs, this.ys, [this.tolerance = 0.0]) {
+    if (xs.length != ys.length) {
+      throw new ArgumentError("Ordinate arrays must have the same length");
+    }
+  }
+
+  /// Sets whether the triangulation is forced to have a convex boundary.
+  ///
+  /// @param isForceConvex true if the triangulation boundary is forced to be convex
+  /// @see IncrementalDelaunayTriangulator#forceConvex
+  void forceConvex(bool isForceConvex) {
+    this.isForceConvex = isForceConvex;
+  }
+
+  /// Sets an envelope which the frame of the triangulation must enclose,
+  /// in addition to the sites.
+  /// A larger frame moves the frame vertices further from the sites,
+  /// so that they do not affect circumcircles within the envelope.
+  ///
+  /// @param frameEnv the envelope to enclose
+  void setFrameEnvelope(Envelope frameEnv) {
+    this.frameEnv = frameEnv;
+  }
+
+  /// Gets the subdivision containing the triangulation,
+  /// computing it if necessary.
+  ///
+  /// @return the array-based subdivision
+  ArrayQuadEdgeSubdivision getArraySubdivision() {
+    return subdiv ??= triangulate();
+  }
+
+  /// Gets the index of the subdivision vertex of a site.
+  /// Sites which duplicate another site have the vertex of that site.
+  ///
+  /// @param site the index of a site
+  /// @return the subdivision vertex of the site
+  int getVertexIndex(int site) {
+    getArraySubdivision();
+    return siteVertex![site];
+  }
+
+  /// Gets the site of a subdivision vertex.
+  /// For duplicated sites this is the site which was inserted.
+  ///
+  /// @param vertex a subdivision vertex which is not a frame vertex
+  /// @return the index of the site
+  int getSiteIndex(int vertex) {
+    getArraySubdivision();
+    return vertexSite![vertex - ArrayQuadEdgeSubdivision.NUM_FRAME_VERTICES];
+  }
+
+  /// Gets the triangles of the triangulation,
+  /// as triples of site indexes in counter-clockwise order.
+  ///
+  /// @return the site indexes of the triangles
+  Int32List getTriangleIndices() {
+    Int32List tris = getArraySubdivision().getTriangleVertices(false);
+    for (int i = 0; i < tris.length; i++) {
+      tris[i] = vertexSite![tris[i] - ArrayQuadEdgeSubdivision.NUM_FRAME_VERTICES];
+    }
+    return tris;
+  }
+
+  /// Gets the triangles of the triangulation as a collection of {@link Polygon}s.
+  ///
+  /// @param geomFact the geometry factory to use to create the output
+  /// @return the triangles
+  Geometry getTriangles(GeometryFactory geomFact) {
+    Int32List tris = getTriangleIndices();
+    List<Polygon> polys = [];
+    for (int i = 0; i < tris.length; i += 3) {
+      Coordinate p0 = new Coordinate(xs[tris[i]], ys[tris[i]]);
+      polys.add(geomFact.createPolygonFromCoords(<Coordinate>[
+        p0,
+        new Coordinate(xs[tris[i + 1]], ys[tris[i + 1]]),
+        new Coordinate(xs[tris[i + 2]], ys[tris[i + 2]]),
+        p0.copy()
+      ]));
+    }
+    return geomFact.createGeometryCollection(polys);
+  }
+
+ /**private */ArrayQuadEdgeSubdivision triangulate() {
+    int n = xs.length;
+    Envelope env = new Envelope.init();
+    for (int i = 0; i < n; i++) {
+      env.expandToIncludeXY(xs[i], ys[i]);
+    }
+    Envelope subdivEnv = env;
+    if (frameEnv != null) {
+      subdivEnv = new Envelope.fromAnother(env);
+      subdivEnv.expandToIncludeEnvelope(frameEnv!);
+    }
+    ArrayQuadEdgeSubdivision subdiv = new ArrayQuadEdgeSubdivision(subdivEnv, tolerance, n);
+    Int32List vertexSite = new Int32List(n);
+    Int32List siteVertex = new Int32List(n);
+    this.vertexSite = vertexSite;
+    this.siteVertex = siteVertex;
+    if (n == 0) return subdiv;
+
+    if (! subdiv.hasFrame()) {
+      // all sites are equal (and there is no frame envelope),
+      // so the first is the only vertex
+      subdiv.addVertex(xs[0], ys[0]);
+      vertexSite[0] = 0;
+      siteVertex.fillRange(0, n, ArrayQuadEdgeSubdivision.NUM_FRAME_VERTICES);
+      return subdiv;
+    }
+    Int32List order = hilbertOrder(env);
+    for (int k = 0; k < n; k++) {
+      int site = order[k];
+      int v = subdiv.addVertex(xs[site], ys[site]);
+      int dup = insertSite(subdiv, v);
+      if (dup >= 0) {
+        // the vertex was not inserted, so its index is reused
+        subdiv.removeLastVertex();
+        siteVertex[site] = dup;
+      }
+      else {
+        siteVertex[site] = v;
+        vertexSite[v - ArrayQuadEdgeSubdivision.NUM_FRAME_VERTICES] = site;
+      }
+    }
+    return subdiv;
+  }
+
+  /// Inserts a vertex into the triangulation,
+  /// as {@link IncrementalDelaunayTriangulator#insertSite} does.
+  ///
+  /// @return the vertex the inserted vertex duplicates, or -1 if it was inserted
+ /**private */int insertSite(ArrayQuadEdgeSubdivision subdiv, int v) {
+    int e = subdiv.locate(v);
+    if (subdiv.isVertexOfEdge(e, v)) {
+      // the point is already in the subdivision
+      return subdiv.isEqual(v, subdiv.orig(e)) ? subdiv.orig(e) : subdiv.dest(e);
+    }
+    else if (subdiv.isOnEdge(e, v)) {
+      // replace the edge by a pair of edges which have the point as a vertex
+      e = subdiv.oPrev(e);
+      subdiv.delete(subdiv.oNext(e));
+    }
+
+    // connect the new point to the vertices of the containing triangle
+    // (or quadrilateral, if the new point fell on an existing edge)
+    int base = subdiv.makeEdge(subdiv.orig(e), v);
+    subdiv.splice(base, e);
+    int startEdge = base;
+    do {
+      base = subdiv.connect(e, ArrayQuadEdgeSubdivision.sym(base));
+      e = subdiv.oPrev(base);
+    } while (subdiv.lNext(e) != startEdge);
+
+    // examine suspect edges to ensure that the Delaunay condition is satisfied
+    while (true) {
+      int t = subdiv.oPrev(e);
+      bool doFlip = subdiv.rightOf(subdiv.dest(t), e)
+          && subdiv.isInCircle(subdiv.orig(e), subdiv.dest(t), subdiv.dest(e), v);
+      if (isForceConvex) {
+        if (isConcaveBoundary(subdiv, e)) {
+          doFlip = true;
+        }
+        else if (isBetweenFrameAndInserted(subdiv, e, v)) {
+          doFlip = false;
+        }
+      }
+      if (doFlip) {
+        subdiv.swap(e);
+        e = subdiv.oPrev(e);
+        continue;
+      }
+      if (subdiv.oNext(e) == startEdge) break;
+      e = subdiv.lPrev(subdiv.oNext(e));
+    }
+    subdiv.setLastEdge(base);
+    return -1;
+  }
+
+ /**private */static bool isConcaveBoundary(ArrayQuadEdgeSubdivision subdiv, int e) {
+    if (subdiv.isFrameVertex(subdiv.dest(e))) {
+      return isConcaveAtOrigin(subdiv, e);
+    }
+    if (subdiv.isFrameVertex(subdiv.orig(e))) {
+      return isConcaveAtOrigin(subdiv, ArrayQuadEdgeSubdivision.sym(e));
+    }
+    return false;
+  }
+
+ /**private */static bool isConcaveAtOrigin(ArrayQuadEdgeSubdivision subdiv, int e) {
+    int p = subdiv.orig(e);
+    int pp = subdiv.dest(subdiv.oPrev(e));
+    int pn = subdiv.dest(subdiv.oNext(e));
+    return subdiv.orientationIndex(pp, pn, p) > 0;
+  }
+
+ /**private */static bool isBetweenFrameAndInserted(ArrayQuadEdgeSubdivision subdiv, int e, int v) {
+    int v1 = subdiv.dest(subdiv.oNext(e));
+    int v2 = subdiv.dest(subdiv.oPrev(e));
+    return (v1 == v && subdiv.isFrameVertex(v2))
+        || (v2 == v && subdiv.isFrameVertex(v1));
+  }
+
+  /// Computes the order of the sites along a Hilbert curve
+  /// over their envelope, using a radix sort on the curve indexes.
+ /**private */Int32List hilbertOrder(Envelope env) {
+    int n = xs.length;
+    int level = HilbertCode.MAX_LEVEL;
+    int maxOrd = HilbertCode.maxOrdinate(level);
+    double width = env.getWidth();
+    double height = env.getHeight();
+    double scaleX = width > 0 ? maxOrd / width : 0.0;
+    double scaleY = height > 0 ? maxOrd / height : 0.0;
+    Uint32List codes = new Uint32List(n);
+    for (int i = 0; i < n; i++) {
+      int x = ((xs[i] - env.getMinX()) * scaleX).floor();
+      int y = ((ys[i] - env.getMinY()) * scaleY).floor();
+      codes[i] = HilbertCode.encode(level, x, y);
+    }
+    // two passes of a 16-bit LSD radix sort
+    Int32List order = new Int32List(n);
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    Int32List sorted = new Int32List(n);
+    Int32List counts = new Int32List(1 << 16);
+    for (int shift = 0; shift < 32; shift += 16) {
+      counts.fillRange(0, counts.length, 0);
+      for (int i = 0; i < n; i++) {
+        counts[(codes[order[i]] >> shift) & 0xFFFF]++;
+      }
+      int pos = 0;
+      for (int b = 0; b < counts.length; b++) {
+        int count = counts[b];
+        counts[b] = pos;
+        pos += count;
+      }
+      for (int i = 0; i < n; i++) {
+        int site = order[i];
+        sorted[counts[(codes[site] >> shift) & 0xFFFF]++] = site;
+      }
+      Int32List tmp = order;
+      order = sorted;
+      sorted = tmp;
+    }
+    return order;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:isolate';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+
+import 'TiledVoronoiDiagramBuilder.dart';
+
+/// Computes the tiles of a {@link TiledVoronoiDiagramBuilder}
+/// on a pool of isolates, producing the cells as a stream.
+/// <p>
+/// Each worker is sent the sites of one tile and its halo,
+/// and returns the cells as typed data.
+/// At most one tile per worker is in progress at once, so memory
+/// is bounded however many tiles there are.
+/// The few cells which need a larger halo are recomputed on the calling isolate.
+/// The cells are produced in the same order as
+/// {@link TiledVoronoiDiagramBuilder#getCells}.
+/// <p>
+/// This uses <code>dart:isolate</code>, so it is only available
+/// on platforms which support isolates.
+class ParallelTiledVoronoiDiagramBuilder {
+ /**private */static const int DEFAULT_NUM_WORKERS = 4;
+
+ /**private */final TiledVoronoiDiagramBuilder builder;
+ /**private */final int numWorkers;
+
+  /// Creates a parallel builder.
+  ///
+  /// @param builder the builder defining the sites and tiles
+  /// @param numWorkers the maximum number of isolates to use
+  ParallelTiledVoronoiDiagramBuilder(this.builder, [this.numWorkers = DEFAULT_NUM_WORKERS]) {
+    if (numWorkers < 1) {
+      throw ArgumentError("Number of workers must be at least 1");
+    }
+  }
+
+  /// Gets the cells of the diagram as a stream of {@link Polygon}s.
+  ///
+  /// @param geomFact the geometry factory to create the cells with
+  /// @return the cells of the diagram, in order of tile
+  Stream<Polygon> getCells(GeometryFactory geomFact) async* {
+    int numTiles = builder.getNumTiles();
+    Envelope siteEnv = builder.getSiteEnvelope();
+    Envelope clipEnv = builder.getClipEnvelope();
+    double halo = builder.getInitialHalo();
+    List<Future<VoronoiTileCells>> pending = [];
+    int nextTile = 0;
+    while (nextTile < numTiles && pending.length < numWorkers) {
+      pending.add(computeRegion(builder.getRegion(nextTile, builder.getTileSites(nextTile), halo),
+          siteEnv, clipEnv));
+      nextTile++;
+    }
+    for (int tile = 0; tile < numTiles; tile++) {
+      VoronoiTileCells cells = await pending.removeAt(0);
+      if (nextTile < numTiles) {
+        pending.add(computeRegion(builder.getRegion(nextTile, builder.getTileSites(nextTile), halo),
+            siteEnv, clipEnv));
+        nextTile++;
+      }
+      cells = builder.completeTile(tile, cells, halo);
+      for (int i = 0; i < cells.size(); i++) {
+        yield builder.toPolygon(cells, i, geomFact);
+      }
+    }
+  }
+
+ /**private */static Future<VoronoiTileCells> computeRegion(VoronoiTileRegion region,
+      Envelope siteEnv, Envelope clipEnv) {
+    return Isolate.run(() => TiledVoronoiDiagramBuilder.computeRegion(region, siteEnv, clipEnv));
+  }
+}
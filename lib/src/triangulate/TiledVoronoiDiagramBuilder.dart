@@ -0,0 +1,528 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/geom/Polygon.dart';
+
+import 'BulkDelaunayTriangulator.dart';
+import 'quadedge/ArrayQuadEdgeSubdivision.dart';
+
+/// The sites of a tile of a {@link TiledVoronoiDiagramBuilder},
+/// with the sites of the surrounding halo.
+/// It holds only typed data, so it can be sent to another isolate.
+class VoronoiTileRegion {
+  /// The region containing the sites
+  final Envelope env;
+
+  /// The global index of each site in the region
+  final Int32List sites;
+
+  /// The ordinates of the sites in the region
+  final Float64List xs;
+  final Float64List ys;
+
+  /// The region indexes of the sites to compute cells for
+  final Int32List targets;
+
+  VoronoiTileRegion(this.env, this.sites, this.xs, this.ys, this.targets);
+}
+
+/// The Voronoi cells computed for a tile.
+/// The vertices of cell i are
+/// <code>coords[2 * offsets[i] .. 2 * offsets[i + 1]]</code>
+/// (as X, Y pairs, without the closing vertex).
+class VoronoiTileCells {
+  /// The global index of the site of each cell
+  final Int32List sites;
+  final Int32List offsets;
+  final Float64List coords;
+
+  /// The global indexes of the target sites
+  /// whose cells could not be verified within the region
+  final Int32List failed;
+
+  VoronoiTileCells(this.sites, this.offsets, this.coords, this.failed);
+
+  /// Gets the number of cells.
+  int size() { return sites.length; }
+}
+
+/// Builds the Voronoi diagram of a large set of sites tile by tile,
+/// producing the cells lazily.
+/// <p>
+/// The sites are partitioned by a grid of tiles with about
+/// {@link #getSitesPerTile} sites each.
+/// Each tile is triangulated with a {@link BulkDelaunayTriangulator},
+/// together with the sites in a halo around it,
+/// and the cells of the sites in the tile are computed
+/// by clipping the clip envelope with the bisectors to their Delaunay neighbours.
+/// <p>
+/// A cell computed from a tile is only correct if no site outside the halo
+/// is closer to some point of the cell than the cell site.
+/// Since the sites outside the halo are known to lie in the site envelope,
+/// this is checked for each cell vertex.
+/// The cells failing the check are recomputed with a halo of twice the size,
+/// so the cells are the same as those computed from all the sites.
+/// <p>
+/// The triangulation is built only with the array-based
+/// {@link BulkDelaunayTriangulator}, so no object subdivision is created.
+/// As in the JTS <code>VoronoiDiagramBuilder</code>, the cells are clipped to
+/// the site envelope expanded by its diameter, unless a clip envelope is set,
+/// and duplicate sites produce a single cell.
+/// Each cell polygon has the site {@link Coordinate} as its user data.
+/// <p>
+/// To compute the tiles on a pool of isolates,
+/// see <code>ParallelTiledVoronoiDiagramBuilder</code>.
+class TiledVoronoiDiagramBuilder {
+  /// Creates a builder for a list of coordinates.
+  ///
+  /// @param sites the sites of the diagram
+  /// @param sitesPerTile the approximate number of sites in each tile
+  static TiledVoronoiDiagramBuilder fromCoordinates(List<Coordinate> sites,
+      [int sitesPerTile = DEFAULT_SITES_PER_TILE]) {
+    Float64List xs = new Float64List(sites.length);
+    Float64List ys = new Float64List(sites.length);
+    for (int i = 0; i < sites.length; i++) {
+      xs[i] = sites[i].x;
+      ys[i] = sites[i].y;
+    }
+    return new TiledVoronoiDiagramBuilder(xs, ys, sitesPerTile);
+  }
+
+ /**private */static const int DEFAULT_SITES_PER_TILE = 4096;
+
+  /// The initial halo width, in multiples of the mean site spacing
+ /**private */static const double HALO_FACTOR = 4.0;
+
+ /**private */final Float64List xs;
+ /**private */final Float64List ys;
+ /**private */final int sitesPerTile;
+ /**private */Envelope? clipEnv;
+
+ /**private */Envelope siteEnv = new Envelope.init();
+ /**private */bool isTiled = false;
+ /**private */int tilesX = 1;
+ /**private */int tilesY = 1;
+ /**private */double tileWidth = 0.0;
+ /**private */double tileHeight = 0.0;
+ /**private */double initialHalo = 0.0;
+  // the sites of tile t are tileSites[tileStart[t] .. tileStart[t + 1]]
+ /**private */Int32List tileStart = new Int32List(1);
+ /**private */Int32List tileSites = new Int32List(0);
+
+  /// Creates a builder for sites given by their ordinates.
+  ///
+  /// @param xs the X ordinates of the sites
+  /// @param ys the Y ordinates of the sites
+  /// @param sitesPerTile the approximate number of sites in each tile
+  TiledVoronoiDiagramBuilder(this.xs, this.ys, [this.sitesPerTile = DEFAULT_SITES_PER_TILE]) {
+    if (xs.length != ys.length) {
+      throw new ArgumentError("Ordinate arrays must have the same length");
+    }
+    if (sitesPerTile < 1) {
+      throw new ArgumentError("Sites per tile must be at least 1");
+    }
+  }
+
+  /// Sets the envelope to clip the diagram to.
+  ///
+  /// @param clipEnv the clip envelope
+  void setClipEnvelope(Envelope clipEnv) {
+    this.clipEnv = clipEnv;
+  }
+
+  /// Gets the envelope the cells are clipped to.
+  Envelope getClipEnvelope() {
+    createTiles();
+    return clipEnv!;
+  }
+
+  /// Gets the envelope of the sites.
+  Envelope getSiteEnvelope() {
+    createTiles();
+    return siteEnv;
+  }
+
+  /// Gets the width of the halo the tiles are first computed with.
+  double getInitialHalo() {
+    createTiles();
+    return initialHalo;
+  }
+
+  /// Gets the approximate number of sites in each tile.
+  int getSitesPerTile() { return sitesPerTile; }
+
+  /// Gets the number of tiles.
+  int getNumTiles() {
+    createTiles();
+    if (xs.isEmpty) return 0;
+    return tilesX * tilesY;
+  }
+
+  /// Gets the cells of the diagram as {@link Polygon}s,
+  /// computing them tile by tile as they are read.
+  /// The cells are produced in order of tile, and by site within each tile.
+  ///
+  /// @param geomFact the geometry factory to create the cells with
+  /// @return the cells of the diagram
+  Iterable<Polygon> getCells(GeometryFactory geomFact) sync* {
+    int numTiles = getNumTiles();
+    for (int tile = 0; tile < numTiles; tile++) {
+      VoronoiTileCells cells = computeTile(tile);
+      for (int i = 0; i < cells.size(); i++) {
+        yield toPolygon(cells, i, geomFact);
+      }
+    }
+  }
+
+  /// Creates the polygon of a computed cell.
+  ///
+  /// @param cells the cells of a tile
+  /// @param i the index of the cell
+  /// @param geomFact the geometry factory to use
+  /// @return the cell polygon, with the site as its user data
+  Polygon toPolygon(VoronoiTileCells cells, int i, GeometryFactory geomFact) {
+    int start = cells.offsets[i];
+    int end = cells.offsets[i + 1];
+    List<Coordinate> pts = [];
+    for (int k = start; k < end; k++) {
+      pts.add(new Coordinate(cells.coords[2 * k], cells.coords[2 * k + 1]));
+    }
+    pts.add(pts[0].copy());
+    Polygon cell = geomFact.createPolygonFromCoords(pts);
+    int site = cells.sites[i];
+    cell.setUserData(new Coordinate(xs[site], ys[site]));
+    return cell;
+  }
+
+  /// Computes the cells of the sites in a tile.
+  ///
+  /// @param tile the index of the tile
+  /// @return the cells of the tile
+  VoronoiTileCells computeTile(int tile) {
+    createTiles();
+    VoronoiTileRegion region = getRegion(tile, getTileSites(tile), initialHalo);
+    return completeTile(tile, computeRegion(region, siteEnv, clipEnv!), initialHalo);
+  }
+
+  /// Completes the cells of a tile by recomputing the cells which failed
+  /// with successively larger halos.
+  ///
+  /// @param tile the index of the tile
+  /// @param cells the cells computed with the halo
+  /// @param halo the halo the cells were computed with
+  /// @return the cells of the tile, in order of site
+  VoronoiTileCells completeTile(int tile, VoronoiTileCells cells, double halo) {
+    if (cells.failed.isEmpty) return cells;
+    List<VoronoiTileCells> parts = [cells];
+    Int32List pending = cells.failed;
+    while (pending.isNotEmpty) {
+      halo = 2 * halo;
+      VoronoiTileCells retry = computeRegion(getRegion(tile, pending, halo), siteEnv, clipEnv!);
+      parts.add(retry);
+      pending = retry.failed;
+    }
+    return merge(parts);
+  }
+
+  /// Gets the global indexes of the sites in a tile.
+  Int32List getTileSites(int tile) {
+    createTiles();
+    return Int32List.sublistView(tileSites, tileStart[tile], tileStart[tile + 1]);
+  }
+
+  /// Collects the sites within a halo around a tile.
+  ///
+  /// @param tile the index of the tile
+  /// @param targets the global indexes of the sites to compute cells for
+  /// @param halo the width of the halo
+  /// @return the region of the tile
+  VoronoiTileRegion getRegion(int tile, Int32List targets, double halo) {
+    createTiles();
+    Envelope env = getTileEnvelope(tile);
+    env.expandBy(halo);
+    int minTx = tileX(env.getMinX());
+    int maxTx = tileX(env.getMaxX());
+    int minTy = tileY(env.getMinY());
+    int maxTy = tileY(env.getMaxY());
+    List<int> sites = [];
+    for (int ty = minTy; ty <= maxTy; ty++) {
+      for (int tx = minTx; tx <= maxTx; tx++) {
+        int t = ty * tilesX + tx;
+        for (int k = tileStart[t]; k < tileStart[t + 1]; k++) {
+          int site = tileSites[k];
+          if (env.coversXY(xs[site], ys[site])) sites.add(site);
+        }
+      }
+    }
+    Int32List regionSites = Int32List.fromList(sites);
+    Float64List rxs = new Float64List(sites.length);
+    Float64List rys = new Float64List(sites.length);
+    Map<int, int> localIndex = {};
+    for (int i = 0; i < regionSites.length; i++) {
+      int site = regionSites[i];
+      rxs[i] = xs[site];
+      rys[i] = ys[site];
+      localIndex[site] = i;
+    }
+    Int32List localTargets = new Int32List(targets.length);
+    for (int i = 0; i < targets.length; i++) {
+      localTargets[i] = localIndex[targets[i]]!;
+    }
+    return new VoronoiTileRegion(env, regionSites, rxs, rys, localTargets);
+  }
+
+  /// Computes the cells of the target sites of a region.
+  /// This only uses its arguments, so it can be run on another isolate.
+  ///
+  /// @param region the region to triangulate
+  /// @param siteEnv the envelope of all the sites
+  /// @param clipEnv the envelope to clip the cells to
+  /// @return the cells which were verified, and the sites which failed
+  static VoronoiTileCells computeRegion(VoronoiTileRegion region, Envelope siteEnv, Envelope clipEnv) {
+    BulkDelaunayTriangulator triangulator = new BulkDelaunayTriangulator(region.xs, region.ys);
+    // a Delaunay triangulation is needed near the frame,
+    // and the frame must be far from any circumcircle within the clip envelope
+    triangulator.forceConvex(false);
+    Envelope frameEnv = new Envelope.fromAnother(clipEnv);
+    frameEnv.expandToIncludeEnvelope(siteEnv);
+    triangulator.setFrameEnvelope(frameEnv);
+    ArrayQuadEdgeSubdivision subdiv = triangulator.getArraySubdivision();
+    Int32List vertexEdges = subdiv.getVertexEdges();
+    // the region covers all sites, so every cell is correct
+    bool isComplete = region.env.covers(siteEnv);
+
+    Int32List targets = Int32List.fromList(region.targets);
+    targets.sort((a, b) => region.sites[a] - region.sites[b]);
+    CellClipper clipper = new CellClipper();
+    List<int> sites = [];
+    List<int> offsets = [0];
+    List<double> coords = [];
+    List<int> failed = [];
+    for (int target in targets) {
+      int v = triangulator.getVertexIndex(target);
+      // duplicate sites have the cell of the site which was inserted
+      if (triangulator.getSiteIndex(v) != target) continue;
+      double sx = region.xs[target];
+      double sy = region.ys[target];
+      clipper.init(clipEnv);
+      int e0 = vertexEdges[v];
+      if (e0 >= 0) {
+        int e = e0;
+        do {
+          int t = subdiv.dest(e);
+          if (! subdiv.isFrameVertex(t)) {
+            clipper.clip(sx, sy, subdiv.getX(t), subdiv.getY(t));
+          }
+          e = subdiv.oNext(e);
+        } while (e != e0);
+      }
+      if (! isComplete && ! clipper.isCovered(sx, sy, siteEnv, region.env)) {
+        failed.add(region.sites[target]);
+        continue;
+      }
+      if (clipper.size() < 3) continue;
+      sites.add(region.sites[target]);
+      coords.addAll(clipper.pts);
+      offsets.add(coords.length ~/ 2);
+    }
+    return new VoronoiTileCells(Int32List.fromList(sites), Int32List.fromList(offsets),
+        Float64List.fromList(coords), Int32List.fromList(failed));
+  }
+
+  /// Merges the cells of a tile computed in several passes, in order of site.
+ /**private */static VoronoiTileCells merge(List<VoronoiTileCells> parts) {
+    List<int> partOf = [];
+    List<int> indexIn = [];
+    for (int p = 0; p < parts.length; p++) {
+      for (int i = 0; i < parts[p].size(); i++) {
+        partOf.add(p);
+        indexIn.add(i);
+      }
+    }
+    List<int> order = [for (int k = 0; k < partOf.length; k++) k];
+    order.sort((a, b) => parts[partOf[a]].sites[indexIn[a]] - parts[partOf[b]].sites[indexIn[b]]);
+    List<int> sites = [];
+    List<int> offsets = [0];
+    List<double> coords = [];
+    for (int k in order) {
+      VoronoiTileCells part = parts[partOf[k]];
+      int i = indexIn[k];
+      sites.add(part.sites[i]);
+      coords.addAll(part.coords.sublist(2 * part.offsets[i], 2 * part.offsets[i + 1]));
+      offsets.add(coords.length ~/ 2);
+    }
+    return new VoronoiTileCells(Int32List.fromList(sites), Int32List.fromList(offsets),
+        Float64List.fromList(coords), new Int32List(0));
+  }
+
+ /**private */Envelope getTileEnvelope(int tile) {
+    int tx = tile % tilesX;
+    int ty = tile ~/ tilesX;
+    double minX = siteEnv.getMinX() + tx * tileWidth;
+    double minY = siteEnv.getMinY() + ty * tileHeight;
+    return new Envelope(minX, minX + tileWidth, minY, minY + tileHeight);
+  }
+
+ /**private */int tileX(double x) {
+    if (tileWidth <= 0) return 0;
+    int tx = ((x - siteEnv.getMinX()) / tileWidth).floor();
+    return tx < 0 ? 0 : (tx >= tilesX ? tilesX - 1 : tx);
+  }
+
+ /**private */int tileY(double y) {
+    if (tileHeight <= 0) return 0;
+    int ty = ((y - siteEnv.getMinY()) / tileHeight).floor();
+    return ty < 0 ? 0 : (ty >= tilesY ? tilesY - 1 : ty);
+  }
+
+ /**private */void createTiles() {
+    if (isTiled) return;
+    isTiled = true;
+    int n = xs.length;
+    for (int i = 0; i < n; i++) {
+      siteEnv.expandToIncludeXY(xs[i], ys[i]);
+    }
+    if (clipEnv == null) {
+      Envelope env = new Envelope.fromAnother(siteEnv);
+      // add a 50% buffer around the sites envelope
+      env.expandBy(siteEnv.getDiameter());
+      clipEnv = env;
+    }
+    if (n == 0) return;
+
+    double width = siteEnv.getWidth();
+    double height = siteEnv.getHeight();
+    int numTiles = (n + sitesPerTile - 1) ~/ sitesPerTile;
+    if (width > 0 && height > 0) {
+      tilesX = math.max(1, math.sqrt(numTiles * width / height).round());
+      tilesY = math.max(1, (numTiles + tilesX - 1) ~/ tilesX);
+    }
+    else if (width > 0) {
+      tilesX = numTiles;
+    }
+    else if (height > 0) {
+      tilesY = numTiles;
+    }
+    tileWidth = width / tilesX;
+    tileHeight = height / tilesY;
+    double area = width * height;
+    double spacing = area > 0 ? math.sqrt(area / n) : math.max(width, height) / n;
+    initialHalo = HALO_FACTOR * spacing;
+
+    // bucket the sites by tile
+    Int32List tileOf = new Int32List(n);
+    tileStart = new Int32List(tilesX * tilesY + 1);
+    for (int i = 0; i < n; i++) {
+      int t = tileY(ys[i]) * tilesX + tileX(xs[i]);
+      tileOf[i] = t;
+      tileStart[t + 1]++;
+    }
+    for (int t = 0; t < tilesX * tilesY; t++) {
+      tileStart[t + 1] += tileStart[t];
+    }
+    tileSites = new Int32List(n);
+    Int32List fill = Int32List.fromList(tileStart);
+    for (int i = 0; i < n; i++) {
+      tileSites[fill[tileOf[i]]++] = i;
+    }
+  }
+}
+
+/// Clips a convex polygon by half-planes,
+/// to compute a cell from the bisectors to the neighbours of its site.
+/**private */
+class CellClipper {
+  List<double> pts = [];
+ /**private */List<double> work = [];
+
+  /// Sets the polygon to an envelope, in counter-clockwise order.
+  void init(Envelope env) {
+    pts.clear();
+    pts.addAll([env.getMinX(), env.getMinY(), env.getMaxX(), env.getMinY(),
+        env.getMaxX(), env.getMaxY(), env.getMinX(), env.getMaxY()]);
+  }
+
+  int size() { return pts.length ~/ 2; }
+
+  /// Clips the polygon to the points closer to s than to t.
+  void clip(double sx, double sy, double tx, double ty) {
+    double dx = tx - sx;
+    double dy = ty - sy;
+    double mx = (sx + tx) / 2;
+    double my = (sy + ty) / 2;
+    work.clear();
+    int n = pts.length ~/ 2;
+    for (int i = 0; i < n; i++) {
+      int j = (i + 1) % n;
+      double ax = pts[2 * i], ay = pts[2 * i + 1];
+      double bx = pts[2 * j], by = pts[2 * j + 1];
+      double fa = (ax - mx) * dx + (ay - my) * dy;
+      double fb = (bx - mx) * dx + (by - my) * dy;
+      if (fa <= 0) {
+        work.add(ax);
+        work.add(ay);
+      }
+      if ((fa < 0 && fb > 0) || (fa > 0 && fb < 0)) {
+        double r = fa / (fa - fb);
+        work.add(ax + r * (bx - ax));
+        work.add(ay + r * (by - ay));
+      }
+    }
+    List<double> tmp = pts;
+    pts = work;
+    work = tmp;
+  }
+
+  /// Tests whether no site outside a region can be closer to a vertex
+  /// of the polygon than its site s,
+  /// given that all sites lie in the site envelope.
+  bool isCovered(double sx, double sy, Envelope siteEnv, Envelope region) {
+    for (int i = 0; i < pts.length; i += 2) {
+      double qx = pts[i];
+      double qy = pts[i + 1];
+      double dx = qx - sx;
+      double dy = qy - sy;
+      double r2 = dx * dx + dy * dy;
+      // the parts of the site envelope outside the region
+      if (siteEnv.getMinX() < region.getMinX()
+          && distanceSq(qx, qy, siteEnv.getMinX(), region.getMinX(), siteEnv.getMinY(), siteEnv.getMaxY()) < r2) {
+        return false;
+      }
+      if (siteEnv.getMaxX() > region.getMaxX()
+          && distanceSq(qx, qy, region.getMaxX(), siteEnv.getMaxX(), siteEnv.getMinY(), siteEnv.getMaxY()) < r2) {
+        return false;
+      }
+      if (siteEnv.getMinY() < region.getMinY()
+          && distanceSq(qx, qy, siteEnv.getMinX(), siteEnv.getMaxX(), siteEnv.getMinY(), region.getMinY()) < r2) {
+        return false;
+      }
+      if (siteEnv.getMaxY() > region.getMaxY()
+          && distanceSq(qx, qy, siteEnv.getMinX(), siteEnv.getMaxX(), region.getMaxY(), siteEnv.getMaxY()) < r2) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+ /**private */static double distanceSq(double x, double y,
+      double minX, double maxX, double minY, double maxY) {
+    double dx = x < minX ? minX - x : (x > maxX ? x - maxX : 0.0);
+    double dy = y < minY ? minY - y : (y > maxY ? y - maxY : 0.0);
+    return dx * dx + dy * dy;
+  }
+}
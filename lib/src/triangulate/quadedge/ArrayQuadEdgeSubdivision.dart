@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2016 Vivid Solutions.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v20.html
+ * and the Eclipse Distribution License is available at
+ *
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ */
+
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/algorithm/RobustPredicates.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+
+/// A quad-edge subdivision stored in typed arrays,
+/// with the same topology and frame as a {@link QuadEdgeSubdivision}.
+/// <p>
+/// Vertices are identified by their index, and their ordinates
+/// are held in parallel <code>Float64List</code>s.
+/// The first three vertices are the frame vertices.
+/// Each quad-edge is a record of four directed edges,
+/// numbered <code>4 * record + r</code> for the rotations r = 0..3,
+/// so that the quad-edge algebra is computed on the edge numbers
+/// (e.g. <code>sym(e) = e ^ 2</code>).
+/// The <tt>next</tt> links are held in an <code>Int32List</code>,
+/// and the origins of the primal edges in another.
+/// Deleted records are reused by later edges.
+/// <p>
+/// This takes a small fraction of the memory of a subdivision
+/// of {@link QuadEdge} and {@link Vertex} objects.
+class ArrayQuadEdgeSubdivision {
+ /**private */static const double FRAME_SIZE_FACTOR = 10.0;
+ /**private */static const double EDGE_COINCIDENCE_TOL_FACTOR = 1000;
+
+  /// The number of frame vertices, which are the first vertices
+  static const int NUM_FRAME_VERTICES = 3;
+
+  /// Tests whether an edge is a primal edge (i.e. not a dual edge).
+  static bool isPrimal(int e) { return (e & 1) == 0; }
+
+  /// Gets the dual of an edge, directed from its right to its left.
+  static int rot(int e) { return (e & ~3) | ((e + 1) & 3); }
+
+  /// Gets the dual of an edge, directed from its left to its right.
+  static int invRot(int e) { return (e & ~3) | ((e + 3) & 3); }
+
+  /// Gets the edge from the destination to the origin of an edge.
+  static int sym(int e) { return e ^ 2; }
+
+ /**private */final Envelope env;
+ /**private */final double tolerance;
+ /**private */final double edgeCoincidenceTolerance;
+
+ /**private */Float64List xs;
+ /**private */Float64List ys;
+ /**private */int numVertices = 0;
+
+ /**private */Int32List next;
+ /**private */Int32List vert;
+ /**private */Uint8List live;
+ /**private */int numRecords = 0;
+ /**private */int numLive = 0;
+ /**private */final List<int> freeRecords = [];
+
+ /**private */int lastEdge = 0;
+
+  /// Creates a subdivision consisting of a frame triangle
+  /// enclosing an envelope, computed as by {@link QuadEdgeSubdivision}.
+  ///
+  /// @param env the envelope of the sites to be inserted
+  /// @param tolerance the tolerance for determining if two sites are equal
+  /// @param vertexCapacity the expected number of vertices (not including the frame)
+  ArrayQuadEdgeSubdivision(this.env, this.tolerance, [int vertexCapacity = 16])
+      : edgeCoincidenceTolerance = tolerance / EDGE_COINCIDENCE_TOL_FACTOR,
+        xs = new Float64List(vertexCapacity + NUM_FRAME_VERTICES),
+        ys = new Float64List(vertexCapacity + NUM_FRAME_VERTICES),
+        // a triangulation of n vertices has at most 3n - 6 edges
+        next = new Int32List(4 * (3 * (vertexCapacity + NUM_FRAME_VERTICES))),
+        vert = new Int32List(2 * (3 * (vertexCapacity + NUM_FRAME_VERTICES))),
+        live = new Uint8List(3 * (vertexCapacity + NUM_FRAME_VERTICES)) {
+    createFrame();
+    initSubdiv();
+  }
+
+ /**private */void createFrame() {
+    double deltaX = env.getWidth();
+    double deltaY = env.getHeight();
+    double frameSize = math.max(deltaX, deltaY) * FRAME_SIZE_FACTOR;
+    addVertex((env.getMaxX() + env.getMinX()) / 2.0, env.getMaxY() + frameSize);
+    addVertex(env.getMinX() - frameSize, env.getMinY() - frameSize);
+    addVertex(env.getMaxX() + frameSize, env.getMinY() - frameSize);
+  }
+
+ /**private */void initSubdiv() {
+    int ea = makeEdge(0, 1);
+    int eb = makeEdge(1, 2);
+    splice(sym(ea), eb);
+    int ec = makeEdge(2, 0);
+    splice(sym(eb), ec);
+    splice(sym(ec), ea);
+    lastEdge = ea;
+  }
+
+  /// Gets the vertex-equality tolerance.
+  double getTolerance() { return tolerance; }
+
+  /// Gets the envelope the frame was computed from.
+  Envelope getEnvelope() { return env; }
+
+  /// Tests whether the frame encloses a non-empty area,
+  /// which is required to insert sites.
+  bool hasFrame() {
+    return orientationIndex(0, 1, 2) != 0;
+  }
+
+  /// Gets the number of vertices, including the frame vertices.
+  int getNumVertices() { return numVertices; }
+
+  /// Gets the number of quad-edge records allocated,
+  /// some of which may have been deleted.
+  int getNumRecords() { return numRecords; }
+
+  /// Gets the number of quad-edges in the subdivision.
+  int getNumEdges() { return numLive; }
+
+  /// Tests whether a quad-edge record is in use.
+  bool isLive(int record) { return live[record] != 0; }
+
+  /// Tests whether a vertex is one of the frame vertices.
+  bool isFrameVertex(int v) { return v < NUM_FRAME_VERTICES; }
+
+  double getX(int v) { return xs[v]; }
+
+  double getY(int v) { return ys[v]; }
+
+  /// Adds a vertex, which is not connected to any edge.
+  ///
+  /// @return the index of the vertex
+  int addVertex(double x, double y) {
+    if (numVertices == xs.length) {
+      int capacity = 2 * xs.length;
+      xs = grow(xs, capacity);
+      ys = grow(ys, capacity);
+    }
+    xs[numVertices] = x;
+    ys[numVertices] = y;
+    return numVertices++;
+  }
+
+  /// Removes the last vertex added, which must not be connected to any edge.
+  void removeLastVertex() {
+    numVertices--;
+  }
+
+  //---------  quad-edge algebra  ---------
+
+  int oNext(int e) { return next[e]; }
+
+  int oPrev(int e) { return rot(next[rot(e)]); }
+
+  int dNext(int e) { return sym(next[sym(e)]); }
+
+  int dPrev(int e) { return invRot(next[invRot(e)]); }
+
+  int lNext(int e) { return rot(next[invRot(e)]); }
+
+  int lPrev(int e) { return sym(next[e]); }
+
+  /// Gets the origin vertex of a primal edge.
+  int orig(int e) { return vert[e >> 1]; }
+
+  /// Gets the destination vertex of a primal edge.
+  int dest(int e) { return vert[(e ^ 2) >> 1]; }
+
+ /**private */void setOrig(int e, int v) { vert[e >> 1] = v; }
+
+ /**private */void setDest(int e, int v) { vert[(e ^ 2) >> 1] = v; }
+
+  /// Creates a new quad-edge from vertex o to vertex d.
+  ///
+  /// @return the primal edge of the new quad-edge
+  int makeEdge(int o, int d) {
+    int record;
+    if (freeRecords.isNotEmpty) {
+      record = freeRecords.removeLast();
+    }
+    else {
+      if (numRecords == live.length) growRecords();
+      record = numRecords++;
+    }
+    int e = 4 * record;
+    next[e] = e;
+    next[e + 1] = e + 3;
+    next[e + 2] = e + 2;
+    next[e + 3] = e + 1;
+    setOrig(e, o);
+    setDest(e, d);
+    live[record] = 1;
+    numLive++;
+    return e;
+  }
+
+  /// Creates a new quad-edge connecting the destination of a to the origin of b,
+  /// so that all three have the same left face.
+  ///
+  /// @return the new edge
+  int connect(int a, int b) {
+    int e = makeEdge(dest(a), orig(b));
+    splice(e, lNext(a));
+    splice(sym(e), b);
+    return e;
+  }
+
+  /// Splices two edges together or apart, as in {@link QuadEdge#splice}.
+  void splice(int a, int b) {
+    int alpha = rot(next[a]);
+    int beta = rot(next[b]);
+    int t1 = next[b];
+    int t2 = next[a];
+    int t3 = next[beta];
+    int t4 = next[alpha];
+    next[a] = t1;
+    next[b] = t2;
+    next[alpha] = t3;
+    next[beta] = t4;
+  }
+
+  /// Turns an edge counterclockwise inside its enclosing quadrilateral.
+  void swap(int e) {
+    int a = oPrev(e);
+    int b = oPrev(sym(e));
+    splice(e, a);
+    splice(sym(e), b);
+    splice(e, lNext(a));
+    splice(sym(e), lNext(b));
+    setOrig(e, dest(a));
+    setDest(e, dest(b));
+  }
+
+  /// Deletes an edge, updating the linked edges.
+  /// The record of the edge is reused by later edges.
+  void delete(int e) {
+    splice(e, oPrev(e));
+    splice(sym(e), oPrev(sym(e)));
+    int record = e >> 2;
+    live[record] = 0;
+    numLive--;
+    freeRecords.add(record);
+  }
+
+  //---------  predicates  ---------
+
+  /// Computes the orientation of three vertices.
+  int orientationIndex(int a, int b, int c) {
+    return RobustPredicates.orientationIndex(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+  }
+
+  /// Tests whether a vertex lies strictly to the right of an edge.
+  bool rightOf(int v, int e) {
+    return orientationIndex(v, dest(e), orig(e)) > 0;
+  }
+
+  /// Tests whether a vertex lies strictly inside the circumcircle
+  /// of the counter-clockwise triangle a, b, c.
+  bool isInCircle(int a, int b, int c, int v) {
+    return RobustPredicates.isInCircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[v], ys[v]);
+  }
+
+  /// Tests whether a vertex equals the origin or destination of an edge,
+  /// up to the tolerance.
+  bool isVertexOfEdge(int e, int v) {
+    return isEqual(v, orig(e)) || isEqual(v, dest(e));
+  }
+
+  /// Tests whether a vertex lies on an edge.
+  /// A vertex is on the edge if it is collinear with it
+  /// (which is only tested for the edges returned by {@link #locate}),
+  /// or lies within the edge-coincidence tolerance.
+  bool isOnEdge(int e, int v) {
+    int o = orig(e);
+    int d = dest(e);
+    if (orientationIndex(o, d, v) == 0) return true;
+    if (edgeCoincidenceTolerance <= 0) return false;
+    return segmentDistance(o, d, v) < edgeCoincidenceTolerance;
+  }
+
+  /// Tests whether two vertices are equal, up to the tolerance.
+  bool isEqual(int v, int w) {
+    if (xs[v] == xs[w] && ys[v] == ys[w]) return true;
+    if (tolerance <= 0) return false;
+    double dx = xs[v] - xs[w];
+    double dy = ys[v] - ys[w];
+    return math.sqrt(dx * dx + dy * dy) < tolerance;
+  }
+
+ /**private */double segmentDistance(int a, int b, int p) {
+    double dx = xs[b] - xs[a];
+    double dy = ys[b] - ys[a];
+    double len2 = dx * dx + dy * dy;
+    double r = len2 <= 0 ? 0.0 : ((xs[p] - xs[a]) * dx + (ys[p] - ys[a]) * dy) / len2;
+    if (r < 0) r = 0.0;
+    if (r > 1) r = 1.0;
+    double ex = xs[a] + r * dx - xs[p];
+    double ey = ys[a] + r * dy - ys[p];
+    return math.sqrt(ex * ex + ey * ey);
+  }
+
+  /// Finds an edge of the triangle containing a vertex,
+  /// or an edge with the vertex as an endpoint,
+  /// by walking from the last edge located
+  /// (as {@link LastFoundQuadEdgeLocator} does).
+  ///
+  /// @param v the vertex to locate
+  /// @return an edge of the triangle containing the vertex
+  int locate(int v) {
+    if (! isLive(lastEdge >> 2)) lastEdge = 0;
+    int e = lastEdge;
+    int maxIter = 4 * numRecords;
+    int iter = 0;
+    while (true) {
+      if (++iter > maxIter) {
+        throw new StateError("Locate failed to converge (at edge: ${orig(e)} - ${dest(e)})");
+      }
+      int o = orig(e);
+      int d = dest(e);
+      if ((xs[v] == xs[o] && ys[v] == ys[o]) || (xs[v] == xs[d] && ys[v] == ys[d])) {
+        break;
+      }
+      else if (rightOf(v, e)) {
+        e = sym(e);
+      }
+      else if (! rightOf(v, oNext(e))) {
+        e = oNext(e);
+      }
+      else if (! rightOf(v, dPrev(e))) {
+        e = dPrev(e);
+      }
+      else {
+        // on edge or in triangle containing edge
+        break;
+      }
+    }
+    lastEdge = e;
+    return e;
+  }
+
+  /// Records an edge as the start of the next {@link #locate}.
+  void setLastEdge(int e) { lastEdge = e; }
+
+  //---------  output  ---------
+
+  /// Gets the vertices of the triangles of the subdivision,
+  /// as triples in counter-clockwise order.
+  ///
+  /// @param includeFrame true if triangles touching the frame should be included
+  /// @return the vertex indexes of the triangles
+  Int32List getTriangleVertices(bool includeFrame) {
+    // each primal edge bounds the triangle to its left
+    Uint8List visited = new Uint8List(2 * numRecords);
+    List<int> tris = [];
+    for (int record = 0; record < numRecords; record++) {
+      if (live[record] == 0) continue;
+      for (int e = 4 * record; e < 4 * record + 4; e += 2) {
+        if (visited[e >> 1] != 0) continue;
+        int e1 = lNext(e);
+        int e2 = lNext(e1);
+        if (lNext(e2) != e) continue;
+        visited[e >> 1] = 1;
+        visited[e1 >> 1] = 1;
+        visited[e2 >> 1] = 1;
+        int a = orig(e);
+        int b = orig(e1);
+        int c = orig(e2);
+        if (! includeFrame && (isFrameVertex(a) || isFrameVertex(b) || isFrameVertex(c))) {
+          continue;
+        }
+        // skip the outer face of the frame, which is clockwise
+        if (orientationIndex(a, b, c) < 0) continue;
+        tris.add(a);
+        tris.add(b);
+        tris.add(c);
+      }
+    }
+    return Int32List.fromList(tris);
+  }
+
+  /// Finds an edge originating at each vertex.
+  ///
+  /// @return the edge originating at each vertex, or -1 for unconnected vertices
+  Int32List getVertexEdges() {
+    Int32List edges = new Int32List(numVertices);
+    edges.fillRange(0, numVertices, -1);
+    for (int record = 0; record < numRecords; record++) {
+      if (live[record] == 0) continue;
+      int e = 4 * record;
+      edges[orig(e)] = e;
+      edges[dest(e)] = sym(e);
+    }
+    return edges;
+  }
+
+ /**private */void growRecords() {
+    int capacity = 2 * live.length;
+    Int32List newNext = new Int32List(4 * capacity);
+    newNext.setRange(0, next.length, next);
+    next = newNext;
+    Int32List newVert = new Int32List(2 * capacity);
+    newVert.setRange(0, vert.length, vert);
+    vert = newVert;
+    Uint8List newLive = new Uint8List(capacity);
+    newLive.setRange(0, live.length, live);
+    live = newLive;
+  }
+
+ /**private */static Float64List grow(Float64List values, int capacity) {
+    Float64List result = new Float64List(capacity);
+    result.setRange(0, values.length, values);
+    return result;
+  }
+}
@@ -0,0 +1,122 @@
+import 'dart:math';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/src/algorithm/RobustPredicates.dart';
+import 'package:jtscore4dart/src/triangulate/BulkDelaunayTriangulator.dart';
+import 'package:jtscore4dart/src/triangulate/quadedge/ArrayQuadEdgeSubdivision.dart';
+
+import 'test.dart';
+
+double triArea(Float64List xs, Float64List ys, int a, int b, int c) {
+  return ((xs[b] - xs[a]) * (ys[c] - ys[a]) - (ys[b] - ys[a]) * (xs[c] - xs[a])) / 2;
+}
+
+/// Checks that the triangles are counter-clockwise, cover the convex hull,
+/// and have no site inside their circumcircles.
+void checkDelaunay(Float64List xs, Float64List ys) {
+  BulkDelaunayTriangulator triangulator = BulkDelaunayTriangulator(xs, ys);
+  Int32List tris = triangulator.getTriangleIndices();
+  double area = 0.0;
+  for (int i = 0; i < tris.length; i += 3) {
+    int a = tris[i], b = tris[i + 1], c = tris[i + 2];
+    double triangleArea = triArea(xs, ys, a, b, c);
+    assertTrue(triangleArea > 0);
+    area += triangleArea;
+    for (int d = 0; d < xs.length; d++) {
+      assertTrue(! RobustPredicates.isInCircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[d], ys[d]));
+    }
+  }
+  List<Coordinate> pts = [for (int i = 0; i < xs.length; i++) Coordinate(xs[i], ys[i])];
+  Geometry hull = GeometryFactory().createMultiPoint(pts).convexHull();
+  assertTrue((hull.getArea() - area).abs() <= 1e-9 * hull.getArea());
+}
+
+void testRandom() {
+  Random random = Random(3);
+  int n = 300;
+  Float64List xs = Float64List(n);
+  Float64List ys = Float64List(n);
+  for (int i = 0; i < n; i++) {
+    xs[i] = random.nextDouble() * 1000;
+    ys[i] = random.nextDouble() * 1000;
+  }
+  checkDelaunay(xs, ys);
+}
+
+void testSubdivision() {
+  Random random = Random(4);
+  int n = 200;
+  Float64List xs = Float64List(n);
+  Float64List ys = Float64List(n);
+  for (int i = 0; i < n; i++) {
+    xs[i] = random.nextDouble() * 100;
+    ys[i] = random.nextDouble() * 100;
+  }
+  ArrayQuadEdgeSubdivision subdiv = BulkDelaunayTriangulator(xs, ys).getArraySubdivision();
+  int numVertices = subdiv.getNumVertices();
+  assertEquals(n + ArrayQuadEdgeSubdivision.NUM_FRAME_VERTICES, numVertices);
+  // the subdivision is a triangulation of the frame triangle
+  assertEquals(3 * numVertices - 6, subdiv.getNumEdges());
+  assertEquals(3 * (2 * numVertices - 5), subdiv.getTriangleVertices(true).length);
+  // the quad-edge algebra is consistent
+  for (int record = 0; record < subdiv.getNumRecords(); record++) {
+    if (! subdiv.isLive(record)) continue;
+    int e = 4 * record;
+    assertEquals(e, ArrayQuadEdgeSubdivision.sym(ArrayQuadEdgeSubdivision.sym(e)));
+    assertEquals(e, subdiv.lNext(subdiv.lNext(subdiv.lNext(e))));
+    assertEquals(subdiv.dest(e), subdiv.orig(ArrayQuadEdgeSubdivision.sym(e)));
+    assertEquals(subdiv.orig(e), subdiv.orig(subdiv.oNext(e)));
+  }
+  // every vertex is located at an edge with it as an endpoint
+  for (int v = ArrayQuadEdgeSubdivision.NUM_FRAME_VERTICES; v < numVertices; v++) {
+    assertTrue(subdiv.isVertexOfEdge(subdiv.locate(v), v));
+  }
+}
+
+void testGrid() {
+  // cocircular and collinear sites
+  Float64List xs = Float64List(100);
+  Float64List ys = Float64List(100);
+  for (int i = 0; i < 100; i++) {
+    xs[i] = (i % 10).toDouble();
+    ys[i] = (i ~/ 10).toDouble();
+  }
+  checkDelaunay(xs, ys);
+  BulkDelaunayTriangulator triangulator = BulkDelaunayTriangulator(xs, ys);
+  // a grid of 10 x 10 sites has 2 * 9 * 9 triangles
+  assertEquals(2 * 9 * 9 * 3, triangulator.getTriangleIndices().length);
+}
+
+void testDuplicates() {
+  List<Coordinate> sites = [
+    Coordinate(0, 0), Coordinate(10, 0), Coordinate(0, 10),
+    Coordinate(10, 0), Coordinate(10, 10), Coordinate(0, 0)
+  ];
+  BulkDelaunayTriangulator triangulator = BulkDelaunayTriangulator.fromCoordinates(sites);
+  assertEquals(2 * 3, triangulator.getTriangleIndices().length);
+  assertEquals(triangulator.getVertexIndex(1), triangulator.getVertexIndex(3));
+  assertEquals(triangulator.getVertexIndex(0), triangulator.getVertexIndex(5));
+  Geometry triangles = triangulator.getTriangles(GeometryFactory());
+  assertEquals(2, triangles.getNumGeometries());
+  assertEquals(100.0, triangles.getArea());
+}
+
+void testDegenerate() {
+  BulkDelaunayTriangulator empty = BulkDelaunayTriangulator(Float64List(0), Float64List(0));
+  assertEquals(0, empty.getTriangleIndices().length);
+  BulkDelaunayTriangulator single = BulkDelaunayTriangulator.fromCoordinates(
+      [Coordinate(1, 1), Coordinate(1, 1)]);
+  assertEquals(0, single.getTriangleIndices().length);
+  BulkDelaunayTriangulator line = BulkDelaunayTriangulator.fromCoordinates(
+      [Coordinate(0, 0), Coordinate(1, 1), Coordinate(2, 2)]);
+  assertEquals(0, line.getTriangleIndices().length);
+}
+
+void main() {
+  testRandom();
+  testSubdivision();
+  testGrid();
+  testDuplicates();
+  testDegenerate();
+}
@@ -0,0 +1,170 @@
+import 'dart:convert';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequenceFactory.dart';
+
+import 'test.dart';
+
+final GeometryFactory packedFactory =
+    GeometryFactory.withCoordinateSequenceFactory(PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+
+const String COLLECTION = '''
+{"type": "FeatureCollection",
+ "name": "test \\"features\\" [{",
+ "features": [
+  {"type": "Feature", "id": 1, "properties": {"name": "a [b] {c}"},
+   "geometry": {"type": "Point", "coordinates": [1, 2]}},
+  {"properties": {"n": 2.5, "tags": ["x", null, true]}, "type": "Feature",
+   "geometry": {"coordinates": [[0, 0, 1], [10, 0, 2], [10, 10, 3]], "type": "LineString"}},
+  {"type": "Feature", "id": "c", "properties": null,
+   "geometry": {"type": "Polygon", "coordinates": [[[0, 0], [10, 0], [10, 10], [0, 10], [0, 0]],
+     [[2, 2], [4, 2], [4, 4], [2, 2]]]}}
+ ],
+ "bbox": [0, 0, 10, 10]}
+''';
+
+void testGeometryTypes() {
+  GeoJsonReader reader = GeoJsonReader();
+  Geometry p = reader.read('{"type":"Point","coordinates":[1.5,-2e1]}')!;
+  assertEquals(1.5, p.getCoordinate()!.x);
+  assertEquals(-20.0, p.getCoordinate()!.y);
+  assertEquals(3, reader.read('{"type":"LineString","coordinates":[[0,0],[5,5],[10,0]]}')!.getNumPoints());
+  assertEquals(98.0, reader.read('{"type":"Polygon","coordinates":'
+      '[[[0,0],[10,0],[10,10],[0,10],[0,0]],[[2,2],[4,2],[4,4],[2,2]]]}')!.getArea());
+  assertEquals(3, reader.read('{"type":"MultiPoint","coordinates":[[1,2],[3,4],[5,6]]}')!.getNumGeometries());
+  assertEquals(2, reader.read('{"type":"MultiLineString","coordinates":[[[0,0],[1,1]],[[2,2],[3,3]]]}')!.getNumGeometries());
+  assertEquals(2.0, reader.read('{"type":"MultiPolygon","coordinates":'
+      '[[[[0,0],[1,0],[1,1],[0,0]]],[[[5,5],[7,5],[7,7],[5,5]]]]}')!.getArea());
+  Geometry gc = reader.read('{"type":"GeometryCollection","geometries":'
+      '[{"type":"Point","coordinates":[1,2,3]},{"type":"LineString","coordinates":[]}]}')!;
+  assertEquals(2, gc.getNumGeometries());
+  assertEquals(3.0, gc.getGeometryN(0).getCoordinate()!.z);
+  assertTrue(gc.getGeometryN(1).isEmpty());
+  assertTrue(reader.read('{"type":"Point","coordinates":[]}')!.isEmpty());
+  Geometry srid = reader.read('{"type":"Point","coordinates":[1,2],'
+      '"crs":{"type":"name","properties":{"name":"EPSG:4326"}}}')!;
+  assertEquals(4326, srid.getSRID());
+}
+
+void testFeatures() {
+  List<GeoJsonFeature> features = GeoJsonReader().readFeatures(COLLECTION);
+  assertEquals(3, features.length);
+  assertEquals(1, features[0].id);
+  assertEquals("a [b] {c}", features[0].properties["name"]);
+  assertEquals(2.5, features[1].properties["n"]);
+  assertEquals(3, (features[1].properties["tags"] as List).length);
+  assertEquals(3.0, features[1].geometry!.getCoordinates()[2].z);
+  assertEquals("c", features[2].id);
+  assertEquals(98.0, features[2].geometry!.getArea());
+
+  Geometry gc = GeoJsonReader().read(COLLECTION)!;
+  assertEquals(3, gc.getNumGeometries());
+  assertEquals("a [b] {c}", (gc.getGeometryN(0).getUserData() as Map)["name"]);
+}
+
+void testPacked() {
+  Geometry g = GeoJsonReader(packedFactory).read('{"type":"LineString","coordinates":[[0,0],[1,1]]}')!;
+  CoordinateSequence seq = (g as LineString).getCoordinateSequence();
+  // coordinates are decoded straight into packed sequences
+  assertTrue(seq is PackedCoordinateSequenceDouble);
+  assertEquals(2, seq.getDimension());
+  Geometry z = GeoJsonReader(packedFactory).read('{"type":"LineString","coordinates":[[0,0,5],[1,1]]}')!;
+  CoordinateSequence zseq = (z as LineString).getCoordinateSequence();
+  assertEquals(3, zseq.getDimension());
+  assertEquals(5.0, zseq.getZ(0));
+  assertTrue(zseq.getZ(1).isNaN);
+}
+
+Stream<List<int>> chunked(String json, int size) async* {
+  List<int> bytes = utf8.encode(json);
+  for (int i = 0; i < bytes.length; i += size) {
+    yield bytes.sublist(i, i + size < bytes.length ? i + size : bytes.length);
+  }
+}
+
+Future<void> testStream() async {
+  for (int size in [1, 7, 1 << 20]) {
+    List<GeoJsonFeature> features = await GeoJsonStreamReader().read(chunked(COLLECTION, size)).toList();
+    assertEquals(3, features.length);
+    assertEquals("a [b] {c}", features[0].properties["name"]);
+    assertEquals(3, features[1].geometry!.getNumPoints());
+    assertEquals(98.0, features[2].geometry!.getArea());
+  }
+  // newline-delimited features and geometries
+  String ndjson = '{"type":"Feature","properties":{"k":"é"},"geometry":{"type":"Point","coordinates":[1,2]}}\n'
+      '\x1e{"type":"Point","coordinates":[3,4]}\n';
+  List<GeoJsonFeature> nd = await GeoJsonStreamReader().read(chunked(ndjson, 3)).toList();
+  assertEquals(2, nd.length);
+  assertEquals("é", nd[0].properties["k"]);
+  assertEquals(3.0, nd[1].geometry!.getCoordinate()!.x);
+
+  bool isFailed = false;
+  try {
+    await GeoJsonStreamReader().read(chunked(COLLECTION.substring(0, 200), 16)).toList();
+  }
+  on ParseException {
+    isFailed = true;
+  }
+  assertTrue(isFailed);
+}
+
+Future<void> testWriter() async {
+  GeoJsonWriter writer = GeoJsonWriter();
+  Geometry poly = WKTReader().read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 4 2, 4 4, 2 2))")!;
+  assertEquals('{"type":"Polygon","coordinates":[[[0,0],[10,0],[10,10],[0,10],[0,0]],[[2,2],[4,2],[4,4],[2,2]]]}',
+      writer.write(poly));
+  assertEquals('{"type":"Point","coordinates":[1.5,2,3]}', writer.write(WKTReader().read("POINT Z (1.5 2 3)")!));
+  assertEquals('{"type":"Point","coordinates":[0.33333333,1]}',
+      writer.write(GeometryFactory().createPoint(Coordinate(1 / 3, 1))));
+
+  for (String wkt in [
+    "MULTIPOINT ((1 2), (3 4))",
+    "MULTILINESTRING ((0 0, 1 1), (2 2, 3 3))",
+    "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), ((5 5, 7 5, 7 7, 5 5)))",
+    "GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (0 0, 1 1))",
+  ]) {
+    Geometry g = WKTReader().read(wkt)!;
+    assertTrue(g.equalsExact(GeoJsonReader().read(writer.write(g))!));
+  }
+
+  // empty members of a MultiPoint are left out
+  GeometryFactory geomFact = GeometryFactory();
+  Geometry withEmpty = geomFact.createMultiPointFromPoints([
+    geomFact.createPoint(Coordinate(1, 2)), geomFact.createPoint(), geomFact.createPoint(Coordinate(3, 4))
+  ]);
+  assertEquals('{"type":"MultiPoint","coordinates":[[1,2],[3,4]]}', writer.write(withEmpty));
+
+  // JSON cannot hold non-finite numbers
+  for (double ord in [double.nan, double.infinity]) {
+    bool isRejected = false;
+    try {
+      writer.write(geomFact.createPoint(Coordinate(ord, 1)));
+    }
+    on ArgumentError {
+      isRejected = true;
+    }
+    assertTrue(isRejected);
+  }
+
+  String feature = writer.writeFeature(GeoJsonFeature(null, {"a": 1}, "x"));
+  assertEquals('{"type":"Feature","id":"x","geometry":null,"properties":{"a":1}}', feature);
+
+  List<GeoJsonFeature> features = GeoJsonReader().readFeatures(COLLECTION);
+  String text = (await writer.writeFeatureCollection(Stream.fromIterable(features)).toList()).join();
+  List<GeoJsonFeature> read = GeoJsonReader().readFeatures(text);
+  assertEquals(3, read.length);
+  for (int i = 0; i < read.length; i++) {
+    assertTrue(features[i].geometry!.equalsExact(read[i].geometry!));
+    assertEquals(features[i].id, read[i].id);
+  }
+}
+
+Future<void> main() async {
+  testGeometryTypes();
+  testFeatures();
+  testPacked();
+  await testStream();
+  await testWriter();
+}
@@ -0,0 +1,79 @@
+import 'dart:math';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+import 'package:jtscore4dart/src/algorithm/locate/GridPointInAreaLocator.dart';
+import 'package:jtscore4dart/src/algorithm/locate/IndexedPointInAreaLocator.dart';
+
+import 'test.dart';
+
+/// A star-shaped polygon with many vertices and a hole.
+Geometry star(int n) {
+  StringBuffer buf = StringBuffer("POLYGON ((");
+  for (int i = 0; i <= n; i++) {
+    double a = 2 * pi * (i % n) / n;
+    double r = i % 2 == 0 ? 100.0 : 60.0;
+    if (i > 0) buf.write(", ");
+    buf.write("${r * cos(a)} ${r * sin(a)}");
+  }
+  buf.write("), (-10 -10, 10 -10, 10 10, -10 10, -10 -10))");
+  return WKTReader().read(buf.toString())!;
+}
+
+void checkSame(Geometry geom, List<Coordinate> pts, [int numCells = 0]) {
+  GridPointInAreaLocator grid = GridPointInAreaLocator(geom, numCells);
+  IndexedPointInAreaLocator indexed = IndexedPointInAreaLocator(geom);
+  for (Coordinate p in pts) {
+    assertEquals(indexed.locate(p), grid.locate(p));
+  }
+}
+
+void testRandomPoints() {
+  Geometry geom = star(200);
+  Random random = Random(7);
+  List<Coordinate> pts = [];
+  for (int i = 0; i < 5000; i++) {
+    pts.add(Coordinate(random.nextDouble() * 240 - 120, random.nextDouble() * 240 - 120));
+  }
+  // points on the hole boundary and on vertices
+  pts.add(Coordinate(-10, 0));
+  pts.add(Coordinate(10, 10));
+  pts.add(Coordinate(100, 0));
+  pts.add(Coordinate(0, 0));
+  checkSame(geom, pts);
+  checkSame(geom, pts, 16);
+
+  GridPointInAreaLocator grid = GridPointInAreaLocator(geom);
+  assertEquals(Location.BOUNDARY, grid.locate(Coordinate(-10, 0)));
+  assertEquals(Location.EXTERIOR, grid.locate(Coordinate(0, 0)));
+  assertEquals(Location.INTERIOR, grid.locate(Coordinate(40, 0)));
+  assertEquals(Location.EXTERIOR, grid.locate(Coordinate(500, 0)));
+  // most cells are answered without testing segments
+  assertTrue(grid.getBoundaryCellFraction() < 0.5);
+}
+
+void testGridAlignedEdges() {
+  // edges lying on cell edges
+  Geometry geom = WKTReader().read("POLYGON ((0 0, 4 0, 4 2, 2 2, 2 4, 0 4, 0 0))")!;
+  List<Coordinate> pts = [];
+  for (int i = 0; i <= 16; i++) {
+    for (int j = 0; j <= 16; j++) {
+      pts.add(Coordinate(i * 0.25, j * 0.25));
+    }
+  }
+  checkSame(geom, pts, 16);
+  checkSame(geom, pts, 64);
+}
+
+void testDegenerate() {
+  GridPointInAreaLocator empty = GridPointInAreaLocator(WKTReader().read("POLYGON EMPTY")!);
+  assertEquals(Location.EXTERIOR, empty.locate(Coordinate(0, 0)));
+  Geometry flat = WKTReader().read("POLYGON ((0 0, 10 0, 5 0, 0 0))")!;
+  checkSame(flat, [Coordinate(5, 0), Coordinate(5, 1), Coordinate(11, 0)]);
+}
+
+void main() {
+  testRandomPoints();
+  testGridAlignedEdges();
+  testDegenerate();
+}
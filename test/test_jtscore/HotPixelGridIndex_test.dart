@@ -0,0 +1,73 @@
+import 'dart:math';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/src/index/kdtree/KdNode.dart';
+import 'package:jtscore4dart/src/index/kdtree/KdNodeVisitor.dart';
+import 'package:jtscore4dart/src/noding/snapround/GeometryNoder.dart';
+import 'package:jtscore4dart/src/noding/snapround/HotPixel.dart';
+import 'package:jtscore4dart/src/noding/snapround/HotPixelGridIndex.dart';
+
+import 'test.dart';
+
+class PixelCollector implements KdNodeVisitor {
+  final Set<HotPixel> pixels = {};
+
+  @override
+  void visit(KdNode node) {
+    pixels.add(node.getData() as HotPixel);
+  }
+}
+
+void testQuery() {
+  Random random = Random(5);
+  PrecisionModel pm = PrecisionModel.Fixed(10);
+  HotPixelGridIndex index = HotPixelGridIndex(pm);
+  List<HotPixel> pixels = [];
+  for (int i = 0; i < 2000; i++) {
+    HotPixel hp = index.add(Coordinate(random.nextDouble() * 100, random.nextDouble() * 100));
+    if (! pixels.contains(hp)) pixels.add(hp);
+  }
+  // adding a point in an existing pixel makes it a node
+  HotPixel existing = pixels[0];
+  assertTrue(identical(existing, index.add(existing.getCoordinate().copy())));
+  assertTrue(existing.isNode());
+
+  for (int i = 0; i < 200; i++) {
+    Coordinate p0 = Coordinate(random.nextDouble() * 100, random.nextDouble() * 100);
+    Coordinate p1 = i % 10 == 0 ? p0
+        : Coordinate(random.nextDouble() * 100, random.nextDouble() * 100);
+    PixelCollector collector = PixelCollector();
+    index.query(p0, p1, collector);
+    for (HotPixel hp in pixels) {
+      if (hp.intersects2(p0, p1)) {
+        assertTrue(collector.pixels.contains(hp));
+      }
+    }
+  }
+}
+
+void testGeometryNoder() {
+  Random random = Random(11);
+  GeometryFactory geomFact = GeometryFactory();
+  List<Geometry> lines = [];
+  for (int i = 0; i < 60; i++) {
+    lines.add(geomFact.createLineString([
+      for (int j = 0; j < 5; j++) Coordinate(random.nextDouble() * 50, random.nextDouble() * 50)
+    ]));
+  }
+  PrecisionModel pm = PrecisionModel.Fixed(1);
+  List expected = GeometryNoder(pm).node(lines);
+  GeometryNoder gridNoder = GeometryNoder(pm);
+  gridNoder.setGridIndexed(true);
+  gridNoder.setValidate(true);
+  List actual = gridNoder.node(lines);
+  assertEquals(expected.length, actual.length);
+  for (int i = 0; i < expected.length; i++) {
+    assertTrue((expected[i] as Geometry).equalsExact(actual[i] as Geometry));
+  }
+}
+
+void main() {
+  testQuery();
+  testGeometryNoder();
+}
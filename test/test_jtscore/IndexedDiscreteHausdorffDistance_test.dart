@@ -0,0 +1,71 @@
+import 'dart:math';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+import 'package:jtscore4dart/src/algorithm/distance/DiscreteHausdorffDistance.dart';
+import 'package:jtscore4dart/src/algorithm/distance/IndexedDiscreteHausdorffDistance.dart';
+import 'package:jtscore4dart/src/algorithm/match/HausdorffSimilarityMeasure.dart';
+
+import 'test.dart';
+
+final WKTReader reader = WKTReader();
+
+void checkSame(String wkt0, String wkt1, [double densifyFrac = 0.0]) {
+  Geometry g0 = reader.read(wkt0)!;
+  Geometry g1 = reader.read(wkt1)!;
+  double expected = DiscreteHausdorffDistance.distance(g0, g1, densifyFrac);
+  double actual = IndexedDiscreteHausdorffDistance.distance(g0, g1, densifyFrac);
+  assertTrue((expected - actual).abs() < 1e-9);
+}
+
+/// A noisy line, as produced by matching a track to a road.
+String wiggle(int n, double offset, int seed) {
+  Random random = Random(seed);
+  StringBuffer buf = StringBuffer("LINESTRING (");
+  for (int i = 0; i < n; i++) {
+    if (i > 0) buf.write(", ");
+    buf.write("${i * 1.0} ${offset + random.nextDouble() * 3}");
+  }
+  buf.write(")");
+  return buf.toString();
+}
+
+void testKnownValues() {
+  // the example from DiscreteHausdorffDistance
+  Geometry a = reader.read("LINESTRING (0 0, 100 0, 10 100, 10 100)")!;
+  Geometry b = reader.read("LINESTRING (0 100, 0 10, 80 10)")!;
+  assertTrue((IndexedDiscreteHausdorffDistance.distance(a, b) - 22.360679774997898).abs() < 1e-12);
+
+  IndexedDiscreteHausdorffDistance dist = IndexedDiscreteHausdorffDistance(
+      reader.read("LINESTRING (0 0, 2 0)")!, reader.read("LINESTRING (0 1, 1 2, 2 1)")!);
+  assertEquals(2.0, dist.distance_());
+  List<Coordinate> pts = dist.getCoordinates();
+  assertEquals(2.0, pts[0].distance(pts[1]));
+}
+
+void testSameAsBruteForce() {
+  checkSame("LINESTRING (0 0, 100 0, 10 100, 10 100)", "LINESTRING (0 100, 0 10, 80 10)", 0.001);
+  checkSame("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 4 2, 4 4, 2 2))", "MULTIPOINT ((5 5), (20 1))");
+  checkSame("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))", "LINESTRING (1 1, 9 9, 30 0)", 0.1);
+  checkSame(wiggle(2000, 0, 1), wiggle(1500, 1, 2));
+  checkSame(wiggle(300, 0, 3), wiggle(400, 5, 4), 0.25);
+  // identical and mutually covering geometries
+  checkSame("LINESTRING (0 0, 2 0)", "LINESTRING (0 0, 1 0, 2 0)");
+  checkSame(wiggle(100, 0, 5), wiggle(100, 0, 5));
+  assertEquals(0.0, IndexedDiscreteHausdorffDistance.distance(
+      reader.read("LINESTRING (0 0, 2 0)")!, reader.read("LINESTRING (0 0, 1 0, 2 0)")!));
+}
+
+void testSimilarity() {
+  Geometry a = reader.read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))")!;
+  assertEquals(1.0, HausdorffSimilarityMeasure().measure(a, a));
+  Geometry b = reader.read("POLYGON ((0 0, 10 0, 10 11, 0 11, 0 0))")!;
+  double measure = HausdorffSimilarityMeasure().measure(a, b);
+  assertTrue((measure - (1 - 1 / sqrt(221))).abs() < 1e-12);
+}
+
+void main() {
+  testKnownValues();
+  testSameAsBruteForce();
+  testSimilarity();
+}
@@ -0,0 +1,55 @@
+import 'dart:math';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+import 'package:jtscore4dart/src/algorithm/locate/IndexedPointInAreaLocator.dart';
+
+import 'test.dart';
+
+void checkBatch(String wkt, Float64List xs, Float64List ys) {
+  IndexedPointInAreaLocator locator = IndexedPointInAreaLocator(WKTReader().read(wkt)!);
+  Uint8List locations = Uint8List(xs.length);
+  locator.locateAll(xs, ys, locations);
+  for (int i = 0; i < xs.length; i++) {
+    assertEquals(locator.locate(Coordinate(xs[i], ys[i])), locations[i]);
+  }
+}
+
+void testBoundaryAndHoles() {
+  String wkt = "MULTIPOLYGON (((0 0, 10 0, 10 10, 5 12, 0 10, 0 0), (2 2, 4 2, 4 4, 2 2)), ((20 0, 30 0, 30 5, 20 0)))";
+  Float64List xs = Float64List.fromList([5, 3, 20, 0, 10, 5, 25, 25, 3.5, 40, 5, 2]);
+  Float64List ys = Float64List.fromList([5, 2.5, 20, 5, 10, 12, 1, 4, 2, 2, 0, 2]);
+  checkBatch(wkt, xs, ys);
+
+  IndexedPointInAreaLocator locator = IndexedPointInAreaLocator(WKTReader().read(wkt)!);
+  Uint8List locations = Uint8List(3);
+  locator.locateAll(Float64List.fromList([5, 3, 0]), Float64List.fromList([5, 2.5, 5]), locations);
+  assertEquals("[${Location.INTERIOR}, ${Location.EXTERIOR}, ${Location.BOUNDARY}]", locations.toString());
+}
+
+void testRandomPoints() {
+  Random random = Random(42);
+  int n = 2000;
+  Float64List xs = Float64List(n);
+  Float64List ys = Float64List(n);
+  for (int i = 0; i < n; i++) {
+    // snap some points to the grid so they fall on vertices and edges
+    xs[i] = i % 5 == 0 ? random.nextInt(12).toDouble() : random.nextDouble() * 12;
+    ys[i] = i % 7 == 0 ? random.nextInt(12).toDouble() : random.nextDouble() * 12;
+  }
+  checkBatch("POLYGON ((0 0, 10 0, 10 10, 6 4, 4 10, 0 10, 0 0), (1 1, 3 1, 3 3, 1 3, 1 1))", xs, ys);
+}
+
+void testEmpty() {
+  IndexedPointInAreaLocator locator = IndexedPointInAreaLocator(WKTReader().read("POLYGON EMPTY")!);
+  Uint8List locations = Uint8List(2);
+  locator.locateAll(Float64List.fromList([0, 1]), Float64List.fromList([0, 1]), locations);
+  assertEquals("[${Location.EXTERIOR}, ${Location.EXTERIOR}]", locations.toString());
+}
+
+void main() {
+  testBoundaryAndHoles();
+  testRandomPoints();
+  testEmpty();
+}
@@ -0,0 +1,228 @@
+import 'dart:convert';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+import 'package:jtscore4dart/src/io/mvt/ParallelMVTEncoder.dart';
+import 'package:jtscore4dart/src/io/mvt/ProtobufWriter.dart';
+
+import 'test.dart';
+
+/// Decodes a protobuf message into lists of field values:
+/// ints for varints, doubles for fixed64, and byte lists for length-delimited fields.
+Map<int, List<Object>> decodeMessage(List<int> bytes) {
+  Map<int, List<Object>> fields = {};
+  int pos = 0;
+  int readVarint() {
+    int v = 0;
+    int shift = 0;
+    while (true) {
+      int b = bytes[pos++];
+      v |= (b & 0x7F) << shift;
+      if (b < 0x80) return v;
+      shift += 7;
+    }
+  }
+  while (pos < bytes.length) {
+    int key = readVarint();
+    int wire = key & 7;
+    Object value;
+    if (wire == 0) {
+      value = readVarint();
+    }
+    else if (wire == 1) {
+      value = ByteData.sublistView(Uint8List.fromList(bytes.sublist(pos, pos + 8))).getFloat64(0, Endian.little);
+      pos += 8;
+    }
+    else {
+      int len = readVarint();
+      value = bytes.sublist(pos, pos + len);
+      pos += len;
+    }
+    fields.putIfAbsent(key >> 3, () => []).add(value);
+  }
+  return fields;
+}
+
+List<int> unpack(List<int> bytes) {
+  List<int> values = [];
+  int pos = 0;
+  while (pos < bytes.length) {
+    int v = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = bytes[pos++];
+      v |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b >= 0x80);
+    values.add(v);
+  }
+  return values;
+}
+
+/// Decodes geometry commands into paths of absolute x,y pairs.
+List<List<int>> decodePaths(List<int> cmds) {
+  List<List<int>> paths = [];
+  int x = 0;
+  int y = 0;
+  int i = 0;
+  while (i < cmds.length) {
+    int id = cmds[i] & 7;
+    int count = cmds[i] >> 3;
+    i++;
+    if (id == 7) continue;
+    for (int k = 0; k < count; k++) {
+      int dx = cmds[i++];
+      int dy = cmds[i++];
+      x += (dx >> 1) ^ -(dx & 1);
+      y += (dy >> 1) ^ -(dy & 1);
+      if (id == 1) paths.add([]);
+      paths.last..add(x)..add(y);
+    }
+  }
+  return paths;
+}
+
+int area2(List<int> ring) {
+  int sum = 0;
+  int n = ring.length ~/ 2;
+  for (int i = 0; i < n; i++) {
+    int j = (i + 1) % n;
+    sum += ring[2 * i] * ring[2 * j + 1] - ring[2 * j] * ring[2 * i + 1];
+  }
+  return sum;
+}
+
+// the tile (0,0)-(4096,4096) with extent 4096 has tile coordinates (x, 4096 - y)
+final Envelope TILE = Envelope(0, 4096, 0, 4096);
+
+List<Map<int, List<Object>>> featuresOf(Uint8List tile) {
+  Map<int, List<Object>> layer = decodeMessage(decodeMessage(tile)[3]![0] as List<int>);
+  return [for (Object f in layer[2]!) decodeMessage(f as List<int>)];
+}
+
+List<List<int>> pathsOf(Map<int, List<Object>> feature) {
+  return decodePaths(unpack(feature[4]![0] as List<int>));
+}
+
+MVTLayer layerOf(List<String> wkts) {
+  WKTReader reader = WKTReader();
+  return MVTLayer("test", [for (String wkt in wkts) MVTFeature(reader.read(wkt)!)]);
+}
+
+void testPoints() {
+  List<Map<int, List<Object>>> features = featuresOf(MVTEncoder(4096, 0).encodeTile(TILE,
+      [layerOf(["MULTIPOINT ((10 4086), (20 4076), (-5 10))"])]));
+  assertEquals(1, features.length);
+  assertEquals(MVTEncoder.GEOM_POINT, features[0][3]![0]);
+  // one MoveTo command with a count of 2, then zigzag deltas
+  assertEquals("[17, 20, 20, 20, 20]", unpack(features[0][4]![0] as List<int>).toString());
+}
+
+void testLines() {
+  List<Map<int, List<Object>>> features = featuresOf(MVTEncoder(4096, 0).encodeTile(TILE, [
+    layerOf(["LINESTRING (-1000 2048, 5000 2048)",
+        "LINESTRING (100 100, 200 100.2, 300 100, 400 100)",
+        "LINESTRING (5000 0, 5000 4000)"])
+  ]));
+  assertEquals(2, features.length);
+  assertEquals(MVTEncoder.GEOM_LINESTRING, features[0][3]![0]);
+  // the line is clipped to the tile
+  assertEquals("[[0, 2048, 4096, 2048]]", pathsOf(features[0]).toString());
+  // nearly collinear vertices are simplified away
+  assertEquals("[[100, 3996, 400, 3996]]", pathsOf(features[1]).toString());
+
+  // a line leaving and re-entering the tile is split
+  List<List<int>> parts = pathsOf(featuresOf(MVTEncoder(4096, 0, 0).encodeTile(TILE,
+      [layerOf(["LINESTRING (100 100, 5000 100, 5000 200, 100 200)"])]))[0]);
+  assertEquals("[[100, 3996, 4096, 3996], [4096, 3896, 100, 3896]]", parts.toString());
+}
+
+void testPolygons() {
+  List<Map<int, List<Object>>> features = featuresOf(MVTEncoder(4096, 64).encodeTile(TILE, [
+    layerOf(["POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 2 8, 8 8, 8 2, 2 2))",
+        "POLYGON ((-10000 -10000, 10000 -10000, 10000 10000, -10000 10000, -10000 -10000))",
+        "POLYGON ((100 100, 100.1 100, 100.1 100.1, 100 100))"])
+  ]));
+  // the collapsed polygon is dropped
+  assertEquals(2, features.length);
+  assertEquals(MVTEncoder.GEOM_POLYGON, features[0][3]![0]);
+  List<List<int>> rings = pathsOf(features[0]);
+  assertEquals(2, rings.length);
+  // shells have positive area in tile coordinates and holes negative
+  assertTrue(area2(rings[0]) > 0);
+  assertTrue(area2(rings[1]) < 0);
+  // the closing point is implied by ClosePath
+  assertEquals(8, rings[0].length);
+
+  // a polygon covering the tile is clipped to the buffered tile
+  List<int> clipped = pathsOf(features[1])[0];
+  assertEquals(2 * 4224 * 4224, area2(clipped));
+  for (int v in clipped) {
+    assertTrue(v == -64 || v == 4160);
+  }
+}
+
+void testAttributes() {
+  Geometry p = WKTReader().read("POINT (1 1)")!;
+  MVTLayer layer = MVTLayer("pois", [
+    MVTFeature(p, {"name": "a", "rank": 1, "open": true}, 7),
+    MVTFeature(p, {"name": "a", "rank": -2, "height": 2.5, "note": null}),
+  ]);
+  Map<int, List<Object>> decoded = decodeMessage(decodeMessage(MVTEncoder.encode(TILE, [layer]))[3]![0] as List<int>);
+  assertEquals("pois", utf8.decode(decoded[1]![0] as List<int>));
+  assertEquals(2, decoded[15]![0]);
+  assertEquals(4096, decoded[5]![0]);
+  List<String> keys = [for (Object k in decoded[3]!) utf8.decode(k as List<int>)];
+  assertEquals("[name, rank, open, height]", keys.toString());
+  // "a" is stored once
+  assertEquals(5, decoded[4]!.length);
+  Map<int, List<Object>> f0 = decodeMessage(decoded[2]![0] as List<int>);
+  Map<int, List<Object>> f1 = decodeMessage(decoded[2]![1] as List<int>);
+  assertEquals(7, f0[1]![0]);
+  assertEquals("[0, 0, 1, 1, 2, 2]", unpack(f0[2]![0] as List<int>).toString());
+  assertEquals("[0, 0, 1, 3, 3, 4]", unpack(f1[2]![0] as List<int>).toString());
+  assertEquals(3, decodeMessage(decoded[4]![3] as List<int>)[6]![0]);
+  assertEquals(2.5, decodeMessage(decoded[4]![4] as List<int>)[3]![0]);
+
+  // a layer with no features in the tile is omitted
+  assertEquals(0, MVTEncoder.encode(Envelope(10000, 20000, 10000, 20000), [layer]).length);
+}
+
+Future<void> testParallel() async {
+  List<MVTFeature> features = [];
+  WKTReader reader = WKTReader();
+  for (int i = 0; i < 100; i++) {
+    double x = i * 80.0;
+    features.add(MVTFeature(reader.read("POLYGON (($x 0, ${x + 500} 0, ${x + 500} 500, $x 500, $x 0))")!, {"i": i}));
+  }
+  List<MVTLayer> layers = [MVTLayer("squares", features)];
+  List<Envelope> tiles = [for (int i = 0; i < 40; i++) Envelope(i * 256.0, (i + 1) * 256.0, 0, 256)];
+  List<Uint8List> parallel = await ParallelMVTEncoder(4).encodeTiles(tiles, layers);
+  List<Uint8List> sequential = MVTEncoder().encodeAll(tiles, layers);
+  assertEquals(tiles.length, parallel.length);
+  for (int i = 0; i < tiles.length; i++) {
+    assertEquals(sequential[i].toString(), parallel[i].toString());
+  }
+}
+
+void testVarint() {
+  ProtobufWriter writer = ProtobufWriter();
+  writer.writeVarint(300);
+  assertEquals("[172, 2]", writer.toBytes().toString());
+  // negative values are encoded as unsigned 64-bit integers
+  writer.clear();
+  writer.writeVarint(-1);
+  assertEquals("[255, 255, 255, 255, 255, 255, 255, 255, 255, 1]", writer.toBytes().toString());
+  assertEquals(10, ProtobufWriter.varintSize(-1));
+}
+
+Future<void> main() async {
+  testVarint();
+  testPoints();
+  testLines();
+  testPolygons();
+  testAttributes();
+  await testParallel();
+}
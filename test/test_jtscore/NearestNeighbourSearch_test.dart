@@ -0,0 +1,114 @@
+import 'dart:math';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/index/strtree/ItemBoundable.dart';
+import 'package:jtscore4dart/src/index/strtree/ItemDistance.dart';
+import 'package:jtscore4dart/src/index/strtree/NearestNeighbourSearch.dart';
+import 'package:jtscore4dart/src/index/strtree/ParallelNearestNeighbour.dart';
+import 'package:jtscore4dart/src/index/strtree/STRtree.dart';
+
+import 'test.dart';
+
+/// Distance between the bounds of the items.
+class EnvelopeItemDistance implements ItemDistance {
+  @override
+  double distance(ItemBoundable item1, ItemBoundable item2) {
+    return (item1.getBounds() as Envelope).distance(item2.getBounds() as Envelope);
+  }
+}
+
+List<Envelope> createPoints(int n, int seed) {
+  Random random = Random(seed);
+  return List.generate(n, (i) {
+    double x = random.nextDouble() * 1000;
+    double y = random.nextDouble() * 1000;
+    return new Envelope(x, x, y, y);
+  });
+}
+
+STRtree createTree(List<Envelope> items) {
+  STRtree tree = new STRtree();
+  for (Envelope env in items) {
+    tree.insert(env, env);
+  }
+  return tree;
+}
+
+/// The distances to the k nearest items, by brute force.
+List<double> bruteForceDistances(List<Envelope> items, Envelope query, int k) {
+  List<double> dist = items.map((env) => env.distance(query)).toList();
+  dist.sort();
+  return dist.sublist(0, min(k, dist.length));
+}
+
+void testNearest(List<Envelope> items, List<Envelope> queries) {
+  STRtree tree = createTree(items);
+  ItemDistance itemDist = new EnvelopeItemDistance();
+  NearestNeighbourSearch search = new NearestNeighbourSearch(tree, itemDist);
+  List<Object?> found = search.nearestAll(queries, queries);
+  for (int i = 0; i < queries.length; i++) {
+    Envelope expected = tree.nearestNeighbour$2(queries[i], queries[i], itemDist) as Envelope;
+    assertTrue(expected.distance(queries[i]) == (found[i] as Envelope).distance(queries[i]));
+  }
+}
+
+void testNearestK(List<Envelope> items, List<Envelope> queries, int k) {
+  STRtree tree = createTree(items);
+  NearestNeighbourSearch search = new NearestNeighbourSearch(tree, new EnvelopeItemDistance());
+  List<List<Object>> found = search.nearestKAll(queries, queries, k);
+  for (int i = 0; i < queries.length; i++) {
+    List<double> expected = bruteForceDistances(items, queries[i], k);
+    assertEquals(expected.length, found[i].length);
+    for (int j = 0; j < expected.length; j++) {
+      assertTrue(expected[j] == (found[i][j] as Envelope).distance(queries[i]));
+    }
+  }
+}
+
+void testEmptyTree() {
+  NearestNeighbourSearch search = new NearestNeighbourSearch(new STRtree(), new EnvelopeItemDistance());
+  assertTrue(search.nearest(new Envelope(0, 0, 0, 0), 0) == null);
+  assertEquals(0, search.nearestK(new Envelope(0, 0, 0, 0), 0, 3).length);
+}
+
+Future<void> testParallel(List<Envelope> items, List<Envelope> queries) async {
+  STRtree tree = createTree(items);
+  ItemDistance itemDist = new EnvelopeItemDistance();
+  NearestNeighbourSearch search = new NearestNeighbourSearch(tree, itemDist);
+  ParallelNearestNeighbour parallel = new ParallelNearestNeighbour(tree, itemDist, 3);
+
+  List<Object?> expected = search.nearestAll(queries, queries);
+  List<Object?> found = await parallel.nearestAll(queries, queries);
+  for (int i = 0; i < queries.length; i++) {
+    // results are the items of the tree itself
+    assertTrue(identical(expected[i], found[i]));
+  }
+
+  Float64List xy = Float64List(2 * queries.length);
+  for (int i = 0; i < queries.length; i++) {
+    xy[2 * i] = queries[i].getMinX();
+    xy[2 * i + 1] = queries[i].getMinY();
+  }
+  List<Object?> foundPoints = await parallel.nearestToPoints(xy);
+  for (int i = 0; i < queries.length; i++) {
+    assertTrue(identical(expected[i], foundPoints[i]));
+  }
+
+  List<List<Object>> foundK = await parallel.nearestKAll(queries, queries, 5);
+  List<List<Object>> expectedK = search.nearestKAll(queries, queries, 5);
+  for (int i = 0; i < queries.length; i++) {
+    assertEquals(expectedK[i].length, foundK[i].length);
+  }
+}
+
+Future<void> main() async {
+  List<Envelope> items = createPoints(2000, 1);
+  List<Envelope> queries = createPoints(200, 2);
+  testNearest(items, queries);
+  testNearestK(items, queries, 1);
+  testNearestK(items, queries, 7);
+  testNearestK(createPoints(5, 3), queries, 7);
+  testEmptyTree();
+  await testParallel(items, queries);
+}
@@ -1,18 +1,58 @@
+import 'dart:math' as math;
 
-import 'package:jtscore4dart/src/patch/OrdinateFormat.dart';
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+
+import 'test.dart';
 
 test(){
   var of = OrdinateFormat.create(16);
-  var ss = of.format(15248653);
-  print('>>>>>>>>> ${ ss } <<<<<<<<<<<<<<<<<<<<');
+  assertEquals("15248653", of.format(15248653));
 }
 test2(){
-  var ss = OrdinateFormat.DEFAULT.format(1400000000);
-  print('>>>>>>>>> ${ ss } <<<<<<<<<<<<<<<<<<<<');
+  assertEquals("1400000000", OrdinateFormat.DEFAULT.format(1400000000));
+}
+
+void testShortest() {
+  OrdinateFormat f = OrdinateFormat.DEFAULT;
+  assertEquals("0.1", f.format(0.1));
+  assertEquals("-12.345678", f.format(-12.345678));
+  assertEquals("0.30000000000000004", f.format(0.1 + 0.2));
+  assertEquals("0.00000015", f.format(1.5e-7));
+  assertEquals("1000000000000000000000", f.format(1e21));
+  assertEquals("NaN", f.format(double.nan));
+  assertEquals("-Inf", f.format(double.negativeInfinity));
+  // every value reads back exactly
+  math.Random random = math.Random(1234);
+  for (int i = 0; i < 1000; i++) {
+    double x = (random.nextDouble() - 0.5) * math.pow(10, random.nextInt(40) - 20);
+    assertTrue(double.parse(f.format(x)) == x);
+  }
+}
+
+void testMaximumFractionDigits() {
+  OrdinateFormat f = OrdinateFormat.create(3);
+  assertEquals("1.235", f.format(1.23456));
+  assertEquals("0.001", f.format(0.0005));
+  assertEquals("0", f.format(0.0004));
+  assertEquals("10", f.format(9.9999));
+  assertEquals("0.3", OrdinateFormat.create(16).format(0.1 + 0.2));
+  assertEquals("0.25", OrdinateFormat.forPrecisionModel(PrecisionModel.Fixed(100)).format(0.25));
+}
+
+void testWrite() {
+  StringBuffer buf = StringBuffer();
+  OrdinateFormat.DEFAULT.write(1.5, buf);
+  buf.write(" ");
+  OrdinateFormat.DEFAULT.write(-2, buf);
+  assertEquals("1.5 -2", buf.toString());
+  assertEquals("POINT (1.5 -2)", WKTWriter().write(GeometryFactory().createPoint(Coordinate(1.5, -2))));
 }
 
 void main() {
   test();
   test2();
+  testShortest();
+  testMaximumFractionDigits();
+  testWrite();
 }
-
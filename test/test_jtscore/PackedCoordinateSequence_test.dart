@@ -0,0 +1,102 @@
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Coordinate.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/CoordinateSequenceFactory.dart';
+import 'package:jtscore4dart/src/geom/CoordinateXY.dart';
+import 'package:jtscore4dart/src/geom/CoordinateXYM.dart';
+import 'package:jtscore4dart/src/geom/CoordinateXYZM.dart';
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/geom/GeometryFactory.dart';
+import 'package:jtscore4dart/src/geom/LineString.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequenceFactory.dart';
+
+import 'test.dart';
+
+void initProgression(CoordinateSequence seq) {
+  for (int index = 0; index < seq.size(); index++) {
+    for (int ordinateIndex = 0; ordinateIndex < seq.getDimension(); ordinateIndex++) {
+      seq.setOrdinate(index, ordinateIndex, index.toDouble());
+    }
+  }
+}
+
+void checkDim2(CoordinateSequenceFactory factory) {
+  CoordinateSequence seq = factory.createBySize(5, 2);
+  initProgression(seq);
+  assertEquals(2, seq.getDimension());
+  assertTrue(!seq.hasZ());
+  assertTrue(!seq.hasM());
+
+  Coordinate coord = seq.getCoordinate(4);
+  assertTrue(coord is CoordinateXY);
+  assertEquals(4.0, coord.getX());
+  assertEquals(4.0, coord.getY());
+
+  CoordinateSequence copy = factory.create(seq.toCoordinateArray());
+  assertEquals(4.0, copy.getY(4));
+  CoordinateSequence copy2 = factory.createFromCoordSeq(seq);
+  assertEquals(4.0, copy2.getX(4));
+}
+
+void checkDim3M1(CoordinateSequenceFactory factory) {
+  CoordinateSequence seq = factory.createWithSize(5, 3, 1);
+  initProgression(seq);
+  assertTrue(!seq.hasZ());
+  assertTrue(seq.hasM());
+  Coordinate coord = seq.getCoordinate(4);
+  assertTrue(coord is CoordinateXYM);
+  assertEquals(4.0, coord.getM());
+}
+
+void checkDim4M1(CoordinateSequenceFactory factory) {
+  CoordinateSequence seq = factory.createWithSize(5, 4, 1);
+  initProgression(seq);
+  assertTrue(seq.hasZ());
+  assertTrue(seq.hasM());
+  Coordinate coord = seq.getCoordinate(4);
+  assertTrue(coord is CoordinateXYZM);
+  assertEquals(4.0, coord.getZ());
+  assertEquals(4.0, coord.getM());
+}
+
+void checkDimInvalid(CoordinateSequenceFactory factory) {
+  try {
+    factory.createWithSize(5, 2, 1);
+    assertTrue(false);
+  } on ArgumentError catch (e) {
+    print(e);
+  }
+}
+
+void testMutationClearsCache() {
+  CoordinateSequence seq = PackedCoordinateSequenceFactory.DOUBLE_FACTORY.createBySize(3, 2);
+  List<Coordinate> before = seq.toCoordinateArray();
+  seq.setOrdinate(1, 0, 7.0);
+  assertEquals(0.0, before[1].x);
+  assertEquals(7.0, seq.getCoordinate(1).x);
+}
+
+void testGeometryFactory() {
+  GeometryFactory factory = GeometryFactory.withCoordinateSequenceFactory(
+      PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+  CoordinateSequence seq = PackedCoordinateSequenceFactory.DOUBLE_FACTORY
+      .createFromDoubles(Float64List.fromList([0, 0, 10, 5, 20, 0]), 2);
+  LineString line = factory.createLineStringFromSeq(seq);
+  assertTrue(Envelope(0, 20, 0, 5).equals(line.getEnvelopeInternal()));
+  assertEquals(3, line.getNumPoints());
+}
+
+void main() {
+  for (var factory in [
+    PackedCoordinateSequenceFactory.DOUBLE_FACTORY,
+    PackedCoordinateSequenceFactory.FLOAT_FACTORY
+  ]) {
+    checkDim2(factory);
+    checkDim3M1(factory);
+    checkDim4M1(factory);
+    checkDimInvalid(factory);
+  }
+  testMutationClearsCache();
+  testGeometryFactory();
+}
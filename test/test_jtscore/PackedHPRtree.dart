@@ -0,0 +1,75 @@
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/index/hprtree/PackedHPRtree.dart';
+
+import 'test.dart';
+
+int queryCount(PackedHPRtree t, Envelope env) {
+  int count = 0;
+  t.queryEnvelope(env, (id) => count++);
+  return count;
+}
+
+void testDisallowedInserts() {
+  PackedHPRtree t = new PackedHPRtree(3);
+  t.insert(0, 0, 0, 0, 0);
+  t.insert(0, 0, 0, 0, 1);
+  queryCount(t, new Envelope.init());
+  try {
+    t.insert(0, 0, 0, 0, 2);
+    assertTrue(false);
+  } on StateError catch (e) {
+    print(e);
+  }
+}
+
+void testQuery3() {
+  PackedHPRtree t = new PackedHPRtree();
+  for (int i = 0; i < 3; i++) {
+    double _i = i.toDouble();
+    t.insertEnvelope(new Envelope(_i, _i + 1, _i, _i + 1), i);
+  }
+  assertEquals(3, queryCount(t, new Envelope(1, 2, 1, 2)));
+  assertEquals(0, queryCount(t, new Envelope(9, 10, 9, 10)));
+}
+
+void queryGrid(int size, PackedHPRtree t) {
+  for (int i = 0; i < size; i++) {
+    double _i = i.toDouble();
+    t.insert(_i, _i, _i + 1, _i + 1, i);
+  }
+  assertEquals(3, queryCount(t, new Envelope(5, 6, 5, 6)));
+  assertEquals(3, queryCount(t, new Envelope(9, 10, 9, 10)));
+  assertEquals(3, queryCount(t, new Envelope(25, 26, 25, 26)));
+  assertEquals(11, queryCount(t, new Envelope(0, 10, 0, 10)));
+}
+
+void testQueryIds() {
+  Float64List bounds = Float64List.fromList([0, 0, 1, 1, 5, 5, 6, 6, 10, 10, 11, 11]);
+  Int32List ids = Int32List.fromList([100, 200, 300]);
+  PackedHPRtree t = new PackedHPRtree.fromArrays(bounds, ids, 2);
+  List<int> found = [];
+  t.query(4, 4, 7, 7, found.add);
+  assertEquals(1, found.length);
+  assertEquals(200, found[0]);
+}
+
+void testVerticalLine() {
+  // degenerate extent in X
+  PackedHPRtree t = new PackedHPRtree(4);
+  for (int i = 0; i < 50; i++) {
+    t.insert(1, i.toDouble(), 1, i.toDouble(), i);
+  }
+  assertEquals(3, queryCount(t, new Envelope(0, 2, 9, 11)));
+}
+
+void main() {
+  testDisallowedInserts();
+  testQuery3();
+  queryGrid(100, new PackedHPRtree());
+  queryGrid(100, new PackedHPRtree(8));
+  queryGrid(100, new PackedHPRtree(2));
+  testQueryIds();
+  testVerticalLine();
+}
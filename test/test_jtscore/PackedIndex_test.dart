@@ -0,0 +1,113 @@
+import 'dart:math';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/index/PackedIndex.dart';
+import 'package:jtscore4dart/src/index/hprtree/HPRtree.dart';
+import 'package:jtscore4dart/src/index/hprtree/PackedHPRtree.dart';
+import 'package:jtscore4dart/src/index/strtree/STRtree.dart';
+
+import 'test.dart';
+
+List<Envelope> createItems(int n) {
+  Random random = Random(5);
+  return List.generate(n, (i) {
+    double x = random.nextDouble() * 100;
+    double y = random.nextDouble() * 100;
+    return new Envelope(x, x + random.nextDouble(), y, y + random.nextDouble());
+  });
+}
+
+List<int> queryIds(PackedIndex index, Envelope env) {
+  List<int> ids = [];
+  index.queryEnvelope(env, ids.add);
+  ids.sort();
+  return ids;
+}
+
+List<int> sortedInts(List items) {
+  List<int> ids = items.cast<int>().toList();
+  ids.sort();
+  return ids;
+}
+
+bool sameList(List a, List b) {
+  if (a.length != b.length) return false;
+  for (int i = 0; i < a.length; i++) {
+    if (a[i] != b[i]) return false;
+  }
+  return true;
+}
+
+/// Checks the index, and the index reopened from its bytes,
+/// against the expected query results.
+void checkIndex(PackedIndex index, List Function(Envelope) expected) {
+  PackedIndex reopened = PackedIndex.fromBytes(index.toBytes());
+  assertEquals(index.size(), reopened.size());
+  for (Envelope env in [new Envelope(10, 20, 10, 20), new Envelope(0, 100, 0, 100), new Envelope(55, 56, 70, 71)]) {
+    List<int> ids = sortedInts(expected(env));
+    assertTrue(sameList(ids, queryIds(index, env)));
+    assertTrue(sameList(ids, queryIds(reopened, env)));
+  }
+}
+
+void testSTRtree(List<Envelope> items) {
+  STRtree tree = new STRtree();
+  for (int i = 0; i < items.length; i++) {
+    tree.insert(items[i], i);
+  }
+  checkIndex(PackedIndex.fromSTRtree(tree), tree.query);
+}
+
+void testHPRtree(List<Envelope> items) {
+  HPRtree tree = new HPRtree();
+  for (int i = 0; i < items.length; i++) {
+    tree.insert(items[i], i);
+  }
+  checkIndex(PackedIndex.fromHPRtree(tree), tree.query);
+}
+
+void testPackedHPRtree(List<Envelope> items) {
+  PackedHPRtree tree = new PackedHPRtree();
+  for (int i = 0; i < items.length; i++) {
+    tree.insertEnvelope(items[i], i);
+  }
+  checkIndex(PackedIndex.fromPackedHPRtree(tree), (env) {
+    List<int> ids = [];
+    tree.queryEnvelope(env, ids.add);
+    return ids;
+  });
+}
+
+void testUnalignedBytes() {
+  STRtree tree = new STRtree();
+  List<Envelope> items = createItems(100);
+  for (int i = 0; i < items.length; i++) {
+    tree.insert(items[i], i);
+  }
+  Uint8List bytes = PackedIndex.fromSTRtree(tree).toBytes();
+  Uint8List shifted = Uint8List(bytes.length + 4);
+  shifted.setRange(4, shifted.length, bytes);
+  PackedIndex reopened = PackedIndex.fromBytes(Uint8List.sublistView(shifted, 4));
+  assertEquals(100, queryIds(reopened, new Envelope(0, 100, 0, 100)).length);
+}
+
+void testBadBytes() {
+  try {
+    PackedIndex.fromBytes(Uint8List(128));
+    assertTrue(false);
+  } on ArgumentError catch (e) {
+    print(e);
+  }
+}
+
+void main() {
+  for (int n in [0, 5, 1000]) {
+    List<Envelope> items = createItems(n);
+    testSTRtree(items);
+    testHPRtree(items);
+    testPackedHPRtree(items);
+  }
+  testUnalignedBytes();
+  testBadBytes();
+}
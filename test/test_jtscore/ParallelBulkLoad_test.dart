@@ -0,0 +1,84 @@
+import 'dart:math';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/index/hprtree/HPRtree.dart';
+import 'package:jtscore4dart/src/index/hprtree/HPRtreeParallelLoader.dart';
+import 'package:jtscore4dart/src/index/hprtree/PackedHPRtree.dart';
+import 'package:jtscore4dart/src/index/strtree/STRtree.dart';
+import 'package:jtscore4dart/src/index/strtree/STRtreeParallelLoader.dart';
+
+import 'test.dart';
+
+/// Items on a coarse grid, so that many midpoints are equal.
+List<Envelope> createItems(int n) {
+  Random random = Random(17);
+  return List.generate(n, (i) {
+    double x = random.nextInt(200).toDouble();
+    double y = random.nextInt(200).toDouble();
+    return new Envelope(x, x + random.nextInt(3), y, y + random.nextInt(3));
+  });
+}
+
+bool sameList(List a, List b) {
+  if (a.length != b.length) return false;
+  for (int i = 0; i < a.length; i++) {
+    if (a[i] is Envelope ? !a[i].equals(b[i]) : a[i] != b[i]) return false;
+  }
+  return true;
+}
+
+Future<void> testSTRtree(List<Envelope> items, int nodeCapacity) async {
+  STRtree seq = new STRtree(nodeCapacity);
+  STRtree par = new STRtree(nodeCapacity);
+  for (int i = 0; i < items.length; i++) {
+    seq.insert(items[i], i);
+    par.insert(items[i], i);
+  }
+  seq.build();
+  await new STRtreeParallelLoader(4, 100).build(par);
+  // queries traverse the tree in order, so equal results mean equal trees
+  assertTrue(sameList(seq.query(new Envelope(0, 300, 0, 300)), par.query(new Envelope(0, 300, 0, 300))));
+  assertTrue(sameList(seq.query(new Envelope(50, 60, 50, 60)), par.query(new Envelope(50, 60, 50, 60))));
+  assertEquals(items.length, par.query(new Envelope(0, 300, 0, 300)).length);
+  assertEquals(seq.depth(), par.depth());
+}
+
+Future<void> testHPRtree(List<Envelope> items) async {
+  HPRtree seq = new HPRtree();
+  HPRtree par = new HPRtree();
+  for (int i = 0; i < items.length; i++) {
+    seq.insert(items[i], i);
+    par.insert(items[i], i);
+  }
+  seq.build();
+  await new HPRtreeParallelLoader(4, 100).build(par);
+  assertTrue(sameList(seq.getBounds(), par.getBounds()));
+  assertTrue(sameList(seq.query(new Envelope(0, 300, 0, 300)), par.query(new Envelope(0, 300, 0, 300))));
+}
+
+Future<void> testPackedHPRtree(List<Envelope> items) async {
+  PackedHPRtree seq = new PackedHPRtree();
+  PackedHPRtree par = new PackedHPRtree();
+  for (int i = 0; i < items.length; i++) {
+    seq.insertEnvelope(items[i], i);
+    par.insertEnvelope(items[i], i);
+  }
+  seq.build();
+  await new HPRtreeParallelLoader(4, 100).buildPacked(par);
+  assertTrue(sameList(seq.getBounds(), par.getBounds()));
+  List<int> seqIds = [];
+  List<int> parIds = [];
+  seq.queryEnvelope(new Envelope(0, 300, 0, 300), seqIds.add);
+  par.queryEnvelope(new Envelope(0, 300, 0, 300), parIds.add);
+  assertTrue(sameList(seqIds, parIds));
+  assertEquals(items.length, parIds.length);
+}
+
+Future<void> main() async {
+  List<Envelope> items = createItems(5000);
+  await testSTRtree(items, 10);
+  await testSTRtree(items, 4);
+  await testSTRtree(createItems(50), 10);
+  await testHPRtree(items);
+  await testPackedHPRtree(items);
+}
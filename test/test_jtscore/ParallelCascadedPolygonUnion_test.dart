@@ -0,0 +1,60 @@
+import 'dart:math';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/src/operation/union/CascadedPolygonUnion.dart';
+import 'package:jtscore4dart/src/operation/union/ParallelCascadedPolygonUnion.dart';
+
+import 'test.dart';
+
+GeometryFactory factory = GeometryFactory();
+
+Polygon circle(double x, double y, double size) {
+  int numPts = 24;
+  List<Coordinate> pts = [];
+  for (int i = 0; i < numPts; i++) {
+    double angle = i * 2 * pi / numPts;
+    pts.add(Coordinate(x + size / 2 * cos(angle), y + size / 2 * sin(angle)));
+  }
+  pts.add(pts[0].copy());
+  return factory.createPolygonFromCoords(pts);
+}
+
+List<Polygon> createCircles(int n) {
+  Random random = Random(7);
+  return List.generate(n, (i) => circle(random.nextDouble() * 100, random.nextDouble() * 100,
+      2 + random.nextDouble() * 6));
+}
+
+void testRoundTrip() {
+  Polygon shell = circle(0, 0, 10);
+  Polygon withHole = factory.createPolygon(shell.getExteriorRing(),
+      [circle(0, 0, 4).getExteriorRing()]);
+  MultiPolygon multi = factory.createMultiPolygon([circle(20, 0, 5), circle(40, 0, 5)]);
+  List tree = [withHole, [multi, factory.createPolygon()]];
+
+  PolygonalTreeWriter writer = PolygonalTreeWriter(2);
+  writer.writeNode(tree);
+  Int32List structure = writer.getStructure();
+  Float64List ordinates = writer.getOrdinates();
+  List read = PolygonalTreeReader(factory, structure, ordinates, 2).readNode() as List;
+  assertTrue(withHole.equalsExact(read[0] as Geometry));
+  assertTrue(multi.equalsExact((read[1] as List)[0] as Geometry));
+  assertTrue(((read[1] as List)[1] as Geometry).isEmpty());
+}
+
+Future<void> testUnion(int n) async {
+  List<Polygon> polys = createCircles(n);
+  Geometry sequential = CascadedPolygonUnion.of(polys)!;
+  Geometry parallel = (await ParallelCascadedPolygonUnion.of(polys, 4))!;
+  // each subtree is reduced in the same order, so the results are identical
+  assertTrue(sequential.equalsExact(parallel));
+  assertEquals(sequential.getArea(), parallel.getArea());
+}
+
+Future<void> main() async {
+  testRoundTrip();
+  await testUnion(100);
+  await testUnion(1000);
+  assertTrue(await ParallelCascadedPolygonUnion.of([]) == null);
+}
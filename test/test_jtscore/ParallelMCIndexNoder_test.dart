@@ -0,0 +1,63 @@
+import 'dart:math';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/src/algorithm/RobustLineIntersector.dart';
+import 'package:jtscore4dart/src/noding/IntersectionAdder.dart';
+import 'package:jtscore4dart/src/noding/MCIndexNoder.dart';
+import 'package:jtscore4dart/src/noding/NodedSegmentString.dart';
+import 'package:jtscore4dart/src/noding/ParallelMCIndexNoder.dart';
+import 'package:jtscore4dart/src/noding/SegmentString.dart';
+
+import 'test.dart';
+
+/// Creates random walks, so that there are many chains and intersections.
+List<NodedSegmentString> randomLines(int numLines, int numPts, int seed) {
+  Random random = Random(seed);
+  List<NodedSegmentString> segStrings = [];
+  for (int i = 0; i < numLines; i++) {
+    double x = random.nextDouble() * 1000;
+    double y = random.nextDouble() * 1000;
+    List<Coordinate> pts = [];
+    for (int j = 0; j < numPts; j++) {
+      pts.add(Coordinate(x, y));
+      x += random.nextDouble() * 40 - 20;
+      y += random.nextDouble() * 40 - 20;
+    }
+    if (i % 5 == 0) pts.add(pts[0].copy());
+    segStrings.add(NodedSegmentString(pts, i));
+  }
+  return segStrings;
+}
+
+void checkSameNoding(Iterable<SegmentString> expected, Iterable<SegmentString> actual) {
+  List<SegmentString> expectedList = expected.toList();
+  List<SegmentString> actualList = actual.toList();
+  assertEquals(expectedList.length, actualList.length);
+  for (int i = 0; i < expectedList.length; i++) {
+    assertEquals(expectedList[i].getData(), actualList[i].getData());
+    List<Coordinate> expectedPts = expectedList[i].getCoordinates();
+    List<Coordinate> actualPts = actualList[i].getCoordinates();
+    assertEquals(expectedPts.length, actualPts.length);
+    for (int j = 0; j < expectedPts.length; j++) {
+      assertTrue(expectedPts[j].equals2D(actualPts[j]));
+    }
+  }
+}
+
+Future<void> checkNoding(int numLines, int numPts, int numWorkers) async {
+  MCIndexNoder noder = MCIndexNoder(IntersectionAdder(RobustLineIntersector()));
+  noder.computeNodes(randomLines(numLines, numPts, 7));
+
+  ParallelMCIndexNoder parallelNoder = ParallelMCIndexNoder(numWorkers);
+  await parallelNoder.computeNodes(randomLines(numLines, numPts, 7));
+  assertTrue(parallelNoder.getNumIntersections() > 0);
+  checkSameNoding(noder.getNodedSubstrings(), parallelNoder.getNodedSubstrings());
+}
+
+Future<void> main() async {
+  // noded on the calling isolate
+  await checkNoding(20, 50, 4);
+  // noded by several isolates
+  await checkNoding(100, 400, 3);
+  await checkNoding(100, 400, 1);
+}
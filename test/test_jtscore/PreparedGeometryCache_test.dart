@@ -0,0 +1,150 @@
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+
+import 'test.dart';
+
+final WKTReader reader = WKTReader();
+
+Geometry read(String wkt) => reader.read(wkt)!;
+
+void testPreparedPredicates() {
+  Geometry poly = read("POLYGON ((0 0, 10 0, 10 10, 5 12, 0 10, 0 0), (2 2, 4 2, 4 4, 2 2))");
+  PreparedGeometry prep = PreparedGeometryFactory.prepare(poly);
+  List<Geometry> tests = [
+    read("POINT (5 5)"),
+    read("POINT (3 2.5)"),
+    read("POINT (20 20)"),
+    read("POINT (0 5)"),
+    read("LINESTRING (-5 5, 15 5)"),
+    read("LINESTRING (6 6, 8 8)"),
+    read("POLYGON ((5 5, 6 5, 6 6, 5 5))"),
+    read("POLYGON ((-1 -1, 11 -1, 11 13, -1 13, -1 -1))"),
+    read("MULTIPOINT ((1 1), (30 30))"),
+  ];
+  for (Geometry g in tests) {
+    assertEquals(poly.intersects(g), prep.intersects(g));
+    assertEquals(poly.contains(g), prep.contains(g));
+    assertEquals(poly.covers(g), prep.covers(g));
+  }
+  PreparedGeometry line = PreparedGeometryFactory.prepare(read("LINESTRING (0 0, 10 10)"));
+  assertTrue(line.intersects(read("LINESTRING (0 10, 10 0)")));
+  assertTrue(!line.intersects(read("POINT (1 2)")));
+}
+
+void testLRU() {
+  PreparedGeometryCache cache = PreparedGeometryCache(2);
+  Geometry a = read("POLYGON ((0 0, 1 0, 1 1, 0 0))");
+  Geometry b = read("POLYGON ((0 0, 2 0, 2 2, 0 0))");
+  Geometry c = read("POLYGON ((0 0, 3 0, 3 3, 0 0))");
+  PreparedGeometry pa = cache.prepare(a);
+  assertTrue(identical(pa, cache.prepare(a)));
+  cache.prepare(b);
+  // a is now more recently used than b, so b is evicted
+  cache.prepare(a);
+  cache.prepare(c);
+  assertEquals(2, cache.size());
+  assertEquals(1, cache.getEvictions());
+  assertTrue(cache.get(b) == null);
+  assertTrue(identical(pa, cache.get(a)));
+  assertEquals(3, cache.getHits());
+  assertEquals(4, cache.getMisses());
+
+  // an equal but distinct geometry is a different key
+  assertTrue(cache.get(read("POLYGON ((0 0, 1 0, 1 1, 0 0))")) == null);
+
+  // user ids are compared by value
+  cache.prepare(b, "region-" + "7");
+  assertTrue(identical(b, cache.get("region-7")!.getGeometry()));
+  // a new geometry for an id replaces the old one
+  cache.prepare(c, "region-7");
+  assertTrue(identical(c, cache.get("region-7")!.getGeometry()));
+}
+
+void testVertexBound() {
+  PreparedGeometryCache cache = PreparedGeometryCache(100, 10);
+  cache.prepare(read("POLYGON ((0 0, 1 0, 1 1, 0 0))"));
+  cache.prepare(read("POLYGON ((0 0, 2 0, 2 2, 0 0))"));
+  assertEquals(8, cache.getNumVertices());
+  cache.prepare(read("POLYGON ((0 0, 3 0, 3 3, 0 0))"));
+  assertEquals(2, cache.size());
+  assertEquals(8, cache.getNumVertices());
+  cache.clear();
+  assertEquals(0, cache.getNumVertices());
+}
+
+void testDefaultCache() {
+  Geometry poly = read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 4 2, 4 4, 2 2))");
+  Geometry inside = read("POINT (5 5)");
+  Geometry inHole = read("POINT (3 2.5)");
+  PreparedGeometryCache cache = PreparedGeometryCache();
+  PreparedGeometryCache.setDefault(cache);
+  try {
+    for (int i = 0; i < 10; i++) {
+      assertTrue(poly.intersects(inside));
+      assertTrue(!poly.intersects(inHole));
+      assertTrue(poly.contains(inside));
+      assertTrue(!poly.contains(inHole));
+    }
+    // the polygon is prepared on its second use, and then reused
+    assertEquals(1, cache.size());
+    assertEquals(38, cache.getHits());
+    // points are not prepared
+    assertTrue(inside.intersects(poly));
+    assertTrue(inside.intersects(poly));
+    assertEquals(1, cache.size());
+  }
+  finally {
+    PreparedGeometryCache.setDefault(null);
+  }
+}
+
+/// Moves a polygon in place, and notifies it of the change.
+void translate(Polygon poly, double dx) {
+  List<LineString> rings = [poly.getExteriorRing()];
+  for (int i = 0; i < poly.getNumInteriorRing(); i++) {
+    rings.add(poly.getInteriorRingN(i));
+  }
+  for (LineString ring in rings) {
+    CoordinateSequence seq = ring.getCoordinateSequence();
+    for (int i = 0; i < seq.size(); i++) {
+      seq.setOrdinate(i, 0, seq.getX(i) + dx);
+    }
+  }
+  poly.geometryChanged();
+}
+
+void testChangedGeometry() {
+  Polygon poly = read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 4 2, 4 4, 2 2))") as Polygon;
+  Geometry inside = read("POINT (5 5)");
+  PreparedGeometryCache cache = PreparedGeometryCache();
+  cache.prepare(poly);
+  PreparedGeometryCache.setDefault(cache);
+  try {
+    assertTrue(poly.intersects(inside));
+    assertTrue(poly.contains(inside));
+    translate(poly, 100);
+    // the prepared form of the old coordinates is not used
+    assertTrue(!poly.intersects(inside));
+    assertTrue(!poly.contains(inside));
+    assertTrue(poly.contains(read("POINT (105 5)")));
+  }
+  finally {
+    PreparedGeometryCache.setDefault(null);
+  }
+  // a geometry changed while in a non-default cache is prepared again
+  PreparedGeometryCache other = PreparedGeometryCache();
+  PreparedGeometry prep = other.prepare(poly, "moved");
+  translate(poly, -100);
+  assertTrue(other.get("moved") == null);
+  PreparedGeometry reprepared = other.prepare(poly, "moved");
+  assertTrue(!identical(prep, reprepared));
+  assertTrue(reprepared.contains(inside));
+}
+
+void main() {
+  testPreparedPredicates();
+  testLRU();
+  testVertexBound();
+  testDefaultCache();
+  testChangedGeometry();
+}
@@ -0,0 +1,101 @@
+import 'dart:math';
+
+import 'package:jtscore4dart/src/geom/Envelope.dart';
+import 'package:jtscore4dart/src/index/rstartree/RStarTree.dart';
+
+import 'test.dart';
+
+Envelope randomEnvelope(Random random) {
+  double x = random.nextDouble() * 100;
+  double y = random.nextDouble() * 100;
+  return new Envelope(x, x + random.nextDouble() * 3, y, y + random.nextDouble() * 3);
+}
+
+/// The items whose envelopes intersect the search envelope, by brute force.
+List<int> bruteForceQuery(Map<int, Envelope> items, Envelope searchEnv) {
+  List<int> found = [];
+  items.forEach((id, env) {
+    if (env.intersectsWith(searchEnv)) found.add(id);
+  });
+  found.sort();
+  return found;
+}
+
+List<int> treeQuery(RStarTree tree, Envelope searchEnv) {
+  List<int> found = tree.query(searchEnv).cast<int>().toList();
+  found.sort();
+  return found;
+}
+
+bool sameList(List a, List b) {
+  if (a.length != b.length) return false;
+  for (int i = 0; i < a.length; i++) {
+    if (a[i] != b[i]) return false;
+  }
+  return true;
+}
+
+void checkQueries(RStarTree tree, Map<int, Envelope> items, Random random) {
+  assertEquals(items.length, tree.size());
+  for (int i = 0; i < 20; i++) {
+    Envelope searchEnv = randomEnvelope(random);
+    searchEnv.expandByDelXY(5, 5);
+    assertTrue(sameList(bruteForceQuery(items, searchEnv), treeQuery(tree, searchEnv)));
+  }
+}
+
+void testInsertRemove(int nodeCapacity) {
+  Random random = Random(nodeCapacity);
+  RStarTree tree = new RStarTree(nodeCapacity);
+  Map<int, Envelope> items = {};
+  int nextId = 0;
+  for (int round = 0; round < 5; round++) {
+    for (int i = 0; i < 500; i++) {
+      Envelope env = randomEnvelope(random);
+      tree.insert(env, nextId);
+      items[nextId++] = env;
+    }
+    checkQueries(tree, items, random);
+    // remove about half of the items
+    for (int id in items.keys.toList()) {
+      if (random.nextBool()) {
+        assertTrue(tree.remove(items[id]!, id));
+        items.remove(id);
+      }
+    }
+    checkQueries(tree, items, random);
+  }
+}
+
+void testRemoveMissing() {
+  RStarTree tree = new RStarTree();
+  tree.insert(new Envelope(0, 1, 0, 1), 1);
+  assertTrue(! tree.remove(new Envelope(0, 1, 0, 1), 2));
+  assertTrue(! tree.remove(new Envelope(5, 6, 5, 6), 1));
+  assertTrue(tree.remove(new Envelope(0, 1, 0, 1), 1));
+  assertTrue(tree.isEmpty());
+  assertEquals(0, tree.query(new Envelope(0, 1, 0, 1)).length);
+}
+
+void testRemoveAll() {
+  Random random = Random(3);
+  RStarTree tree = new RStarTree(4);
+  Map<int, Envelope> items = {};
+  for (int i = 0; i < 300; i++) {
+    Envelope env = randomEnvelope(random);
+    tree.insert(env, i);
+    items[i] = env;
+  }
+  for (int i = 0; i < 300; i++) {
+    assertTrue(tree.remove(items[i]!, i));
+  }
+  assertTrue(tree.isEmpty());
+  assertEquals(1, tree.depth());
+}
+
+void main() {
+  testInsertRemove(4);
+  testInsertRemove(16);
+  testRemoveMissing();
+  testRemoveAll();
+}
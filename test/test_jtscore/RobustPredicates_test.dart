@@ -0,0 +1,112 @@
+import 'dart:math';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/src/algorithm/CGAlgorithmsDD.dart';
+import 'package:jtscore4dart/src/algorithm/Orientation.dart';
+import 'package:jtscore4dart/src/algorithm/RobustPredicates.dart';
+
+import 'test.dart';
+
+/// The scale at which the test coordinates are integers.
+const double SCALE = 1048576.0; // 2^20
+
+/// A coordinate on a fine grid far from the origin,
+/// which is exactly an integer when multiplied by SCALE.
+double gridValue(int base, int k) {
+  return (base + k) / SCALE;
+}
+
+BigInt exact(double x) {
+  return BigInt.from(x * SCALE);
+}
+
+int exactOrientation(double ax, double ay, double bx, double by, double cx, double cy) {
+  BigInt det = (exact(ax) - exact(cx)) * (exact(by) - exact(cy))
+      - (exact(ay) - exact(cy)) * (exact(bx) - exact(cx));
+  return det.sign;
+}
+
+int exactInCircle(double ax, double ay, double bx, double by,
+    double cx, double cy, double dx, double dy) {
+  BigInt adx = exact(ax) - exact(dx);
+  BigInt ady = exact(ay) - exact(dy);
+  BigInt bdx = exact(bx) - exact(dx);
+  BigInt bdy = exact(by) - exact(dy);
+  BigInt cdx = exact(cx) - exact(dx);
+  BigInt cdy = exact(cy) - exact(dy);
+  BigInt det = (adx * adx + ady * ady) * (bdx * cdy - cdx * bdy)
+      + (bdx * bdx + bdy * bdy) * (cdx * ady - adx * cdy)
+      + (cdx * cdx + cdy * cdy) * (adx * bdy - bdx * ady);
+  return det.sign;
+}
+
+int signum(double x) {
+  if (x > 0) return 1;
+  if (x < 0) return -1;
+  return 0;
+}
+
+void testNearCollinear() {
+  Random random = Random(11);
+  int base = 1 << 40;
+  for (int i = 0; i < 20000; i++) {
+    // points on or next to a line through a and b
+    int ax = random.nextInt(1000), ay = random.nextInt(1000);
+    int dx = random.nextInt(1000) + 1, dy = random.nextInt(1000) + 1;
+    int t = random.nextInt(50) - 25;
+    double pax = gridValue(base, ax), pay = gridValue(base, ay);
+    double pbx = gridValue(base, ax + dx), pby = gridValue(base, ay + dy);
+    double pcx = gridValue(base, ax + t * dx), pcy = gridValue(base, ay + t * dy + random.nextInt(3) - 1);
+    int expected = exactOrientation(pax, pay, pbx, pby, pcx, pcy);
+    assertEquals(expected, RobustPredicates.orientationIndex(pax, pay, pbx, pby, pcx, pcy));
+    assertEquals(expected, CGAlgorithmsDD.orientationIndexFromDouble(pax, pay, pbx, pby, pcx, pcy));
+  }
+}
+
+void testOrientationIndex() {
+  Coordinate p0 = Coordinate(219.3649559090992, 140.84159161824724);
+  Coordinate p1 = Coordinate(168.9018919682399, -5.713787599646864);
+  Coordinate p = Coordinate(186.80814046338352, 46.28973405831556);
+  // orientation is consistent when the vector is reversed
+  assertEquals(-Orientation.index(p0, p1, p), Orientation.index(p1, p0, p));
+  assertEquals(CGAlgorithmsDD.orientationIndex(p0, p1, p), Orientation.index(p0, p1, p));
+  assertEquals(Orientation.COUNTERCLOCKWISE,
+      Orientation.index(Coordinate(0, 0), Coordinate(10, 0), Coordinate(5, 1)));
+  assertEquals(Orientation.COLLINEAR,
+      Orientation.index(Coordinate(0, 0), Coordinate(10, 10), Coordinate(0.1, 0.1)));
+}
+
+void testNearCocircular() {
+  Random random = Random(5);
+  int base = 1 << 32;
+  for (int i = 0; i < 5000; i++) {
+    // the corners of an axis-aligned rectangle are cocircular,
+    // so perturb the fourth by at most one grid step
+    int x0 = random.nextInt(1000), y0 = random.nextInt(1000);
+    int w = random.nextInt(1000) + 1, h = random.nextInt(1000) + 1;
+    double ax = gridValue(base, x0), ay = gridValue(base, y0);
+    double bx = gridValue(base, x0 + w), by = gridValue(base, y0);
+    double cx = gridValue(base, x0 + w), cy = gridValue(base, y0 + h);
+    double dx = gridValue(base, x0 + random.nextInt(3) - 1);
+    double dy = gridValue(base, y0 + h + random.nextInt(3) - 1);
+    int expected = exactInCircle(ax, ay, bx, by, cx, cy, dx, dy);
+    assertEquals(expected, signum(RobustPredicates.inCircle(ax, ay, bx, by, cx, cy, dx, dy)));
+    assertEquals(expected > 0, RobustPredicates.isInCircle(ax, ay, bx, by, cx, cy, dx, dy));
+  }
+}
+
+void testInCircle() {
+  // the unit circle
+  assertTrue(RobustPredicates.isInCircle(1, 0, 0, 1, -1, 0, 0, 0));
+  assertTrue(! RobustPredicates.isInCircle(1, 0, 0, 1, -1, 0, 2, 0));
+  assertEquals(0.0, RobustPredicates.inCircle(1, 0, 0, 1, -1, 0, 0, -1));
+  // clockwise triangles reverse the sign
+  assertTrue(RobustPredicates.inCircle(-1, 0, 0, 1, 1, 0, 0, 0) < 0);
+}
+
+void main() {
+  testNearCollinear();
+  testOrientationIndex();
+  testNearCocircular();
+  testInCircle();
+}
@@ -0,0 +1,104 @@
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+import 'package:jtscore4dart/operation.dart';
+import 'package:jtscore4dart/src/operation/join/ParallelSpatialJoin.dart';
+
+import 'test.dart';
+
+final WKTReader reader = WKTReader();
+
+/// A grid of unit squares, with the square at (i, j) at index i * n + j.
+List<Geometry> squares(int n) {
+  return [
+    for (int i = 0; i < n; i++)
+      for (int j = 0; j < n; j++)
+        reader.read("POLYGON (($i $j, ${i + 1} $j, ${i + 1} ${j + 1}, $i ${j + 1}, $i $j))")!
+  ];
+}
+
+List<Geometry> points(int n) {
+  return [
+    for (int i = 0; i < n; i++)
+      for (int j = 0; j < n; j++)
+        reader.read("POINT (${i + 0.5} ${j + 0.5})")!
+  ];
+}
+
+/// The pairs found by testing every pair.
+List<String> bruteForce(List<Geometry> left, List<Geometry> right, bool Function(Geometry, Geometry) pred) {
+  return [
+    for (int i = 0; i < left.length; i++)
+      for (int j = 0; j < right.length; j++)
+        if (pred(left[i], right[j])) "($i, $j)"
+  ];
+}
+
+List<String> sortedPairs(Iterable<JoinPair> pairs) {
+  List<String> result = [for (JoinPair p in pairs) p.toString()];
+  result.sort();
+  return result;
+}
+
+void testPredicates() {
+  List<Geometry> left = [
+    reader.read("POLYGON ((0.2 0.2, 2.8 0.2, 2.8 2.8, 0.2 2.8, 0.2 0.2))")!,
+    reader.read("LINESTRING (0 4.5, 5 4.5)")!,
+    reader.read("POINT (3.5 0.5)")!,
+  ];
+  List<Geometry> right = squares(5) + points(5);
+  Map<int, bool Function(Geometry, Geometry)> preds = {
+    SpatialJoin.INTERSECTS: (a, b) => a.intersects(b),
+    SpatialJoin.CONTAINS: (a, b) => a.contains(b),
+    SpatialJoin.WITHIN: (a, b) => a.within(b),
+    SpatialJoin.WITHIN_DISTANCE: (a, b) => a.isWithinDistance(b, 0.7),
+  };
+  preds.forEach((predicate, pred) {
+    List<String> expected = bruteForce(left, right, pred);
+    expected.sort();
+    for (int indexType in [SpatialJoin.INDEX_STRTREE, SpatialJoin.INDEX_HPRTREE]) {
+      SpatialJoin join = SpatialJoin(predicate, 0.7, indexType);
+      assertEquals(expected.toString(), sortedPairs(join.join(left, right)).toString());
+    }
+    SpatialJoin join = SpatialJoin(predicate, 0.7);
+    assertEquals(expected.toString(), sortedPairs(join.joinDualTree(left, right)).toString());
+  });
+}
+
+void testOrderAndLaziness() {
+  List<Geometry> right = squares(4);
+  int read = 0;
+  Iterable<Geometry> left = Iterable.generate(1000000, (i) {
+    read++;
+    return reader.read("POINT (${i % 4 + 0.5} 0.5)")!;
+  });
+  List<JoinPair> first = SpatialJoin(SpatialJoin.WITHIN).join(left, right).take(3).toList();
+  assertEquals("[(0, 0), (1, 4), (2, 8)]", first.toString());
+  assertTrue(read < 10);
+
+  // pairs for one left geometry are in right order
+  Geometry line = reader.read("LINESTRING (0.5 0.5, 3.5 0.5)")!;
+  assertEquals("[(0, 0), (0, 4), (0, 8), (0, 12)]",
+      SpatialJoin(SpatialJoin.INTERSECTS).join([line], right).toList().toString());
+}
+
+Future<void> testStream() async {
+  List<JoinPair> pairs = await SpatialJoin(SpatialJoin.WITHIN)
+      .joinStream(Stream.fromIterable(points(3)), squares(3)).toList();
+  assertEquals("[(0, 0), (1, 1), (2, 2), (3, 3), (4, 4), (5, 5), (6, 6), (7, 7), (8, 8)]", pairs.toString());
+}
+
+Future<void> testParallel() async {
+  List<Geometry> left = points(12);
+  List<Geometry> right = squares(12);
+  SpatialJoin join = SpatialJoin(SpatialJoin.WITHIN_DISTANCE, 0.6);
+  List<JoinPair> parallel = await ParallelSpatialJoin(join, 4).joinAll(left, right);
+  assertEquals(join.join(left, right).toList().toString(), parallel.toString());
+  assertTrue(identical(left[5], parallel.firstWhere((p) => p.leftIndex == 5).left));
+}
+
+Future<void> main() async {
+  testPredicates();
+  testOrderAndLaziness();
+  await testStream();
+  await testParallel();
+}
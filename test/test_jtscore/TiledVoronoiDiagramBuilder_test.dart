@@ -0,0 +1,114 @@
+import 'dart:math';
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/src/triangulate/ParallelTiledVoronoiDiagramBuilder.dart';
+import 'package:jtscore4dart/src/triangulate/TiledVoronoiDiagramBuilder.dart';
+
+import 'test.dart';
+
+/// Checks that the cells cover the clip envelope,
+/// and that every cell vertex is no closer to another site than to the cell site.
+void checkCells(Float64List xs, Float64List ys, List<Polygon> cells, Envelope clipEnv) {
+  double area = 0.0;
+  for (Polygon cell in cells) {
+    Coordinate site = cell.getUserData() as Coordinate;
+    area += cell.getArea();
+    for (Coordinate q in cell.getCoordinates()) {
+      double d = q.distance(site);
+      for (int i = 0; i < xs.length; i++) {
+        assertTrue(q.distance(Coordinate(xs[i], ys[i])) >= d - 1e-9 * clipEnv.getDiameter());
+      }
+    }
+  }
+  assertTrue((area - clipEnv.getArea()).abs() <= 1e-9 * clipEnv.getArea());
+}
+
+Future<void> testRandom() async {
+  Random random = Random(2);
+  int n = 400;
+  Float64List xs = Float64List(n);
+  Float64List ys = Float64List(n);
+  for (int i = 0; i < n; i++) {
+    xs[i] = random.nextDouble() * 100;
+    ys[i] = random.nextDouble() * 60;
+  }
+  // small tiles, so that many cells cross tile boundaries
+  TiledVoronoiDiagramBuilder builder = TiledVoronoiDiagramBuilder(xs, ys, 25);
+  assertTrue(builder.getNumTiles() > 10);
+  List<Polygon> cells = builder.getCells(GeometryFactory()).toList();
+  assertEquals(n, cells.length);
+  checkCells(xs, ys, cells, builder.getClipEnvelope());
+
+  List<Polygon> streamed = await ParallelTiledVoronoiDiagramBuilder(builder, 3)
+      .getCells(GeometryFactory()).toList();
+  assertEquals(cells.length, streamed.length);
+  for (int i = 0; i < cells.length; i++) {
+    assertTrue(cells[i].equalsExact(streamed[i]));
+  }
+}
+
+void testSingleTile() {
+  Random random = Random(3);
+  int n = 300;
+  Float64List xs = Float64List(n);
+  Float64List ys = Float64List(n);
+  for (int i = 0; i < n; i++) {
+    xs[i] = random.nextDouble() * 50;
+    ys[i] = random.nextDouble() * 50;
+  }
+  // a single tile is triangulated with all the sites, so it needs no halo
+  TiledVoronoiDiagramBuilder single = TiledVoronoiDiagramBuilder(xs, ys, n);
+  assertEquals(1, single.getNumTiles());
+  Map<Coordinate, double> expected = {};
+  for (Polygon cell in single.getCells(GeometryFactory())) {
+    expected[cell.getUserData() as Coordinate] = cell.getArea();
+  }
+  TiledVoronoiDiagramBuilder tiled = TiledVoronoiDiagramBuilder(xs, ys, 10);
+  List<Polygon> cells = tiled.getCells(GeometryFactory()).toList();
+  assertEquals(expected.length, cells.length);
+  for (Polygon cell in cells) {
+    double area = expected[cell.getUserData() as Coordinate]!;
+    assertTrue((cell.getArea() - area).abs() <= 1e-9 * area);
+  }
+}
+
+void testGridWithDuplicates() {
+  // cocircular sites, each given twice
+  List<Coordinate> sites = [];
+  for (int i = 0; i < 200; i++) {
+    sites.add(Coordinate((i % 100 % 10).toDouble(), (i % 100 ~/ 10).toDouble()));
+  }
+  TiledVoronoiDiagramBuilder builder = TiledVoronoiDiagramBuilder.fromCoordinates(sites, 16);
+  List<Polygon> cells = builder.getCells(GeometryFactory()).toList();
+  assertEquals(100, cells.length);
+  Float64List xs = Float64List.fromList([for (Coordinate p in sites) p.x]);
+  Float64List ys = Float64List.fromList([for (Coordinate p in sites) p.y]);
+  checkCells(xs, ys, cells, builder.getClipEnvelope());
+}
+
+void testClipEnvelope() {
+  TiledVoronoiDiagramBuilder builder = TiledVoronoiDiagramBuilder.fromCoordinates(
+      [Coordinate(0, 0), Coordinate(10, 0), Coordinate(5, 10)]);
+  builder.setClipEnvelope(Envelope(-5, 15, -5, 15));
+  List<Polygon> cells = builder.getCells(GeometryFactory()).toList();
+  assertEquals(3, cells.length);
+  assertEquals(400.0, cells.fold<double>(0.0, (sum, cell) => sum + cell.getArea()));
+}
+
+void testDegenerate() {
+  assertEquals(0, TiledVoronoiDiagramBuilder(Float64List(0), Float64List(0))
+      .getCells(GeometryFactory()).length);
+  // a single site has the whole clip envelope as its cell
+  TiledVoronoiDiagramBuilder single = TiledVoronoiDiagramBuilder.fromCoordinates([Coordinate(1, 1)]);
+  single.setClipEnvelope(Envelope(0, 2, 0, 2));
+  assertEquals(4.0, single.getCells(GeometryFactory()).first.getArea());
+}
+
+Future<void> main() async {
+  await testRandom();
+  testSingleTile();
+  testGridWithDuplicates();
+  testClipEnvelope();
+  testDegenerate();
+}
@@ -0,0 +1,174 @@
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequence.dart';
+
+import 'test.dart';
+
+/// Writes WKB records by hand, in either byte order.
+class WKBBuilder {
+  final BytesBuilder bytes = BytesBuilder();
+  Endian order = Endian.little;
+
+  void header(int type, [int? srid]) {
+    bytes.addByte(order == Endian.little ? 1 : 0);
+    writeInt(srid == null ? type : type | 0x20000000);
+    if (srid != null) writeInt(srid);
+  }
+
+  void writeInt(int v) {
+    ByteData d = ByteData(4)..setInt32(0, v, order);
+    bytes.add(d.buffer.asUint8List());
+  }
+
+  void writeCoords(List<double> ords) {
+    ByteData d = ByteData(8 * ords.length);
+    for (int i = 0; i < ords.length; i++) {
+      d.setFloat64(8 * i, ords[i], order);
+    }
+    bytes.add(d.buffer.asUint8List());
+  }
+
+  void point(double x, double y) {
+    header(1);
+    writeCoords([x, y]);
+  }
+
+  void lineString(List<double> ords) {
+    header(2);
+    writeInt(ords.length ~/ 2);
+    writeCoords(ords);
+  }
+
+  void polygon(List<List<double>> rings) {
+    header(3);
+    writeInt(rings.length);
+    for (List<double> ring in rings) {
+      writeInt(ring.length ~/ 2);
+      writeCoords(ring);
+    }
+  }
+}
+
+const List<double> SHELL = [0, 0, 10, 0, 10, 10, 0, 10, 0, 0];
+const List<double> HOLE = [2, 2, 4, 2, 4, 4, 2, 2];
+
+Uint8List createRecords() {
+  WKBBuilder b = WKBBuilder();
+  b.point(1, 2);
+  b.order = Endian.big;
+  b.lineString([0, 0, 5, 5, 10, 0]);
+  b.order = Endian.little;
+  b.polygon([SHELL, HOLE]);
+  // MultiPolygon with an SRID and members in mixed byte order
+  b.header(6, 4326);
+  b.writeInt(2);
+  b.polygon([SHELL]);
+  b.order = Endian.big;
+  b.polygon([SHELL, HOLE]);
+  // GeometryCollection holding a 3D point (ISO type 1001) and an empty collection
+  b.header(7);
+  b.writeInt(2);
+  b.header(1001);
+  b.writeCoords([1, 2, 3]);
+  b.header(7);
+  b.writeInt(0);
+  return b.bytes.toBytes();
+}
+
+Stream<List<int>> chunked(Uint8List bytes, int chunkSize) async* {
+  for (int i = 0; i < bytes.length; i += chunkSize) {
+    int end = i + chunkSize < bytes.length ? i + chunkSize : bytes.length;
+    yield bytes.sublist(i, end);
+  }
+}
+
+Future<void> testChunking(int chunkSize) async {
+  Uint8List bytes = createRecords();
+  List<Geometry> geoms = await WKBStreamReader().read(chunked(bytes, chunkSize)).toList();
+  assertEquals(5, geoms.length);
+  assertEquals("Point", geoms[0].getGeometryType());
+  assertEquals(2.0, geoms[0].getCoordinate()!.y);
+  assertEquals("LineString", geoms[1].getGeometryType());
+  assertEquals(3, geoms[1].getNumPoints());
+  assertEquals(98.0, geoms[2].getArea());
+  assertEquals("MultiPolygon", geoms[3].getGeometryType());
+  assertEquals(4326, geoms[3].getSRID());
+  assertEquals(198.0, geoms[3].getArea());
+  assertEquals(2, geoms[4].getNumGeometries());
+  assertEquals(3.0, geoms[4].getGeometryN(0).getCoordinate()!.z);
+  assertTrue(geoms[4].getGeometryN(1).isEmpty());
+  // ordinates are decoded into packed sequences
+  assertTrue((geoms[1] as LineString).getCoordinateSequence() is PackedCoordinateSequenceDouble);
+}
+
+Future<void> testTruncated() async {
+  Uint8List bytes = createRecords();
+  List<Geometry> geoms = [];
+  Object? error;
+  try {
+    await for (Geometry g in WKBStreamReader().read(chunked(bytes.sublist(0, bytes.length - 3), 16))) {
+      geoms.add(g);
+    }
+  }
+  catch (e) {
+    error = e;
+  }
+  assertEquals(4, geoms.length);
+  assertTrue(error is ParseException);
+}
+
+Future<Object?> readError(Uint8List bytes, [int maxFrameSize = WKBStreamReader.DEFAULT_MAX_FRAME_SIZE]) async {
+  try {
+    await WKBStreamReader(null, maxFrameSize).read(chunked(bytes, 16)).toList();
+  }
+  catch (e) {
+    return e;
+  }
+  return null;
+}
+
+Future<void> testCorruptCounts() async {
+  // a negative count
+  WKBBuilder b = WKBBuilder();
+  b.header(2);
+  b.writeInt(-5);
+  assertTrue(await readError(b.bytes.toBytes()) is ParseException);
+
+  // a huge count fails at once, without waiting for the rest of the stream
+  b = WKBBuilder();
+  b.header(2);
+  b.writeInt(0x7fffffff);
+  b.writeCoords([0, 0]);
+  assertTrue(await readError(b.bytes.toBytes()) is ParseException);
+
+  // a geometry larger than the configured maximum
+  b = WKBBuilder();
+  b.polygon([SHELL]);
+  Uint8List bytes = b.bytes.toBytes();
+  assertTrue(await readError(bytes, bytes.length - 1) is ParseException);
+  assertTrue(await readError(bytes, bytes.length) == null);
+}
+
+void testReader() {
+  WKBBuilder b = WKBBuilder();
+  b.polygon([SHELL, HOLE]);
+  Uint8List bytes = b.bytes.toBytes();
+  WKBReader reader = WKBReader();
+  Geometry g = reader.read(bytes);
+  assertEquals(98.0, g.getArea());
+  assertEquals(bytes.length, reader.getBytesRead());
+  assertTrue(reader.read(WKBReader.hexToBytes("0101000000000000000000F03F0000000000000040")).equalsExact(
+      GeometryFactory().createPoint(Coordinate(1, 2))));
+}
+
+Future<void> main() async {
+  testReader();
+  await testChunking(1);
+  await testChunking(7);
+  await testChunking(64);
+  await testChunking(1 << 20);
+  await testTruncated();
+  await testCorruptCounts();
+}
@@ -0,0 +1,69 @@
+import 'dart:typed_data';
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+
+import 'test.dart';
+
+Uint8List polygonWKB(Endian order) {
+  List<double> shell = [0, 0, 10, 0, 10, 10, 0, 10, 0, 0];
+  ByteData d = ByteData(1 + 4 + 4 + 4 + 8 * shell.length);
+  d.setUint8(0, order == Endian.little ? 1 : 0);
+  d.setInt32(1, 3, order);
+  d.setInt32(5, 1, order);
+  d.setInt32(9, shell.length ~/ 2, order);
+  for (int i = 0; i < shell.length; i++) {
+    d.setFloat64(13 + 8 * i, shell[i], order);
+  }
+  return d.buffer.asUint8List();
+}
+
+void testView(Endian order) {
+  Uint8List bytes = polygonWKB(order);
+  Polygon decoded = WKBReader().read(bytes) as Polygon;
+  Polygon view = WKBReader.view().read(bytes) as Polygon;
+  assertTrue(decoded.equalsExact(view));
+  assertTrue(decoded.getEnvelopeInternal().equals(view.getEnvelopeInternal()));
+
+  WKBCoordinateSequence seq = view.getExteriorRing().getCoordinateSequence() as WKBCoordinateSequence;
+  assertTrue(!seq.isCopied());
+  assertEquals(10.0, seq.getX(1));
+
+  // a copy made before the write still reads the original bytes
+  CoordinateSequence before = seq.copy();
+  Uint8List original = Uint8List.fromList(bytes);
+  seq.setOrdinate(1, 0, 20);
+  assertTrue(seq.isCopied());
+  assertEquals(20.0, seq.getX(1));
+  assertEquals(10.0, before.getX(1));
+  // the bytes are never written
+  bool unchanged = true;
+  for (int i = 0; i < bytes.length; i++) {
+    if (bytes[i] != original[i]) unchanged = false;
+  }
+  assertTrue(unchanged);
+}
+
+void testPrecisionModel() {
+  Uint8List bytes = polygonWKB(Endian.little);
+  ByteData.sublistView(bytes).setFloat64(13 + 16, 10.4, Endian.little);
+  GeometryFactory factory = GeometryFactory(PrecisionModel.Fixed(1));
+  Geometry view = WKBReader.view(factory).read(bytes);
+  assertEquals(10.0, view.getCoordinates()[1].x);
+}
+
+void testByteOrderValues() {
+  Uint8List buf = Uint8List(8);
+  ByteOrderValues.putDouble(1.5, buf, ByteOrderValues.LITTLE_ENDIAN);
+  assertEquals(1.5, ByteOrderValues.getDouble(buf, ByteOrderValues.LITTLE_ENDIAN));
+  ByteOrderValues.putInt(0x01020304, buf, ByteOrderValues.BIG_ENDIAN);
+  assertEquals(1, buf[0]);
+  assertEquals(0x04030201, ByteOrderValues.getInt(buf, ByteOrderValues.LITTLE_ENDIAN));
+}
+
+void main() {
+  testView(Endian.little);
+  testView(Endian.big);
+  testPrecisionModel();
+  testByteOrderValues();
+}
@@ -0,0 +1,117 @@
+import 'dart:math' as math;
+
+import 'package:jtscore4dart/geometry.dart';
+import 'package:jtscore4dart/io.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequence.dart';
+import 'package:jtscore4dart/src/geom/impl/PackedCoordinateSequenceFactory.dart';
+
+import 'test.dart';
+
+final GeometryFactory packedFactory =
+    GeometryFactory.withCoordinateSequenceFactory(PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+
+CoordinateSequence sequenceOf(Geometry g) {
+  if (g is Point) return g.getCoordinateSequence();
+  return (g as LineString).getCoordinateSequence();
+}
+
+void testGeometryTypes() {
+  WKTReader reader = WKTReader();
+  Geometry g = reader.read("POINT (1 2)")!;
+  assertEquals("Point", g.getGeometryType());
+  assertEquals(2.0, g.getCoordinate()!.y);
+  assertEquals(3, reader.read("LINESTRING(0 0,5 5,10 0)")!.getNumPoints());
+  assertEquals(98.0, reader.read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 4 2, 4 4, 2 2))")!.getArea());
+  assertEquals(2.0, reader.read("multipolygon (((0 0, 1 0, 1 1, 0 0)), ((5 5, 7 5, 7 7, 5 5)))")!.getArea());
+  assertEquals(2, reader.read("MULTILINESTRING ((0 0, 1 1), (2 2, 3 3))")!.getNumGeometries());
+  Geometry gc = reader.read("GEOMETRYCOLLECTION (POINT Z (1 2 3), LINESTRING EMPTY, GEOMETRYCOLLECTION EMPTY)")!;
+  assertEquals(3, gc.getNumGeometries());
+  assertEquals(3.0, gc.getGeometryN(0).getCoordinate()!.z);
+  assertTrue(gc.getGeometryN(1).isEmpty());
+  assertTrue(reader.read("POLYGON EMPTY")!.isEmpty());
+  assertTrue(reader.read("LINEARRING (0 0, 1 0, 1 1, 0 0)") is LinearRing);
+  assertEquals(null, reader.read("  \n "));
+}
+
+void testMultiPoint() {
+  WKTReader reader = WKTReader();
+  assertEquals(3, reader.read("MULTIPOINT ((1 2), (3 4), (5 6))")!.getNumGeometries());
+  assertEquals(3, reader.read("MULTIPOINT (1 2, 3 4, 5 6)")!.getNumGeometries());
+  assertTrue(reader.read("MULTIPOINT EMPTY")!.isEmpty());
+  reader.setIsOldJtsMultiPointSyntaxAllowed(false);
+  assertTrue(readFails(reader, "MULTIPOINT (1 2, 3 4)"));
+}
+
+void testOrdinates() {
+  WKTReader reader = WKTReader.withFactory(packedFactory);
+  CoordinateSequence xyzm = sequenceOf(reader.read("LINESTRING ZM (1 2 3 4, 5 6 7 8)")!);
+  assertEquals(4, xyzm.getDimension());
+  assertEquals(1, xyzm.getMeasures());
+  assertEquals(8.0, xyzm.getM(1));
+  CoordinateSequence xym = sequenceOf(reader.read("POINTM (1 2 4)")!);
+  assertEquals(3, xym.getDimension());
+  assertEquals(4.0, xym.getM(0));
+  // old JTS syntax: a third ordinate is Z, and a missing one is NaN
+  CoordinateSequence old = sequenceOf(reader.read("LINESTRING (1 2 3, 4 5)")!);
+  assertEquals(3.0, old.getZ(0));
+  assertTrue(old.getZ(1).isNaN);
+  reader.setIsOldJtsCoordinateSyntaxAllowed(false);
+  assertEquals(2, sequenceOf(reader.read("LINESTRING (1 2, 4 5)")!).getDimension());
+  assertTrue(readFails(reader, "LINESTRING (1 2 3, 4 5)"));
+  // ordinates are written straight into packed sequences
+  assertTrue(old is PackedCoordinateSequenceDouble);
+}
+
+void testNumbers() {
+  WKTReader reader = WKTReader();
+  Coordinate p = reader.read("POINT (-1.5e3 +2.25E-2)")!.getCoordinate()!;
+  assertEquals(-1500.0, p.x);
+  assertEquals(0.0225, p.y);
+  assertTrue(reader.read("POINT (nan NaN)")!.getCoordinate()!.x.isNaN);
+  assertEquals(0.5, reader.read("POINT (.5 5.)")!.getCoordinate()!.x);
+  // every value must round-trip exactly, including those with 17 digits
+  math.Random random = math.Random(1234);
+  for (int i = 0; i < 1000; i++) {
+    double x = (random.nextDouble() - 0.5) * math.pow(10, random.nextInt(30) - 10);
+    double y = random.nextDouble() * 1000;
+    Coordinate c = reader.read("POINT ($x $y)")!.getCoordinate()!;
+    assertTrue(c.x == x && c.y == y);
+  }
+  assertTrue(readFails(reader, "POINT (1.2.3 4)"));
+  assertTrue(readFails(reader, "POINT (1e 4)"));
+  assertTrue(readFails(reader, "POINT (abc 4)"));
+}
+
+void testPrecision() {
+  WKTReader reader = WKTReader.withFactory(GeometryFactory(PrecisionModel.Fixed(10)));
+  Coordinate p = reader.read("POINT (1.234 5.678)")!.getCoordinate()!;
+  assertEquals(1.2, p.x);
+  assertEquals(5.7, p.y);
+}
+
+void testErrors() {
+  WKTReader reader = WKTReader();
+  assertTrue(readFails(reader, "POINT (1 2"));
+  assertTrue(readFails(reader, "POINT 1 2)"));
+  assertTrue(readFails(reader, "CIRCLE (1 2)"));
+  assertTrue(readFails(reader, "POLYGON ((0 0, 1 0, 1 1))"));
+}
+
+bool readFails(WKTReader reader, String wkt) {
+  try {
+    reader.read(wkt);
+  }
+  catch (e) {
+    return true;
+  }
+  return false;
+}
+
+void main() {
+  testGeometryTypes();
+  testMultiPoint();
+  testOrdinates();
+  testNumbers();
+  testPrecision();
+  testErrors();
+}